@@ -7,9 +7,13 @@ import dev.joshlucem.nullithstudios.bestsupplies.listener.ChequeListener;
 import dev.joshlucem.nullithstudios.bestsupplies.listener.GuiListener;
 import dev.joshlucem.nullithstudios.bestsupplies.listener.PlayerListener;
 import dev.joshlucem.nullithstudios.bestsupplies.service.*;
+import dev.joshlucem.nullithstudios.bestsupplies.storage.AsyncDatabase;
 import dev.joshlucem.nullithstudios.bestsupplies.storage.Database;
+import dev.joshlucem.nullithstudios.bestsupplies.storage.InstrumentedDatabase;
+import dev.joshlucem.nullithstudios.bestsupplies.storage.LogDatabase;
 import dev.joshlucem.nullithstudios.bestsupplies.storage.MysqlDatabase;
 import dev.joshlucem.nullithstudios.bestsupplies.storage.SqliteDatabase;
+import dev.joshlucem.nullithstudios.bestsupplies.storage.WriteBehindDatabase;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.util.logging.Level;
@@ -20,6 +24,8 @@ public class BestSupplies extends JavaPlugin {
     
     private ConfigManager configManager;
     private Database database;
+    private InstrumentedDatabase instrumentedDatabase;
+    private AsyncDatabase asyncDatabase;
     private EconomyService economyService;
     
     private TimeService timeService;
@@ -29,6 +35,14 @@ public class BestSupplies extends JavaPlugin {
     private BankService bankService;
     private FoodService foodService;
     private PendingService pendingService;
+    private ProfileService profileService;
+    private LeaseService leaseService;
+    private ChangeBus changeBus;
+    private RetentionService retentionService;
+    private BackupService backupService;
+    private TransferService transferService;
+    private BulkResetService bulkResetService;
+    private RolloverService rolloverService;
     
     private GuiManager guiManager;
 
@@ -69,11 +83,14 @@ public class BestSupplies extends JavaPlugin {
         getServer().getPluginManager().registerEvents(new GuiListener(this), this);
         getServer().getPluginManager().registerEvents(new ChequeListener(this), this);
         getServer().getPluginManager().registerEvents(new PlayerListener(this), this);
+        getServer().getPluginManager().registerEvents(guiManager, this);
         
         // Register PlaceholderAPI expansion if available
         if (getServer().getPluginManager().isPluginEnabled("PlaceholderAPI") 
                 && configManager.isPlaceholderApiEnabled()) {
-            new BestSuppliesPlaceholders(this).register();
+            BestSuppliesPlaceholders placeholders = new BestSuppliesPlaceholders(this);
+            placeholders.register();
+            getServer().getPluginManager().registerEvents(placeholders, this);
             getLogger().info("PlaceholderAPI detectado y expansion registrada.");
         }
         
@@ -87,7 +104,35 @@ public class BestSupplies extends JavaPlugin {
             guiManager.shutdown();
         }
         
-        // Close database connection
+        if (retentionService != null) {
+            retentionService.shutdown();
+        }
+        if (backupService != null) {
+            backupService.shutdown();
+        }
+        if (rankService != null) {
+            rankService.shutdown();
+        }
+        if (timeService != null) {
+            timeService.shutdown();
+        }
+
+        // Publish the last profile changes while storage is still open
+        if (changeBus != null) {
+            changeBus.shutdown();
+        }
+
+        // Queue unsaved pending changes before the storage queue drains
+        if (pendingService != null) {
+            pendingService.shutdown();
+        }
+
+        // Drain queued storage work before closing the connection
+        if (asyncDatabase != null) {
+            asyncDatabase.shutdown();
+        }
+
+        // Flush buffered writes and close database connection
         if (database != null) {
             database.close();
         }
@@ -103,12 +148,32 @@ public class BestSupplies extends JavaPlugin {
     private boolean initializeDatabase() {
         try {
             String dbType = configManager.getDatabaseType();
-            if ("mysql".equalsIgnoreCase(dbType)) {
+            boolean mysql = "mysql".equalsIgnoreCase(dbType);
+            if (mysql) {
                 database = new MysqlDatabase(this, configManager);
+            } else if ("log".equalsIgnoreCase(dbType)) {
+                database = new LogDatabase(this, configManager);
             } else {
-                database = new SqliteDatabase(this);
+                database = new SqliteDatabase(this, configManager);
+            }
+            // Wrap the backend itself so the numbers are real storage time, not buffer hits
+            if (configManager.isStorageStatsEnabled()) {
+                instrumentedDatabase = new InstrumentedDatabase(this, database, configManager.getSlowQueryMillis());
+                database = instrumentedDatabase;
+            }
+            if (configManager.isWriteBehindEnabled()) {
+                database = new WriteBehindDatabase(this, database,
+                        configManager.getWriteBehindFlushInterval(),
+                        configManager.getWriteBehindMaxBuffered());
             }
             database.initialize();
+
+            // With a pool, run as many storage threads as there are connections to use
+            int threads = configManager.getDatabaseThreads();
+            if (mysql) {
+                threads = Math.max(threads, configManager.getMysqlPoolSize());
+            }
+            asyncDatabase = new AsyncDatabase(this, database, threads, configManager.getDatabaseQueueSize());
             return true;
         } catch (Exception e) {
             getLogger().log(Level.SEVERE, "Error inicializando base de datos", e);
@@ -117,13 +182,57 @@ public class BestSupplies extends JavaPlugin {
     }
 
     private void initializeServices() {
+        if (timeService != null) {
+            timeService.shutdown();
+        }
         timeService = new TimeService(configManager);
+        timeService.start(this);
+        // A fresh service also starts with an empty rank cache, so reloaded ranks apply at once
+        if (rankService != null) {
+            rankService.shutdown();
+        }
         rankService = new RankService(this, configManager);
-        pendingService = new PendingService(this, database);
+        rankService.start();
+        if (changeBus != null) {
+            changeBus.shutdown();
+        }
+        String serverId = configManager.getClusterServerId();
+        if (configManager.isClusterEnabled() && configManager.isClusterSyncEnabled()) {
+            changeBus = new DatabaseChangeBus(this, database, serverId,
+                    configManager.getClusterSyncPollInterval(), configManager.getClusterSyncBatchSize());
+        } else {
+            changeBus = new LoopbackChangeBus(serverId);
+        }
+        profileService = new ProfileService(this, asyncDatabase, timeService, changeBus);
+        changeBus.start(profileService::applyRemoteChange);
+        leaseService = new LeaseService(configManager);
+        if (pendingService != null) {
+            pendingService.shutdown();
+        }
+        pendingService = new PendingService(this, asyncDatabase, profileService);
         rewardService = new RewardService(this, configManager, pendingService);
-        dailyService = new DailyService(this, database, configManager, timeService, rewardService);
-        bankService = new BankService(this, database, configManager, timeService, rankService, rewardService, pendingService);
-        foodService = new FoodService(this, database, configManager, timeService, rankService, rewardService);
+        dailyService = new DailyService(this, asyncDatabase, configManager, timeService, rewardService, profileService, leaseService);
+        bankService = new BankService(this, asyncDatabase, configManager, timeService, rankService, rewardService, pendingService, profileService, leaseService);
+        foodService = new FoodService(this, asyncDatabase, configManager, timeService, rankService, rewardService, profileService);
+
+        if (retentionService != null) {
+            retentionService.shutdown();
+        }
+        retentionService = new RetentionService(this, database, configManager, timeService);
+        retentionService.start();
+        if (backupService != null) {
+            backupService.shutdown();
+        }
+        backupService = new BackupService(this, database, configManager);
+        backupService.start();
+        transferService = new TransferService(this, database, configManager);
+        bulkResetService = new BulkResetService(this, database, configManager);
+        rolloverService = new RolloverService(this, timeService, dailyService);
+        rolloverService.start();
+
+        // Players already online (plugin reload) need their profiles and mailboxes too
+        profileService.loadOnlinePlayers();
+        pendingService.loadOnlinePlayers();
     }
 
     public void reload() {
@@ -150,6 +259,17 @@ public class BestSupplies extends JavaPlugin {
         return database;
     }
 
+    /**
+     * Per-method storage stats, or null when database.stats is disabled.
+     */
+    public InstrumentedDatabase getInstrumentedDatabase() {
+        return instrumentedDatabase;
+    }
+
+    public AsyncDatabase getAsyncDatabase() {
+        return asyncDatabase;
+    }
+
     public EconomyService getEconomyService() {
         return economyService;
     }
@@ -182,6 +302,38 @@ public class BestSupplies extends JavaPlugin {
         return pendingService;
     }
 
+    public ProfileService getProfileService() {
+        return profileService;
+    }
+
+    public ChangeBus getChangeBus() {
+        return changeBus;
+    }
+
+    public LeaseService getLeaseService() {
+        return leaseService;
+    }
+
+    public RetentionService getRetentionService() {
+        return retentionService;
+    }
+
+    public BackupService getBackupService() {
+        return backupService;
+    }
+
+    public TransferService getTransferService() {
+        return transferService;
+    }
+
+    public BulkResetService getBulkResetService() {
+        return bulkResetService;
+    }
+
+    public RolloverService getRolloverService() {
+        return rolloverService;
+    }
+
     public GuiManager getGuiManager() {
         return guiManager;
     }
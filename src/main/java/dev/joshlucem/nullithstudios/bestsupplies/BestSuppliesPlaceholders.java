@@ -1,18 +1,28 @@
 package dev.joshlucem.nullithstudios.bestsupplies;
 
 import dev.joshlucem.nullithstudios.balance.api.BalanceApi;
+import dev.joshlucem.nullithstudios.bestsupplies.event.SuppliesRolloverEvent;
 import dev.joshlucem.nullithstudios.bestsupplies.model.PlayerState;
 import dev.joshlucem.nullithstudios.bestsupplies.model.RankDefinition;
 import dev.joshlucem.nullithstudios.bestsupplies.util.Text;
 import me.clip.placeholderapi.expansion.PlaceholderExpansion;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-public class BestSuppliesPlaceholders extends PlaceholderExpansion {
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class BestSuppliesPlaceholders extends PlaceholderExpansion implements Listener {
 
     private final BestSupplies plugin;
+    // Formatted payouts per rank for the current day and month, dropped when they roll over.
+    // Keyed by definition so a config reload, which builds new definitions, never hits old values.
+    private final Map<RankDefinition, String> todayAmounts = new ConcurrentHashMap<>();
+    private final Map<RankDefinition, String> monthTotals = new ConcurrentHashMap<>();
 
     public BestSuppliesPlaceholders(BestSupplies plugin) {
         this.plugin = plugin;
@@ -61,12 +71,23 @@ public class BestSuppliesPlaceholders extends PlaceholderExpansion {
             case "food_status" -> getFoodStatus(player);
             case "pending_count" -> getPendingCount(player);
             case "monthly_today_amount", "weekly_amount" -> getMonthlyTodayAmount(player);
+            case "monthly_total" -> getMonthlyTotal(player);
             case "next_daily" -> getNextDaily();
             case "next_weekly" -> getNextWeekly();
             default -> null;
         };
     }
 
+    @EventHandler
+    public void onRollover(SuppliesRolloverEvent event) {
+        if (event.isDaily()) {
+            todayAmounts.clear();
+        }
+        if (event.isMonthly()) {
+            monthTotals.clear();
+        }
+    }
+
     private String handleOfflinePlayer(OfflinePlayer offlinePlayer, String params) {
         if (params.equalsIgnoreCase("streak")) {
             PlayerState state = plugin.getDatabase().getPlayerState(offlinePlayer.getUniqueId().toString());
@@ -123,9 +144,26 @@ public class BestSuppliesPlaceholders extends PlaceholderExpansion {
     }
 
     private String getMonthlyTodayAmount(Player player) {
-        java.time.LocalDate today = plugin.getTimeService().getCurrentDate();
-        double amount = plugin.getBankService().getMonthlyAmount(player, today);
-        return Text.formatCurrency(BalanceApi.CurrencyType.SILVER, amount);
+        RankDefinition rank = plugin.getRankService().detectRank(player);
+        if (rank == null) {
+            return Text.formatCurrency(BalanceApi.CurrencyType.SILVER, 0);
+        }
+        return todayAmounts.computeIfAbsent(rank, r -> {
+            java.time.LocalDate today = plugin.getTimeService().getCurrentDate();
+            double amount = Math.max(0, r.getMonthlyAmount(today.getDayOfMonth()));
+            return Text.formatCurrency(BalanceApi.CurrencyType.SILVER, amount);
+        });
+    }
+
+    private String getMonthlyTotal(Player player) {
+        RankDefinition rank = plugin.getRankService().detectRank(player);
+        if (rank == null) {
+            return Text.formatCurrency(BalanceApi.CurrencyType.SILVER, 0);
+        }
+        return monthTotals.computeIfAbsent(rank, r -> {
+            double amount = r.getMonthlyTotal(plugin.getTimeService().getCurrentDate().lengthOfMonth());
+            return Text.formatCurrency(BalanceApi.CurrencyType.SILVER, amount);
+        });
     }
 
     private String getNextDaily() {
@@ -5,6 +5,16 @@ import dev.joshlucem.nullithstudios.bestsupplies.BestSupplies;
 import dev.joshlucem.nullithstudios.bestsupplies.model.PlayerState;
 import dev.joshlucem.nullithstudios.bestsupplies.model.RankDefinition;
 import dev.joshlucem.nullithstudios.bestsupplies.model.RationDefinition;
+import dev.joshlucem.nullithstudios.bestsupplies.service.BackupService;
+import dev.joshlucem.nullithstudios.bestsupplies.service.BulkResetService;
+import dev.joshlucem.nullithstudios.bestsupplies.service.DailyService;
+import dev.joshlucem.nullithstudios.bestsupplies.service.RankService;
+import dev.joshlucem.nullithstudios.bestsupplies.service.RetentionService;
+import dev.joshlucem.nullithstudios.bestsupplies.service.TransferService;
+import dev.joshlucem.nullithstudios.bestsupplies.storage.BulkReset;
+import dev.joshlucem.nullithstudios.bestsupplies.storage.InstrumentedDatabase;
+import dev.joshlucem.nullithstudios.bestsupplies.storage.MysqlDatabase;
+import dev.joshlucem.nullithstudios.bestsupplies.storage.PoolMetrics;
 import dev.joshlucem.nullithstudios.bestsupplies.util.Text;
 import org.bukkit.Bukkit;
 import org.bukkit.command.Command;
@@ -18,7 +28,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Level;
 
 public class SuppliesCommand implements CommandExecutor, TabCompleter {
 
@@ -151,6 +164,11 @@ public class SuppliesCommand implements CommandExecutor, TabCompleter {
             case "reset" -> handleReset(sender, args);
             case "givecheque" -> handleGiveCheque(sender, args);
             case "debug" -> handleDebug(sender, args);
+            case "retention" -> handleRetention(sender, args);
+            case "backup" -> handleBackup(sender, args);
+            case "export" -> handleExport(sender);
+            case "import" -> handleImport(sender, args);
+            case "stats" -> handleStats(sender, args);
             default -> {
                 sendAdminHelp(sender);
                 yield true;
@@ -164,8 +182,15 @@ public class SuppliesCommand implements CommandExecutor, TabCompleter {
         sender.sendMessage(Text.parse("<gray>/supplies admin reset daily <jugador></gray> - <white>Resetear diaria de hoy</white>"));
         sender.sendMessage(Text.parse("<gray>/supplies admin reset bank <jugador> [dia]</gray> - <white>Resetear banca mensual</white>"));
         sender.sendMessage(Text.parse("<gray>/supplies admin reset food <jugador> [rationId]</gray> - <white>Resetear raciones</white>"));
+        sender.sendMessage(Text.parse("<gray>/supplies admin reset <tipo> <@all|@rank:rango|@uuids:a,b|@file:archivo> [extra]</gray> - <white>Reset masivo, tambien a jugadores desconectados</white>"));
         sender.sendMessage(Text.parse("<gray>/supplies admin givecheque <jugador> <monto></gray> - <white>Dar cheque de plata</white>"));
         sender.sendMessage(Text.parse("<gray>/supplies admin debug <jugador></gray> - <white>Ver info de debug</white>"));
+        sender.sendMessage(Text.parse("<gray>/supplies admin retention [run|vacuum]</gray> - <white>Limpieza de datos antiguos; vacuum compacta todo una vez</white>"));
+        sender.sendMessage(Text.parse("<gray>/supplies admin backup [run]</gray> - <white>Copia de seguridad en caliente</white>"));
+        sender.sendMessage(Text.parse("<gray>/supplies admin export</gray> - <white>Exportar todos los datos a un archivo</white>"));
+        sender.sendMessage(Text.parse("<gray>/supplies admin import <archivo></gray> - <white>Importar datos exportados</white>"));
+        sender.sendMessage(Text.parse("<gray>/supplies admin stats storage [reset]</gray> - <white>Tiempos y errores del almacenamiento</white>"));
+        sender.sendMessage(Text.parse("<gray>/supplies admin stats ranks [reset]</gray> - <white>Aciertos de la cache de rangos</white>"));
     }
 
     private boolean handleReload(CommandSender sender) {
@@ -187,6 +212,9 @@ public class SuppliesCommand implements CommandExecutor, TabCompleter {
         }
 
         String resetType = args[2].toLowerCase();
+        if (args[3].startsWith("@")) {
+            return handleBulkReset(sender, resetType, args);
+        }
         Player target = Bukkit.getPlayer(args[3]);
 
         if (target == null) {
@@ -228,6 +256,91 @@ public class SuppliesCommand implements CommandExecutor, TabCompleter {
         return true;
     }
 
+    private boolean handleBulkReset(CommandSender sender, String resetType, String[] args) {
+        BulkResetService bulkReset = plugin.getBulkResetService();
+        if (bulkReset.isRunning()) {
+            sender.sendMessage(Text.parse("<red>Ya hay un reset masivo en curso.</red>"));
+            return true;
+        }
+
+        BulkReset reset;
+        String label;
+        switch (resetType) {
+            case "daily" -> {
+                reset = BulkReset.daily(plugin.getTimeService().getTodayKey());
+                label = "diaria de hoy";
+            }
+            case "bank" -> {
+                LocalDate date = plugin.getTimeService().getCurrentDate();
+                if (args.length > 4) {
+                    try {
+                        date = date.withDayOfMonth(Integer.parseInt(args[4]));
+                    } catch (Exception e) {
+                        sender.sendMessage(Text.parse("<red>Dia invalido para reset de banca.</red>"));
+                        return true;
+                    }
+                }
+                reset = BulkReset.monthlyDay(plugin.getTimeService().getMonthKey(date), 1 << (date.getDayOfMonth() - 1));
+                label = "banca del dia " + date.getDayOfMonth();
+            }
+            case "food" -> {
+                String rationId = args.length > 4 ? args[4] : null;
+                reset = BulkReset.food(rationId);
+                label = rationId != null ? "racion " + rationId : "todas las raciones";
+            }
+            default -> {
+                sender.sendMessage(Text.parse("<red>Tipo invalido. Usa: daily, bank, food</red>"));
+                return true;
+            }
+        }
+
+        String selector = args[3];
+        String uuidFile = null;
+        if (selector.equalsIgnoreCase("@all")) {
+            label += " de todos los jugadores";
+        } else if (selector.toLowerCase().startsWith("@rank:")) {
+            String rankId = selector.substring("@rank:".length()).toLowerCase();
+            if (!rankId.equals("default") && !plugin.getConfigManager().getRanks().containsKey(rankId)) {
+                sender.sendMessage(Text.parse("<red>Rango desconocido: " + rankId + "</red>"));
+                return true;
+            }
+            reset = reset.forRank(rankId);
+            label += " del rango " + rankId;
+        } else if (selector.toLowerCase().startsWith("@uuids:")) {
+            List<String> uuids = new ArrayList<>();
+            for (String value : selector.substring("@uuids:".length()).split(",")) {
+                try {
+                    uuids.add(UUID.fromString(value.trim()).toString());
+                } catch (IllegalArgumentException e) {
+                    sender.sendMessage(Text.parse("<red>UUID invalido: " + value + "</red>"));
+                    return true;
+                }
+            }
+            reset = reset.forPlayers(uuids);
+            label += " de " + uuids.size() + " jugadores";
+        } else if (selector.toLowerCase().startsWith("@file:")) {
+            uuidFile = selector.substring("@file:".length());
+            label += " de los jugadores en " + uuidFile;
+        } else {
+            sender.sendMessage(Text.parse("<red>Uso: /supplies admin reset <daily|bank|food> <@all|@rank:rango|@uuids:a,b|@file:archivo> [extra]</red>"));
+            return true;
+        }
+
+        sender.sendMessage(Text.parse("<gray>Reseteando " + label + "...</gray>"));
+        bulkReset.run(reset, uuidFile, line -> sendLater(sender, "<gray>" + line + "</gray>")).whenCompleteAsync((report, error) -> {
+            if (error != null) {
+                plugin.getLogger().log(Level.SEVERE, "Error en el reset masivo", error);
+                sender.sendMessage(Text.parse("<red>Error en el reset masivo: " + error.getMessage() + "</red>"));
+            } else if (report == null) {
+                sender.sendMessage(Text.parse("<red>Ya hay un reset masivo en curso.</red>"));
+            } else {
+                sender.sendMessage(Text.parse("<green>Reset masivo completado: " + report.getRows() + " filas en "
+                        + report.getStatements() + " sentencias (" + report.getDurationMs() + " ms).</green>"));
+            }
+        }, plugin.getAsyncDatabase().mainThread());
+        return true;
+    }
+
     private boolean handleGiveCheque(CommandSender sender, String[] args) {
         if (args.length < 4) {
             sender.sendMessage(Text.parse("<red>Uso: /supplies admin givecheque <jugador> <monto></red>"));
@@ -272,7 +385,22 @@ public class SuppliesCommand implements CommandExecutor, TabCompleter {
             return true;
         }
 
-        PlayerState state = plugin.getDailyService().getPlayerState(target);
+        DailyService dailyService = plugin.getDailyService();
+        dailyService.getPlayerStateAsync(target)
+                .thenCombine(dailyService.hasClaimedOnDateAsync(target, plugin.getTimeService().getCurrentDate()),
+                        (state, claimedToday) -> Map.entry(state, claimedToday))
+                .whenCompleteAsync((result, error) -> {
+                    if (error != null) {
+                        plugin.getLogger().log(Level.SEVERE, "Error al leer el estado de " + target.getName(), error);
+                        sender.sendMessage(Text.parse("<red>Error al leer el estado del jugador. Revisa la consola.</red>"));
+                    } else {
+                        sendDebug(sender, target, result.getKey(), result.getValue());
+                    }
+                }, plugin.getAsyncDatabase().mainThread());
+        return true;
+    }
+
+    private void sendDebug(CommandSender sender, Player target, PlayerState state, boolean claimedToday) {
         RankDefinition rank = plugin.getRankService().detectRank(target);
 
         Map<String, String> placeholders = new HashMap<>();
@@ -288,12 +416,237 @@ public class SuppliesCommand implements CommandExecutor, TabCompleter {
         sender.sendMessage(Text.parse(plugin.getConfigManager().getMessage("admin.debug-rank-id", placeholders)));
         sender.sendMessage(Text.parse(plugin.getConfigManager().getMessage("admin.debug-tag", placeholders)));
         sender.sendMessage(Text.parse("<gray>Banca pendiente: " + plugin.getBankService().hasPendingMonthlyClaims(target) + "</gray>"));
-        sender.sendMessage(Text.parse("<gray>Diaria reclamada hoy: " + plugin.getDailyService().hasClaimedToday(target) + "</gray>"));
+        sender.sendMessage(Text.parse("<gray>Diaria reclamada hoy: " + claimedToday + "</gray>"));
         sender.sendMessage(Text.parse("<gray>Pendientes: " + plugin.getPendingService().getPendingCount(target) + "</gray>"));
+    }
+
+    private boolean handleRetention(CommandSender sender, String[] args) {
+        RetentionService retention = plugin.getRetentionService();
+
+        if (args.length >= 3 && args[2].equalsIgnoreCase("vacuum")) {
+            return handleVacuum(sender, retention);
+        }
+
+        if (args.length < 3 || !args[2].equalsIgnoreCase("run")) {
+            sendRetentionReport(sender, retention.getLastReport());
+            return true;
+        }
+
+        if (retention.isRunning()) {
+            sender.sendMessage(Text.parse("<red>Ya hay una limpieza en curso.</red>"));
+            return true;
+        }
+
+        sender.sendMessage(Text.parse("<gray>Limpiando datos antiguos...</gray>"));
+        retention.runNow().whenCompleteAsync((report, error) -> {
+            if (error != null) {
+                plugin.getLogger().log(Level.SEVERE, "Error en la limpieza de datos antiguos", error);
+                sender.sendMessage(Text.parse("<red>Error en la limpieza. Revisa la consola.</red>"));
+            } else if (report == null) {
+                sender.sendMessage(Text.parse("<red>Ya hay una limpieza en curso.</red>"));
+            } else {
+                sendRetentionReport(sender, report);
+            }
+        }, plugin.getAsyncDatabase().mainThread());
+        return true;
+    }
+
+    private boolean handleVacuum(CommandSender sender, RetentionService retention) {
+        if (retention.isRunning()) {
+            sender.sendMessage(Text.parse("<red>Ya hay una limpieza en curso.</red>"));
+            return true;
+        }
 
+        sender.sendMessage(Text.parse("<gray>Compactando la base de datos completa; el almacenamiento queda bloqueado mientras dure...</gray>"));
+        retention.compactNow().whenCompleteAsync((bytes, error) -> {
+            if (error != null) {
+                plugin.getLogger().log(Level.SEVERE, "Error en la compactacion completa", error);
+                sender.sendMessage(Text.parse("<red>Error en la compactacion. Revisa la consola.</red>"));
+            } else if (bytes == null) {
+                sender.sendMessage(Text.parse("<red>Ya hay una limpieza en curso.</red>"));
+            } else if (bytes < 0) {
+                sender.sendMessage(Text.parse("<red>Este almacenamiento no admite compactacion completa o ha fallado. Revisa la consola.</red>"));
+            } else {
+                sender.sendMessage(Text.parse("<green>Compactacion completada: " + bytes / 1024L + " KB liberados.</green>"));
+            }
+        }, plugin.getAsyncDatabase().mainThread());
         return true;
     }
 
+    private void sendRetentionReport(CommandSender sender, RetentionService.Report report) {
+        if (report == null) {
+            sender.sendMessage(Text.parse("<gray>Aun no se ha ejecutado ninguna limpieza.</gray>"));
+            return;
+        }
+        sender.sendMessage(Text.parse("<gold>=== Limpieza de datos ===</gold>"));
+        for (Map.Entry<String, Integer> entry : report.getDeleted().entrySet()) {
+            sender.sendMessage(Text.parse("<gray>" + entry.getKey() + ":</gray> <white>" + entry.getValue() + " filas</white>"));
+        }
+        sender.sendMessage(Text.parse("<gray>Espacio liberado:</gray> <white>" + report.getReclaimedBytes() / 1024L + " KB</white>"));
+        sender.sendMessage(Text.parse("<gray>Duracion:</gray> <white>" + report.getDurationMs() + " ms</white>"));
+    }
+
+    private boolean handleBackup(CommandSender sender, String[] args) {
+        BackupService backup = plugin.getBackupService();
+        if (!backup.isSupported()) {
+            sender.sendMessage(Text.parse("<red>Las copias de MySQL se hacen desde el propio servidor de base de datos.</red>"));
+            return true;
+        }
+
+        if (args.length < 3 || !args[2].equalsIgnoreCase("run")) {
+            sendBackupReport(sender, backup.getLastReport());
+            return true;
+        }
+
+        if (backup.isRunning()) {
+            sender.sendMessage(Text.parse("<red>Ya hay una copia de seguridad en curso.</red>"));
+            return true;
+        }
+
+        sender.sendMessage(Text.parse("<gray>Creando copia de seguridad...</gray>"));
+        backup.runNow().whenCompleteAsync((report, error) -> {
+            if (error != null) {
+                plugin.getLogger().log(Level.SEVERE, "Error en la copia de seguridad", error);
+                sender.sendMessage(Text.parse("<red>Error en la copia de seguridad. Revisa la consola.</red>"));
+            } else if (report == null) {
+                sender.sendMessage(Text.parse("<red>Ya hay una copia de seguridad en curso.</red>"));
+            } else {
+                sendBackupReport(sender, report);
+            }
+        }, plugin.getAsyncDatabase().mainThread());
+        return true;
+    }
+
+    private void sendBackupReport(CommandSender sender, BackupService.Report report) {
+        if (report == null) {
+            sender.sendMessage(Text.parse("<gray>Aun no se ha creado ninguna copia de seguridad.</gray>"));
+            return;
+        }
+        sender.sendMessage(Text.parse("<gold>=== Copia de seguridad ===</gold>"));
+        sender.sendMessage(Text.parse("<gray>Archivo:</gray> <white>backups/" + report.getFileName() + "</white>"));
+        sender.sendMessage(Text.parse("<gray>Tamano:</gray> <white>" + report.getBytes() / 1024L + " KB</white>"));
+        sender.sendMessage(Text.parse("<gray>Duracion:</gray> <white>" + report.getDurationMs() + " ms</white>"));
+        sender.sendMessage(Text.parse("<gray>Copias antiguas borradas:</gray> <white>" + report.getDeletedBackups() + "</white>"));
+    }
+
+    private boolean handleExport(CommandSender sender) {
+        TransferService transfer = plugin.getTransferService();
+        if (transfer.isRunning()) {
+            sender.sendMessage(Text.parse("<red>Ya hay una exportacion o importacion en curso.</red>"));
+            return true;
+        }
+
+        sender.sendMessage(Text.parse("<gray>Exportando datos...</gray>"));
+        transfer.exportAll(line -> sendLater(sender, "<gray>" + line + "</gray>")).whenCompleteAsync((fileName, error) -> {
+            if (error != null) {
+                plugin.getLogger().log(Level.SEVERE, "Error exportando datos", error);
+                sender.sendMessage(Text.parse("<red>Error en la exportacion. Revisa la consola.</red>"));
+            } else if (fileName == null) {
+                sender.sendMessage(Text.parse("<red>Ya hay una exportacion o importacion en curso.</red>"));
+            } else {
+                sender.sendMessage(Text.parse("<green>Datos exportados a exports/" + fileName + "</green>"));
+            }
+        }, plugin.getAsyncDatabase().mainThread());
+        return true;
+    }
+
+    private boolean handleImport(CommandSender sender, String[] args) {
+        if (args.length < 3) {
+            sender.sendMessage(Text.parse("<red>Uso: /supplies admin import <archivo></red>"));
+            return true;
+        }
+
+        TransferService transfer = plugin.getTransferService();
+        if (transfer.isRunning()) {
+            sender.sendMessage(Text.parse("<red>Ya hay una exportacion o importacion en curso.</red>"));
+            return true;
+        }
+
+        sender.sendMessage(Text.parse("<gray>Importando " + args[2] + "...</gray>"));
+        transfer.importFile(args[2], line -> sendLater(sender, "<gray>" + line + "</gray>")).whenCompleteAsync((inserted, error) -> {
+            if (error != null) {
+                plugin.getLogger().log(Level.SEVERE, "Error importando datos", error);
+                sender.sendMessage(Text.parse("<red>Error en la importacion: " + error.getMessage() + "</red>"));
+            } else if (inserted == null) {
+                sender.sendMessage(Text.parse("<red>Ya hay una exportacion o importacion en curso.</red>"));
+            } else {
+                sender.sendMessage(Text.parse("<green>Importacion completada: " + inserted + " filas nuevas.</green>"));
+            }
+        }, plugin.getAsyncDatabase().mainThread());
+        return true;
+    }
+
+    private boolean handleStats(CommandSender sender, String[] args) {
+        if (args.length >= 3 && args[2].equalsIgnoreCase("ranks")) {
+            return handleRankStats(sender, args);
+        }
+        if (args.length < 3 || !args[2].equalsIgnoreCase("storage")) {
+            sender.sendMessage(Text.parse("<red>Uso: /supplies admin stats <storage|ranks> [reset]</red>"));
+            return true;
+        }
+
+        InstrumentedDatabase stats = plugin.getInstrumentedDatabase();
+        if (stats == null) {
+            sender.sendMessage(Text.parse("<red>Las estadisticas de almacenamiento estan desactivadas (database.stats.enabled).</red>"));
+            return true;
+        }
+
+        if (args.length >= 4 && args[3].equalsIgnoreCase("reset")) {
+            stats.reset();
+            sender.sendMessage(Text.parse("<green>Estadisticas de almacenamiento reiniciadas.</green>"));
+            return true;
+        }
+
+        long minutes = (System.currentTimeMillis() - stats.getSince()) / 60_000L;
+        sender.sendMessage(Text.parse("<gold>=== Almacenamiento (" + plugin.getConfigManager().getDatabaseType()
+                + ", ultimos " + minutes + " min) ===</gold>"));
+        List<InstrumentedDatabase.MethodStats> methods = stats.getMethodStats();
+        if (methods.isEmpty()) {
+            sender.sendMessage(Text.parse("<gray>Aun no hay operaciones registradas.</gray>"));
+        }
+        for (InstrumentedDatabase.MethodStats method : methods) {
+            sender.sendMessage(Text.parse(String.format(Locale.ROOT,
+                    "<gray>%s:</gray> <white>%d llamadas, media %.2f ms, p95 %.2f ms, p99 %.2f ms, max %.1f ms, filas %d</white>%s",
+                    method.getMethod(), method.getCalls(), method.getAverageMillis(), method.getPercentileMillis(95),
+                    method.getPercentileMillis(99), method.getMaxMillis(), method.getRows(),
+                    method.getErrors() > 0 ? " <red>errores " + method.getErrors() + "</red>" : "")));
+        }
+        sender.sendMessage(Text.parse("<gray>Consultas lentas (> " + stats.getSlowQueryMillis() + " ms):</gray> <white>"
+                + stats.getSlowQueries() + "</white>"));
+        if (stats.getDelegate() instanceof MysqlDatabase mysql) {
+            PoolMetrics pool = mysql.getPoolMetrics();
+            sender.sendMessage(Text.parse("<gray>Pool MySQL:</gray> <white>" + pool.summary() + "</white>"));
+            if (mysql.getReplicaCount() > 0) {
+                sender.sendMessage(Text.parse("<gray>Replicas de lectura:</gray> <white>" + mysql.getReplicaCount() + "</white>"));
+            }
+        }
+        return true;
+    }
+
+    private boolean handleRankStats(CommandSender sender, String[] args) {
+        RankService ranks = plugin.getRankService();
+        if (args.length >= 4 && args[3].equalsIgnoreCase("reset")) {
+            ranks.resetCacheStats();
+            sender.sendMessage(Text.parse("<green>Estadisticas de la cache de rangos reiniciadas.</green>"));
+            return true;
+        }
+
+        long hits = ranks.getCacheHits();
+        long misses = ranks.getCacheMisses();
+        long total = hits + misses;
+        sender.sendMessage(Text.parse("<gold>=== Cache de rangos ===</gold>"));
+        sender.sendMessage(Text.parse("<gray>Jugadores en cache:</gray> <white>" + ranks.getCachedPlayers() + "</white>"));
+        sender.sendMessage(Text.parse(String.format(Locale.ROOT,
+                "<gray>Aciertos:</gray> <white>%d</white> <gray>Fallos:</gray> <white>%d</white> <gray>Tasa:</gray> <white>%.1f%%</white>",
+                hits, misses, total == 0 ? 0.0 : hits * 100.0 / total)));
+        sender.sendMessage(Text.parse("<gray>LuckPerms:</gray> <white>" + (ranks.isLuckPermsHooked() ? "conectado" : "no disponible") + "</white>"));
+        return true;
+    }
+
+    private void sendLater(CommandSender sender, String message) {
+        plugin.getServer().getScheduler().runTask(plugin, () -> sender.sendMessage(Text.parse(message)));
+    }
+
     @Override
     public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
         List<String> completions = new ArrayList<>();
@@ -305,11 +658,30 @@ public class SuppliesCommand implements CommandExecutor, TabCompleter {
             }
         } else if (args.length == 2 && args[0].equalsIgnoreCase("admin")) {
             if (sender.hasPermission("bestsupplies.admin")) {
-                completions.addAll(Arrays.asList("reload", "reset", "givecheque", "debug"));
+                completions.addAll(Arrays.asList("reload", "reset", "givecheque", "debug", "retention", "backup", "export", "import", "stats"));
             }
         } else if (args.length == 3 && args[0].equalsIgnoreCase("admin") && args[1].equalsIgnoreCase("reset")) {
             completions.addAll(Arrays.asList("daily", "bank", "food"));
+        } else if (args.length == 3 && args[0].equalsIgnoreCase("admin")
+                && (args[1].equalsIgnoreCase("retention") || args[1].equalsIgnoreCase("backup"))) {
+            completions.add("run");
+            if (args[1].equalsIgnoreCase("retention")) {
+                completions.add("vacuum");
+            }
+        } else if (args.length == 3 && args[0].equalsIgnoreCase("admin") && args[1].equalsIgnoreCase("stats")) {
+            completions.addAll(Arrays.asList("storage", "ranks"));
+        } else if (args.length == 4 && args[0].equalsIgnoreCase("admin") && args[1].equalsIgnoreCase("stats")) {
+            completions.add("reset");
+        } else if (args.length == 3 && args[0].equalsIgnoreCase("admin") && args[1].equalsIgnoreCase("import")
+                && sender.hasPermission("bestsupplies.admin")) {
+            completions.addAll(plugin.getTransferService().listExports());
         } else if (args.length == 4 && args[0].equalsIgnoreCase("admin")) {
+            if (args[1].equalsIgnoreCase("reset")) {
+                completions.addAll(Arrays.asList("@all", "@uuids:", "@file:"));
+                for (String rankId : plugin.getConfigManager().getRanks().keySet()) {
+                    completions.add("@rank:" + rankId);
+                }
+            }
             for (Player player : Bukkit.getOnlinePlayers()) {
                 completions.add(player.getName());
             }
@@ -4,6 +4,7 @@ import dev.joshlucem.nullithstudios.bestsupplies.BestSupplies;
 import dev.joshlucem.nullithstudios.bestsupplies.model.DailyRewardDefinition;
 import dev.joshlucem.nullithstudios.bestsupplies.model.FoodPackDefinition;
 import dev.joshlucem.nullithstudios.bestsupplies.model.RankDefinition;
+import dev.joshlucem.nullithstudios.bestsupplies.model.RankOrder;
 import dev.joshlucem.nullithstudios.bestsupplies.model.RationDefinition;
 import dev.joshlucem.nullithstudios.bestsupplies.model.StreakMilestone;
 import org.bukkit.Material;
@@ -48,6 +49,7 @@ public class ConfigManager {
     private Map<Integer, StreakMilestone> streakMilestones;
     private List<String> rankPriority;
     private Map<String, RankDefinition> ranks;
+    private RankOrder rankOrder;
     private List<RationDefinition> rations;
     private Map<String, String> rankTags;
     private Map<String, String> itemTranslations;
@@ -63,6 +65,7 @@ public class ConfigManager {
         loadConfig();
         loadDailyConfig();
         loadRanksConfig();
+        indexRanks();
         loadMessagesConfig();
         loadTagsConfig();
         loadItemTranslations();
@@ -271,6 +274,16 @@ public class ConfigManager {
         }
     }
 
+    /**
+     * Build the rank ordinal table and resolve each ration's rank requirements against it.
+     */
+    private void indexRanks() {
+        rankOrder = RankOrder.of(rankPriority, ranks);
+        for (RationDefinition ration : rations) {
+            ration.indexRanks(rankOrder);
+        }
+    }
+
     private RankDefinition parseRank(String id, ConfigurationSection section) {
         List<String> permissions = new ArrayList<>();
 
@@ -581,6 +594,210 @@ public class ConfigManager {
         return config.getInt("database.mysql.pool-size", 10);
     }
 
+    public int getMysqlMinimumIdle() {
+        return config.getInt("database.mysql.pool.minimum-idle", 2);
+    }
+
+    public long getMysqlConnectionTimeout() {
+        return config.getLong("database.mysql.pool.connection-timeout-ms", 5000L);
+    }
+
+    public long getMysqlValidationTimeout() {
+        return config.getLong("database.mysql.pool.validation-timeout-ms", 3000L);
+    }
+
+    public long getMysqlMaxLifetime() {
+        return config.getLong("database.mysql.pool.max-lifetime-ms", 1800000L);
+    }
+
+    public long getMysqlIdleTimeout() {
+        return config.getLong("database.mysql.pool.idle-timeout-ms", 600000L);
+    }
+
+    public long getMysqlKeepaliveTime() {
+        return config.getLong("database.mysql.pool.keepalive-ms", 300000L);
+    }
+
+    public long getMysqlLeakDetectionThreshold() {
+        return config.getLong("database.mysql.pool.leak-detection-ms", 10000L);
+    }
+
+    public List<String> getMysqlReplicaHosts() {
+        return config.getStringList("database.mysql.replicas.hosts");
+    }
+
+    public int getMysqlReplicaPoolSize() {
+        return config.getInt("database.mysql.replicas.pool-size", 5);
+    }
+
+    public long getMysqlReadYourWritesMillis() {
+        return config.getLong("database.mysql.replicas.read-your-writes-ms", 2000L);
+    }
+
+    public boolean isSqlitePerformanceMode() {
+        return config.getBoolean("database.sqlite.performance-mode", true);
+    }
+
+    public String getSqliteSynchronous() {
+        return config.getString("database.sqlite.synchronous", "NORMAL");
+    }
+
+    public int getSqliteCacheSizeKb() {
+        return config.getInt("database.sqlite.cache-size-kb", 16384);
+    }
+
+    public int getSqliteMmapSizeMb() {
+        return config.getInt("database.sqlite.mmap-size-mb", 256);
+    }
+
+    public int getSqliteBusyTimeout() {
+        return config.getInt("database.sqlite.busy-timeout-ms", 5000);
+    }
+
+    public int getSqliteStatementCacheSize() {
+        return config.getInt("database.sqlite.statement-cache-size", 64);
+    }
+
+    public int getSqliteWalAutocheckpoint() {
+        return config.getInt("database.sqlite.wal-autocheckpoint-pages", 1000);
+    }
+
+    public int getSqliteCheckpointInterval() {
+        return config.getInt("database.sqlite.checkpoint-interval-seconds", 300);
+    }
+
+    public int getLogSegmentSizeMb() {
+        return config.getInt("database.log.segment-size-mb", 16);
+    }
+
+    public long getLogSyncInterval() {
+        return config.getLong("database.log.sync-interval-ms", 1000L);
+    }
+
+    public int getLogCompactThresholdMb() {
+        return config.getInt("database.log.compact-threshold-mb", 64);
+    }
+
+    public int getDatabaseThreads() {
+        return config.getInt("database.async.threads", 2);
+    }
+
+    public int getDatabaseQueueSize() {
+        return config.getInt("database.async.queue-size", 1000);
+    }
+
+    public boolean isStorageStatsEnabled() {
+        return config.getBoolean("database.stats.enabled", true);
+    }
+
+    public long getSlowQueryMillis() {
+        return config.getLong("database.stats.slow-query-ms", 50L);
+    }
+
+    public boolean isWriteBehindEnabled() {
+        return config.getBoolean("database.write-behind.enabled", true);
+    }
+
+    public long getWriteBehindFlushInterval() {
+        return config.getLong("database.write-behind.flush-interval-ms", 500L);
+    }
+
+    public int getWriteBehindMaxBuffered() {
+        return config.getInt("database.write-behind.max-buffered", 500);
+    }
+
+    public boolean isClusterEnabled() {
+        return config.getBoolean("database.cluster.enabled", false);
+    }
+
+    public String getClusterServerId() {
+        return config.getString("database.cluster.server-id", "server-1");
+    }
+
+    public long getClusterLeaseMillis() {
+        return config.getLong("database.cluster.lease-ms", 10000L);
+    }
+
+    public boolean isClusterSyncEnabled() {
+        return config.getBoolean("database.cluster.sync.enabled", true);
+    }
+
+    public long getClusterSyncPollInterval() {
+        return config.getLong("database.cluster.sync.poll-interval-ms", 1000L);
+    }
+
+    public int getClusterSyncBatchSize() {
+        return config.getInt("database.cluster.sync.batch-size", 500);
+    }
+
+    public int getClusterSyncRetentionMinutes() {
+        return config.getInt("database.cluster.sync.retention-minutes", 60);
+    }
+
+    public boolean isRetentionEnabled() {
+        return config.getBoolean("database.retention.enabled", true);
+    }
+
+    public int getRetentionIntervalHours() {
+        return config.getInt("database.retention.interval-hours", 6);
+    }
+
+    public int getRetentionBatchSize() {
+        return config.getInt("database.retention.batch-size", 500);
+    }
+
+    public long getRetentionBatchPause() {
+        return config.getLong("database.retention.batch-pause-ms", 50L);
+    }
+
+    public int getRetentionDailyClaimsDays() {
+        return config.getInt("database.retention.daily-claims-days", 60);
+    }
+
+    public int getRetentionWeeklyClaimsDays() {
+        return config.getInt("database.retention.weekly-claims-days", 90);
+    }
+
+    public int getRetentionMonthlyClaimsMonths() {
+        return config.getInt("database.retention.monthly-claims-months", 6);
+    }
+
+    public int getRetentionRedeemedChequesDays() {
+        return config.getInt("database.retention.redeemed-cheques-days", 30);
+    }
+
+    public int getRetentionPendingDays() {
+        return config.getInt("database.retention.pending-days", 0);
+    }
+
+    public boolean isRetentionVacuumEnabled() {
+        return config.getBoolean("database.retention.sqlite-incremental-vacuum", true);
+    }
+
+    public int getRetentionVacuumPages() {
+        return config.getInt("database.retention.vacuum-pages", 2000);
+    }
+
+    public boolean isBackupEnabled() {
+        return config.getBoolean("database.backup.enabled", true);
+    }
+
+    public int getBackupIntervalHours() {
+        return config.getInt("database.backup.interval-hours", 24);
+    }
+
+    public int getBackupKeep() {
+        return config.getInt("database.backup.keep", 7);
+    }
+
+    public int getTransferBatchSize() {
+        return config.getInt("database.transfer.batch-size", 1000);
+    }
+
+    public int getBulkResetChunkSize() {
+        return config.getInt("database.bulk-reset.chunk-size", 5000);
+    }
+
     public String getGuiTitle(String guiName) {
         return config.getString("gui-titles." + guiName, guiName);
     }
@@ -631,6 +848,10 @@ public class ConfigManager {
         return rankPriority;
     }
 
+    public RankOrder getRankOrder() {
+        return rankOrder;
+    }
+
     public Map<String, RankDefinition> getRanks() {
         return ranks;
     }
@@ -0,0 +1,53 @@
+package dev.joshlucem.nullithstudios.bestsupplies.event;
+
+import dev.joshlucem.nullithstudios.bestsupplies.service.TimeService;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Fired on the main thread right after the day, weekly period or month rolls over in the
+ * configured timezone, once cached player state has been brought up to date. Listeners can
+ * drop anything they derived from the previous period instead of polling the clock.
+ */
+public class SuppliesRolloverEvent extends Event {
+
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    private final TimeService.PeriodKeys previous;
+    private final TimeService.PeriodKeys current;
+
+    public SuppliesRolloverEvent(TimeService.PeriodKeys previous, TimeService.PeriodKeys current) {
+        this.previous = previous;
+        this.current = current;
+    }
+
+    public TimeService.PeriodKeys getPrevious() {
+        return previous;
+    }
+
+    public TimeService.PeriodKeys getCurrent() {
+        return current;
+    }
+
+    public boolean isDaily() {
+        return !previous.todayKey().equals(current.todayKey());
+    }
+
+    public boolean isWeekly() {
+        return !previous.weeklyPeriodKey().equals(current.weeklyPeriodKey());
+    }
+
+    public boolean isMonthly() {
+        return !previous.monthKey().equals(current.monthKey());
+    }
+
+    @Override
+    public @NotNull HandlerList getHandlers() {
+        return HANDLERS;
+    }
+
+    public static HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+}
@@ -66,6 +66,10 @@ public class BankGui extends BaseGui {
 
     private void buildMonthDays(List<LocalDate> monthDays) {
         int start = page * DAY_SLOTS.length;
+        // All days share one month, so one mask read answers every slot
+        int claimedMask = monthDays.isEmpty() ? 0 : plugin.getBankService().getMonthlyClaimMask(player, monthDays.get(0));
+        // Likewise one rank lookup prices every day
+        double[] schedule = monthDays.isEmpty() ? new double[1] : plugin.getBankService().getMonthlySchedule(player, monthDays.get(0));
 
         for (int i = 0; i < DAY_SLOTS.length; i++) {
             int slot = DAY_SLOTS[i];
@@ -77,27 +81,28 @@ public class BankGui extends BaseGui {
             }
 
             LocalDate date = monthDays.get(index);
-            BankService.MonthlyDayStatus status = plugin.getBankService().getMonthlyDayStatus(player, date);
+            BankService.MonthlyDayStatus status = plugin.getBankService().getMonthlyDayStatus(date, claimedMask);
 
             if (status == BankService.MonthlyDayStatus.AVAILABLE) {
-                setItem(slot, createDayItem(date, status), event -> {
-                    BankService.MonthlyClaimResult result = plugin.getBankService().claimMonthlyDay(player, date);
-                    if (result == BankService.MonthlyClaimResult.SUCCESS) {
-                        rebuild();
-                    }
+                setItem(slot, createDayItem(date, status, schedule[date.getDayOfMonth()]), event -> {
+                    plugin.getBankService().claimMonthlyDay(player, date).thenAccept(result -> {
+                        if (result == BankService.MonthlyClaimResult.SUCCESS) {
+                            rebuild();
+                        }
+                    });
                 });
             } else {
-                setItem(slot, createDayItem(date, status));
+                setItem(slot, createDayItem(date, status, schedule[date.getDayOfMonth()]));
             }
         }
     }
 
-    private ItemStack createDayItem(LocalDate date, BankService.MonthlyDayStatus status) {
+    private ItemStack createDayItem(LocalDate date, BankService.MonthlyDayStatus status, double amount) {
         String monthName = date.getMonth().getDisplayName(TextStyle.FULL, Locale.forLanguageTag("es")).toLowerCase(Locale.ROOT);
         Map<String, String> placeholders = Map.of(
                 "%day%", String.valueOf(date.getDayOfMonth()),
                 "%month%", monthName,
-                "%amount%", Text.formatCurrency(BalanceApi.CurrencyType.SILVER, plugin.getBankService().getMonthlyAmount(player, date))
+                "%amount%", Text.formatCurrency(BalanceApi.CurrencyType.SILVER, amount)
         );
 
         if (status == BankService.MonthlyDayStatus.LOCKED) {
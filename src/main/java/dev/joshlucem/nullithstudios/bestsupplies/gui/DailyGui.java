@@ -137,19 +137,19 @@ public class DailyGui extends BaseGui {
     }
 
     private void claimToday() {
-        DailyService.ClaimResult result = plugin.getDailyService().claimDaily(player);
-
-        if (result == DailyService.ClaimResult.SUCCESS) {
-            rebuild();
-            return;
-        }
+        plugin.getDailyService().claimDaily(player).thenAccept(result -> {
+            if (result == DailyService.ClaimResult.SUCCESS) {
+                rebuild();
+                return;
+            }
 
-        if (result == DailyService.ClaimResult.ALREADY_CLAIMED) {
-            Text.sendPrefixed(
-                    player,
-                    plugin.getConfigManager().getMessage("daily.already-claimed"),
-                    plugin.getConfigManager()
-            );
-        }
+            if (result == DailyService.ClaimResult.ALREADY_CLAIMED) {
+                Text.sendPrefixed(
+                        player,
+                        plugin.getConfigManager().getMessage("daily.already-claimed"),
+                        plugin.getConfigManager()
+                );
+            }
+        });
     }
 }
@@ -64,10 +64,11 @@ public class FoodGui extends BaseGui {
             FoodService.RationStatus status = plugin.getFoodService().getRationStatus(player, ration);
             if (status == FoodService.RationStatus.READY) {
                 setItem(slot, createRationItem(ration, status), event -> {
-                    FoodService.ClaimResult result = plugin.getFoodService().claimRation(player, ration.getId());
-                    if (result == FoodService.ClaimResult.SUCCESS) {
-                        rebuild();
-                    }
+                    plugin.getFoodService().claimRation(player, ration.getId()).thenAccept(result -> {
+                        if (result == FoodService.ClaimResult.SUCCESS) {
+                            rebuild();
+                        }
+                    });
                 });
             } else {
                 setItem(slot, createRationItem(ration, status));
@@ -76,7 +77,7 @@ public class FoodGui extends BaseGui {
     }
 
     private ItemStack createRationItem(RationDefinition ration, FoodService.RationStatus status) {
-        String rankId = plugin.getRankService().detectRankId(player);
+        int rankOrdinal = plugin.getRankService().detectRankOrdinal(player);
         List<String> lore = new ArrayList<>(ration.getDescription());
 
         if (!lore.isEmpty()) {
@@ -115,8 +116,8 @@ public class FoodGui extends BaseGui {
             case READY -> {
                 lore.add("<green>Clic para reclamar.</green>");
 
-                List<String> fixedRewards = ration.resolveRewards(rankId);
-                List<String> randomRewards = ration.resolveRandomRewards(rankId);
+                List<String> fixedRewards = ration.resolveRewards(rankOrdinal);
+                List<String> randomRewards = ration.resolveRandomRewards(rankOrdinal);
                 appendRewardsPreview(lore, fixedRewards, randomRewards, ration.getRandomPicks());
 
                 return ItemParser.createItem(
@@ -1,14 +1,18 @@
 package dev.joshlucem.nullithstudios.bestsupplies.gui;
 
 import dev.joshlucem.nullithstudios.bestsupplies.BestSupplies;
+import dev.joshlucem.nullithstudios.bestsupplies.event.SuppliesRolloverEvent;
 import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
 import org.bukkit.scheduler.BukkitTask;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 
-public class GuiManager {
+public class GuiManager implements Listener {
 
     private final BestSupplies plugin;
     private final Map<UUID, BaseGui> openGuis;
@@ -90,6 +94,16 @@ public class GuiManager {
         openGuis.remove(player.getUniqueId());
     }
 
+    // Open menus show the new day's and period's status as soon as it starts
+    @EventHandler
+    public void onRollover(SuppliesRolloverEvent event) {
+        for (BaseGui gui : new ArrayList<>(openGuis.values())) {
+            if (gui.getPlayer().isOnline()) {
+                gui.rebuild();
+            }
+        }
+    }
+
     private void startUpdateTask(Player player, BaseGui gui) {
         stopUpdateTask(player);
 
@@ -67,8 +67,7 @@ public class PendingGui extends BaseGui {
 
             PendingEntry entry = entries.get(index);
             setItem(slot, createEntryItem(entry), event -> {
-                plugin.getPendingService().withdrawPending(player, entry);
-                rebuild();
+                plugin.getPendingService().withdrawPending(player, entry).thenAccept(withdrawn -> rebuild());
             });
         }
     }
@@ -5,7 +5,9 @@ import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 
 public class PlayerListener implements Listener {
 
@@ -19,6 +21,13 @@ public class PlayerListener implements Listener {
     public void onPlayerJoin(PlayerJoinEvent event) {
         Player player = event.getPlayer();
 
+        // Permissions may have changed while the player was away
+        plugin.getRankService().invalidate(player);
+
+        // Load claims, cooldowns and pending count in one read so menus render from memory
+        plugin.getProfileService().load(player);
+        plugin.getPendingService().loadMailbox(player);
+
         // Schedule async check for streak
         plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
             if (player.isOnline()) {
@@ -26,16 +35,30 @@ public class PlayerListener implements Listener {
                 plugin.getDailyService().checkAndUpdateStreak(player);
 
                 // Notify if there are pending deliveries
-                int pendingCount = plugin.getPendingService().getPendingCount(player);
-                if (pendingCount > 0) {
-                    var placeholders = java.util.Map.of("%count%", String.valueOf(pendingCount));
-                    dev.joshlucem.nullithstudios.bestsupplies.util.Text.sendPrefixed(
-                        player,
-                        plugin.getConfigManager().getMessage("pending.items-pending", placeholders),
-                        plugin.getConfigManager()
-                    );
-                }
+                plugin.getPendingService().getPendingCountAsync(player).thenAcceptAsync(pendingCount -> {
+                    if (pendingCount > 0 && player.isOnline()) {
+                        var placeholders = java.util.Map.of("%count%", String.valueOf(pendingCount));
+                        dev.joshlucem.nullithstudios.bestsupplies.util.Text.sendPrefixed(
+                            player,
+                            plugin.getConfigManager().getMessage("pending.items-pending", placeholders),
+                            plugin.getConfigManager()
+                        );
+                    }
+                }, plugin.getAsyncDatabase().mainThread());
             }
         }, 40L); // 2 seconds delay
     }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        plugin.getProfileService().evict(event.getPlayer());
+        plugin.getPendingService().unloadMailbox(event.getPlayer());
+        plugin.getRankService().invalidate(event.getPlayer());
+    }
+
+    // Permission plugins can grant ranks per world
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+        plugin.getRankService().invalidate(event.getPlayer());
+    }
 }
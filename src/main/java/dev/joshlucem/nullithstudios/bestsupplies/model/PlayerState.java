@@ -24,6 +24,13 @@ public class PlayerState {
         this.lastRank = lastRank;
     }
 
+    /**
+     * An independent copy, for snapshots that must not see later changes to this object.
+     */
+    public PlayerState copy() {
+        return new PlayerState(playerUuid, streak, lastDailyDate, lastSeenDate, lastRank);
+    }
+
     public String getPlayerUuid() {
         return playerUuid;
     }
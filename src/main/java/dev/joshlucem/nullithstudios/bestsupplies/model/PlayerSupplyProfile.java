@@ -0,0 +1,122 @@
+package dev.joshlucem.nullithstudios.bestsupplies.model;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory snapshot of everything the GUIs and placeholders need for one player.
+ * Claim data is only complete for dates on or after {@link #getCoveredFrom()}.
+ */
+public class PlayerSupplyProfile {
+
+    private final String playerUuid;
+    private final String coveredFrom;
+    private volatile PlayerState state;
+    private final Set<String> dailyClaims = ConcurrentHashMap.newKeySet();
+    private final Set<String> weeklyClaims = ConcurrentHashMap.newKeySet();
+    private final Map<String, Integer> monthlyClaims = new ConcurrentHashMap<>();
+    private final Map<String, Long> foodClaims = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+
+    public PlayerSupplyProfile(String playerUuid, String coveredFrom, PlayerState state) {
+        this.playerUuid = playerUuid;
+        this.coveredFrom = coveredFrom;
+        this.state = state;
+    }
+
+    public String getPlayerUuid() {
+        return playerUuid;
+    }
+
+    public String getCoveredFrom() {
+        return coveredFrom;
+    }
+
+    /**
+     * Whether claims for the given date key (yyyy-MM-dd...) were loaded into this profile.
+     */
+    public boolean covers(String dateKey) {
+        return dateKey != null && dateKey.compareTo(coveredFrom) >= 0;
+    }
+
+    public PlayerState getState() {
+        return state;
+    }
+
+    public void setState(PlayerState state) {
+        this.state = state;
+    }
+
+    public boolean hasDailyClaim(String date) {
+        return dailyClaims.contains(date);
+    }
+
+    public void setDailyClaim(String date, boolean claimed) {
+        if (claimed) {
+            dailyClaims.add(date);
+        } else {
+            dailyClaims.remove(date);
+        }
+    }
+
+    public boolean hasWeeklyClaim(String weekKey) {
+        return weeklyClaims.contains(weekKey);
+    }
+
+    public void setWeeklyClaim(String weekKey, boolean claimed) {
+        if (claimed) {
+            weeklyClaims.add(weekKey);
+        } else {
+            weeklyClaims.remove(weekKey);
+        }
+    }
+
+    /**
+     * Whether the monthly claim mask of the given month (yyyy-MM) was loaded into this profile.
+     */
+    public boolean coversMonth(String month) {
+        return month != null && month.compareTo(coveredFrom.substring(0, 7)) >= 0;
+    }
+
+    public int getMonthlyClaimMask(String month) {
+        return monthlyClaims.getOrDefault(month, 0);
+    }
+
+    public void setMonthlyClaimMask(String month, int mask) {
+        monthlyClaims.put(month, mask);
+    }
+
+    public void updateMonthlyClaimMask(String month, int setBits, int clearBits) {
+        monthlyClaims.merge(month, setBits, (mask, ignored) -> (mask & ~clearBits) | setBits);
+    }
+
+    public long getFoodClaimNextAt(String packId) {
+        return foodClaims.getOrDefault(packId, 0L);
+    }
+
+    public void setFoodClaimNextAt(String packId, long nextClaimAt) {
+        foodClaims.put(packId, nextClaimAt);
+    }
+
+    public void resetFoodClaim(String packId) {
+        foodClaims.remove(packId);
+    }
+
+    public void resetAllFoodClaims() {
+        foodClaims.clear();
+    }
+
+    public int getPendingCount() {
+        return pendingCount.get();
+    }
+
+    public void setPendingCount(int count) {
+        pendingCount.set(Math.max(0, count));
+    }
+
+    public void addPendingCount(int delta) {
+        pendingCount.updateAndGet(current -> Math.max(0, current + delta));
+    }
+}
@@ -0,0 +1,81 @@
+package dev.joshlucem.nullithstudios.bestsupplies.model;
+
+/**
+ * One change to a player's cached supply profile, published so other servers sharing the
+ * database can patch their copy. The key and value depend on the kind:
+ * DAILY date and 1/0, WEEKLY period and 1/0, MONTHLY month and packed set/clear bits,
+ * FOOD pack id (null for all packs) and next claim time, PENDING count delta,
+ * STATE no payload (the row is re-read), RELOAD no payload (the whole profile is loaded
+ * again, for every online player when the uuid is {@link #ALL_PLAYERS}).
+ */
+public class ProfileChange {
+
+    public enum Kind {
+        DAILY,
+        WEEKLY,
+        MONTHLY,
+        FOOD,
+        PENDING,
+        STATE,
+        RELOAD
+    }
+
+    // The player column is required, so changes for everyone carry the nil uuid
+    public static final String ALL_PLAYERS = "00000000-0000-0000-0000-000000000000";
+
+    private final long id;
+    private final String serverId;
+    private final String playerUuid;
+    private final Kind kind;
+    private final String key;
+    private final long value;
+
+    public ProfileChange(long id, String serverId, String playerUuid, Kind kind, String key, long value) {
+        this.id = id;
+        this.serverId = serverId;
+        this.playerUuid = playerUuid;
+        this.kind = kind;
+        this.key = key;
+        this.value = value;
+    }
+
+    public static ProfileChange monthly(String serverId, String playerUuid, String month, int setBits, int clearBits) {
+        long packed = ((long) clearBits << 32) | (setBits & 0xFFFFFFFFL);
+        return new ProfileChange(0, serverId, playerUuid, Kind.MONTHLY, month, packed);
+    }
+
+    /**
+     * Feed position, assigned by storage. 0 until the change has been written.
+     */
+    public long getId() {
+        return id;
+    }
+
+    public String getServerId() {
+        return serverId;
+    }
+
+    public String getPlayerUuid() {
+        return playerUuid;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getValue() {
+        return value;
+    }
+
+    public int getSetBits() {
+        return (int) value;
+    }
+
+    public int getClearBits() {
+        return (int) (value >>> 32);
+    }
+}
@@ -20,6 +20,10 @@ public class RankDefinition {
     private final double monthlyStep;
     private final Map<Integer, Double> monthlyOverrides;
 
+    // Payout per day of month (index 0 unused) and running totals, fixed when the rank is loaded
+    private final double[] monthlyPayouts = new double[32];
+    private final double[] monthlyCumulative = new double[32];
+
     public RankDefinition(String id,
                           List<String> permissions,
                           String displayName,
@@ -49,6 +53,12 @@ public class RankDefinition {
         this.monthlyBase = monthlyBase;
         this.monthlyStep = monthlyStep;
         this.monthlyOverrides = monthlyOverrides != null ? monthlyOverrides : Map.of();
+
+        for (int day = 1; day < monthlyPayouts.length; day++) {
+            Double override = this.monthlyOverrides.get(day);
+            monthlyPayouts[day] = override != null ? override : monthlyBase + ((day - 1) * monthlyStep);
+            monthlyCumulative[day] = monthlyCumulative[day - 1] + Math.max(0, monthlyPayouts[day]);
+        }
     }
 
     public String getId() {
@@ -104,12 +114,20 @@ public class RankDefinition {
     }
 
     public double getMonthlyAmount(int dayOfMonth) {
-        if (dayOfMonth <= 0) {
-            return 0;
-        }
-        if (monthlyOverrides.containsKey(dayOfMonth)) {
-            return monthlyOverrides.get(dayOfMonth);
-        }
-        return monthlyBase + ((dayOfMonth - 1) * monthlyStep);
+        return dayOfMonth > 0 && dayOfMonth < monthlyPayouts.length ? monthlyPayouts[dayOfMonth] : 0;
+    }
+
+    /**
+     * Payout table indexed by day of month (index 0 unused). Returns a copy.
+     */
+    public double[] getMonthlyPayouts() {
+        return monthlyPayouts.clone();
+    }
+
+    /**
+     * What a month of the given length pays when every day is claimed; negative days count as zero.
+     */
+    public double getMonthlyTotal(int daysInMonth) {
+        return monthlyCumulative[Math.max(0, Math.min(daysInMonth, monthlyCumulative.length - 1))];
     }
 }
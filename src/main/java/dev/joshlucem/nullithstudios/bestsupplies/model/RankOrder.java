@@ -0,0 +1,87 @@
+package dev.joshlucem.nullithstudios.bestsupplies.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable rank index built once per config load. Ranks in the priority list get ordinals
+ * 0..n-1 from highest to lowest, defined ranks outside the list come after them, so rank
+ * comparisons and per-rank lookups are plain int work instead of list scans.
+ */
+public final class RankOrder {
+
+    public static final int UNRANKED = -1;
+
+    private final Map<String, Integer> ordinals;
+    private final RankDefinition[] ranks;
+    private final int prioritized;
+
+    private RankOrder(Map<String, Integer> ordinals, RankDefinition[] ranks, int prioritized) {
+        this.ordinals = ordinals;
+        this.ranks = ranks;
+        this.prioritized = prioritized;
+    }
+
+    public static RankOrder of(List<String> priority, Map<String, RankDefinition> definitions) {
+        Map<String, Integer> ordinals = new HashMap<>();
+        List<RankDefinition> ranks = new ArrayList<>();
+        for (String rankId : priority) {
+            String key = rankId.toLowerCase();
+            if (ordinals.putIfAbsent(key, ranks.size()) == null) {
+                // Listed but undefined ranks keep their place, so requirements naming them still compare
+                ranks.add(definitions.get(key));
+            }
+        }
+        int prioritized = ranks.size();
+        for (Map.Entry<String, RankDefinition> entry : definitions.entrySet()) {
+            if (ordinals.putIfAbsent(entry.getKey(), ranks.size()) == null) {
+                ranks.add(entry.getValue());
+            }
+        }
+        return new RankOrder(Collections.unmodifiableMap(ordinals), ranks.toArray(new RankDefinition[0]), prioritized);
+    }
+
+    /**
+     * Ordinal of the rank id, or {@link #UNRANKED} if it is neither listed nor defined.
+     */
+    public int ordinalOf(String rankId) {
+        if (rankId == null) {
+            return UNRANKED;
+        }
+        Integer ordinal = ordinals.get(rankId);
+        if (ordinal == null) {
+            ordinal = ordinals.get(rankId.toLowerCase());
+        }
+        return ordinal != null ? ordinal : UNRANKED;
+    }
+
+    /**
+     * Definition at the ordinal, or null for an unranked ordinal or a listed rank without a definition.
+     */
+    public RankDefinition get(int ordinal) {
+        return ordinal >= 0 && ordinal < ranks.length ? ranks[ordinal] : null;
+    }
+
+    public int size() {
+        return ranks.length;
+    }
+
+    /**
+     * Ranks taken from the priority list, which occupy ordinals 0 to this count minus one.
+     */
+    public int getPrioritizedCount() {
+        return prioritized;
+    }
+
+    /**
+     * True if both ranks are in the priority list and the first is the required one or higher.
+     */
+    public boolean isAtLeast(int ordinal, int requiredOrdinal) {
+        return ordinal >= 0 && requiredOrdinal >= 0
+                && ordinal < prioritized && requiredOrdinal < prioritized
+                && ordinal <= requiredOrdinal;
+    }
+}
@@ -1,5 +1,6 @@
 package dev.joshlucem.nullithstudios.bestsupplies.model;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -20,6 +21,11 @@ public class RationDefinition {
     private final Map<String, List<String>> randomRewardsByRank;
     private final int randomPicks;
 
+    // Filled by indexRanks once the ranks are loaded; lists are indexed by rank ordinal
+    private int requiredRankOrdinal = RankOrder.UNRANKED;
+    private List<List<String>> rewardsByOrdinal = List.of();
+    private List<List<String>> randomRewardsByOrdinal = List.of();
+
     public RationDefinition(String id,
                             int order,
                             String icon,
@@ -100,17 +106,41 @@ public class RationDefinition {
         return randomPicks;
     }
 
-    public List<String> resolveRewards(String rankId) {
-        if (rankId != null && rewardsByRank.containsKey(rankId)) {
-            return rewardsByRank.get(rankId);
-        }
-        return baseRewards;
+    /**
+     * Ordinal of the required minimum rank, or {@link RankOrder#UNRANKED} if there is none
+     * or it names an unknown rank.
+     */
+    public int getRequiredRankOrdinal() {
+        return requiredRankOrdinal;
+    }
+
+    /**
+     * Resolve the minimum rank and the per-rank reward lists against the loaded rank order.
+     * Called by the config loader whenever ranks are (re)loaded.
+     */
+    public void indexRanks(RankOrder order) {
+        requiredRankOrdinal = order.ordinalOf(requiredMinRank);
+        rewardsByOrdinal = byOrdinal(order, rewardsByRank, baseRewards);
+        randomRewardsByOrdinal = byOrdinal(order, randomRewardsByRank, randomRewards);
+    }
+
+    private static List<List<String>> byOrdinal(RankOrder order, Map<String, List<String>> byRank, List<String> fallback) {
+        List<List<String>> lists = new ArrayList<>(Collections.nCopies(order.size(), fallback));
+        byRank.forEach((rankId, rewards) -> {
+            int ordinal = order.ordinalOf(rankId);
+            if (ordinal != RankOrder.UNRANKED) {
+                lists.set(ordinal, rewards);
+            }
+        });
+        return List.copyOf(lists);
+    }
+
+    public List<String> resolveRewards(int rankOrdinal) {
+        return rankOrdinal >= 0 && rankOrdinal < rewardsByOrdinal.size() ? rewardsByOrdinal.get(rankOrdinal) : baseRewards;
     }
 
-    public List<String> resolveRandomRewards(String rankId) {
-        if (rankId != null && randomRewardsByRank.containsKey(rankId)) {
-            return randomRewardsByRank.get(rankId);
-        }
-        return randomRewards;
+    public List<String> resolveRandomRewards(int rankOrdinal) {
+        return rankOrdinal >= 0 && rankOrdinal < randomRewardsByOrdinal.size()
+                ? randomRewardsByOrdinal.get(rankOrdinal) : randomRewards;
     }
 }
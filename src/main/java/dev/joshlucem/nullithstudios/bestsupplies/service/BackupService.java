@@ -0,0 +1,191 @@
+package dev.joshlucem.nullithstudios.bestsupplies.service;
+
+import dev.joshlucem.nullithstudios.bestsupplies.BestSupplies;
+import dev.joshlucem.nullithstudios.bestsupplies.config.ConfigManager;
+import dev.joshlucem.nullithstudios.bestsupplies.storage.Database;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+
+/**
+ * Scheduled hot copies of the local database file into the backups folder, keeping the
+ * newest few. The copy itself is made by the backend while the server keeps running;
+ * this service only names, rotates and reports them from a Bukkit async task.
+ */
+public class BackupService {
+
+    private static final String PREFIX = "bestsupplies-";
+    private static final DateTimeFormatter FILE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final BestSupplies plugin;
+    private final Database database;
+    private final ConfigManager configManager;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private volatile boolean stopped;
+    private volatile Report lastReport;
+    private BukkitTask task;
+
+    public BackupService(BestSupplies plugin, Database database, ConfigManager configManager) {
+        this.plugin = plugin;
+        this.database = database;
+        this.configManager = configManager;
+    }
+
+    /**
+     * MySQL has no local file; its backups belong to the database server.
+     */
+    public boolean isSupported() {
+        return !"mysql".equalsIgnoreCase(configManager.getDatabaseType());
+    }
+
+    public void start() {
+        if (!isSupported() || !configManager.isBackupEnabled() || configManager.getBackupIntervalHours() <= 0) {
+            return;
+        }
+        long period = configManager.getBackupIntervalHours() * 60L * 60L * 20L;
+        task = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, this::runQuietly, period, period);
+    }
+
+    public void shutdown() {
+        stopped = true;
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public Report getLastReport() {
+        return lastReport;
+    }
+
+    public File getBackupFolder() {
+        return new File(plugin.getDataFolder(), "backups");
+    }
+
+    /**
+     * Make a backup now on an async task. Completes with null if one is already running.
+     */
+    public CompletableFuture<Report> runNow() {
+        CompletableFuture<Report> future = new CompletableFuture<>();
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                future.complete(run());
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    private void runQuietly() {
+        try {
+            run();
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.SEVERE, "Error en la copia de seguridad", e);
+        }
+    }
+
+    private Report run() throws IOException {
+        if (stopped || !running.compareAndSet(false, true)) {
+            return null;
+        }
+        try {
+            Path folder = getBackupFolder().toPath();
+            Files.createDirectories(folder);
+            String extension = "log".equalsIgnoreCase(configManager.getDatabaseType()) ? ".bin" : ".db";
+            Path target = folder.resolve(PREFIX + LocalDateTime.now().format(FILE_FORMAT) + extension);
+            Path partial = folder.resolve(target.getFileName() + ".part");
+
+            long start = System.currentTimeMillis();
+            long bytes = database.backupTo(partial);
+            if (bytes < 0) {
+                Files.deleteIfExists(partial);
+                throw new IOException("El almacenamiento no pudo crear la copia");
+            }
+            // Only a complete copy ever carries the final name, so rotation never counts a broken one
+            Files.move(partial, target);
+            int deleted = rotate(folder, Math.max(1, configManager.getBackupKeep()));
+
+            Report report = new Report(target.getFileName().toString(), bytes, deleted,
+                    System.currentTimeMillis() - start, System.currentTimeMillis());
+            lastReport = report;
+            plugin.getLogger().info("Copia de seguridad " + report.getFileName() + " creada: "
+                    + report.getBytes() / 1024L + " KB en " + report.getDurationMs() + " ms"
+                    + (deleted > 0 ? ", " + deleted + " copias antiguas borradas." : "."));
+            return report;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private int rotate(Path folder, int keep) throws IOException {
+        List<Path> backups = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(folder, PREFIX + "*")) {
+            for (Path path : stream) {
+                if (!path.getFileName().toString().endsWith(".part")) {
+                    backups.add(path);
+                }
+            }
+        }
+        // Timestamped names sort oldest first
+        backups.sort(null);
+        int deleted = 0;
+        for (int i = 0; i < backups.size() - keep; i++) {
+            Files.deleteIfExists(backups.get(i));
+            deleted++;
+        }
+        return deleted;
+    }
+
+    public static class Report {
+        private final String fileName;
+        private final long bytes;
+        private final int deletedBackups;
+        private final long durationMs;
+        private final long finishedAt;
+
+        public Report(String fileName, long bytes, int deletedBackups, long durationMs, long finishedAt) {
+            this.fileName = fileName;
+            this.bytes = bytes;
+            this.deletedBackups = deletedBackups;
+            this.durationMs = durationMs;
+            this.finishedAt = finishedAt;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public int getDeletedBackups() {
+            return deletedBackups;
+        }
+
+        public long getDurationMs() {
+            return durationMs;
+        }
+
+        public long getFinishedAt() {
+            return finishedAt;
+        }
+    }
+}
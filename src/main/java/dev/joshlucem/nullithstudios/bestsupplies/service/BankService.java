@@ -4,8 +4,10 @@ import dev.joshlucem.nullithstudios.balance.api.BalanceApi;
 import dev.joshlucem.nullithstudios.bestsupplies.BestSupplies;
 import dev.joshlucem.nullithstudios.bestsupplies.config.ConfigManager;
 import dev.joshlucem.nullithstudios.bestsupplies.model.ChequeData;
+import dev.joshlucem.nullithstudios.bestsupplies.model.PlayerSupplyProfile;
 import dev.joshlucem.nullithstudios.bestsupplies.model.RankDefinition;
-import dev.joshlucem.nullithstudios.bestsupplies.storage.Database;
+import dev.joshlucem.nullithstudios.bestsupplies.storage.AsyncDatabase;
+import dev.joshlucem.nullithstudios.bestsupplies.storage.ClaimUnit;
 import dev.joshlucem.nullithstudios.bestsupplies.util.ItemParser;
 import dev.joshlucem.nullithstudios.bestsupplies.util.Text;
 import net.kyori.adventure.text.Component;
@@ -22,34 +24,45 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
 
 public class BankService {
 
-    private static final String MONTHLY_KEY_PREFIX = "month:";
-
     private final BestSupplies plugin;
-    private final Database database;
+    private final AsyncDatabase asyncDatabase;
     private final ConfigManager configManager;
     private final TimeService timeService;
     private final RankService rankService;
     private final RewardService rewardService;
     private final PendingService pendingService;
+    private final ProfileService profileService;
+    private final LeaseService leaseService;
 
     private final NamespacedKey chequeIdKey;
     private final NamespacedKey chequeAmountKey;
     private final NamespacedKey chequeWeekKey;
     private final NamespacedKey chequePlayerKey;
 
-    public BankService(BestSupplies plugin, Database database, ConfigManager configManager,
-                       TimeService timeService, RankService rankService,
-                       RewardService rewardService, PendingService pendingService) {
+    private final Set<UUID> claimsInProgress = ConcurrentHashMap.newKeySet();
+    private final Set<String> redeemsInProgress = ConcurrentHashMap.newKeySet();
+
+    public BankService(BestSupplies plugin, AsyncDatabase asyncDatabase,
+                       ConfigManager configManager, TimeService timeService, RankService rankService,
+                       RewardService rewardService, PendingService pendingService,
+                       ProfileService profileService, LeaseService leaseService) {
         this.plugin = plugin;
-        this.database = database;
+        this.asyncDatabase = asyncDatabase;
         this.configManager = configManager;
         this.timeService = timeService;
         this.rankService = rankService;
         this.rewardService = rewardService;
         this.pendingService = pendingService;
+        this.profileService = profileService;
+        this.leaseService = leaseService;
 
         this.chequeIdKey = new NamespacedKey(plugin, "cheque_id");
         this.chequeAmountKey = new NamespacedKey(plugin, "cheque_amount");
@@ -57,12 +70,32 @@ public class BankService {
         this.chequePlayerKey = new NamespacedKey(plugin, "cheque_player");
     }
 
+    /**
+     * Claimed days of the month containing the given date, bit (day - 1) set per claimed day.
+     * Answered from the cached profile; empty while it loads or for a month it does not cover.
+     * Claims are guarded in storage, so this only affects what is displayed.
+     */
+    public int getMonthlyClaimMask(Player player, LocalDate date) {
+        String month = timeService.getMonthKey(date);
+        PlayerSupplyProfile profile = profileService.getOrLoad(player);
+        if (profile != null && profile.coversMonth(month)) {
+            return profile.getMonthlyClaimMask(month);
+        }
+        return 0;
+    }
+
     public boolean hasClaimedMonthlyDay(Player player, LocalDate date) {
-        String dateKey = getMonthlyClaimKey(date);
-        return database.hasWeeklyClaim(player.getUniqueId().toString(), dateKey);
+        return isDayClaimed(getMonthlyClaimMask(player, date), date);
     }
 
     public MonthlyDayStatus getMonthlyDayStatus(Player player, LocalDate date) {
+        return getMonthlyDayStatus(date, getMonthlyClaimMask(player, date));
+    }
+
+    /**
+     * Status of a day given the claim mask of its month, for callers rendering many days at once.
+     */
+    public MonthlyDayStatus getMonthlyDayStatus(LocalDate date, int claimedMask) {
         LocalDate today = timeService.getCurrentDate();
 
         if (date.getYear() != today.getYear() || date.getMonthValue() != today.getMonthValue()) {
@@ -73,7 +106,7 @@ public class BankService {
             return MonthlyDayStatus.LOCKED;
         }
 
-        return hasClaimedMonthlyDay(player, date) ? MonthlyDayStatus.CLAIMED : MonthlyDayStatus.AVAILABLE;
+        return isDayClaimed(claimedMask, date) ? MonthlyDayStatus.CLAIMED : MonthlyDayStatus.AVAILABLE;
     }
 
     public double getMonthlyAmount(Player player, LocalDate date) {
@@ -88,127 +121,217 @@ public class BankService {
         return Math.max(0, rank.getMonthlyAmount(dayOfMonth));
     }
 
-    public boolean hasPendingMonthlyClaims(Player player) {
-        LocalDate today = timeService.getCurrentDate();
-
-        for (int day = 1; day <= today.getDayOfMonth(); day++) {
-            LocalDate date = today.withDayOfMonth(day);
-            if (getMonthlyDayStatus(player, date) == MonthlyDayStatus.AVAILABLE) {
-                return true;
-            }
+    /**
+     * Payout of every day in the date's month for the player's rank, indexed by day of month
+     * (index 0 unused) and never negative. Resolves the rank once for the whole month.
+     */
+    public double[] getMonthlySchedule(Player player, LocalDate date) {
+        double[] schedule = new double[date.lengthOfMonth() + 1];
+        RankDefinition rank = rankService.detectRank(player);
+        if (rank == null) {
+            return schedule;
+        }
+        double[] payouts = rank.getMonthlyPayouts();
+        for (int day = 1; day < schedule.length; day++) {
+            schedule[day] = Math.max(0, payouts[day]);
         }
+        return schedule;
+    }
 
-        return false;
+    public double getMonthlyTotal(Player player, LocalDate date) {
+        RankDefinition rank = rankService.detectRank(player);
+        return rank != null ? rank.getMonthlyTotal(date.lengthOfMonth()) : 0;
     }
 
-    public MonthlyClaimResult claimMonthlyDay(Player player, LocalDate date) {
-        MonthlyDayStatus status = getMonthlyDayStatus(player, date);
-        if (status == MonthlyDayStatus.LOCKED) {
-            return MonthlyClaimResult.LOCKED;
-        }
+    public boolean hasPendingMonthlyClaims(Player player) {
+        LocalDate today = timeService.getCurrentDate();
+        // Every day up to today is claimable, so anything missing from the mask is pending
+        int elapsedDays = (int) ((1L << today.getDayOfMonth()) - 1);
+        return (getMonthlyClaimMask(player, today) & elapsedDays) != elapsedDays;
+    }
 
-        if (status == MonthlyDayStatus.CLAIMED) {
-            return MonthlyClaimResult.ALREADY_CLAIMED;
+    public CompletableFuture<MonthlyClaimResult> claimMonthlyDay(Player player, LocalDate date) {
+        LocalDate today = timeService.getCurrentDate();
+        if (date.getYear() != today.getYear() || date.getMonthValue() != today.getMonthValue() || date.isAfter(today)) {
+            return CompletableFuture.completedFuture(MonthlyClaimResult.LOCKED);
         }
 
         RankDefinition rank = rankService.detectRank(player);
         if (rank == null) {
-            return MonthlyClaimResult.NO_RANK;
+            return CompletableFuture.completedFuture(MonthlyClaimResult.NO_RANK);
         }
 
         double amount = Math.max(0, rank.getMonthlyAmount(date.getDayOfMonth()));
         if (amount <= 0) {
-            return MonthlyClaimResult.NO_REWARD;
+            return CompletableFuture.completedFuture(MonthlyClaimResult.NO_REWARD);
         }
 
-        if (!plugin.getEconomyService().depositSilver(player, amount, "monthly-bank")) {
-            Text.sendPrefixed(player, configManager.getMessage("general.economy-error"), configManager);
-            return MonthlyClaimResult.ERROR;
+        UUID uuid = player.getUniqueId();
+        if (!claimsInProgress.add(uuid)) {
+            return CompletableFuture.completedFuture(MonthlyClaimResult.IN_PROGRESS);
         }
 
-        String claimKey = getMonthlyClaimKey(date);
-        database.setWeeklyClaim(player.getUniqueId().toString(), claimKey, true);
+        String playerUuid = uuid.toString();
+        String month = timeService.getMonthKey(date);
+        int dayBit = getDayBit(date);
 
-        Map<String, String> placeholders = new HashMap<>();
-        placeholders.put("%amount%", Text.formatCurrency(BalanceApi.CurrencyType.SILVER, amount));
-        placeholders.put("%day%", String.valueOf(date.getDayOfMonth()));
-        Text.sendPrefixed(player, configManager.getMessage("bank.monthly-claim-success", placeholders), configManager);
+        // Mark the day first so a second request cannot pay twice; undo it if the deposit fails.
+        return asyncDatabase.supply(db -> {
+            String lease = leaseService.acquire(db, playerUuid);
+            if (lease == null) {
+                return MonthlyClaimResult.IN_PROGRESS;
+            }
+            try {
+                ClaimUnit.Outcome outcome = db.commitClaim(ClaimUnit.monthlyDay(playerUuid, month, dayBit));
+                if (outcome == ClaimUnit.Outcome.FAILED) {
+                    return MonthlyClaimResult.ERROR;
+                }
+                // Claimed here or already by another server: either way the day is taken now
+                profileService.recordMonthlyClaim(playerUuid, month, dayBit, 0);
+                return outcome == ClaimUnit.Outcome.CLAIMED ? MonthlyClaimResult.SUCCESS : MonthlyClaimResult.ALREADY_CLAIMED;
+            } finally {
+                leaseService.release(db, playerUuid, lease);
+            }
+        }).thenApplyAsync(marked -> {
+            if (marked == MonthlyClaimResult.ERROR) {
+                Text.sendPrefixed(player, configManager.getMessage("general.storage-error"), configManager);
+            }
+            if (marked != MonthlyClaimResult.SUCCESS) {
+                return marked;
+            }
 
-        plugin.debug("Banca mensual reclamada por " + player.getName() + " dia " + date.getDayOfMonth() + " monto " + Text.formatCurrency(BalanceApi.CurrencyType.SILVER, amount));
-        return MonthlyClaimResult.SUCCESS;
+            if (!plugin.getEconomyService().depositSilver(player, amount, "monthly-bank")) {
+                profileService.recordMonthlyClaim(playerUuid, month, 0, dayBit);
+                asyncDatabase.updateMonthlyClaimMask(playerUuid, month, 0, dayBit);
+                Text.sendPrefixed(player, configManager.getMessage("general.economy-error"), configManager);
+                return MonthlyClaimResult.ERROR;
+            }
+
+            Map<String, String> placeholders = new HashMap<>();
+            placeholders.put("%amount%", Text.formatCurrency(BalanceApi.CurrencyType.SILVER, amount));
+            placeholders.put("%day%", String.valueOf(date.getDayOfMonth()));
+            Text.sendPrefixed(player, configManager.getMessage("bank.monthly-claim-success", placeholders), configManager);
+
+            plugin.debug("Banca mensual reclamada por " + player.getName() + " dia " + date.getDayOfMonth() + " monto " + Text.formatCurrency(BalanceApi.CurrencyType.SILVER, amount));
+            return MonthlyClaimResult.SUCCESS;
+        }, asyncDatabase.mainThread()).exceptionallyAsync(AsyncDatabase.whenBusy(() -> {
+            Text.sendPrefixed(player, configManager.getMessage("general.storage-busy"), configManager);
+            return MonthlyClaimResult.ERROR;
+        }), asyncDatabase.mainThread()).whenComplete((result, error) -> claimsInProgress.remove(uuid));
     }
 
     public void resetMonthlyDayClaim(Player target, LocalDate date) {
-        String claimKey = getMonthlyClaimKey(date);
-        database.resetWeeklyClaim(target.getUniqueId().toString(), claimKey);
+        String playerUuid = target.getUniqueId().toString();
+        String month = timeService.getMonthKey(date);
+        int dayBit = getDayBit(date);
+        profileService.recordMonthlyClaim(playerUuid, month, 0, dayBit);
+        asyncDatabase.updateMonthlyClaimMask(playerUuid, month, 0, dayBit);
+    }
+
+    private static int getDayBit(LocalDate date) {
+        return 1 << (date.getDayOfMonth() - 1);
     }
 
-    private String getMonthlyClaimKey(LocalDate date) {
-        return MONTHLY_KEY_PREFIX + timeService.getDateKey(date);
+    private static boolean isDayClaimed(int claimedMask, LocalDate date) {
+        return (claimedMask & getDayBit(date)) != 0;
     }
 
+    /**
+     * From the cached profile; false while it loads, like the other display reads.
+     */
     public boolean hasClaimedWeekly(Player player) {
         String weekKey = timeService.getCurrentWeeklyPeriodKey();
-        return database.hasWeeklyClaim(player.getUniqueId().toString(), weekKey);
+        PlayerSupplyProfile profile = profileService.getOrLoad(player);
+        if (profile != null && profile.covers(weekKey)) {
+            return profile.hasWeeklyClaim(weekKey);
+        }
+        return false;
     }
 
     public double getWeeklyAmount(Player player) {
         return rankService.getWeeklyMoney(player);
     }
 
-    public ClaimResult claimWeekly(Player player) {
-        if (hasClaimedWeekly(player)) {
-            return ClaimResult.ALREADY_CLAIMED;
-        }
-
+    public CompletableFuture<ClaimResult> claimWeekly(Player player) {
         RankDefinition rank = rankService.detectRank(player);
         if (rank == null) {
-            return ClaimResult.NO_RANK;
+            return CompletableFuture.completedFuture(ClaimResult.NO_RANK);
         }
 
         double amount = rank.getWeeklyMoney();
         if (amount <= 0) {
-            return ClaimResult.NO_REWARD;
+            return CompletableFuture.completedFuture(ClaimResult.NO_REWARD);
         }
 
-        String weekKey = timeService.getCurrentWeeklyPeriodKey();
-        String playerUuid = player.getUniqueId().toString();
+        UUID uuid = player.getUniqueId();
+        if (!claimsInProgress.add(uuid)) {
+            return CompletableFuture.completedFuture(ClaimResult.IN_PROGRESS);
+        }
 
-        if (configManager.useChequeItem()) {
-            String chequeId = ChequeData.generateChequeId();
-            ChequeData cheque = new ChequeData(chequeId, playerUuid, weekKey, amount);
-            database.saveCheque(cheque);
+        String weekKey = timeService.getCurrentWeeklyPeriodKey();
+        String playerUuid = uuid.toString();
+        boolean useCheque = configManager.useChequeItem();
+        String chequeId = useCheque ? ChequeData.generateChequeId() : null;
+
+        return asyncDatabase.supply(db -> {
+            String lease = leaseService.acquire(db, playerUuid);
+            if (lease == null) {
+                return ClaimResult.IN_PROGRESS;
+            }
+            try {
+                // The cheque is stored in the same transaction as the claim it pays out
+                ClaimUnit unit = ClaimUnit.weekly(playerUuid, weekKey);
+                if (useCheque) {
+                    unit = unit.withCheque(new ChequeData(chequeId, playerUuid, weekKey, amount));
+                }
+                ClaimUnit.Outcome outcome = db.commitClaim(unit);
+                if (outcome == ClaimUnit.Outcome.FAILED) {
+                    return ClaimResult.ERROR;
+                }
+                profileService.recordWeeklyClaim(playerUuid, weekKey, true);
+                return outcome == ClaimUnit.Outcome.CLAIMED ? ClaimResult.SUCCESS : ClaimResult.ALREADY_CLAIMED;
+            } finally {
+                leaseService.release(db, playerUuid, lease);
+            }
+        }).thenApplyAsync(marked -> {
+            if (marked == ClaimResult.ERROR) {
+                Text.sendPrefixed(player, configManager.getMessage("general.storage-error"), configManager);
+            }
+            if (marked != ClaimResult.SUCCESS) {
+                return marked;
+            }
 
-            ItemStack chequeItem = createChequeItem(player, amount, weekKey, chequeId);
+            Map<String, String> placeholders = new HashMap<>();
+            placeholders.put("%amount%", Text.formatCurrency(BalanceApi.CurrencyType.SILVER, amount));
 
-            if (ItemParser.hasAnyInventorySpace(player)) {
-                player.getInventory().addItem(chequeItem);
+            if (useCheque) {
+                ItemStack chequeItem = createChequeItem(player, amount, weekKey, chequeId);
 
-                Map<String, String> placeholders = new HashMap<>();
-                placeholders.put("%amount%", Text.formatCurrency(BalanceApi.CurrencyType.SILVER, amount));
-                Text.sendPrefixed(player, configManager.getMessage("bank.cheque-received", placeholders), configManager);
+                if (ItemParser.hasAnyInventorySpace(player)) {
+                    player.getInventory().addItem(chequeItem);
+                    Text.sendPrefixed(player, configManager.getMessage("bank.cheque-received", placeholders), configManager);
+                } else {
+                    pendingService.saveChequeToPending(player, chequeId, amount, weekKey);
+                }
             } else {
-                pendingService.saveChequeToPending(player, chequeId, amount, weekKey);
-            }
+                if (!plugin.getEconomyService().depositSilver(player, amount, "weekly-bank")) {
+                    profileService.recordWeeklyClaim(playerUuid, weekKey, false);
+                    asyncDatabase.resetWeeklyClaim(playerUuid, weekKey);
+                    Text.sendPrefixed(player, configManager.getMessage("general.economy-error"), configManager);
+                    return ClaimResult.ERROR;
+                }
 
-            database.setWeeklyClaim(playerUuid, weekKey, true);
-        } else {
-            if (!plugin.getEconomyService().depositSilver(player, amount, "weekly-bank")) {
-                Text.sendPrefixed(player, configManager.getMessage("general.economy-error"), configManager);
-                return ClaimResult.ERROR;
+                Text.sendPrefixed(player, configManager.getMessage("bank.direct-deposit", placeholders), configManager);
             }
 
-            database.setWeeklyClaim(playerUuid, weekKey, true);
-
-            Map<String, String> placeholders = new HashMap<>();
-            placeholders.put("%amount%", Text.formatCurrency(BalanceApi.CurrencyType.SILVER, amount));
-            Text.sendPrefixed(player, configManager.getMessage("bank.direct-deposit", placeholders), configManager);
-        }
-
-        Text.sendPrefixed(player, configManager.getMessage("bank.claim-success"), configManager);
-        plugin.debug("Cheque semanal reclamado por " + player.getName() + ": " + Text.formatCurrency(BalanceApi.CurrencyType.SILVER, amount));
+            Text.sendPrefixed(player, configManager.getMessage("bank.claim-success"), configManager);
+            plugin.debug("Cheque semanal reclamado por " + player.getName() + ": " + Text.formatCurrency(BalanceApi.CurrencyType.SILVER, amount));
 
-        return ClaimResult.SUCCESS;
+            return ClaimResult.SUCCESS;
+        }, asyncDatabase.mainThread()).exceptionallyAsync(AsyncDatabase.whenBusy(() -> {
+            Text.sendPrefixed(player, configManager.getMessage("general.storage-busy"), configManager);
+            return ClaimResult.ERROR;
+        }), asyncDatabase.mainThread()).whenComplete((result, error) -> claimsInProgress.remove(uuid));
     }
 
     public ItemStack createChequeItem(Player player, double amount, String weekKey, String chequeId) {
@@ -249,66 +372,106 @@ public class BankService {
         return item;
     }
 
-    public RedeemResult redeemCheque(Player player, ItemStack chequeItem) {
+    public CompletableFuture<RedeemResult> redeemCheque(Player player, ItemStack chequeItem) {
         if (chequeItem == null || chequeItem.getType() != Material.PAPER) {
-            return RedeemResult.NOT_A_CHEQUE;
+            return CompletableFuture.completedFuture(RedeemResult.NOT_A_CHEQUE);
         }
 
         ItemMeta meta = chequeItem.getItemMeta();
         if (meta == null) {
-            return RedeemResult.NOT_A_CHEQUE;
+            return CompletableFuture.completedFuture(RedeemResult.NOT_A_CHEQUE);
         }
 
         PersistentDataContainer pdc = meta.getPersistentDataContainer();
 
         if (!pdc.has(chequeIdKey, PersistentDataType.STRING)) {
-            return RedeemResult.NOT_A_CHEQUE;
+            return CompletableFuture.completedFuture(RedeemResult.NOT_A_CHEQUE);
         }
 
         String chequeId = pdc.get(chequeIdKey, PersistentDataType.STRING);
         Double amount = pdc.get(chequeAmountKey, PersistentDataType.DOUBLE);
+        String weekKey = pdc.get(chequeWeekKey, PersistentDataType.STRING);
         String playerUuid = pdc.get(chequePlayerKey, PersistentDataType.STRING);
 
         if (chequeId == null || amount == null) {
-            return RedeemResult.INVALID;
+            return CompletableFuture.completedFuture(RedeemResult.INVALID);
         }
 
         if (playerUuid != null && !playerUuid.equals(player.getUniqueId().toString())) {
             Text.sendPrefixed(player, configManager.getMessage("cheque.not-owner"), configManager);
-            return RedeemResult.NOT_OWNER;
+            return CompletableFuture.completedFuture(RedeemResult.NOT_OWNER);
         }
 
-        ChequeData chequeData = database.getCheque(chequeId);
-        if (chequeData == null) {
-            Text.sendPrefixed(player, configManager.getMessage("cheque.invalid"), configManager);
-            return RedeemResult.INVALID;
+        if (!redeemsInProgress.add(chequeId)) {
+            return CompletableFuture.completedFuture(RedeemResult.IN_PROGRESS);
         }
 
-        if (chequeData.isRedeemed()) {
-            Text.sendPrefixed(player, configManager.getMessage("cheque.already-redeemed"), configManager);
-            return RedeemResult.ALREADY_REDEEMED;
-        }
+        // The paper is consumed right away so it cannot be clicked again while the lookup runs.
+        ItemStack consumed = chequeItem.clone();
+        consumed.setAmount(1);
+        chequeItem.setAmount(chequeItem.getAmount() - 1);
+        long redeemedAt = System.currentTimeMillis();
 
-        if (!plugin.getEconomyService().depositSilver(player, amount, "weekly-cheque-redeem")) {
-            Text.sendPrefixed(player, configManager.getMessage("general.economy-error"), configManager);
-            return RedeemResult.ERROR;
-        }
+        // One conditional update decides the winner; only a losing call pays for a second read
+        return asyncDatabase.supply(db -> {
+            if (db.redeemCheque(chequeId, redeemedAt)) {
+                return RedeemResult.SUCCESS;
+            }
+            return db.getCheque(chequeId) == null ? RedeemResult.INVALID : RedeemResult.ALREADY_REDEEMED;
+        }).thenApplyAsync(result -> {
+            if (result == RedeemResult.INVALID) {
+                giveBack(player, consumed);
+                Text.sendPrefixed(player, configManager.getMessage("cheque.invalid"), configManager);
+                return result;
+            }
 
-        database.redeemCheque(chequeId, System.currentTimeMillis());
-        chequeItem.setAmount(chequeItem.getAmount() - 1);
+            if (result == RedeemResult.ALREADY_REDEEMED) {
+                giveBack(player, consumed);
+                Text.sendPrefixed(player, configManager.getMessage("cheque.already-redeemed"), configManager);
+                return result;
+            }
 
-        Map<String, String> placeholders = new HashMap<>();
-        placeholders.put("%amount%", Text.formatCurrency(BalanceApi.CurrencyType.SILVER, amount));
-        Text.sendPrefixed(player, configManager.getMessage("cheque.redeemed", placeholders), configManager);
+            if (!plugin.getEconomyService().depositSilver(player, amount, "weekly-cheque-redeem")) {
+                asyncDatabase.saveCheque(new ChequeData(chequeId, player.getUniqueId().toString(), weekKey, amount));
+                giveBack(player, consumed);
+                Text.sendPrefixed(player, configManager.getMessage("general.economy-error"), configManager);
+                return RedeemResult.ERROR;
+            }
 
-        plugin.debug("Cheque canjeado por " + player.getName() + ": " + Text.formatCurrency(BalanceApi.CurrencyType.SILVER, amount) + " (ID: " + chequeId + ")");
+            Map<String, String> placeholders = new HashMap<>();
+            placeholders.put("%amount%", Text.formatCurrency(BalanceApi.CurrencyType.SILVER, amount));
+            Text.sendPrefixed(player, configManager.getMessage("cheque.redeemed", placeholders), configManager);
+
+            plugin.debug("Cheque canjeado por " + player.getName() + ": " + Text.formatCurrency(BalanceApi.CurrencyType.SILVER, amount) + " (ID: " + chequeId + ")");
+
+            return RedeemResult.SUCCESS;
+        }, asyncDatabase.mainThread()).handleAsync((result, error) -> {
+            if (error == null) {
+                return result;
+            }
+            // Storage or a later step failed: the paper was already taken, so hand it back.
+            // A cheque that did get redeemed stays redeemed, so the copy cannot pay twice.
+            giveBack(player, consumed);
+            if (AsyncDatabase.isBusy(error)) {
+                Text.sendPrefixed(player, configManager.getMessage("general.storage-busy"), configManager);
+                return RedeemResult.ERROR;
+            }
+            plugin.getLogger().log(Level.SEVERE, "Error al canjear el cheque " + chequeId, error);
+            Text.sendPrefixed(player, configManager.getMessage("general.economy-error"), configManager);
+            return RedeemResult.ERROR;
+        }, asyncDatabase.mainThread()).whenComplete((result, error) -> redeemsInProgress.remove(chequeId));
+    }
 
-        return RedeemResult.SUCCESS;
+    private void giveBack(Player player, ItemStack item) {
+        for (ItemStack leftover : player.getInventory().addItem(item).values()) {
+            player.getWorld().dropItemNaturally(player.getLocation(), leftover);
+        }
     }
 
     public void resetWeeklyClaim(Player target) {
         String weekKey = timeService.getCurrentWeeklyPeriodKey();
-        database.resetWeeklyClaim(target.getUniqueId().toString(), weekKey);
+        profileService.recordWeeklyClaim(target.getUniqueId().toString(), weekKey, false);
+        asyncDatabase.resetWeeklyClaim(target.getUniqueId().toString(), weekKey);
         plugin.debug("Cheque semanal reseteado para " + target.getName());
     }
 
@@ -318,7 +481,7 @@ public class BankService {
         String playerUuid = target.getUniqueId().toString();
 
         ChequeData cheque = new ChequeData(chequeId, playerUuid, weekKey, amount);
-        database.saveCheque(cheque);
+        asyncDatabase.saveCheque(cheque);
 
         ItemStack chequeItem = createChequeItem(target, amount, weekKey, chequeId);
 
@@ -360,6 +523,7 @@ public class BankService {
         LOCKED,
         NO_RANK,
         NO_REWARD,
+        IN_PROGRESS,
         ERROR
     }
 
@@ -368,6 +532,7 @@ public class BankService {
         ALREADY_CLAIMED,
         NO_RANK,
         NO_REWARD,
+        IN_PROGRESS,
         ERROR
     }
 
@@ -377,6 +542,7 @@ public class BankService {
         INVALID,
         NOT_OWNER,
         ALREADY_REDEEMED,
+        IN_PROGRESS,
         ERROR
     }
 }
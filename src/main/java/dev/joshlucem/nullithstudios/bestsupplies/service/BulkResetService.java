@@ -0,0 +1,186 @@
+package dev.joshlucem.nullithstudios.bestsupplies.service;
+
+import dev.joshlucem.nullithstudios.bestsupplies.BestSupplies;
+import dev.joshlucem.nullithstudios.bestsupplies.config.ConfigManager;
+import dev.joshlucem.nullithstudios.bestsupplies.storage.BulkReset;
+import dev.joshlucem.nullithstudios.bestsupplies.storage.Database;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Admin resets for many players at once (everyone, one rank or a list of uuids, online or
+ * not). Each chunk is one set-based statement in the backend, run from a Bukkit async task
+ * so the main thread and the per-player storage threads never wait behind it.
+ */
+public class BulkResetService {
+
+    // Keeps uuid lists under SQLite's bound parameter limit
+    private static final int MAX_PLAYERS_PER_STATEMENT = 500;
+    private static final long PROGRESS_INTERVAL_MS = 2000L;
+
+    private final BestSupplies plugin;
+    private final Database database;
+    private final ConfigManager configManager;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    public BulkResetService(BestSupplies plugin, Database database, ConfigManager configManager) {
+        this.plugin = plugin;
+        this.database = database;
+        this.configManager = configManager;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * Run a reset on an async task. When uuidFile is given (relative to the plugin folder,
+     * one uuid per line, # for comments) the reset is limited to those players. Progress
+     * lines go to the callback from the async thread. Completes with null if a bulk reset
+     * is already running.
+     */
+    public CompletableFuture<Report> run(BulkReset reset, String uuidFile, Consumer<String> progress) {
+        CompletableFuture<Report> future = new CompletableFuture<>();
+        if (!running.compareAndSet(false, true)) {
+            future.complete(null);
+            return future;
+        }
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                future.complete(execute(uuidFile != null ? reset.forPlayers(readUuids(uuidFile)) : reset, progress));
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            } finally {
+                running.set(false);
+            }
+        });
+        return future;
+    }
+
+    private Report execute(BulkReset reset, Consumer<String> progress) throws IOException {
+        int chunkSize = Math.max(1, configManager.getBulkResetChunkSize());
+        long start = System.currentTimeMillis();
+        long lastProgress = start;
+        long rows = 0;
+        int statements = 0;
+
+        try {
+            for (BulkReset part : split(reset)) {
+                while (true) {
+                    int changed = database.bulkReset(part, chunkSize);
+                    if (changed < 0) {
+                        throw new IOException("El almacenamiento no pudo aplicar el reset tras " + rows + " filas");
+                    }
+                    rows += changed;
+                    statements++;
+                    long now = System.currentTimeMillis();
+                    if (now - lastProgress >= PROGRESS_INTERVAL_MS) {
+                        progress.accept(rows + " filas reseteadas...");
+                        lastProgress = now;
+                    }
+                    if (changed < chunkSize) {
+                        break;
+                    }
+                }
+            }
+        } finally {
+            if (rows > 0) {
+                // Cached claims of online players may now be stale, here and on the other servers
+                plugin.getServer().getScheduler().runTask(plugin, () -> plugin.getProfileService().loadOnlinePlayers());
+                publishReload(reset);
+            }
+        }
+
+        Report report = new Report(reset.getType(), rows, statements, System.currentTimeMillis() - start);
+        plugin.getLogger().info("Reset masivo " + report.getType().name().toLowerCase() + ": " + report.getRows()
+                + " filas en " + report.getStatements() + " sentencias, " + report.getDurationMs() + " ms.");
+        return report;
+    }
+
+    private void publishReload(BulkReset reset) {
+        ProfileService profileService = plugin.getProfileService();
+        List<String> players = reset.getPlayers();
+        if (players == null || players.size() > MAX_PLAYERS_PER_STATEMENT) {
+            profileService.publishReloadAll();
+            return;
+        }
+        for (String playerUuid : players) {
+            profileService.publishReload(playerUuid);
+        }
+    }
+
+    private static List<BulkReset> split(BulkReset reset) {
+        List<String> players = reset.getPlayers();
+        if (players == null || players.size() <= MAX_PLAYERS_PER_STATEMENT) {
+            return List.of(reset);
+        }
+        List<BulkReset> parts = new ArrayList<>();
+        for (int i = 0; i < players.size(); i += MAX_PLAYERS_PER_STATEMENT) {
+            parts.add(reset.forPlayers(players.subList(i, Math.min(players.size(), i + MAX_PLAYERS_PER_STATEMENT))));
+        }
+        return parts;
+    }
+
+    private List<String> readUuids(String fileName) throws IOException {
+        Path folder = plugin.getDataFolder().toPath().toAbsolutePath().normalize();
+        Path source = folder.resolve(fileName).normalize();
+        if (!source.startsWith(folder) || !Files.isRegularFile(source)) {
+            throw new IOException("Archivo no encontrado: " + fileName);
+        }
+
+        List<String> uuids = new ArrayList<>();
+        int lineNumber = 0;
+        for (String line : Files.readAllLines(source, StandardCharsets.UTF_8)) {
+            lineNumber++;
+            String value = line.trim();
+            if (value.isEmpty() || value.startsWith("#")) {
+                continue;
+            }
+            try {
+                uuids.add(UUID.fromString(value).toString());
+            } catch (IllegalArgumentException e) {
+                throw new IOException("UUID invalido en la linea " + lineNumber + ": " + value);
+            }
+        }
+        return uuids;
+    }
+
+    public static class Report {
+        private final BulkReset.Type type;
+        private final long rows;
+        private final int statements;
+        private final long durationMs;
+
+        public Report(BulkReset.Type type, long rows, int statements, long durationMs) {
+            this.type = type;
+            this.rows = rows;
+            this.statements = statements;
+            this.durationMs = durationMs;
+        }
+
+        public BulkReset.Type getType() {
+            return type;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public int getStatements() {
+            return statements;
+        }
+
+        public long getDurationMs() {
+            return durationMs;
+        }
+    }
+}
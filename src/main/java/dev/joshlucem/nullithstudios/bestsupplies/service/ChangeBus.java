@@ -0,0 +1,23 @@
+package dev.joshlucem.nullithstudios.bestsupplies.service;
+
+import dev.joshlucem.nullithstudios.bestsupplies.model.ProfileChange;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries profile changes between the servers of a network. Listeners may be called from
+ * any thread and also receive this server's own changes; filter on {@link #getServerId()}.
+ */
+public interface ChangeBus {
+
+    String getServerId();
+
+    void start(Consumer<ProfileChange> listener);
+
+    /**
+     * Queue a change for the other servers. Never blocks on storage.
+     */
+    void publish(ProfileChange change);
+
+    void shutdown();
+}
@@ -4,36 +4,72 @@ import dev.joshlucem.nullithstudios.bestsupplies.BestSupplies;
 import dev.joshlucem.nullithstudios.bestsupplies.config.ConfigManager;
 import dev.joshlucem.nullithstudios.bestsupplies.model.DailyRewardDefinition;
 import dev.joshlucem.nullithstudios.bestsupplies.model.PlayerState;
-import dev.joshlucem.nullithstudios.bestsupplies.storage.Database;
+import dev.joshlucem.nullithstudios.bestsupplies.model.PlayerSupplyProfile;
+import dev.joshlucem.nullithstudios.bestsupplies.storage.AsyncDatabase;
+import dev.joshlucem.nullithstudios.bestsupplies.storage.ClaimUnit;
 import dev.joshlucem.nullithstudios.bestsupplies.util.Text;
 import org.bukkit.entity.Player;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.Objects;
 
 public class DailyService {
 
     private final BestSupplies plugin;
-    private final Database database;
+    private final AsyncDatabase asyncDatabase;
     private final ConfigManager configManager;
     private final TimeService timeService;
     private final RewardService rewardService;
+    private final ProfileService profileService;
+    private final LeaseService leaseService;
+    private final Set<UUID> claimsInProgress = ConcurrentHashMap.newKeySet();
 
-    public DailyService(BestSupplies plugin, Database database, ConfigManager configManager,
-                        TimeService timeService, RewardService rewardService) {
+    public DailyService(BestSupplies plugin, AsyncDatabase asyncDatabase,
+                        ConfigManager configManager, TimeService timeService, RewardService rewardService,
+                        ProfileService profileService, LeaseService leaseService) {
         this.plugin = plugin;
-        this.database = database;
+        this.asyncDatabase = asyncDatabase;
         this.configManager = configManager;
         this.timeService = timeService;
         this.rewardService = rewardService;
+        this.profileService = profileService;
+        this.leaseService = leaseService;
     }
 
+    /**
+     * State from the cached profile, for GUIs and placeholders on the main thread. Empty
+     * while the profile is still loading; use {@link #getPlayerStateAsync(Player)} when the
+     * stored value is needed.
+     */
     public PlayerState getPlayerState(Player player) {
-        return database.getPlayerState(player.getUniqueId().toString());
+        PlayerSupplyProfile profile = profileService.get(player);
+        if (profile != null) {
+            return profile.getState();
+        }
+        return new PlayerState(player.getUniqueId().toString());
+    }
+
+    public CompletableFuture<PlayerState> getPlayerStateAsync(Player player) {
+        PlayerSupplyProfile profile = profileService.get(player);
+        if (profile != null) {
+            return CompletableFuture.completedFuture(profile.getState());
+        }
+        return asyncDatabase.getPlayerState(player.getUniqueId().toString());
     }
 
     public void savePlayerState(PlayerState state) {
-        database.savePlayerState(state);
+        profileService.updateState(state);
+        asyncDatabase.savePlayerState(state);
     }
 
     public int getStreak(Player player) {
@@ -46,7 +82,22 @@ public class DailyService {
 
     public boolean hasClaimedOnDate(Player player, LocalDate date) {
         String dateKey = timeService.getDateKey(date);
-        return database.hasDailyClaim(player.getUniqueId().toString(), dateKey);
+        PlayerSupplyProfile profile = profileService.get(player);
+        if (profile != null && profile.covers(dateKey)) {
+            return profile.hasDailyClaim(dateKey);
+        }
+        // Profile still loading, or a date the menus never show. Never query storage from the
+        // main thread; claims are guarded in storage, so this only affects what is displayed.
+        return false;
+    }
+
+    public CompletableFuture<Boolean> hasClaimedOnDateAsync(Player player, LocalDate date) {
+        String dateKey = timeService.getDateKey(date);
+        PlayerSupplyProfile profile = profileService.get(player);
+        if (profile != null && profile.covers(dateKey)) {
+            return CompletableFuture.completedFuture(profile.hasDailyClaim(dateKey));
+        }
+        return asyncDatabase.hasDailyClaim(player.getUniqueId().toString(), dateKey);
     }
 
     public DailyDateStatus getDateStatus(Player player, LocalDate date) {
@@ -76,80 +127,186 @@ public class DailyService {
         };
     }
 
-    public void checkAndUpdateStreak(Player player) {
-        PlayerState state = getPlayerState(player);
+    public CompletableFuture<Void> checkAndUpdateStreak(Player player) {
+        String playerUuid = player.getUniqueId().toString();
         String todayKey = timeService.getTodayKey();
-        String lastDailyDate = state.getLastDailyDate();
+        String rankId = plugin.getRankService().detectRankId(player);
+
+        return asyncDatabase.supply(db -> {
+            PlayerState state = db.getPlayerState(playerUuid);
+            boolean lost = isStreakLost(state, todayKey);
+            // Bulk admin resets pick players by the rank they had when last seen
+            boolean rankChanged = !Objects.equals(rankId, state.getLastRank());
+            if (!lost && !rankChanged) {
+                return false;
+            }
+            if (lost) {
+                state.resetStreak();
+                state.setLastSeenDate(todayKey);
+            }
+            state.setLastRank(rankId);
+            db.savePlayerState(state);
+            profileService.updateState(state);
+            return lost;
+        }).thenAcceptAsync(lost -> {
+            if (lost && player.isOnline()) {
+                plugin.debug("Racha perdida para " + player.getName() + ": mas de un dia sin reclamar");
+                Text.sendPrefixed(player, configManager.getMessage("daily.streak-lost"), configManager);
+            }
+        }, asyncDatabase.mainThread());
+    }
 
-        if (lastDailyDate == null) {
-            return;
+    /**
+     * Streak check for many online players at once, for the daily rollover. Players whose
+     * cached state still has a live streak are skipped; the rest are checked and reset in a
+     * single storage task. Completes with the number of streaks lost.
+     */
+    public CompletableFuture<Integer> checkStreaks(Collection<? extends Player> players) {
+        String todayKey = timeService.getTodayKey();
+        Map<String, Player> candidates = new HashMap<>();
+        for (Player player : players) {
+            PlayerSupplyProfile profile = profileService.get(player);
+            // Unloaded profiles get the regular check once their join task runs
+            if (profile != null && profile.getState() != null && isStreakLost(profile.getState(), todayKey)) {
+                candidates.put(player.getUniqueId().toString(), player);
+            }
         }
-
-        if (lastDailyDate.equals(todayKey)) {
-            return;
+        if (candidates.isEmpty()) {
+            return CompletableFuture.completedFuture(0);
         }
 
-        if (timeService.wasYesterday(lastDailyDate)) {
-            return;
-        }
+        return asyncDatabase.supply(db -> {
+            List<String> lost = new ArrayList<>();
+            for (String playerUuid : candidates.keySet()) {
+                PlayerState state = db.getPlayerState(playerUuid);
+                if (!isStreakLost(state, todayKey)) {
+                    continue;
+                }
+                state.resetStreak();
+                state.setLastSeenDate(todayKey);
+                db.savePlayerState(state);
+                profileService.updateState(state);
+                lost.add(playerUuid);
+            }
+            return lost;
+        }).thenApplyAsync(lost -> {
+            for (String playerUuid : lost) {
+                Player player = candidates.get(playerUuid);
+                if (player.isOnline()) {
+                    Text.sendPrefixed(player, configManager.getMessage("daily.streak-lost"), configManager);
+                }
+            }
+            return lost.size();
+        }, asyncDatabase.mainThread());
+    }
 
-        if (state.getStreak() > 0) {
-            plugin.debug("Racha perdida para " + player.getName() + ": mas de un dia sin reclamar");
-            state.resetStreak();
-            state.setLastSeenDate(todayKey);
-            savePlayerState(state);
-            Text.sendPrefixed(player, configManager.getMessage("daily.streak-lost"), configManager);
+    private boolean isStreakLost(PlayerState state, String todayKey) {
+        String lastDailyDate = state.getLastDailyDate();
+        if (lastDailyDate == null || lastDailyDate.equals(todayKey)) {
+            return false;
+        }
+        if (timeService.wasYesterday(lastDailyDate)) {
+            return false;
         }
+        return state.getStreak() > 0;
     }
 
-    public ClaimResult claimDaily(Player player) {
+    /**
+     * Claim today's reward. The claim check and the writes run on the storage executor;
+     * the reward itself is handed out back on the main thread once the claim is persisted.
+     */
+    public CompletableFuture<ClaimResult> claimDaily(Player player) {
         DayOfWeek today = timeService.getCurrentDayOfWeek();
 
-        if (hasClaimedToday(player)) {
-            return ClaimResult.ALREADY_CLAIMED;
-        }
-
         DailyRewardDefinition reward = configManager.getDailyReward(today);
         if (reward == null) {
             plugin.getLogger().warning("No hay recompensa configurada para " + today);
-            return ClaimResult.NO_REWARD;
+            return CompletableFuture.completedFuture(ClaimResult.NO_REWARD);
         }
 
-        PlayerState state = getPlayerState(player);
         String todayKey = timeService.getTodayKey();
-        String lastDailyDate = state.getLastDailyDate();
-
-        boolean streakContinues = lastDailyDate != null && timeService.wasYesterday(lastDailyDate);
-
-        if (streakContinues) {
-            state.incrementStreak();
-        } else {
-            state.setStreak(1);
+        PlayerSupplyProfile profile = profileService.get(player);
+        if (profile != null && profile.hasDailyClaim(todayKey)) {
+            return CompletableFuture.completedFuture(ClaimResult.ALREADY_CLAIMED);
         }
 
-        state.setLastDailyDate(todayKey);
-        state.setLastSeenDate(todayKey);
-        savePlayerState(state);
-
-        database.setDailyClaim(player.getUniqueId().toString(), todayKey, true);
-        rewardService.giveDailyReward(player, reward, state.getStreak());
-
-        plugin.debug("Diaria reclamada por " + player.getName() + " - Racha: " + state.getStreak());
+        UUID uuid = player.getUniqueId();
+        if (!claimsInProgress.add(uuid)) {
+            return CompletableFuture.completedFuture(ClaimResult.IN_PROGRESS);
+        }
 
-        return ClaimResult.SUCCESS;
+        String playerUuid = uuid.toString();
+
+        return asyncDatabase.supply(db -> {
+            // Another claim of this player, here or on another server, is running right now
+            String lease = leaseService.acquire(db, playerUuid);
+            if (lease == null) {
+                return new DailyClaim(ClaimResult.IN_PROGRESS, null);
+            }
+            try {
+                PlayerState state = db.getPlayerState(playerUuid);
+                String lastDailyDate = state.getLastDailyDate();
+                boolean streakContinues = lastDailyDate != null && timeService.wasYesterday(lastDailyDate);
+
+                if (streakContinues) {
+                    state.incrementStreak();
+                } else {
+                    state.setStreak(1);
+                }
+
+                state.setLastDailyDate(todayKey);
+                state.setLastSeenDate(todayKey);
+
+                // Claim row and streak commit together, and only one caller can create the claim
+                ClaimUnit.Outcome outcome = db.commitClaim(ClaimUnit.daily(playerUuid, todayKey).withState(state));
+                if (outcome == ClaimUnit.Outcome.FAILED) {
+                    // Nothing was written, so the cache and the other servers must not hear of a claim
+                    return new DailyClaim(ClaimResult.ERROR, null);
+                }
+                if (outcome == ClaimUnit.Outcome.TAKEN) {
+                    profileService.recordDailyClaim(playerUuid, todayKey, true);
+                    return new DailyClaim(ClaimResult.ALREADY_CLAIMED, null);
+                }
+                profileService.updateState(state);
+                profileService.recordDailyClaim(playerUuid, todayKey, true);
+                return new DailyClaim(ClaimResult.SUCCESS, state);
+            } finally {
+                leaseService.release(db, playerUuid, lease);
+            }
+        }).thenApplyAsync(claim -> {
+            if (claim.result() == ClaimResult.ERROR) {
+                Text.sendPrefixed(player, configManager.getMessage("general.storage-error"), configManager);
+            }
+            if (claim.result() != ClaimResult.SUCCESS) {
+                return claim.result();
+            }
+
+            PlayerState state = claim.state();
+            rewardService.giveDailyReward(player, reward, state.getStreak());
+            plugin.debug("Diaria reclamada por " + player.getName() + " - Racha: " + state.getStreak());
+            return ClaimResult.SUCCESS;
+        }, asyncDatabase.mainThread()).exceptionallyAsync(AsyncDatabase.whenBusy(() -> {
+            Text.sendPrefixed(player, configManager.getMessage("general.storage-busy"), configManager);
+            return ClaimResult.ERROR;
+        }), asyncDatabase.mainThread()).whenComplete((result, error) -> claimsInProgress.remove(uuid));
     }
 
     public void resetDailyToday(Player target) {
         String today = timeService.getTodayKey();
-        database.setDailyClaim(target.getUniqueId().toString(), today, false);
+        profileService.recordDailyClaim(target.getUniqueId().toString(), today, false);
+        asyncDatabase.setDailyClaim(target.getUniqueId().toString(), today, false);
         plugin.debug("Diaria reseteada para " + target.getName());
     }
 
     public void resetStreak(Player target) {
-        PlayerState state = getPlayerState(target);
-        state.resetStreak();
-        state.setLastDailyDate(null);
-        savePlayerState(state);
+        String playerUuid = target.getUniqueId().toString();
+        asyncDatabase.run(db -> {
+            PlayerState state = db.getPlayerState(playerUuid);
+            state.resetStreak();
+            state.setLastDailyDate(null);
+            db.savePlayerState(state);
+            profileService.updateState(state);
+        });
         plugin.debug("Racha reseteada para " + target.getName());
     }
 
@@ -176,10 +333,14 @@ public class DailyService {
         LOCKED
     }
 
+    private record DailyClaim(ClaimResult result, PlayerState state) {
+    }
+
     public enum ClaimResult {
         SUCCESS,
         ALREADY_CLAIMED,
         NO_REWARD,
+        IN_PROGRESS,
         ERROR
     }
 }
@@ -0,0 +1,146 @@
+package dev.joshlucem.nullithstudios.bestsupplies.service;
+
+import dev.joshlucem.nullithstudios.bestsupplies.BestSupplies;
+import dev.joshlucem.nullithstudios.bestsupplies.model.ProfileChange;
+import dev.joshlucem.nullithstudios.bestsupplies.storage.Database;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+/**
+ * Change feed over the shared database. Outgoing changes are batched into one insert per
+ * poll, and every poll reads the rows after the last id seen. Ids are assigned at insert
+ * time but become visible at commit, so a hole in the sequence is held open for a short
+ * while in case a slower server's insert is still committing.
+ */
+public class DatabaseChangeBus implements ChangeBus {
+
+    private static final long GAP_WAIT_MS = 5000L;
+
+    private final BestSupplies plugin;
+    private final Database database;
+    private final String serverId;
+    private final long pollIntervalMs;
+    private final int batchSize;
+    private final Queue<ProfileChange> outgoing = new ConcurrentLinkedQueue<>();
+
+    // Only touched from the poller thread
+    private final Set<Long> deliveredPastGap = new HashSet<>();
+    private long cursor;
+    private long gapSince;
+
+    private Consumer<ProfileChange> listener;
+    private ScheduledExecutorService poller;
+
+    public DatabaseChangeBus(BestSupplies plugin, Database database, String serverId, long pollIntervalMs, int batchSize) {
+        this.plugin = plugin;
+        this.database = database;
+        this.serverId = serverId;
+        this.pollIntervalMs = Math.max(100L, pollIntervalMs);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Override
+    public String getServerId() {
+        return serverId;
+    }
+
+    @Override
+    public void start(Consumer<ProfileChange> listener) {
+        this.listener = listener;
+        poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "BestSupplies-ChangeFeed");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Profiles are loaded fresh on join, so history from before startup is not needed
+        poller.execute(() -> cursor = database.getLastProfileChangeId());
+        poller.scheduleWithFixedDelay(this::pollQuietly, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void publish(ProfileChange change) {
+        outgoing.add(change);
+    }
+
+    @Override
+    public void shutdown() {
+        if (poller == null) {
+            return;
+        }
+        poller.shutdown();
+        try {
+            poller.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Last changes still go out so other servers see them
+        sendOutgoing();
+        poller = null;
+    }
+
+    private void pollQuietly() {
+        try {
+            sendOutgoing();
+            receive();
+        } catch (RuntimeException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error sincronizando cambios de perfil", e);
+        }
+    }
+
+    private void sendOutgoing() {
+        List<ProfileChange> batch = new ArrayList<>();
+        ProfileChange change;
+        while ((change = outgoing.poll()) != null) {
+            batch.add(change);
+            if (batch.size() >= batchSize) {
+                database.appendProfileChanges(batch);
+                batch.clear();
+            }
+        }
+        database.appendProfileChanges(batch);
+    }
+
+    private void receive() {
+        List<ProfileChange> changes = database.readProfileChanges(cursor, batchSize);
+        long next = cursor;
+        boolean holding = false;
+
+        for (ProfileChange change : changes) {
+            if (!holding && change.getId() != next + 1) {
+                long now = System.currentTimeMillis();
+                if (gapSince == 0) {
+                    gapSince = now;
+                }
+                // After the wait the missing id is taken as a rolled back insert and skipped
+                holding = now - gapSince < GAP_WAIT_MS;
+            }
+
+            if (deliveredPastGap.add(change.getId()) && !change.getServerId().equals(serverId)) {
+                listener.accept(change);
+            }
+            if (!holding) {
+                next = change.getId();
+            }
+        }
+
+        if (!holding) {
+            gapSince = 0;
+        }
+        long delivered = next;
+        cursor = delivered;
+        deliveredPastGap.removeIf(id -> id <= delivered);
+        if (!changes.isEmpty()) {
+            plugin.debug("Sincronizados " + changes.size() + " cambios de perfil (ultimo id " + next + ")");
+        }
+    }
+}
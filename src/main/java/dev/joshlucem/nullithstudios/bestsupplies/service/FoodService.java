@@ -2,8 +2,10 @@ package dev.joshlucem.nullithstudios.bestsupplies.service;
 
 import dev.joshlucem.nullithstudios.bestsupplies.BestSupplies;
 import dev.joshlucem.nullithstudios.bestsupplies.config.ConfigManager;
+import dev.joshlucem.nullithstudios.bestsupplies.model.PlayerSupplyProfile;
 import dev.joshlucem.nullithstudios.bestsupplies.model.RationDefinition;
-import dev.joshlucem.nullithstudios.bestsupplies.storage.Database;
+import dev.joshlucem.nullithstudios.bestsupplies.storage.AsyncDatabase;
+import dev.joshlucem.nullithstudios.bestsupplies.storage.ClaimUnit;
 import dev.joshlucem.nullithstudios.bestsupplies.util.ItemParser;
 import dev.joshlucem.nullithstudios.bestsupplies.util.Text;
 import org.bukkit.entity.Player;
@@ -14,6 +16,10 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadLocalRandom;
 
 public class FoodService {
@@ -21,20 +27,25 @@ public class FoodService {
     private static final long ONE_TIME_CLAIMED = Long.MAX_VALUE;
 
     private final BestSupplies plugin;
-    private final Database database;
+    private final AsyncDatabase asyncDatabase;
     private final ConfigManager configManager;
     private final TimeService timeService;
     private final RankService rankService;
     private final RewardService rewardService;
+    private final ProfileService profileService;
 
-    public FoodService(BestSupplies plugin, Database database, ConfigManager configManager,
-                       TimeService timeService, RankService rankService, RewardService rewardService) {
+    private final Set<UUID> claimsInProgress = ConcurrentHashMap.newKeySet();
+
+    public FoodService(BestSupplies plugin, AsyncDatabase asyncDatabase,
+                       ConfigManager configManager, TimeService timeService, RankService rankService,
+                       RewardService rewardService, ProfileService profileService) {
         this.plugin = plugin;
-        this.database = database;
+        this.asyncDatabase = asyncDatabase;
         this.configManager = configManager;
         this.timeService = timeService;
         this.rankService = rankService;
         this.rewardService = rewardService;
+        this.profileService = profileService;
     }
 
     public List<RationDefinition> getAllRations() {
@@ -53,7 +64,7 @@ public class FoodService {
         if (requiredMinRank == null || requiredMinRank.isBlank()) {
             return true;
         }
-        return rankService.isAtLeastRank(player, requiredMinRank);
+        return rankService.isAtLeastRank(player, ration.getRequiredRankOrdinal());
     }
 
     public boolean canAccessRation(Player player, String rationId) {
@@ -78,13 +89,13 @@ public class FoodService {
             return RationStatus.LOCKED;
         }
 
-        long nextClaimAt = database.getFoodClaimNextAt(player.getUniqueId().toString(), ration.getId());
+        long nextClaimAt = getFoodClaimNextAt(player, ration.getId());
 
         if (ration.isOneTime()) {
             return nextClaimAt == ONE_TIME_CLAIMED ? RationStatus.CLAIMED : RationStatus.READY;
         }
 
-        return System.currentTimeMillis() >= nextClaimAt ? RationStatus.READY : RationStatus.COOLDOWN;
+        return timeService.currentTimeMillis() >= nextClaimAt ? RationStatus.READY : RationStatus.COOLDOWN;
     }
 
     public long getTimeUntilAvailable(Player player, String rationId) {
@@ -93,18 +104,30 @@ public class FoodService {
             return 0;
         }
 
-        long nextClaimAt = database.getFoodClaimNextAt(player.getUniqueId().toString(), ration.getId());
+        long nextClaimAt = getFoodClaimNextAt(player, ration.getId());
         if (ration.isOneTime()) {
             return nextClaimAt == ONE_TIME_CLAIMED ? Long.MAX_VALUE : 0;
         }
 
-        long now = System.currentTimeMillis();
+        long now = timeService.currentTimeMillis();
         if (now >= nextClaimAt) {
             return 0;
         }
         return nextClaimAt - now;
     }
 
+    /**
+     * From the cached profile; 0 (ready) while it loads. Claims check the stored cooldown,
+     * so this only affects what is displayed.
+     */
+    private long getFoodClaimNextAt(Player player, String packId) {
+        PlayerSupplyProfile profile = profileService.getOrLoad(player);
+        if (profile != null) {
+            return profile.getFoodClaimNextAt(packId);
+        }
+        return 0;
+    }
+
     public String formatTimeUntilAvailable(Player player, String rationId) {
         long millis = getTimeUntilAvailable(player, rationId);
         if (millis == Long.MAX_VALUE) {
@@ -122,59 +145,77 @@ public class FoodService {
         return false;
     }
 
-    public ClaimResult claimRation(Player player, String rationId) {
+    public CompletableFuture<ClaimResult> claimRation(Player player, String rationId) {
         RationDefinition ration = getRation(rationId);
         if (ration == null) {
-            return ClaimResult.NOT_FOUND;
+            return CompletableFuture.completedFuture(ClaimResult.NOT_FOUND);
         }
 
         if (!canAccessRation(player, ration)) {
-            return ClaimResult.LOCKED;
+            return CompletableFuture.completedFuture(ClaimResult.LOCKED);
         }
 
-        RationStatus status = getRationStatus(player, ration);
-        if (status == RationStatus.CLAIMED) {
-            return ClaimResult.ALREADY_CLAIMED;
-        }
-        if (status == RationStatus.COOLDOWN) {
-            return ClaimResult.COOLDOWN;
-        }
-        if (status == RationStatus.LOCKED) {
-            return ClaimResult.LOCKED;
+        UUID uuid = player.getUniqueId();
+        if (!claimsInProgress.add(uuid)) {
+            return CompletableFuture.completedFuture(ClaimResult.IN_PROGRESS);
         }
 
-        String rankId = rankService.detectRankId(player);
-        List<String> rewardStrings = buildRewardList(ration, rankId);
-        List<ItemStack> rewards = ItemParser.parseItems(rewardStrings);
-        rewardService.giveItemsOrPending(player, rewards);
+        String playerUuid = uuid.toString();
+        int rankOrdinal = rankService.detectRankOrdinal(player);
 
-        long nextClaimAt;
-        if (ration.isOneTime()) {
-            nextClaimAt = ONE_TIME_CLAIMED;
-        } else {
-            nextClaimAt = System.currentTimeMillis() + Math.max(0, ration.getCooldownMs());
-        }
+        // The next cooldown is only stored if the current one has ended, so two clicks cannot both pass
+        return asyncDatabase.supply(db -> {
+            long now = timeService.currentTimeMillis();
+            long currentNextAt = db.getFoodClaimNextAt(playerUuid, ration.getId());
+
+            ClaimResult blocked = ration.isOneTime() ? ClaimResult.ALREADY_CLAIMED : ClaimResult.COOLDOWN;
+            if (now < currentNextAt) {
+                return blocked;
+            }
+            long nextClaimAt = ration.isOneTime() ? ONE_TIME_CLAIMED : now + Math.max(0, ration.getCooldownMs());
+            ClaimUnit.Outcome outcome = db.commitClaim(ClaimUnit.food(playerUuid, ration.getId(), now, nextClaimAt));
+            if (outcome == ClaimUnit.Outcome.FAILED) {
+                return ClaimResult.ERROR;
+            }
+            if (outcome == ClaimUnit.Outcome.TAKEN) {
+                return blocked;
+            }
+            profileService.recordFoodClaim(playerUuid, ration.getId(), nextClaimAt);
+            return ClaimResult.SUCCESS;
+        }).thenApplyAsync(result -> {
+            if (result == ClaimResult.ERROR) {
+                Text.sendPrefixed(player, configManager.getMessage("general.storage-error"), configManager);
+            }
+            if (result != ClaimResult.SUCCESS) {
+                return result;
+            }
 
-        database.setFoodClaimNextAt(player.getUniqueId().toString(), ration.getId(), nextClaimAt);
+            List<String> rewardStrings = buildRewardList(ration, rankOrdinal);
+            List<ItemStack> rewards = ItemParser.parseItems(rewardStrings);
+            rewardService.giveItemsOrPending(player, rewards);
 
-        Map<String, String> placeholders = new HashMap<>();
-        placeholders.put("%pack%", ration.getDisplayName());
-        Text.sendPrefixed(player, configManager.getMessage("food.claim-success", placeholders), configManager);
+            Map<String, String> placeholders = new HashMap<>();
+            placeholders.put("%pack%", ration.getDisplayName());
+            Text.sendPrefixed(player, configManager.getMessage("food.claim-success", placeholders), configManager);
 
-        plugin.debug("Racion reclamada por " + player.getName() + ": " + ration.getId());
+            plugin.debug("Racion reclamada por " + player.getName() + ": " + ration.getId());
 
-        return ClaimResult.SUCCESS;
+            return ClaimResult.SUCCESS;
+        }, asyncDatabase.mainThread()).exceptionallyAsync(AsyncDatabase.whenBusy(() -> {
+            Text.sendPrefixed(player, configManager.getMessage("general.storage-busy"), configManager);
+            return ClaimResult.ERROR;
+        }), asyncDatabase.mainThread()).whenComplete((result, error) -> claimsInProgress.remove(uuid));
     }
 
-    private List<String> buildRewardList(RationDefinition ration, String rankId) {
+    private List<String> buildRewardList(RationDefinition ration, int rankOrdinal) {
         List<String> rewards = new ArrayList<>();
 
-        List<String> fixed = ration.resolveRewards(rankId);
+        List<String> fixed = ration.resolveRewards(rankOrdinal);
         if (fixed != null) {
             rewards.addAll(fixed);
         }
 
-        List<String> randomPool = ration.resolveRandomRewards(rankId);
+        List<String> randomPool = ration.resolveRandomRewards(rankOrdinal);
         if (randomPool != null && !randomPool.isEmpty() && ration.getRandomPicks() > 0) {
             List<String> copy = new ArrayList<>(randomPool);
             Collections.shuffle(copy, ThreadLocalRandom.current());
@@ -187,12 +228,14 @@ public class FoodService {
 
     public void resetFoodCooldown(Player target, String rationId) {
         if (rationId == null || rationId.isEmpty()) {
-            database.resetAllFoodClaims(target.getUniqueId().toString());
+            profileService.resetFoodClaim(target.getUniqueId().toString(), null);
+            asyncDatabase.resetAllFoodClaims(target.getUniqueId().toString());
             plugin.debug("Todos los cooldowns de raciones reseteados para " + target.getName());
             return;
         }
 
-        database.resetFoodClaim(target.getUniqueId().toString(), rationId);
+        profileService.resetFoodClaim(target.getUniqueId().toString(), rationId);
+        asyncDatabase.resetFoodClaim(target.getUniqueId().toString(), rationId);
         plugin.debug("Cooldown de racion reseteado para " + target.getName() + ": " + rationId);
     }
 
@@ -208,6 +251,8 @@ public class FoodService {
         COOLDOWN,
         LOCKED,
         ALREADY_CLAIMED,
-        NOT_FOUND
+        NOT_FOUND,
+        IN_PROGRESS,
+        ERROR
     }
 }
@@ -0,0 +1,63 @@
+package dev.joshlucem.nullithstudios.bestsupplies.service;
+
+import dev.joshlucem.nullithstudios.bestsupplies.config.ConfigManager;
+import dev.joshlucem.nullithstudios.bestsupplies.storage.Database;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Per-player claim leases for networks where several servers share one database. Each
+ * claim attempt holds the lease under its own token (server id plus a random nonce) only
+ * while it runs, so two claims of one player exclude each other even on the same server.
+ * An expired lease is simply taken over; expiry is judged by each server's wall clock, so
+ * the lease time must stay well above the clock drift between them. With clustering
+ * disabled every call succeeds without touching storage.
+ */
+public class LeaseService {
+
+    // Not held in storage; returned while clustering is disabled
+    private static final String LOCAL_TOKEN = "local";
+    // The token goes in a VARCHAR(64) column: id, a colon and 16 hex digits
+    private static final int MAX_SERVER_ID_LENGTH = 47;
+
+    private final boolean enabled;
+    private final String serverId;
+    private final long leaseMillis;
+
+    public LeaseService(ConfigManager configManager) {
+        this.enabled = configManager.isClusterEnabled();
+        this.serverId = configManager.getClusterServerId();
+        this.leaseMillis = Math.max(1000L, configManager.getClusterLeaseMillis());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getServerId() {
+        return serverId;
+    }
+
+    /**
+     * Call from the storage executor. Returns the token to release the lease with, or null
+     * while another claim of the player, here or on another server, holds it.
+     */
+    public String acquire(Database db, String playerUuid) {
+        if (!enabled) {
+            return LOCAL_TOKEN;
+        }
+        String token = newToken();
+        return db.acquireClaimLease(playerUuid, token, leaseMillis) ? token : null;
+    }
+
+    public void release(Database db, String playerUuid, String token) {
+        if (enabled && token != null) {
+            db.releaseClaimLease(playerUuid, token);
+        }
+    }
+
+    private String newToken() {
+        String id = serverId.length() > MAX_SERVER_ID_LENGTH ? serverId.substring(0, MAX_SERVER_ID_LENGTH) : serverId;
+        return id + ":" + String.format("%016x", ThreadLocalRandom.current().nextLong());
+    }
+}
@@ -0,0 +1,41 @@
+package dev.joshlucem.nullithstudios.bestsupplies.service;
+
+import dev.joshlucem.nullithstudios.bestsupplies.model.ProfileChange;
+
+import java.util.function.Consumer;
+
+/**
+ * Single-server bus: changes go straight back to the local listener and nowhere else.
+ */
+public class LoopbackChangeBus implements ChangeBus {
+
+    private final String serverId;
+    private volatile Consumer<ProfileChange> listener;
+
+    public LoopbackChangeBus(String serverId) {
+        this.serverId = serverId;
+    }
+
+    @Override
+    public String getServerId() {
+        return serverId;
+    }
+
+    @Override
+    public void start(Consumer<ProfileChange> listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void publish(ProfileChange change) {
+        Consumer<ProfileChange> current = listener;
+        if (current != null) {
+            current.accept(change);
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        listener = null;
+    }
+}
@@ -3,25 +3,44 @@ package dev.joshlucem.nullithstudios.bestsupplies.service;
 import dev.joshlucem.nullithstudios.balance.api.BalanceApi;
 import dev.joshlucem.nullithstudios.bestsupplies.BestSupplies;
 import dev.joshlucem.nullithstudios.bestsupplies.model.PendingEntry;
-import dev.joshlucem.nullithstudios.bestsupplies.storage.Database;
+import dev.joshlucem.nullithstudios.bestsupplies.model.PlayerSupplyProfile;
+import dev.joshlucem.nullithstudios.bestsupplies.storage.AsyncDatabase;
 import dev.joshlucem.nullithstudios.bestsupplies.util.ItemParser;
 import dev.joshlucem.nullithstudios.bestsupplies.util.JsonUtil;
 import dev.joshlucem.nullithstudios.bestsupplies.util.Text;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pending deliveries. Each online player gets a mailbox holding their entries in memory,
+ * so the pending menu never waits on storage. Withdrawals change the mailbox right away
+ * and then write everything they changed in one storage transaction; an entry that was
+ * only partly delivered keeps its id and has its payload rewritten in place.
+ */
 public class PendingService {
 
     private final BestSupplies plugin;
-    private final Database database;
+    private final AsyncDatabase asyncDatabase;
+    private final ProfileService profileService;
+
+    private final Set<UUID> withdrawalsInProgress = ConcurrentHashMap.newKeySet();
+    private final Map<UUID, Mailbox> mailboxes = new ConcurrentHashMap<>();
 
-    public PendingService(BestSupplies plugin, Database database) {
+    public PendingService(BestSupplies plugin, AsyncDatabase asyncDatabase, ProfileService profileService) {
         this.plugin = plugin;
-        this.database = database;
+        this.asyncDatabase = asyncDatabase;
+        this.profileService = profileService;
     }
 
     /**
@@ -35,7 +54,8 @@ public class PendingService {
         String playerUuid = player.getUniqueId().toString();
         String payload = JsonUtil.serializeItems(items);
 
-        database.addPending(playerUuid, PendingEntry.PendingType.ITEM, payload);
+        add(player, PendingEntry.PendingType.ITEM, payload);
+        profileService.addPendingCount(playerUuid, 1);
         plugin.debug("Guardados " + items.size() + " items pendientes para " + player.getName());
 
         Map<String, String> placeholders = new HashMap<>();
@@ -57,24 +77,121 @@ public class PendingService {
         String playerUuid = player.getUniqueId().toString();
         String payload = JsonUtil.serializeCheque(chequeId, amount, weekKey);
 
-        database.addPending(playerUuid, PendingEntry.PendingType.CHEQUE, payload);
+        add(player, PendingEntry.PendingType.CHEQUE, payload);
+        profileService.addPendingCount(playerUuid, 1);
         plugin.debug("Guardado cheque pendiente para " + player.getName() + ": " + Text.formatCurrency(BalanceApi.CurrencyType.SILVER, amount));
 
         Text.sendPrefixed(player, plugin.getConfigManager().getMessage("pending.saved-to-pending"), plugin.getConfigManager());
     }
 
+    private void add(Player player, PendingEntry.PendingType type, String payload) {
+        UUID uuid = player.getUniqueId();
+        long createdAt = System.currentTimeMillis();
+        asyncDatabase.addPending(uuid.toString(), type, payload).thenAcceptAsync(id -> {
+            Mailbox mailbox = mailboxes.get(uuid);
+            if (id >= 0 && mailbox != null) {
+                mailbox.entries.put(id, new PendingEntry(id, uuid.toString(), type, payload, createdAt));
+            }
+        }, asyncDatabase.mainThread());
+    }
+
+    /**
+     * Read the entries of a player into their mailbox. Entries saved while the read is
+     * running land in the mailbox too, keyed by id, so none is lost or doubled.
+     */
+    public CompletableFuture<Void> loadMailbox(Player player) {
+        UUID uuid = player.getUniqueId();
+        Mailbox mailbox = new Mailbox();
+        Mailbox previous = mailboxes.put(uuid, mailbox);
+        if (previous != null) {
+            flush(previous);
+        }
+
+        return asyncDatabase.getPendingEntries(uuid.toString()).thenAcceptAsync(entries -> {
+            if (mailboxes.get(uuid) != mailbox) {
+                return;
+            }
+            for (PendingEntry entry : entries) {
+                if (!mailbox.removed.contains(entry.getId())) {
+                    mailbox.entries.putIfAbsent(entry.getId(), entry);
+                }
+            }
+            mailbox.loaded = true;
+        }, asyncDatabase.mainThread());
+    }
+
+    public void loadOnlinePlayers() {
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            loadMailbox(player);
+        }
+    }
+
+    /**
+     * Drop the mailbox of a player who left, writing out anything still unsaved.
+     */
+    public void unloadMailbox(Player player) {
+        Mailbox mailbox = mailboxes.remove(player.getUniqueId());
+        if (mailbox != null) {
+            flush(mailbox);
+        }
+    }
+
     /**
-     * Get all pending entries for a player
+     * Write out unsaved changes of every mailbox and forget them. Storage must still be open.
+     */
+    public void shutdown() {
+        for (Mailbox mailbox : mailboxes.values()) {
+            flush(mailbox);
+        }
+        mailboxes.clear();
+    }
+
+    /**
+     * Get all pending entries for a player from their mailbox; empty while it loads. Use
+     * {@link #getPendingEntriesAsync(Player)} when the stored entries are needed.
      */
     public List<PendingEntry> getPendingEntries(Player player) {
-        return database.getPendingEntries(player.getUniqueId().toString());
+        Mailbox mailbox = mailboxes.get(player.getUniqueId());
+        if (mailbox == null) {
+            if (player.isOnline()) {
+                loadMailbox(player);
+            }
+            return List.of();
+        }
+        return mailbox.loaded ? new ArrayList<>(mailbox.entries.values()) : List.of();
     }
 
     /**
-     * Get count of pending entries
+     * Get all pending entries for a player without blocking the server thread
+     */
+    public CompletableFuture<List<PendingEntry>> getPendingEntriesAsync(Player player) {
+        Mailbox mailbox = mailboxes.get(player.getUniqueId());
+        if (mailbox != null && mailbox.loaded) {
+            return CompletableFuture.completedFuture(new ArrayList<>(mailbox.entries.values()));
+        }
+        return asyncDatabase.getPendingEntries(player.getUniqueId().toString());
+    }
+
+    /**
+     * Get count of pending entries from the cached profile; 0 while it loads
      */
     public int getPendingCount(Player player) {
-        return database.getPendingCount(player.getUniqueId().toString());
+        PlayerSupplyProfile profile = profileService.getOrLoad(player);
+        if (profile != null) {
+            return profile.getPendingCount();
+        }
+        return 0;
+    }
+
+    /**
+     * Get count of pending entries without blocking the server thread
+     */
+    public CompletableFuture<Integer> getPendingCountAsync(Player player) {
+        PlayerSupplyProfile profile = profileService.get(player);
+        if (profile != null) {
+            return CompletableFuture.completedFuture(profile.getPendingCount());
+        }
+        return asyncDatabase.getPendingCount(player.getUniqueId().toString());
     }
 
     /**
@@ -86,17 +203,39 @@ public class PendingService {
 
     /**
      * Withdraw a specific pending entry
-     * Returns true if successful
+     * Completes with true once the entry has been removed from storage
      */
-    public boolean withdrawPending(Player player, PendingEntry entry) {
+    public CompletableFuture<Boolean> withdrawPending(Player player, PendingEntry entry) {
         if (entry == null) {
-            return false;
+            return CompletableFuture.completedFuture(false);
         }
 
+        UUID uuid = player.getUniqueId();
+        if (!withdrawalsInProgress.add(uuid)) {
+            return CompletableFuture.completedFuture(false);
+        }
+
+        Mailbox mailbox = mailboxFor(player);
+        // A menu can still show an entry that was already withdrawn or partly delivered
+        PendingEntry current = mailbox.loaded ? mailbox.entries.get(entry.getId()) : entry;
+        if (current == null || !withdrawEntry(player, current, mailbox)) {
+            withdrawalsInProgress.remove(uuid);
+            return CompletableFuture.completedFuture(false);
+        }
+
+        // Callers rebuild their GUI from the result, which the flush hands back on the server thread
+        return flush(mailbox).whenComplete((flushed, error) -> withdrawalsInProgress.remove(uuid));
+    }
+
+    /**
+     * Give one entry to the player and record the change in the mailbox. Returns false if
+     * nothing was delivered.
+     */
+    private boolean withdrawEntry(Player player, PendingEntry entry, Mailbox mailbox) {
         if (entry.getType() == PendingEntry.PendingType.ITEM) {
-            return withdrawItemPending(player, entry);
+            return withdrawItemPending(player, entry, mailbox);
         } else if (entry.getType() == PendingEntry.PendingType.CHEQUE) {
-            return withdrawChequePending(player, entry);
+            return withdrawChequePending(player, entry, mailbox);
         }
 
         return false;
@@ -105,12 +244,11 @@ public class PendingService {
     /**
      * Withdraw item pending entry
      */
-    private boolean withdrawItemPending(Player player, PendingEntry entry) {
+    private boolean withdrawItemPending(Player player, PendingEntry entry, Mailbox mailbox) {
         List<ItemStack> items = JsonUtil.deserializeItems(entry.getPayload());
 
         if (items.isEmpty()) {
-            database.removePending(entry.getId());
-            return true;
+            return removeEntry(player, entry, mailbox);
         }
 
         if (!ItemParser.hasAnyInventorySpace(player)) {
@@ -121,30 +259,26 @@ public class PendingService {
         List<ItemStack> notGiven = ItemParser.giveItems(player, items);
 
         if (notGiven.isEmpty()) {
-            database.removePending(entry.getId());
             Text.sendPrefixed(player, plugin.getConfigManager().getMessage("pending.withdraw-success"), plugin.getConfigManager());
-            return true;
-        } else {
-            database.removePending(entry.getId());
-            String newPayload = JsonUtil.serializeItems(notGiven);
-            database.addPending(player.getUniqueId().toString(), PendingEntry.PendingType.ITEM, newPayload);
-
-            Map<String, String> placeholders = new HashMap<>();
-            placeholders.put("%count%", String.valueOf(notGiven.size()));
-            Text.sendPrefixed(player, plugin.getConfigManager().getMessage("pending.inventory-full", placeholders), plugin.getConfigManager());
-            return true;
+            return removeEntry(player, entry, mailbox);
         }
+
+        Map<String, String> placeholders = new HashMap<>();
+        placeholders.put("%count%", String.valueOf(notGiven.size()));
+        Text.sendPrefixed(player, plugin.getConfigManager().getMessage("pending.inventory-full", placeholders), plugin.getConfigManager());
+
+        mailbox.rewrite(entry, JsonUtil.serializeItems(notGiven));
+        return true;
     }
 
     /**
      * Withdraw cheque pending entry
      */
-    private boolean withdrawChequePending(Player player, PendingEntry entry) {
+    private boolean withdrawChequePending(Player player, PendingEntry entry, Mailbox mailbox) {
         JsonUtil.ChequePayload cheque = JsonUtil.deserializeCheque(entry.getPayload());
 
         if (cheque == null) {
-            database.removePending(entry.getId());
-            return true;
+            return removeEntry(player, entry, mailbox);
         }
 
         if (!ItemParser.hasAnyInventorySpace(player)) {
@@ -155,40 +289,123 @@ public class PendingService {
         ItemStack chequeItem = plugin.getBankService().createChequeItem(player, cheque.amount(), cheque.weekKey(), cheque.chequeId());
         player.getInventory().addItem(chequeItem);
 
-        database.removePending(entry.getId());
         Text.sendPrefixed(player, plugin.getConfigManager().getMessage("pending.withdraw-success"), plugin.getConfigManager());
+        return removeEntry(player, entry, mailbox);
+    }
+
+    private boolean removeEntry(Player player, PendingEntry entry, Mailbox mailbox) {
+        profileService.addPendingCount(player.getUniqueId().toString(), -1);
+        mailbox.remove(entry);
         return true;
     }
 
     /**
      * Withdraw all pending entries for a player
-     * Returns number of entries successfully withdrawn
+     * Completes with the number of entries successfully withdrawn
      */
-    public int withdrawAllPending(Player player) {
-        List<PendingEntry> entries = getPendingEntries(player);
-        int withdrawn = 0;
+    public CompletableFuture<Integer> withdrawAllPending(Player player) {
+        UUID uuid = player.getUniqueId();
+        if (!withdrawalsInProgress.add(uuid)) {
+            return CompletableFuture.completedFuture(0);
+        }
 
-        for (PendingEntry entry : entries) {
-            if (!ItemParser.hasAnyInventorySpace(player)) {
-                break;
+        return getPendingEntriesAsync(player).thenComposeAsync(entries -> {
+            Mailbox mailbox = mailboxFor(player);
+            int withdrawn = 0;
+
+            for (PendingEntry entry : entries) {
+                if (!ItemParser.hasAnyInventorySpace(player)) {
+                    break;
+                }
+                if (withdrawEntry(player, entry, mailbox)) {
+                    withdrawn++;
+                }
             }
 
-            if (withdrawPending(player, entry)) {
-                withdrawn++;
+            int count = withdrawn;
+            return flush(mailbox).thenApply(flushed -> count);
+        }, asyncDatabase.mainThread()).thenApplyAsync(withdrawn -> {
+            if (withdrawn > 0) {
+                Text.sendPrefixed(player, plugin.getConfigManager().getMessage("pending.withdraw-all-success"), plugin.getConfigManager());
             }
-        }
+            return withdrawn;
+        }, asyncDatabase.mainThread()).exceptionallyAsync(AsyncDatabase.whenBusy(() -> {
+            Text.sendPrefixed(player, plugin.getConfigManager().getMessage("general.storage-busy"), plugin.getConfigManager());
+            return 0;
+        }), asyncDatabase.mainThread()).whenComplete((withdrawn, error) -> withdrawalsInProgress.remove(uuid));
+    }
 
-        if (withdrawn > 0) {
-            Text.sendPrefixed(player, plugin.getConfigManager().getMessage("pending.withdraw-all-success"), plugin.getConfigManager());
+    /**
+     * The mailbox of an online player, or a detached one that only carries this
+     * withdrawal's changes to storage when the player's mailbox is not there.
+     */
+    private Mailbox mailboxFor(Player player) {
+        Mailbox mailbox = mailboxes.get(player.getUniqueId());
+        return mailbox != null ? mailbox : new Mailbox();
+    }
+
+    /**
+     * Write the unsaved changes of a mailbox in one transaction. Completes on the server
+     * thread with false if storage refused them; they stay queued for the next flush.
+     */
+    private CompletableFuture<Boolean> flush(Mailbox mailbox) {
+        if (mailbox.payloads.isEmpty() && mailbox.removed.isEmpty()) {
+            return CompletableFuture.completedFuture(true);
         }
 
-        return withdrawn;
+        Map<Integer, String> payloads = new HashMap<>(mailbox.payloads);
+        Set<Integer> removed = new HashSet<>(mailbox.removed);
+        mailbox.payloads.clear();
+        mailbox.removed.clear();
+
+        return asyncDatabase.applyPendingChanges(payloads, removed)
+                .exceptionally(error -> false)
+                .thenApplyAsync(applied -> {
+                    if (!applied) {
+                        // Anything changed again since then is newer than what failed
+                        payloads.forEach((id, payload) -> {
+                            if (!mailbox.removed.contains(id)) {
+                                mailbox.payloads.putIfAbsent(id, payload);
+                            }
+                        });
+                        mailbox.removed.addAll(removed);
+                        plugin.getLogger().warning("No se pudieron guardar " + (payloads.size() + removed.size())
+                                + " cambios de entregas pendientes; se reintentara.");
+                    }
+                    return applied;
+                }, asyncDatabase.mainThread());
     }
 
     /**
      * Remove a pending entry by ID
      */
     public void removePending(int id) {
-        database.removePending(id);
+        for (Mailbox mailbox : mailboxes.values()) {
+            mailbox.entries.remove(id);
+        }
+        asyncDatabase.removePending(id);
+    }
+
+    /**
+     * Pending entries of one player in id order, which is the order they were saved in,
+     * plus the changes storage has not confirmed yet. Only touched on the server thread.
+     */
+    private static final class Mailbox {
+        private final Map<Integer, PendingEntry> entries = new TreeMap<>();
+        private final Map<Integer, String> payloads = new HashMap<>();
+        private final Set<Integer> removed = new HashSet<>();
+        private boolean loaded;
+
+        private void rewrite(PendingEntry entry, String payload) {
+            entries.put(entry.getId(), new PendingEntry(entry.getId(), entry.getPlayerUuid(), entry.getType(),
+                    payload, entry.getCreatedAt()));
+            payloads.put(entry.getId(), payload);
+        }
+
+        private void remove(PendingEntry entry) {
+            entries.remove(entry.getId());
+            payloads.remove(entry.getId());
+            removed.add(entry.getId());
+        }
     }
 }
@@ -0,0 +1,273 @@
+package dev.joshlucem.nullithstudios.bestsupplies.service;
+
+import dev.joshlucem.nullithstudios.bestsupplies.BestSupplies;
+import dev.joshlucem.nullithstudios.bestsupplies.model.PlayerState;
+import dev.joshlucem.nullithstudios.bestsupplies.model.PlayerSupplyProfile;
+import dev.joshlucem.nullithstudios.bestsupplies.model.ProfileChange;
+import dev.joshlucem.nullithstudios.bestsupplies.storage.AsyncDatabase;
+import org.bukkit.entity.Player;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Keeps a {@link PlayerSupplyProfile} in memory for every online player so GUIs and
+ * placeholders can render without querying storage. Profiles are loaded on join,
+ * updated alongside every write and dropped on quit. Local changes are published on the
+ * {@link ChangeBus} so other servers sharing the database can patch their copies.
+ */
+public class ProfileService {
+
+    private final BestSupplies plugin;
+    private final AsyncDatabase asyncDatabase;
+    private final TimeService timeService;
+    private final ChangeBus changeBus;
+    private final Map<UUID, PlayerSupplyProfile> profiles = new ConcurrentHashMap<>();
+    private final Set<UUID> loading = ConcurrentHashMap.newKeySet();
+    private final Set<UUID> changedWhileLoading = ConcurrentHashMap.newKeySet();
+
+    public ProfileService(BestSupplies plugin, AsyncDatabase asyncDatabase, TimeService timeService, ChangeBus changeBus) {
+        this.plugin = plugin;
+        this.asyncDatabase = asyncDatabase;
+        this.timeService = timeService;
+        this.changeBus = changeBus;
+    }
+
+    /**
+     * Load the profile of a player in one storage round trip and cache it once done.
+     */
+    public CompletableFuture<PlayerSupplyProfile> load(Player player) {
+        UUID uuid = player.getUniqueId();
+        String fromDate = timeService.getDateKey(getCoverageStart());
+        loading.add(uuid);
+        changedWhileLoading.remove(uuid);
+
+        return asyncDatabase.loadSupplyProfile(uuid.toString(), fromDate).thenComposeAsync(profile -> {
+            loading.remove(uuid);
+
+            // A write landed while we were reading, so the snapshot may already be stale
+            if (changedWhileLoading.remove(uuid) && player.isOnline()) {
+                return load(player);
+            }
+
+            // The player may have left while the profile was loading
+            if (profile != null && player.isOnline()) {
+                profiles.put(uuid, profile);
+                plugin.debug("Perfil cargado para " + player.getName());
+            }
+            return CompletableFuture.completedFuture(profile);
+        }, asyncDatabase.mainThread()).whenComplete((profile, error) -> {
+            // A failed read must not look like a load still running, or nothing would retry it
+            if (error != null) {
+                loading.remove(uuid);
+            }
+        });
+    }
+
+    public void loadOnlinePlayers() {
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            load(player);
+        }
+    }
+
+    public void evict(Player player) {
+        UUID uuid = player.getUniqueId();
+        profiles.remove(uuid);
+        loading.remove(uuid);
+        changedWhileLoading.remove(uuid);
+    }
+
+    public void clear() {
+        profiles.clear();
+        loading.clear();
+        changedWhileLoading.clear();
+    }
+
+    /**
+     * Cached profile of the player, or null if it has not been loaded yet.
+     */
+    public PlayerSupplyProfile get(Player player) {
+        return profiles.get(player.getUniqueId());
+    }
+
+    /**
+     * Cached profile of the player, or null while it loads. Starts a load if none is cached or
+     * running, so main-thread readers can show a neutral value instead of querying storage.
+     */
+    public PlayerSupplyProfile getOrLoad(Player player) {
+        PlayerSupplyProfile profile = profiles.get(player.getUniqueId());
+        if (profile == null && player.isOnline() && !loading.contains(player.getUniqueId())) {
+            load(player);
+        }
+        return profile;
+    }
+
+    public PlayerSupplyProfile get(String playerUuid) {
+        try {
+            return profiles.get(UUID.fromString(playerUuid));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public int size() {
+        return profiles.size();
+    }
+
+    // Write-through helpers; safe to call from storage threads
+
+    public void updateState(PlayerState state) {
+        update(state.getPlayerUuid(), profile -> profile.setState(state));
+        publish(state.getPlayerUuid(), ProfileChange.Kind.STATE, null, 0);
+    }
+
+    public void recordDailyClaim(String playerUuid, String date, boolean claimed) {
+        update(playerUuid, profile -> profile.setDailyClaim(date, claimed));
+        publish(playerUuid, ProfileChange.Kind.DAILY, date, claimed ? 1 : 0);
+    }
+
+    public void recordWeeklyClaim(String playerUuid, String weekKey, boolean claimed) {
+        update(playerUuid, profile -> profile.setWeeklyClaim(weekKey, claimed));
+        publish(playerUuid, ProfileChange.Kind.WEEKLY, weekKey, claimed ? 1 : 0);
+    }
+
+    public void recordMonthlyClaim(String playerUuid, String month, int setBits, int clearBits) {
+        update(playerUuid, profile -> profile.updateMonthlyClaimMask(month, setBits, clearBits));
+        changeBus.publish(ProfileChange.monthly(changeBus.getServerId(), playerUuid, month, setBits, clearBits));
+    }
+
+    public void recordFoodClaim(String playerUuid, String packId, long nextClaimAt) {
+        update(playerUuid, profile -> profile.setFoodClaimNextAt(packId, nextClaimAt));
+        publish(playerUuid, ProfileChange.Kind.FOOD, packId, nextClaimAt);
+    }
+
+    public void resetFoodClaim(String playerUuid, String packId) {
+        applyFoodReset(playerUuid, packId);
+        publish(playerUuid, ProfileChange.Kind.FOOD, packId, 0);
+    }
+
+    public void addPendingCount(String playerUuid, int delta) {
+        update(playerUuid, profile -> profile.addPendingCount(delta));
+        publish(playerUuid, ProfileChange.Kind.PENDING, null, delta);
+    }
+
+    /**
+     * Tell the other servers to load the profile of the player again, after a change made
+     * directly in storage that the other kinds cannot describe.
+     */
+    public void publishReload(String playerUuid) {
+        publish(playerUuid, ProfileChange.Kind.RELOAD, null, 0);
+    }
+
+    public void publishReloadAll() {
+        publish(ProfileChange.ALL_PLAYERS, ProfileChange.Kind.RELOAD, null, 0);
+    }
+
+    /**
+     * Patch the cached profile with a change made on another server. Changes from this
+     * server were already applied when they were recorded and are skipped.
+     */
+    public void applyRemoteChange(ProfileChange change) {
+        if (change.getServerId().equals(changeBus.getServerId())) {
+            return;
+        }
+
+        String playerUuid = change.getPlayerUuid();
+        String key = change.getKey();
+        switch (change.getKind()) {
+            case DAILY -> update(playerUuid, profile -> profile.setDailyClaim(key, change.getValue() != 0));
+            case WEEKLY -> update(playerUuid, profile -> profile.setWeeklyClaim(key, change.getValue() != 0));
+            case MONTHLY -> update(playerUuid, profile ->
+                    profile.updateMonthlyClaimMask(key, change.getSetBits(), change.getClearBits()));
+            case FOOD -> {
+                if (change.getValue() == 0) {
+                    applyFoodReset(playerUuid, key);
+                } else {
+                    update(playerUuid, profile -> profile.setFoodClaimNextAt(key, change.getValue()));
+                }
+            }
+            case PENDING -> update(playerUuid, profile -> profile.addPendingCount((int) change.getValue()));
+            case STATE -> {
+                // The state does not fit in a change row, so re-read just that row
+                if (get(playerUuid) != null) {
+                    asyncDatabase.run(db -> {
+                        PlayerState state = db.getPlayerState(playerUuid);
+                        update(playerUuid, profile -> profile.setState(state));
+                    });
+                }
+            }
+            case RELOAD -> plugin.getServer().getScheduler().runTask(plugin, () -> {
+                if (ProfileChange.ALL_PLAYERS.equals(playerUuid)) {
+                    loadOnlinePlayers();
+                    return;
+                }
+                try {
+                    Player player = plugin.getServer().getPlayer(UUID.fromString(playerUuid));
+                    if (player != null) {
+                        load(player);
+                    }
+                } catch (IllegalArgumentException ignored) {
+                    // Not a player uuid
+                }
+            });
+        }
+    }
+
+    private void applyFoodReset(String playerUuid, String packId) {
+        update(playerUuid, profile -> {
+            if (packId == null) {
+                profile.resetAllFoodClaims();
+            } else {
+                profile.resetFoodClaim(packId);
+            }
+        });
+    }
+
+    private void publish(String playerUuid, ProfileChange.Kind kind, String key, long value) {
+        changeBus.publish(new ProfileChange(0, changeBus.getServerId(), playerUuid, kind, key, value));
+    }
+
+    private void update(String playerUuid, Consumer<PlayerSupplyProfile> change) {
+        UUID uuid;
+        try {
+            uuid = UUID.fromString(playerUuid);
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+
+        PlayerSupplyProfile profile = profiles.get(uuid);
+        if (profile != null) {
+            change.accept(profile);
+        } else if (loading.contains(uuid)) {
+            changedWhileLoading.add(uuid);
+        }
+    }
+
+    /**
+     * Earliest date the GUIs can ask about: the month start, the start of the daily
+     * week or the start of the weekly bank period, whichever comes first.
+     */
+    private LocalDate getCoverageStart() {
+        LocalDate today = timeService.getCurrentDate();
+        LocalDate start = today.withDayOfMonth(1);
+
+        LocalDate monday = today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        if (monday.isBefore(start)) {
+            start = monday;
+        }
+
+        LocalDate weeklyReset = timeService.getLastWeeklyReset().toLocalDate();
+        if (weeklyReset.isBefore(start)) {
+            start = weeklyReset;
+        }
+
+        return start;
+    }
+}
@@ -3,36 +3,151 @@ package dev.joshlucem.nullithstudios.bestsupplies.service;
 import dev.joshlucem.nullithstudios.bestsupplies.BestSupplies;
 import dev.joshlucem.nullithstudios.bestsupplies.config.ConfigManager;
 import dev.joshlucem.nullithstudios.bestsupplies.model.RankDefinition;
+import dev.joshlucem.nullithstudios.bestsupplies.model.RankOrder;
 import org.bukkit.entity.Player;
 
-import java.util.List;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.logging.Level;
 
 public class RankService {
 
     private final BestSupplies plugin;
     private final ConfigManager configManager;
 
+    // Resolved rank per online player; dropped on join, quit, world change and permission recalculation
+    private final Map<UUID, ResolvedRank> resolved = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private AutoCloseable luckPermsSubscription;
+
     public RankService(BestSupplies plugin, ConfigManager configManager) {
         this.plugin = plugin;
         this.configManager = configManager;
     }
 
-    public RankDefinition detectRank(Player player) {
-        List<String> priority = configManager.getRankPriority();
+    public void start() {
+        if (plugin.getServer().getPluginManager().isPluginEnabled("LuckPerms")) {
+            hookLuckPerms();
+        }
+    }
 
-        for (String rankId : priority) {
-            RankDefinition rank = configManager.getRank(rankId);
-            if (rank == null) {
-                continue;
+    public void shutdown() {
+        if (luckPermsSubscription != null) {
+            try {
+                luckPermsSubscription.close();
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.WARNING, "Error cerrando la suscripcion a LuckPerms", e);
+            }
+            luckPermsSubscription = null;
+        }
+        resolved.clear();
+    }
+
+    /**
+     * Drop the player's cached rank after LuckPerms recalculates their permissions. LuckPerms
+     * is only a soft dependency, so its API is reached through reflection like ItemsAdder's.
+     */
+    private void hookLuckPerms() {
+        try {
+            Class<?> apiClass = Class.forName("net.luckperms.api.LuckPerms");
+            Object api = plugin.getServer().getServicesManager().load(apiClass);
+            if (api == null) {
+                return;
             }
+            Class<?> eventClass = Class.forName("net.luckperms.api.event.user.UserDataRecalculateEvent");
+            Method getUser = eventClass.getMethod("getUser");
+            Method getUniqueId = Class.forName("net.luckperms.api.model.user.User").getMethod("getUniqueId");
+            Object eventBus = apiClass.getMethod("getEventBus").invoke(api);
+
+            Consumer<Object> handler = event -> {
+                try {
+                    resolved.remove((UUID) getUniqueId.invoke(getUser.invoke(event)));
+                } catch (ReflectiveOperationException e) {
+                    resolved.clear();
+                }
+            };
+            luckPermsSubscription = (AutoCloseable) Class.forName("net.luckperms.api.event.EventBus")
+                    .getMethod("subscribe", Object.class, Class.class, Consumer.class)
+                    .invoke(eventBus, plugin, eventClass, handler);
+            plugin.getLogger().info("LuckPerms detectado: la cache de rangos se actualiza al cambiar permisos.");
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            plugin.getLogger().log(Level.WARNING, "No se pudo suscribir a los eventos de LuckPerms", e);
+        }
+    }
+
+    public void invalidate(Player player) {
+        resolved.remove(player.getUniqueId());
+    }
+
+    public void invalidateAll() {
+        resolved.clear();
+    }
+
+    public long getCacheHits() {
+        return hits.sum();
+    }
+
+    public long getCacheMisses() {
+        return misses.sum();
+    }
+
+    public int getCachedPlayers() {
+        return resolved.size();
+    }
+
+    public boolean isLuckPermsHooked() {
+        return luckPermsSubscription != null;
+    }
 
-            if (!rank.hasPermission()) {
+    public void resetCacheStats() {
+        hits.reset();
+        misses.reset();
+    }
+
+    public RankDefinition detectRank(Player player) {
+        return resolve(player).rank();
+    }
+
+    /**
+     * Ordinal of the player's rank in the loaded {@link RankOrder}.
+     */
+    public int detectRankOrdinal(Player player) {
+        return resolve(player).ordinal();
+    }
+
+    private ResolvedRank resolve(Player player) {
+        ResolvedRank cached = resolved.get(player.getUniqueId());
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+
+        RankOrder order = configManager.getRankOrder();
+        RankDefinition rank = resolveRank(player, order);
+        ResolvedRank result = new ResolvedRank(rank, rank != null ? order.ordinalOf(rank.getId()) : RankOrder.UNRANKED);
+        // Offline player objects would never get a quit event to evict them
+        if (player.isOnline()) {
+            resolved.put(player.getUniqueId(), result);
+        }
+        return result;
+    }
+
+    private RankDefinition resolveRank(Player player, RankOrder order) {
+        for (int ordinal = 0; ordinal < order.getPrioritizedCount(); ordinal++) {
+            RankDefinition rank = order.get(ordinal);
+            if (rank == null || !rank.hasPermission()) {
                 continue;
             }
 
             for (String permission : rank.getPermissions()) {
                 if (permission != null && !permission.isEmpty() && player.hasPermission(permission)) {
-                    plugin.debug("Jugador " + player.getName() + " tiene rango: " + rankId + " (permiso: " + permission + ")");
+                    plugin.debug("Jugador " + player.getName() + " tiene rango: " + rank.getId() + " (permiso: " + permission + ")");
                     return rank;
                 }
             }
@@ -44,12 +159,7 @@ public class RankService {
             return defaultRank;
         }
 
-        if (!priority.isEmpty()) {
-            String lastRankId = priority.get(priority.size() - 1);
-            return configManager.getRank(lastRankId);
-        }
-
-        return null;
+        return order.get(order.getPrioritizedCount() - 1);
     }
 
     public String detectRankId(Player player) {
@@ -101,23 +211,24 @@ public class RankService {
     }
 
     public boolean isAtLeastRank(Player player, String requiredMinRank) {
-        String playerRankId = detectRankId(player);
-        return isAtLeastRank(playerRankId, requiredMinRank);
-    }
-
-    public boolean isAtLeastRank(String playerRankId, String requiredMinRank) {
         if (requiredMinRank == null || requiredMinRank.isBlank()) {
             return true;
         }
+        return isAtLeastRank(player, configManager.getRankOrder().ordinalOf(requiredMinRank));
+    }
 
-        List<String> priority = configManager.getRankPriority();
-        int playerIndex = priority.indexOf(playerRankId.toLowerCase());
-        int requiredIndex = priority.indexOf(requiredMinRank.toLowerCase());
+    public boolean isAtLeastRank(Player player, int requiredOrdinal) {
+        return configManager.getRankOrder().isAtLeast(detectRankOrdinal(player), requiredOrdinal);
+    }
 
-        if (playerIndex == -1 || requiredIndex == -1) {
-            return false;
+    public boolean isAtLeastRank(String playerRankId, String requiredMinRank) {
+        if (requiredMinRank == null || requiredMinRank.isBlank()) {
+            return true;
         }
+        RankOrder order = configManager.getRankOrder();
+        return order.isAtLeast(order.ordinalOf(playerRankId), order.ordinalOf(requiredMinRank));
+    }
 
-        return playerIndex <= requiredIndex;
+    private record ResolvedRank(RankDefinition rank, int ordinal) {
     }
 }
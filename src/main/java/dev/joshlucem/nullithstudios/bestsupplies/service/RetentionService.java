@@ -0,0 +1,247 @@
+package dev.joshlucem.nullithstudios.bestsupplies.service;
+
+import dev.joshlucem.nullithstudios.bestsupplies.BestSupplies;
+import dev.joshlucem.nullithstudios.bestsupplies.config.ConfigManager;
+import dev.joshlucem.nullithstudios.bestsupplies.storage.Database;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntUnaryOperator;
+import java.util.logging.Level;
+
+/**
+ * Deletes claim history, redeemed cheques and (optionally) old pending deliveries past
+ * their configured horizon. Runs on a Bukkit async task in small batches with a pause in
+ * between, so the storage threads serving players never wait long behind it.
+ */
+public class RetentionService {
+
+    // Never purge what the profile cache still reads: current month, week and weekly period
+    private static final int MIN_DAILY_DAYS = 35;
+    private static final int MIN_WEEKLY_DAYS = 14;
+    private static final int MIN_MONTHLY_MONTHS = 2;
+
+    private final BestSupplies plugin;
+    private final Database database;
+    private final ConfigManager configManager;
+    private final TimeService timeService;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private volatile boolean stopped;
+    private volatile Report lastReport;
+    private BukkitTask task;
+
+    public RetentionService(BestSupplies plugin, Database database, ConfigManager configManager, TimeService timeService) {
+        this.plugin = plugin;
+        this.database = database;
+        this.configManager = configManager;
+        this.timeService = timeService;
+    }
+
+    public void start() {
+        if (!configManager.isRetentionEnabled() || configManager.getRetentionIntervalHours() <= 0) {
+            return;
+        }
+        long period = configManager.getRetentionIntervalHours() * 60L * 60L * 20L;
+        // First pass a minute after startup, away from the burst of profile loads
+        task = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, this::runQuietly, 20L * 60L, period);
+    }
+
+    public void shutdown() {
+        stopped = true;
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public Report getLastReport() {
+        return lastReport;
+    }
+
+    /**
+     * Run a pass now on an async task. Completes with null if a pass is already running.
+     */
+    public CompletableFuture<Report> runNow() {
+        CompletableFuture<Report> future = new CompletableFuture<>();
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                future.complete(run());
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * One full compaction on an async task, for backends that need it before
+     * {@link Database#reclaimSpace(int)} can free space in batches. Completes with the bytes
+     * released, -1 if unsupported or failed, or null if a pass is already running.
+     */
+    public CompletableFuture<Long> compactNow() {
+        CompletableFuture<Long> future = new CompletableFuture<>();
+        if (stopped || !running.compareAndSet(false, true)) {
+            future.complete(null);
+            return future;
+        }
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                future.complete(database.compactFully());
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            } finally {
+                running.set(false);
+            }
+        });
+        return future;
+    }
+
+    private void runQuietly() {
+        try {
+            run();
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.SEVERE, "Error en la limpieza de datos antiguos", e);
+        }
+    }
+
+    private Report run() {
+        if (stopped || !running.compareAndSet(false, true)) {
+            return null;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            LocalDate today = timeService.getCurrentDate();
+            Map<String, Integer> deleted = new LinkedHashMap<>();
+
+            int dailyDays = horizon(configManager.getRetentionDailyClaimsDays(), MIN_DAILY_DAYS);
+            if (dailyDays > 0) {
+                String before = timeService.getDateKey(today.minusDays(dailyDays));
+                deleted.put("daily_claims", drain(limit -> database.purgeDailyClaims(before, limit)));
+            }
+
+            int weeklyDays = horizon(configManager.getRetentionWeeklyClaimsDays(), MIN_WEEKLY_DAYS);
+            if (weeklyDays > 0) {
+                String before = timeService.getDateKey(today.minusDays(weeklyDays));
+                deleted.put("weekly_claims", drain(limit -> database.purgeWeeklyClaims(before, limit)));
+            }
+
+            int monthlyMonths = horizon(configManager.getRetentionMonthlyClaimsMonths(), MIN_MONTHLY_MONTHS);
+            if (monthlyMonths > 0) {
+                String before = timeService.getMonthKey(today.withDayOfMonth(1).minusMonths(monthlyMonths));
+                deleted.put("monthly_claims", drain(limit -> database.purgeMonthlyClaims(before, limit)));
+            }
+
+            int chequeDays = horizon(configManager.getRetentionRedeemedChequesDays(), 1);
+            if (chequeDays > 0) {
+                long before = start - Duration.ofDays(chequeDays).toMillis();
+                deleted.put("cheques", drain(limit -> database.purgeRedeemedCheques(before, limit)));
+            }
+
+            int pendingDays = horizon(configManager.getRetentionPendingDays(), 1);
+            if (pendingDays > 0) {
+                long before = start - Duration.ofDays(pendingDays).toMillis();
+                int removed = drain(limit -> database.purgePending(before, limit));
+                deleted.put("pending", removed);
+                if (removed > 0) {
+                    // Cached pending counters and mailboxes of online players may now be stale
+                    plugin.getServer().getScheduler().runTask(plugin, () -> {
+                        plugin.getProfileService().loadOnlinePlayers();
+                        plugin.getPendingService().loadOnlinePlayers();
+                    });
+                }
+            }
+
+            int changeMinutes = configManager.getClusterSyncRetentionMinutes();
+            if (configManager.isClusterEnabled() && changeMinutes > 0) {
+                long before = start - Duration.ofMinutes(changeMinutes).toMillis();
+                deleted.put("profile_changes", drain(limit -> database.purgeProfileChanges(before, limit)));
+            }
+
+            long reclaimedBytes = 0L;
+            if (configManager.isRetentionVacuumEnabled() && !stopped) {
+                reclaimedBytes = database.reclaimSpace(configManager.getRetentionVacuumPages());
+            }
+
+            Report report = new Report(deleted, reclaimedBytes, System.currentTimeMillis() - start, System.currentTimeMillis());
+            lastReport = report;
+            plugin.getLogger().info("Limpieza de datos completada: " + report.getTotalDeleted() + " filas eliminadas "
+                    + report.getDeleted() + ", " + report.getReclaimedBytes() / 1024L + " KB liberados en "
+                    + report.getDurationMs() + " ms.");
+            return report;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private int drain(IntUnaryOperator purge) {
+        int batchSize = Math.max(1, configManager.getRetentionBatchSize());
+        long pause = Math.max(0L, configManager.getRetentionBatchPause());
+        int total = 0;
+
+        while (!stopped) {
+            int removed = purge.applyAsInt(batchSize);
+            total += removed;
+            if (removed < batchSize) {
+                break;
+            }
+            if (pause > 0) {
+                try {
+                    Thread.sleep(pause);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        return total;
+    }
+
+    private static int horizon(int configured, int minimum) {
+        return configured <= 0 ? 0 : Math.max(configured, minimum);
+    }
+
+    public static class Report {
+        private final Map<String, Integer> deleted;
+        private final long reclaimedBytes;
+        private final long durationMs;
+        private final long finishedAt;
+
+        public Report(Map<String, Integer> deleted, long reclaimedBytes, long durationMs, long finishedAt) {
+            this.deleted = Collections.unmodifiableMap(deleted);
+            this.reclaimedBytes = reclaimedBytes;
+            this.durationMs = durationMs;
+            this.finishedAt = finishedAt;
+        }
+
+        public Map<String, Integer> getDeleted() {
+            return deleted;
+        }
+
+        public int getTotalDeleted() {
+            return deleted.values().stream().mapToInt(Integer::intValue).sum();
+        }
+
+        public long getReclaimedBytes() {
+            return reclaimedBytes;
+        }
+
+        public long getDurationMs() {
+            return durationMs;
+        }
+
+        public long getFinishedAt() {
+            return finishedAt;
+        }
+    }
+}
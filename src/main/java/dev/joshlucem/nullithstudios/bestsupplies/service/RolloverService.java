@@ -0,0 +1,68 @@
+package dev.joshlucem.nullithstudios.bestsupplies.service;
+
+import dev.joshlucem.nullithstudios.bestsupplies.BestSupplies;
+import dev.joshlucem.nullithstudios.bestsupplies.event.SuppliesRolloverEvent;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+
+/**
+ * Reacts to the day, weekly period and month changing. {@link TimeService} fires it from a
+ * task scheduled for the exact boundary; this brings the cached state of online players up
+ * to date in bulk and then publishes a {@link SuppliesRolloverEvent} for GUIs and
+ * placeholders, so nothing has to poll the clock to notice a new period.
+ */
+public class RolloverService {
+
+    private final BestSupplies plugin;
+    private final TimeService timeService;
+    private final DailyService dailyService;
+
+    public RolloverService(BestSupplies plugin, TimeService timeService, DailyService dailyService) {
+        this.plugin = plugin;
+        this.timeService = timeService;
+        this.dailyService = dailyService;
+    }
+
+    public void start() {
+        timeService.setRolloverListener(this::onRollover);
+    }
+
+    private void onRollover(TimeService.PeriodKeys previous, TimeService.PeriodKeys current) {
+        SuppliesRolloverEvent event = new SuppliesRolloverEvent(previous, current);
+        plugin.debug("Cambio de periodo: " + describe(event) + " (" + current.todayKey() + ", semana "
+                + current.weeklyPeriodKey() + ")");
+
+        if (!event.isDaily()) {
+            plugin.getServer().getPluginManager().callEvent(event);
+            return;
+        }
+
+        // Streaks that ran out at midnight are reset now rather than on the next join
+        List<Player> online = new ArrayList<>(plugin.getServer().getOnlinePlayers());
+        dailyService.checkStreaks(online).whenCompleteAsync((lost, error) -> {
+            if (error != null) {
+                plugin.getLogger().log(Level.SEVERE, "Error al actualizar rachas en el cambio de dia", error);
+            } else if (lost > 0) {
+                plugin.debug("Rachas perdidas en el cambio de dia: " + lost);
+            }
+            plugin.getServer().getPluginManager().callEvent(event);
+        }, plugin.getAsyncDatabase().mainThread());
+    }
+
+    private static String describe(SuppliesRolloverEvent event) {
+        List<String> periods = new ArrayList<>();
+        if (event.isDaily()) {
+            periods.add("dia");
+        }
+        if (event.isWeekly()) {
+            periods.add("semana");
+        }
+        if (event.isMonthly()) {
+            periods.add("mes");
+        }
+        return String.join(", ", periods);
+    }
+}
@@ -1,47 +1,157 @@
 package dev.joshlucem.nullithstudios.bestsupplies.service;
 
 import dev.joshlucem.nullithstudios.bestsupplies.config.ConfigManager;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
 
 import java.time.*;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.TemporalAdjusters;
 import java.time.temporal.WeekFields;
+import java.util.function.BiConsumer;
+import java.util.logging.Level;
 
 public class TimeService {
 
     private final ConfigManager configManager;
     private final ZoneId timezone;
+    private final Clock clock;
     private final DateTimeFormatter dateFormatter;
     private final WeekFields weekFields;
     private final DateTimeFormatter weeklyPeriodFormatter;
 
+    // Keys of the current day, month and weekly period; replaced when a boundary is crossed
+    private volatile PeriodKeys periodKeys;
+    private Plugin plugin;
+    private BukkitTask boundaryTask;
+    // Keys the boundary task last saw; only touched on the main thread
+    private PeriodKeys announcedKeys;
+    private BiConsumer<PeriodKeys, PeriodKeys> rolloverListener;
+
     public TimeService(ConfigManager configManager) {
+        this(configManager, Clock.system(configManager.getTimezone()));
+    }
+
+    /**
+     * Time service reading "now" from the given clock, in the configured timezone.
+     * Tests pass a clock they can move forward.
+     */
+    public TimeService(ConfigManager configManager, Clock clock) {
         this.configManager = configManager;
         this.timezone = configManager.getTimezone();
+        this.clock = clock.withZone(timezone);
         this.dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
         this.weekFields = WeekFields.ISO; // ISO weeks start on Monday
         this.weeklyPeriodFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm");
+        this.periodKeys = computePeriodKeys();
+    }
+
+    /**
+     * Refresh the period keys from a main thread task that fires right at each day and weekly
+     * boundary, so the first lookup after midnight does not pay for the recompute. Lookups
+     * still check the clock themselves, which keeps them exact if the task runs late.
+     */
+    public void start(Plugin plugin) {
+        this.plugin = plugin;
+        this.announcedKeys = getPeriodKeys();
+        scheduleBoundary();
+    }
+
+    /**
+     * Called on the main thread with the previous and current keys each time the boundary
+     * task sees the day or weekly period change.
+     */
+    public void setRolloverListener(BiConsumer<PeriodKeys, PeriodKeys> rolloverListener) {
+        this.rolloverListener = rolloverListener;
+    }
+
+    public void shutdown() {
+        if (boundaryTask != null) {
+            boundaryTask.cancel();
+            boundaryTask = null;
+        }
+        plugin = null;
+        rolloverListener = null;
+    }
+
+    private void onBoundary() {
+        PeriodKeys current = getPeriodKeys();
+        PeriodKeys previous = announcedKeys;
+        announcedKeys = current;
+        if (previous != null && rolloverListener != null
+                && (!previous.todayKey().equals(current.todayKey())
+                || !previous.weeklyPeriodKey().equals(current.weeklyPeriodKey()))) {
+            try {
+                rolloverListener.accept(previous, current);
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.SEVERE, "Error al procesar el cambio de periodo", e);
+            }
+        }
+        scheduleBoundary();
+    }
+
+    private void scheduleBoundary() {
+        if (plugin == null) {
+            return;
+        }
+        long delayMillis = getPeriodKeys().validUntil() - clock.millis();
+        long delayTicks = Math.max(1L, (delayMillis + 49L) / 50L);
+        boundaryTask = plugin.getServer().getScheduler().runTaskLater(plugin, this::onBoundary, delayTicks);
+    }
+
+    /**
+     * Keys of the current period: a volatile read plus a clock check while the period lasts.
+     */
+    public PeriodKeys getPeriodKeys() {
+        PeriodKeys keys = periodKeys;
+        long now = clock.millis();
+        if (now >= keys.validUntil() || now < keys.validFrom()) {
+            keys = computePeriodKeys();
+            periodKeys = keys;
+        }
+        return keys;
+    }
+
+    private PeriodKeys computePeriodKeys() {
+        ZonedDateTime now = ZonedDateTime.now(clock);
+        LocalDate today = now.toLocalDate();
+        ZonedDateTime startOfToday = today.atStartOfDay(timezone);
+        ZonedDateTime startOfTomorrow = today.plusDays(1).atStartOfDay(timezone);
+        ZonedDateTime lastWeeklyReset = getLastWeeklyReset(now);
+        ZonedDateTime nextWeeklyReset = lastWeeklyReset.plusWeeks(1);
+
+        long validFrom = Math.max(startOfToday.toInstant().toEpochMilli(), lastWeeklyReset.toInstant().toEpochMilli());
+        long validUntil = Math.min(startOfTomorrow.toInstant().toEpochMilli(), nextWeeklyReset.toInstant().toEpochMilli());
+        return new PeriodKeys(today, today.format(dateFormatter), getMonthKey(today), lastWeeklyReset,
+                lastWeeklyReset.format(weeklyPeriodFormatter), nextWeeklyReset, startOfTomorrow, validFrom, validUntil);
     }
 
     /**
      * Get current date in configured timezone
      */
     public LocalDate getCurrentDate() {
-        return LocalDate.now(timezone);
+        return getPeriodKeys().today();
     }
 
     /**
      * Get current date-time in configured timezone
      */
     public ZonedDateTime getCurrentDateTime() {
-        return ZonedDateTime.now(timezone);
+        return ZonedDateTime.now(clock);
+    }
+
+    /**
+     * Current epoch millis from the service clock, for cooldowns
+     */
+    public long currentTimeMillis() {
+        return clock.millis();
     }
 
     /**
      * Get today's date as string (yyyy-MM-dd)
      */
     public String getTodayKey() {
-        return getCurrentDate().format(dateFormatter);
+        return getPeriodKeys().todayKey();
     }
 
     /**
@@ -51,6 +161,20 @@ public class TimeService {
         return date.format(dateFormatter);
     }
 
+    /**
+     * Get the month key (yyyy-MM) for a specific date
+     */
+    public String getMonthKey(LocalDate date) {
+        return YearMonth.from(date).toString();
+    }
+
+    /**
+     * Get the current month key (yyyy-MM)
+     */
+    public String getCurrentMonthKey() {
+        return getPeriodKeys().monthKey();
+    }
+
     /**
      * Get the current day of week
      */
@@ -87,11 +211,14 @@ public class TimeService {
      * Get the last weekly reset time (the start of the current weekly claim period).
      */
     public ZonedDateTime getLastWeeklyReset() {
+        return getPeriodKeys().lastWeeklyReset();
+    }
+
+    private ZonedDateTime getLastWeeklyReset(ZonedDateTime now) {
         DayOfWeek resetDay = configManager.getWeeklyResetDay();
         int resetHour = configManager.getWeeklyResetHour();
         int resetMinute = configManager.getWeeklyResetMinute();
 
-        ZonedDateTime now = getCurrentDateTime();
         LocalTime resetTime = LocalTime.of(resetHour, resetMinute);
 
         LocalDate resetDate = now.toLocalDate().with(TemporalAdjusters.previousOrSame(resetDay));
@@ -108,14 +235,14 @@ public class TimeService {
      * Get current weekly claim period key.
      */
     public String getCurrentWeeklyPeriodKey() {
-        return getLastWeeklyReset().format(weeklyPeriodFormatter);
+        return getPeriodKeys().weeklyPeriodKey();
     }
 
     /**
      * Get the next weekly reset time
      */
     public ZonedDateTime getNextWeeklyReset() {
-        return getLastWeeklyReset().plusWeeks(1);
+        return getPeriodKeys().nextWeeklyReset();
     }
 
     /**
@@ -145,7 +272,7 @@ public class TimeService {
      * Get the start of tomorrow
      */
     public ZonedDateTime getStartOfTomorrow() {
-        return getStartOfDay(getCurrentDate().plusDays(1));
+        return getPeriodKeys().startOfTomorrow();
     }
 
     /**
@@ -272,4 +399,18 @@ public class TimeService {
     public ZoneId getTimezone() {
         return timezone;
     }
+
+    /**
+     * Keys of one day and weekly period, valid from validFrom until validUntil (epoch millis).
+     */
+    public record PeriodKeys(LocalDate today,
+                             String todayKey,
+                             String monthKey,
+                             ZonedDateTime lastWeeklyReset,
+                             String weeklyPeriodKey,
+                             ZonedDateTime nextWeeklyReset,
+                             ZonedDateTime startOfTomorrow,
+                             long validFrom,
+                             long validUntil) {
+    }
 }
@@ -0,0 +1,186 @@
+package dev.joshlucem.nullithstudios.bestsupplies.service;
+
+import dev.joshlucem.nullithstudios.bestsupplies.BestSupplies;
+import dev.joshlucem.nullithstudios.bestsupplies.config.ConfigManager;
+import dev.joshlucem.nullithstudios.bestsupplies.storage.DataFile;
+import dev.joshlucem.nullithstudios.bestsupplies.storage.DataTable;
+import dev.joshlucem.nullithstudios.bestsupplies.storage.Database;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Bulk export and import of every table through {@link DataFile}, for backups and for
+ * moving between SQLite and MySQL. Runs on a Bukkit async task; rows are streamed on the
+ * way out and inserted in fixed-size batches on the way in.
+ */
+public class TransferService {
+
+    private static final String EXTENSION = ".tsv.gz";
+    private static final DateTimeFormatter FILE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final BestSupplies plugin;
+    private final Database database;
+    private final ConfigManager configManager;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    public TransferService(BestSupplies plugin, Database database, ConfigManager configManager) {
+        this.plugin = plugin;
+        this.database = database;
+        this.configManager = configManager;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public File getExportFolder() {
+        return new File(plugin.getDataFolder(), "exports");
+    }
+
+    public List<String> listExports() {
+        File[] files = getExportFolder().listFiles((dir, name) -> name.endsWith(EXTENSION));
+        List<String> names = new ArrayList<>();
+        if (files != null) {
+            for (File file : files) {
+                names.add(file.getName());
+            }
+        }
+        names.sort(null);
+        return names;
+    }
+
+    /**
+     * Export every table to a new file in the exports folder. Progress lines go to the
+     * callback from the async thread. Completes with the file name, or null if a transfer
+     * is already running.
+     */
+    public CompletableFuture<String> exportAll(Consumer<String> progress) {
+        return runAsync(() -> {
+            Path folder = getExportFolder().toPath();
+            Files.createDirectories(folder);
+            Path target = folder.resolve("bestsupplies-" + LocalDateTime.now().format(FILE_FORMAT) + EXTENSION);
+            Path partial = folder.resolve(target.getFileName() + ".part");
+
+            long start = System.currentTimeMillis();
+            long total = 0;
+            try (DataFile.Writer out = new DataFile.Writer(partial)) {
+                for (DataTable table : DataTable.values()) {
+                    long rows = database.exportTable(table, out);
+                    if (rows < 0) {
+                        throw new IOException("No se pudo leer la tabla " + table.tableName());
+                    }
+                    total += rows;
+                    progress.accept(table.tableName() + ": " + rows + " filas exportadas");
+                }
+            } catch (IOException e) {
+                Files.deleteIfExists(partial);
+                throw e;
+            }
+
+            // Only a complete export ever carries the final name
+            Files.move(partial, target);
+            plugin.getLogger().info("Exportadas " + total + " filas a " + target.getFileName() + " en "
+                    + (System.currentTimeMillis() - start) + " ms.");
+            return target.getFileName().toString();
+        });
+    }
+
+    /**
+     * Import a file from the exports folder. Existing keys are kept, so importing into a
+     * database that already has data only adds what is missing. Completes with the rows
+     * inserted, or null if a transfer is already running.
+     */
+    public CompletableFuture<Long> importFile(String fileName, Consumer<String> progress) {
+        return runAsync(() -> {
+            Path folder = getExportFolder().toPath().toAbsolutePath().normalize();
+            Path source = folder.resolve(fileName).normalize();
+            if (!source.startsWith(folder) || !Files.isRegularFile(source)) {
+                throw new IOException("Archivo no encontrado: " + fileName);
+            }
+
+            int batchSize = Math.max(1, configManager.getTransferBatchSize());
+            long start = System.currentTimeMillis();
+            long inserted = 0;
+            long read = 0;
+
+            try (DataFile.Reader in = new DataFile.Reader(source)) {
+                List<Object[]> batch = new ArrayList<>(batchSize);
+                DataTable batchTable = null;
+                Object[] row;
+                while ((row = in.readRow()) != null) {
+                    if (in.currentTable() != batchTable) {
+                        inserted += importBatch(batchTable, batch);
+                        if (batchTable != null) {
+                            progress.accept(batchTable.tableName() + ": " + read + " filas leidas");
+                        }
+                        batchTable = in.currentTable();
+                        read = 0;
+                    }
+                    batch.add(row);
+                    read++;
+                    if (batch.size() >= batchSize) {
+                        inserted += importBatch(batchTable, batch);
+                    }
+                }
+                inserted += importBatch(batchTable, batch);
+                if (batchTable != null) {
+                    progress.accept(batchTable.tableName() + ": " + read + " filas leidas");
+                }
+            }
+
+            plugin.getLogger().info("Importadas " + inserted + " filas desde " + source.getFileName() + " en "
+                    + (System.currentTimeMillis() - start) + " ms.");
+            // Cached profiles and mailboxes predate the import
+            plugin.getServer().getScheduler().runTask(plugin, () -> {
+                plugin.getProfileService().loadOnlinePlayers();
+                plugin.getPendingService().loadOnlinePlayers();
+            });
+            return inserted;
+        });
+    }
+
+    private int importBatch(DataTable table, List<Object[]> batch) throws IOException {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        int inserted = database.importRows(table, batch);
+        if (inserted < 0) {
+            throw new IOException("No se pudo importar un lote de la tabla " + table.tableName());
+        }
+        batch.clear();
+        return inserted;
+    }
+
+    private <T> CompletableFuture<T> runAsync(Task<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        if (!running.compareAndSet(false, true)) {
+            future.complete(null);
+            return future;
+        }
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                future.complete(task.run());
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            } finally {
+                running.set(false);
+            }
+        });
+        return future;
+    }
+
+    @FunctionalInterface
+    private interface Task<T> {
+        T run() throws IOException;
+    }
+}
@@ -0,0 +1,275 @@
+package dev.joshlucem.nullithstudios.bestsupplies.storage;
+
+import dev.joshlucem.nullithstudios.bestsupplies.BestSupplies;
+import dev.joshlucem.nullithstudios.bestsupplies.model.ChequeData;
+import dev.joshlucem.nullithstudios.bestsupplies.model.PendingEntry;
+import dev.joshlucem.nullithstudios.bestsupplies.model.PlayerState;
+import dev.joshlucem.nullithstudios.bestsupplies.model.PlayerSupplyProfile;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+
+/**
+ * Asynchronous view of a {@link Database}. Every call runs on a dedicated, bounded
+ * executor so storage round trips never block the server thread. Callers that need
+ * to touch Bukkit state with the result should continue on {@link #mainThread()}.
+ * When the queue is full a call fails right away instead of running on the caller;
+ * see {@link #isBusy(Throwable)}.
+ */
+public class AsyncDatabase {
+
+    private static final long REJECTION_WARNING_INTERVAL_MS = 10_000L;
+
+    private final BestSupplies plugin;
+    private final Database database;
+    private final ThreadPoolExecutor executor;
+    private final Executor mainThread;
+
+    private final AtomicLong rejectedTasks = new AtomicLong();
+    private final AtomicLong lastRejectionWarning = new AtomicLong();
+
+    public AsyncDatabase(BestSupplies plugin, Database database, int threads, int queueSize) {
+        this(plugin, database, threads, queueSize, plugin.getServer().getScheduler().getMainThreadExecutor(plugin));
+    }
+
+    /**
+     * Continues results on the given executor instead of the server thread; tests pass their
+     * own stand-in for the main thread.
+     */
+    public AsyncDatabase(BestSupplies plugin, Database database, int threads, int queueSize, Executor mainThread) {
+        this.plugin = plugin;
+        this.database = database;
+
+        int poolSize = Math.max(1, threads);
+        // A full queue rejects the task; running it on the caller would block the server thread.
+        this.executor = new ThreadPoolExecutor(
+                poolSize,
+                poolSize,
+                30L,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(16, queueSize)),
+                new StorageThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.executor.allowCoreThreadTimeOut(true);
+        this.mainThread = mainThread;
+    }
+
+    /**
+     * Executor that runs tasks on the server thread on the next tick.
+     */
+    public Executor mainThread() {
+        return mainThread;
+    }
+
+    /**
+     * Executor backing all storage calls.
+     */
+    public Executor executor() {
+        return executor;
+    }
+
+    public Database getDatabase() {
+        return database;
+    }
+
+    /**
+     * Run an arbitrary read against the database off the main thread. Completes exceptionally
+     * with a {@link RejectedExecutionException} when the storage queue is full.
+     */
+    public <T> CompletableFuture<T> supply(Function<Database, T> query) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return query.apply(database);
+                } catch (RuntimeException e) {
+                    plugin.getLogger().log(Level.SEVERE, "Error en tarea asincrona de base de datos", e);
+                    throw new CompletionException(e);
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            warnRejected();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Run an arbitrary write (or group of writes) against the database off the main thread.
+     */
+    public CompletableFuture<Void> run(Consumer<Database> update) {
+        return supply(db -> {
+            update.accept(db);
+            return null;
+        });
+    }
+
+    /**
+     * Whether a storage future failed because the queue was full rather than in the database.
+     */
+    public static boolean isBusy(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof RejectedExecutionException;
+    }
+
+    /**
+     * For {@code exceptionallyAsync} at the end of a storage chain: a call rejected because the
+     * queue was full completes with the result of {@code onBusy}; other failures pass through.
+     */
+    public static <T> Function<Throwable, T> whenBusy(Supplier<T> onBusy) {
+        return error -> {
+            if (!isBusy(error)) {
+                throw error instanceof CompletionException completion ? completion : new CompletionException(error);
+            }
+            return onBusy.get();
+        };
+    }
+
+    private void warnRejected() {
+        // Rejections come in bursts; one line per interval says enough
+        long rejected = rejectedTasks.incrementAndGet();
+        long now = System.currentTimeMillis();
+        long last = lastRejectionWarning.get();
+        if (now - last >= REJECTION_WARNING_INTERVAL_MS && lastRejectionWarning.compareAndSet(last, now)) {
+            plugin.getLogger().warning("Cola de base de datos llena: " + rejected
+                    + " tareas rechazadas en total. Considera subir los hilos o la cola de almacenamiento.");
+        }
+    }
+
+    // Player State
+    public CompletableFuture<PlayerState> getPlayerState(String playerUuid) {
+        return supply(db -> db.getPlayerState(playerUuid));
+    }
+
+    public CompletableFuture<Void> savePlayerState(PlayerState state) {
+        return run(db -> db.savePlayerState(state));
+    }
+
+    public CompletableFuture<PlayerSupplyProfile> loadSupplyProfile(String playerUuid, String fromDate) {
+        return supply(db -> db.loadSupplyProfile(playerUuid, fromDate));
+    }
+
+    // Daily Claims
+    public CompletableFuture<Boolean> hasDailyClaim(String playerUuid, String date) {
+        return supply(db -> db.hasDailyClaim(playerUuid, date));
+    }
+
+    public CompletableFuture<Void> setDailyClaim(String playerUuid, String date, boolean claimed) {
+        return run(db -> db.setDailyClaim(playerUuid, date, claimed));
+    }
+
+    // Weekly Claims
+    public CompletableFuture<Boolean> hasWeeklyClaim(String playerUuid, String weekKey) {
+        return supply(db -> db.hasWeeklyClaim(playerUuid, weekKey));
+    }
+
+    public CompletableFuture<Void> setWeeklyClaim(String playerUuid, String weekKey, boolean claimed) {
+        return run(db -> db.setWeeklyClaim(playerUuid, weekKey, claimed));
+    }
+
+    public CompletableFuture<Void> resetWeeklyClaim(String playerUuid, String weekKey) {
+        return run(db -> db.resetWeeklyClaim(playerUuid, weekKey));
+    }
+
+    // Monthly Claims
+    public CompletableFuture<Integer> getMonthlyClaimMask(String playerUuid, String month) {
+        return supply(db -> db.getMonthlyClaimMask(playerUuid, month));
+    }
+
+    public CompletableFuture<Void> updateMonthlyClaimMask(String playerUuid, String month, int setBits, int clearBits) {
+        return run(db -> db.updateMonthlyClaimMask(playerUuid, month, setBits, clearBits));
+    }
+
+    // Food Claims
+    public CompletableFuture<Long> getFoodClaimNextAt(String playerUuid, String packId) {
+        return supply(db -> db.getFoodClaimNextAt(playerUuid, packId));
+    }
+
+    public CompletableFuture<Void> setFoodClaimNextAt(String playerUuid, String packId, long nextClaimAt) {
+        return run(db -> db.setFoodClaimNextAt(playerUuid, packId, nextClaimAt));
+    }
+
+    public CompletableFuture<Void> resetFoodClaim(String playerUuid, String packId) {
+        return run(db -> db.resetFoodClaim(playerUuid, packId));
+    }
+
+    public CompletableFuture<Void> resetAllFoodClaims(String playerUuid) {
+        return run(db -> db.resetAllFoodClaims(playerUuid));
+    }
+
+    // Cheques
+    public CompletableFuture<Void> saveCheque(ChequeData cheque) {
+        return run(db -> db.saveCheque(cheque));
+    }
+
+    public CompletableFuture<ChequeData> getCheque(String chequeId) {
+        return supply(db -> db.getCheque(chequeId));
+    }
+
+    public CompletableFuture<Boolean> redeemCheque(String chequeId, long redeemedAt) {
+        return supply(db -> db.redeemCheque(chequeId, redeemedAt));
+    }
+
+    // Pending
+    public CompletableFuture<Integer> addPending(String playerUuid, PendingEntry.PendingType type, String payload) {
+        return supply(db -> db.addPending(playerUuid, type, payload));
+    }
+
+    public CompletableFuture<List<PendingEntry>> getPendingEntries(String playerUuid) {
+        return supply(db -> db.getPendingEntries(playerUuid));
+    }
+
+    public CompletableFuture<Void> removePending(int id) {
+        return run(db -> db.removePending(id));
+    }
+
+    public CompletableFuture<Integer> getPendingCount(String playerUuid) {
+        return supply(db -> db.getPendingCount(playerUuid));
+    }
+
+    public CompletableFuture<Boolean> applyPendingChanges(Map<Integer, String> payloads, Set<Integer> removedIds) {
+        return supply(db -> db.applyPendingChanges(payloads, removedIds));
+    }
+
+    /**
+     * Stop accepting work and wait for queued tasks so nothing is lost on disable.
+     */
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                plugin.getLogger().warning("Tareas de base de datos sin terminar tras 10s, forzando cierre.");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class StorageThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "BestSupplies-Storage-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package dev.joshlucem.nullithstudios.bestsupplies.storage;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.DateTimeException;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * v2: 16-byte binary player ids and integer day / minute / month keys instead of strings.
+ * <p>
+ * Each table is renamed to {@code <table>_v1}, recreated with the new layout and copied over
+ * in small keyset-paged batches, each committed on its own, then the old table is dropped.
+ * Inserts ignore rows that already exist, so a migration interrupted halfway resumes where it stopped.
+ * Rows whose keys cannot be converted (legacy week keys, malformed UUIDs) are skipped and counted.
+ */
+class BinaryKeysMigration implements SchemaMigration {
+
+    private static final int BATCH_SIZE = 500;
+    private static final long REPORT_EVERY = 50_000;
+
+    @FunctionalInterface
+    private interface RowConverter {
+        /**
+         * Bind one legacy row to the v2 insert. Throws IllegalArgumentException or
+         * DateTimeException when the row cannot be converted.
+         */
+        void bind(ResultSet rs, PreparedStatement insert) throws SQLException;
+    }
+
+    private record TableCopy(String table, List<String> keyColumns, String columns,
+                             String insertColumns, RowConverter converter) {
+    }
+
+    @Override
+    public int version() {
+        return 2;
+    }
+
+    @Override
+    public String description() {
+        return "Claves binarias y fechas como enteros";
+    }
+
+    @Override
+    public void migrate(Connection conn, SqlDialect dialect, Logger logger) throws SQLException {
+        for (TableCopy copy : tables()) {
+            migrateTable(conn, dialect, logger, copy);
+        }
+    }
+
+    private List<TableCopy> tables() {
+        return List.of(
+                new TableCopy("player_state", List.of("player_uuid"),
+                        "player_uuid, streak, last_daily_date, last_seen_date, last_rank",
+                        "player_id, streak, last_daily_day, last_seen_day, last_rank",
+                        (rs, ps) -> {
+                            ps.setBytes(1, StorageKeys.uuid(rs.getString("player_uuid")));
+                            ps.setInt(2, rs.getInt("streak"));
+                            setDayOrNull(ps, 3, rs.getString("last_daily_date"));
+                            setDayOrNull(ps, 4, rs.getString("last_seen_date"));
+                            ps.setString(5, rs.getString("last_rank"));
+                        }),
+                new TableCopy("daily_claims", List.of("player_uuid", "date"),
+                        "player_uuid, date, claimed",
+                        "player_id, day, claimed",
+                        (rs, ps) -> {
+                            ps.setBytes(1, StorageKeys.uuid(rs.getString("player_uuid")));
+                            ps.setInt(2, StorageKeys.epochDay(rs.getString("date")));
+                            ps.setInt(3, rs.getInt("claimed"));
+                        }),
+                new TableCopy("weekly_claims", List.of("player_uuid", "week_key"),
+                        "player_uuid, week_key, claimed",
+                        "player_id, period_start, claimed",
+                        (rs, ps) -> {
+                            ps.setBytes(1, StorageKeys.uuid(rs.getString("player_uuid")));
+                            ps.setInt(2, StorageKeys.epochMinute(rs.getString("week_key")));
+                            ps.setInt(3, rs.getInt("claimed"));
+                        }),
+                new TableCopy("monthly_claims", List.of("player_uuid", "month"),
+                        "player_uuid, month, claimed_mask",
+                        "player_id, month, claimed_mask",
+                        (rs, ps) -> {
+                            ps.setBytes(1, StorageKeys.uuid(rs.getString("player_uuid")));
+                            ps.setInt(2, StorageKeys.epochMonth(rs.getString("month")));
+                            ps.setInt(3, rs.getInt("claimed_mask"));
+                        }),
+                new TableCopy("food_claims", List.of("player_uuid", "pack_id"),
+                        "player_uuid, pack_id, next_claim_at",
+                        "player_id, pack_id, next_claim_at",
+                        (rs, ps) -> {
+                            ps.setBytes(1, StorageKeys.uuid(rs.getString("player_uuid")));
+                            ps.setString(2, rs.getString("pack_id"));
+                            ps.setLong(3, rs.getLong("next_claim_at"));
+                        }),
+                new TableCopy("cheques", List.of("cheque_id"),
+                        "cheque_id, player_uuid, week_key, amount, redeemed, redeemed_at",
+                        "cheque_id, player_id, period_start, amount, redeemed, redeemed_at",
+                        (rs, ps) -> {
+                            ps.setBytes(1, StorageKeys.uuid(rs.getString("cheque_id")));
+                            ps.setBytes(2, StorageKeys.uuid(rs.getString("player_uuid")));
+                            // The period is informational only; keep the cheque redeemable even if it is unreadable
+                            try {
+                                ps.setInt(3, StorageKeys.epochMinute(rs.getString("week_key")));
+                            } catch (DateTimeException | NullPointerException e) {
+                                ps.setNull(3, Types.INTEGER);
+                            }
+                            ps.setDouble(4, rs.getDouble("amount"));
+                            ps.setInt(5, rs.getInt("redeemed"));
+                            ps.setLong(6, rs.getLong("redeemed_at"));
+                        }),
+                new TableCopy("pending", List.of("id"),
+                        "id, player_uuid, type, payload, created_at",
+                        "id, player_id, type, payload, created_at",
+                        (rs, ps) -> {
+                            ps.setInt(1, rs.getInt("id"));
+                            ps.setBytes(2, StorageKeys.uuid(rs.getString("player_uuid")));
+                            ps.setString(3, rs.getString("type"));
+                            ps.setString(4, rs.getString("payload"));
+                            ps.setLong(5, rs.getLong("created_at"));
+                        })
+        );
+    }
+
+    private void migrateTable(Connection conn, SqlDialect dialect, Logger logger, TableCopy copy) throws SQLException {
+        String table = copy.table();
+        String legacy = table + "_v1";
+
+        // A v1 table still has player_uuid; once recreated it only has player_id
+        if (dialect.tableExists(conn, table) && dialect.columnExists(conn, table, "player_uuid")
+                && !dialect.tableExists(conn, legacy)) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("ALTER TABLE " + table + " RENAME TO " + legacy);
+            }
+        }
+
+        createTable(conn, dialect, table);
+
+        if (dialect.tableExists(conn, legacy)) {
+            copyRows(conn, dialect, logger, copy, legacy);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("DROP TABLE " + legacy);
+            }
+        }
+    }
+
+    private void copyRows(Connection conn, SqlDialect dialect, Logger logger, TableCopy copy, String legacy) throws SQLException {
+        List<String> keys = copy.keyColumns();
+        String orderBy = String.join(", ", keys);
+        String selectFirst = "SELECT " + copy.columns() + " FROM " + legacy + " ORDER BY " + orderBy + " LIMIT " + BATCH_SIZE;
+        String selectNext = "SELECT " + copy.columns() + " FROM " + legacy + " WHERE " + keysetCondition(keys)
+                + " ORDER BY " + orderBy + " LIMIT " + BATCH_SIZE;
+        String placeholders = "?" + ", ?".repeat(copy.insertColumns().split(",").length - 1);
+        String insertSql = dialect.insertIgnore() + " INTO " + copy.table() + " (" + copy.insertColumns() + ") VALUES (" + placeholders + ")";
+
+        long copied = 0;
+        long skipped = 0;
+        long nextReport = REPORT_EVERY;
+        Object[] lastKey = null;
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (PreparedStatement first = conn.prepareStatement(selectFirst);
+             PreparedStatement next = conn.prepareStatement(selectNext);
+             PreparedStatement insert = conn.prepareStatement(insertSql)) {
+            while (true) {
+                PreparedStatement select = lastKey == null ? first : next;
+                if (lastKey != null) {
+                    bindKeyset(select, lastKey);
+                }
+
+                int read = 0;
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        read++;
+                        lastKey = new Object[keys.size()];
+                        for (int i = 0; i < keys.size(); i++) {
+                            lastKey[i] = rs.getObject(keys.get(i));
+                        }
+                        try {
+                            copy.converter().bind(rs, insert);
+                            insert.addBatch();
+                            copied++;
+                        } catch (IllegalArgumentException | DateTimeException | NullPointerException e) {
+                            insert.clearParameters();
+                            skipped++;
+                        }
+                    }
+                }
+
+                if (read == 0) {
+                    break;
+                }
+                insert.executeBatch();
+                conn.commit();
+
+                if (copied >= nextReport) {
+                    logger.info("Migrando " + copy.table() + ": " + copied + " filas copiadas...");
+                    nextReport += REPORT_EVERY;
+                }
+                if (read < BATCH_SIZE) {
+                    break;
+                }
+            }
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+
+        logger.info("Tabla " + copy.table() + " migrada: " + copied + " filas"
+                + (skipped > 0 ? ", " + skipped + " omitidas por claves no convertibles" : "") + ".");
+    }
+
+    /**
+     * Rows strictly after the last key in (k1, k2, ...) order, e.g.
+     * {@code k1 > ? OR (k1 = ? AND k2 > ?)}.
+     */
+    private static String keysetCondition(List<String> keys) {
+        StringBuilder condition = new StringBuilder();
+        for (int i = 0; i < keys.size(); i++) {
+            if (i > 0) {
+                condition.append(" OR ");
+            }
+            condition.append('(');
+            for (int j = 0; j < i; j++) {
+                condition.append(keys.get(j)).append(" = ? AND ");
+            }
+            condition.append(keys.get(i)).append(" > ?)");
+        }
+        return condition.toString();
+    }
+
+    private static void bindKeyset(PreparedStatement ps, Object[] lastKey) throws SQLException {
+        int index = 1;
+        for (int i = 0; i < lastKey.length; i++) {
+            for (int j = 0; j <= i; j++) {
+                ps.setObject(index++, lastKey[j]);
+            }
+        }
+    }
+
+    private static void setDayOrNull(PreparedStatement ps, int index, String dateKey) throws SQLException {
+        try {
+            StorageKeys.setEpochDay(ps, index, dateKey);
+        } catch (DateTimeException e) {
+            ps.setNull(index, Types.INTEGER);
+        }
+    }
+
+    private void createTable(Connection conn, SqlDialect dialect, String table) throws SQLException {
+        String uuid = dialect.uuidType();
+        boolean mysql = dialect == SqlDialect.MYSQL;
+        String sql = switch (table) {
+            case "player_state" -> """
+                CREATE TABLE IF NOT EXISTS player_state (
+                    player_id %s PRIMARY KEY,
+                    streak INT DEFAULT 0,
+                    last_daily_day INT,
+                    last_seen_day INT,
+                    last_rank VARCHAR(50)
+                )""".formatted(uuid);
+            case "daily_claims" -> """
+                CREATE TABLE IF NOT EXISTS daily_claims (
+                    player_id %s NOT NULL,
+                    day INT NOT NULL,
+                    claimed TINYINT DEFAULT 0,
+                    PRIMARY KEY (player_id, day)
+                )""".formatted(uuid);
+            case "weekly_claims" -> """
+                CREATE TABLE IF NOT EXISTS weekly_claims (
+                    player_id %s NOT NULL,
+                    period_start INT NOT NULL,
+                    claimed TINYINT DEFAULT 0,
+                    PRIMARY KEY (player_id, period_start)
+                )""".formatted(uuid);
+            case "monthly_claims" -> """
+                CREATE TABLE IF NOT EXISTS monthly_claims (
+                    player_id %s NOT NULL,
+                    month INT NOT NULL,
+                    claimed_mask INT NOT NULL DEFAULT 0,
+                    PRIMARY KEY (player_id, month)
+                )""".formatted(uuid);
+            case "food_claims" -> """
+                CREATE TABLE IF NOT EXISTS food_claims (
+                    player_id %s NOT NULL,
+                    pack_id VARCHAR(64) NOT NULL,
+                    next_claim_at BIGINT DEFAULT 0,
+                    PRIMARY KEY (player_id, pack_id)
+                )""".formatted(uuid);
+            case "cheques" -> """
+                CREATE TABLE IF NOT EXISTS cheques (
+                    cheque_id %s PRIMARY KEY,
+                    player_id %s,
+                    period_start INT,
+                    amount DOUBLE,
+                    redeemed TINYINT DEFAULT 0,
+                    redeemed_at BIGINT DEFAULT 0%s
+                )""".formatted(uuid, uuid, mysql ? ",\n    INDEX idx_player (player_id)" : "");
+            case "pending" -> """
+                CREATE TABLE IF NOT EXISTS pending (
+                    id %s,
+                    player_id %s,
+                    type VARCHAR(20),
+                    payload TEXT,
+                    created_at BIGINT%s
+                )""".formatted(dialect.autoIncrementKey(), uuid, mysql ? ",\n    INDEX idx_player (player_id)" : "");
+            default -> throw new IllegalArgumentException("Tabla desconocida: " + table);
+        };
+
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(sql + dialect.tableOptions());
+            // v1 index names stay attached to the renamed tables in SQLite, so use new ones
+            if (!mysql && table.equals("cheques")) {
+                stmt.execute("CREATE INDEX IF NOT EXISTS idx_cheques_player_id ON cheques(player_id)");
+            } else if (!mysql && table.equals("pending")) {
+                stmt.execute("CREATE INDEX IF NOT EXISTS idx_pending_player_id ON pending(player_id)");
+            }
+        }
+    }
+}
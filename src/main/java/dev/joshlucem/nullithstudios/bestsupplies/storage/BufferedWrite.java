@@ -0,0 +1,162 @@
+package dev.joshlucem.nullithstudios.bestsupplies.storage;
+
+import dev.joshlucem.nullithstudios.bestsupplies.model.PlayerState;
+
+/**
+ * A single claim, cooldown or state write waiting to be flushed. Writes that share a
+ * {@link #getCoalesceKey() coalesce key} overwrite each other, so only the latest survives.
+ */
+public final class BufferedWrite {
+
+    public enum Type {
+        PLAYER_STATE,
+        DAILY_CLAIM,
+        WEEKLY_CLAIM,
+        WEEKLY_RESET,
+        MONTHLY_MASK,
+        FOOD_CLAIM,
+        FOOD_RESET,
+        FOOD_RESET_ALL
+    }
+
+    private final Type type;
+    private final String playerUuid;
+    private final String key;
+    private final boolean claimed;
+    private final long value;
+    private final PlayerState state;
+    private final int setBits;
+    private final int clearBits;
+
+    private BufferedWrite(Type type, String playerUuid, String key, boolean claimed, long value, PlayerState state) {
+        this(type, playerUuid, key, claimed, value, state, 0, 0);
+    }
+
+    private BufferedWrite(Type type, String playerUuid, String key, boolean claimed, long value, PlayerState state,
+                          int setBits, int clearBits) {
+        this.type = type;
+        this.playerUuid = playerUuid;
+        this.key = key;
+        this.claimed = claimed;
+        this.value = value;
+        this.state = state;
+        this.setBits = setBits;
+        this.clearBits = clearBits;
+    }
+
+    public static BufferedWrite playerState(PlayerState state) {
+        // Copy so later changes to the caller's object do not leak into the queued write
+        return new BufferedWrite(Type.PLAYER_STATE, state.getPlayerUuid(), null, false, 0, state.copy());
+    }
+
+    public static BufferedWrite dailyClaim(String playerUuid, String date, boolean claimed) {
+        return new BufferedWrite(Type.DAILY_CLAIM, playerUuid, date, claimed, 0, null);
+    }
+
+    public static BufferedWrite weeklyClaim(String playerUuid, String weekKey, boolean claimed) {
+        return new BufferedWrite(Type.WEEKLY_CLAIM, playerUuid, weekKey, claimed, 0, null);
+    }
+
+    public static BufferedWrite weeklyReset(String playerUuid, String weekKey) {
+        return new BufferedWrite(Type.WEEKLY_RESET, playerUuid, weekKey, false, 0, null);
+    }
+
+    public static BufferedWrite monthlyMask(String playerUuid, String month, int setBits, int clearBits) {
+        return new BufferedWrite(Type.MONTHLY_MASK, playerUuid, month, false, 0, null, setBits, clearBits & ~setBits);
+    }
+
+    /**
+     * Combine this monthly mask change with a newer one for the same row.
+     */
+    public BufferedWrite mergeMonthly(BufferedWrite newer) {
+        int set = (setBits & ~newer.clearBits) | newer.setBits;
+        int clear = (clearBits & ~newer.setBits) | newer.clearBits;
+        return monthlyMask(playerUuid, key, set, clear);
+    }
+
+    /**
+     * Apply this monthly mask change on top of a stored mask.
+     */
+    public int applyMask(int mask) {
+        return (mask & ~clearBits) | setBits;
+    }
+
+    public static BufferedWrite foodClaim(String playerUuid, String packId, long nextClaimAt) {
+        return new BufferedWrite(Type.FOOD_CLAIM, playerUuid, packId, false, nextClaimAt, null);
+    }
+
+    public static BufferedWrite foodReset(String playerUuid, String packId) {
+        return new BufferedWrite(Type.FOOD_RESET, playerUuid, packId, false, 0, null);
+    }
+
+    public static BufferedWrite foodResetAll(String playerUuid) {
+        return new BufferedWrite(Type.FOOD_RESET_ALL, playerUuid, null, false, 0, null);
+    }
+
+    public static String stateKey(String playerUuid) {
+        return "state|" + playerUuid;
+    }
+
+    public static String dailyKey(String playerUuid, String date) {
+        return "daily|" + playerUuid + "|" + date;
+    }
+
+    public static String weeklyKey(String playerUuid, String weekKey) {
+        return "weekly|" + playerUuid + "|" + weekKey;
+    }
+
+    public static String monthlyKey(String playerUuid, String month) {
+        return "monthly|" + playerUuid + "|" + month;
+    }
+
+    public static String foodKey(String playerUuid, String packId) {
+        return "food|" + playerUuid + "|" + packId;
+    }
+
+    public static String foodAllKey(String playerUuid) {
+        return "foodall|" + playerUuid;
+    }
+
+    public String getCoalesceKey() {
+        return switch (type) {
+            case PLAYER_STATE -> stateKey(playerUuid);
+            case DAILY_CLAIM -> dailyKey(playerUuid, key);
+            case WEEKLY_CLAIM, WEEKLY_RESET -> weeklyKey(playerUuid, key);
+            case MONTHLY_MASK -> monthlyKey(playerUuid, key);
+            case FOOD_CLAIM, FOOD_RESET -> foodKey(playerUuid, key);
+            case FOOD_RESET_ALL -> foodAllKey(playerUuid);
+        };
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getPlayerUuid() {
+        return playerUuid;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public boolean isClaimed() {
+        return claimed;
+    }
+
+    public long getValue() {
+        return value;
+    }
+
+    public PlayerState getState() {
+        return state;
+    }
+
+    public int getSetBits() {
+        return setBits;
+    }
+
+    public int getClearBits() {
+        return clearBits;
+    }
+}
@@ -0,0 +1,144 @@
+package dev.joshlucem.nullithstudios.bestsupplies.storage;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * One admin reset applied to many players at once: every player, the players whose last
+ * known rank is a given one, or an explicit list of uuids. SQL backends run it as a single
+ * DELETE or UPDATE per chunk; the condition only matches rows the reset still has to change,
+ * so repeating a chunk until it touches fewer rows than the limit always finishes.
+ */
+public final class BulkReset {
+
+    public enum Type {
+        DAILY,
+        MONTHLY_DAY,
+        FOOD,
+        FOOD_ALL
+    }
+
+    private final Type type;
+    private final String key;
+    private final int dayBit;
+    private final String rankId;
+    private final List<String> players;
+
+    private BulkReset(Type type, String key, int dayBit, String rankId, List<String> players) {
+        this.type = type;
+        this.key = key;
+        this.dayBit = dayBit;
+        this.rankId = rankId;
+        this.players = players;
+    }
+
+    public static BulkReset daily(String date) {
+        return new BulkReset(Type.DAILY, date, 0, null, null);
+    }
+
+    public static BulkReset monthlyDay(String month, int dayBit) {
+        return new BulkReset(Type.MONTHLY_DAY, month, dayBit, null, null);
+    }
+
+    /**
+     * Reset one ration cooldown, or all of them when packId is null.
+     */
+    public static BulkReset food(String packId) {
+        return packId == null
+                ? new BulkReset(Type.FOOD_ALL, null, 0, null, null)
+                : new BulkReset(Type.FOOD, packId, 0, null, null);
+    }
+
+    public BulkReset forRank(String rankId) {
+        return new BulkReset(type, key, dayBit, rankId, null);
+    }
+
+    public BulkReset forPlayers(List<String> playerUuids) {
+        return new BulkReset(type, key, dayBit, null, List.copyOf(playerUuids));
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public int getDayBit() {
+        return dayBit;
+    }
+
+    /**
+     * Rank the reset is limited to, or null.
+     */
+    public String getRankId() {
+        return rankId;
+    }
+
+    /**
+     * Players the reset is limited to, or null.
+     */
+    public List<String> getPlayers() {
+        return players;
+    }
+
+    // SQL shared by the SQLite and MySQL backends
+
+    String table() {
+        return switch (type) {
+            case DAILY -> "daily_claims";
+            case MONTHLY_DAY -> "monthly_claims";
+            case FOOD, FOOD_ALL -> "food_claims";
+        };
+    }
+
+    /**
+     * Monthly resets clear one bit and keep the row; the rest delete the rows.
+     */
+    boolean isUpdate() {
+        return type == Type.MONTHLY_DAY;
+    }
+
+    String condition() {
+        StringBuilder condition = new StringBuilder(switch (type) {
+            case DAILY -> "day = ?";
+            case MONTHLY_DAY -> "month = ? AND (claimed_mask & ?) <> 0";
+            case FOOD -> "pack_id = ?";
+            case FOOD_ALL -> "1 = 1";
+        });
+        if (rankId != null) {
+            condition.append(" AND player_id IN (SELECT player_id FROM player_state WHERE last_rank = ?)");
+        } else if (players != null && players.isEmpty()) {
+            condition.append(" AND 1 = 0");
+        } else if (players != null) {
+            condition.append(" AND player_id IN (").append("?,".repeat(players.size() - 1)).append("?)");
+        }
+        return condition.toString();
+    }
+
+    /**
+     * Bind the parameters of {@link #condition()} from the given index on and return the next free index.
+     */
+    int bindCondition(PreparedStatement ps, int index) throws SQLException {
+        switch (type) {
+            case DAILY -> ps.setInt(index++, StorageKeys.epochDay(key));
+            case MONTHLY_DAY -> {
+                ps.setInt(index++, StorageKeys.epochMonth(key));
+                ps.setInt(index++, dayBit);
+            }
+            case FOOD -> ps.setString(index++, key);
+            case FOOD_ALL -> {
+            }
+        }
+        if (rankId != null) {
+            ps.setString(index++, rankId);
+        } else if (players != null) {
+            for (String playerUuid : players) {
+                ps.setBytes(index++, StorageKeys.uuid(playerUuid));
+            }
+        }
+        return index;
+    }
+}
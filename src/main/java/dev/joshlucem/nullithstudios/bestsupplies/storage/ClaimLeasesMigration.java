@@ -0,0 +1,34 @@
+package dev.joshlucem.nullithstudios.bestsupplies.storage;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.logging.Logger;
+
+/**
+ * v4: short per-player leases so only one server of a network processes a player's claim at a time.
+ */
+class ClaimLeasesMigration implements SchemaMigration {
+
+    @Override
+    public int version() {
+        return 4;
+    }
+
+    @Override
+    public String description() {
+        return "Bloqueos de reclamo entre servidores";
+    }
+
+    @Override
+    public void migrate(Connection conn, SqlDialect dialect, Logger logger) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS claim_leases (
+                    player_id %s PRIMARY KEY,
+                    server_id VARCHAR(64) NOT NULL,
+                    expires_at BIGINT NOT NULL
+                )""".formatted(dialect.uuidType()) + dialect.tableOptions());
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package dev.joshlucem.nullithstudios.bestsupplies.storage;
+
+import dev.joshlucem.nullithstudios.bestsupplies.model.ChequeData;
+import dev.joshlucem.nullithstudios.bestsupplies.model.PlayerState;
+
+/**
+ * All writes of one claim: the guard that marks the day, period or ration as taken, plus
+ * the player state or cheque that go with it. {@link Database#commitClaim(ClaimUnit)} runs
+ * them in one transaction, so a crash never leaves a streak bumped without its claim row,
+ * and the claim costs a single commit.
+ */
+public final class ClaimUnit {
+
+    public enum Guard {
+        DAILY,
+        WEEKLY,
+        MONTHLY_DAY,
+        FOOD
+    }
+
+    /**
+     * Result of {@link Database#commitClaim(ClaimUnit)}.
+     */
+    public enum Outcome {
+        // This call made the claim and wrote everything that goes with it
+        CLAIMED,
+        // The day or period was already claimed, or the ration is still on cooldown
+        TAKEN,
+        // The transaction failed and nothing was written; the claim is still open
+        FAILED
+    }
+
+    private final Guard guard;
+    private final String playerUuid;
+    private final String key;
+    private final int dayBit;
+    private final long now;
+    private final long nextClaimAt;
+    private final PlayerState state;
+    private final ChequeData cheque;
+
+    private ClaimUnit(Guard guard, String playerUuid, String key, int dayBit, long now, long nextClaimAt,
+                      PlayerState state, ChequeData cheque) {
+        this.guard = guard;
+        this.playerUuid = playerUuid;
+        this.key = key;
+        this.dayBit = dayBit;
+        this.now = now;
+        this.nextClaimAt = nextClaimAt;
+        this.state = state;
+        this.cheque = cheque;
+    }
+
+    public static ClaimUnit daily(String playerUuid, String date) {
+        return new ClaimUnit(Guard.DAILY, playerUuid, date, 0, 0L, 0L, null, null);
+    }
+
+    public static ClaimUnit weekly(String playerUuid, String weekKey) {
+        return new ClaimUnit(Guard.WEEKLY, playerUuid, weekKey, 0, 0L, 0L, null, null);
+    }
+
+    public static ClaimUnit monthlyDay(String playerUuid, String month, int dayBit) {
+        return new ClaimUnit(Guard.MONTHLY_DAY, playerUuid, month, dayBit, 0L, 0L, null, null);
+    }
+
+    /**
+     * Claim the ration only if its stored cooldown ended at or before now, and start the next one.
+     */
+    public static ClaimUnit food(String playerUuid, String packId, long now, long nextClaimAt) {
+        return new ClaimUnit(Guard.FOOD, playerUuid, packId, 0, now, nextClaimAt, null, null);
+    }
+
+    public ClaimUnit withState(PlayerState state) {
+        // Copy so later changes to the caller's object do not leak into the unit
+        return new ClaimUnit(guard, playerUuid, key, dayBit, now, nextClaimAt, state.copy(), cheque);
+    }
+
+    public ClaimUnit withCheque(ChequeData cheque) {
+        return new ClaimUnit(guard, playerUuid, key, dayBit, now, nextClaimAt, state, cheque);
+    }
+
+    public Guard getGuard() {
+        return guard;
+    }
+
+    public String getPlayerUuid() {
+        return playerUuid;
+    }
+
+    /**
+     * Date, weekly period, month or ration id, depending on the guard.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    public int getDayBit() {
+        return dayBit;
+    }
+
+    public long getNow() {
+        return now;
+    }
+
+    public long getNextClaimAt() {
+        return nextClaimAt;
+    }
+
+    /**
+     * State written with the claim, or null.
+     */
+    public PlayerState getState() {
+        return state;
+    }
+
+    /**
+     * Cheque written with the claim, or null.
+     */
+    public ChequeData getCheque() {
+        return cheque;
+    }
+
+    /**
+     * Buffered write key of the row the guard changes.
+     */
+    public String getCoalesceKey() {
+        return switch (guard) {
+            case DAILY -> BufferedWrite.dailyKey(playerUuid, key);
+            case WEEKLY -> BufferedWrite.weeklyKey(playerUuid, key);
+            case MONTHLY_DAY -> BufferedWrite.monthlyKey(playerUuid, key);
+            case FOOD -> BufferedWrite.foodKey(playerUuid, key);
+        };
+    }
+}
@@ -0,0 +1,204 @@
+package dev.joshlucem.nullithstudios.bestsupplies.storage;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzipped, line-oriented bulk export. After a header line, each table starts with
+ * "@ table col1,col2,..." and is followed by one tab-separated line per row.
+ * Ids are hex, missing values are \N and text escapes backslash, tab and newlines.
+ * Both sides work one line at a time, so memory use does not grow with the data.
+ */
+public final class DataFile {
+
+    private static final String HEADER = "BESTSUPPLIES-EXPORT";
+    private static final int FORMAT_VERSION = 1;
+    private static final String NULL = "\\N";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final HexFormat HEX = HexFormat.of();
+
+    private DataFile() {
+    }
+
+    public static class Writer implements Closeable {
+        private final BufferedWriter out;
+        private DataTable table;
+
+        public Writer(Path path) throws IOException {
+            this.out = new BufferedWriter(new OutputStreamWriter(
+                    new GZIPOutputStream(Files.newOutputStream(path), BUFFER_SIZE), StandardCharsets.UTF_8), BUFFER_SIZE);
+            out.write(HEADER + "\t" + FORMAT_VERSION);
+            out.newLine();
+        }
+
+        public void beginTable(DataTable table) throws IOException {
+            this.table = table;
+            out.write("@\t" + table.tableName() + "\t" + table.columnList().replace(" ", ""));
+            out.newLine();
+        }
+
+        public void writeRow(Object[] row) throws IOException {
+            List<DataTable.Column> columns = table.columns();
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0) {
+                    out.write('\t');
+                }
+                out.write(format(columns.get(i).type(), row[i]));
+            }
+            out.newLine();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    public static class Reader implements Closeable {
+        private final BufferedReader in;
+        private DataTable table;
+        private int lineNumber = 1;
+
+        public Reader(Path path) throws IOException {
+            this.in = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(Files.newInputStream(path), BUFFER_SIZE), StandardCharsets.UTF_8), BUFFER_SIZE);
+            String header = in.readLine();
+            if (header == null || !header.equals(HEADER + "\t" + FORMAT_VERSION)) {
+                in.close();
+                throw new IOException("No es un archivo de exportacion de BestSupplies compatible");
+            }
+        }
+
+        /**
+         * Table of the row last returned by {@link #readRow()}.
+         */
+        public DataTable currentTable() {
+            return table;
+        }
+
+        /**
+         * Next row of the file, moving across table sections as needed. Null at the end.
+         */
+        public Object[] readRow() throws IOException {
+            String line;
+            while ((line = in.readLine()) != null) {
+                lineNumber++;
+                if (line.isEmpty()) {
+                    continue;
+                }
+                if (line.startsWith("@\t")) {
+                    table = parseTableLine(line);
+                    continue;
+                }
+                if (table == null) {
+                    throw new IOException("Fila sin tabla en la linea " + lineNumber);
+                }
+                return parseRow(line);
+            }
+            return null;
+        }
+
+        private DataTable parseTableLine(String line) throws IOException {
+            String[] parts = line.split("\t");
+            DataTable parsed = parts.length == 3 ? DataTable.byName(parts[1]) : null;
+            if (parsed == null || !parsed.columnList().replace(" ", "").equals(parts[2])) {
+                throw new IOException("Tabla o columnas desconocidas en la linea " + lineNumber + ": " + line);
+            }
+            return parsed;
+        }
+
+        private Object[] parseRow(String line) throws IOException {
+            List<DataTable.Column> columns = table.columns();
+            String[] fields = line.split("\t", -1);
+            if (fields.length != columns.size()) {
+                throw new IOException("Numero de columnas incorrecto en la linea " + lineNumber);
+            }
+            Object[] row = new Object[fields.length];
+            try {
+                for (int i = 0; i < fields.length; i++) {
+                    row[i] = parse(columns.get(i).type(), fields[i]);
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Valor invalido en la linea " + lineNumber, e);
+            }
+            return row;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    private static String format(DataTable.ColumnType type, Object value) {
+        if (value == null) {
+            return NULL;
+        }
+        return switch (type) {
+            case BYTES -> HEX.formatHex((byte[]) value);
+            case INT, LONG, DOUBLE -> value.toString();
+            case TEXT -> escape((String) value);
+        };
+    }
+
+    private static Object parse(DataTable.ColumnType type, String field) {
+        if (field.equals(NULL)) {
+            return null;
+        }
+        return switch (type) {
+            case BYTES -> HEX.parseHex(field);
+            case INT -> Integer.parseInt(field);
+            case LONG -> Long.parseLong(field);
+            case DOUBLE -> Double.parseDouble(field);
+            case TEXT -> unescape(field);
+        };
+    }
+
+    private static String escape(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 8);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> sb.append("\\\\");
+                case '\t' -> sb.append("\\t");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                default -> sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String unescape(String field) {
+        if (field.indexOf('\\') < 0) {
+            return field;
+        }
+        StringBuilder sb = new StringBuilder(field.length());
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c != '\\' || i + 1 == field.length()) {
+                sb.append(c);
+                continue;
+            }
+            char next = field.charAt(++i);
+            switch (next) {
+                case 't' -> sb.append('\t');
+                case 'n' -> sb.append('\n');
+                case 'r' -> sb.append('\r');
+                default -> sb.append(next);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,156 @@
+package dev.joshlucem.nullithstudios.bestsupplies.storage;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Every table of the current schema with its columns, in the order bulk export writes them.
+ * Values are the raw column values (16-byte ids, epoch numbers), identical in both backends.
+ */
+public enum DataTable {
+
+    PLAYER_STATE("player_state",
+            new Column("player_id", ColumnType.BYTES),
+            new Column("streak", ColumnType.INT),
+            new Column("last_daily_day", ColumnType.INT),
+            new Column("last_seen_day", ColumnType.INT),
+            new Column("last_rank", ColumnType.TEXT)),
+    DAILY_CLAIMS("daily_claims",
+            new Column("player_id", ColumnType.BYTES),
+            new Column("day", ColumnType.INT),
+            new Column("claimed", ColumnType.INT)),
+    WEEKLY_CLAIMS("weekly_claims",
+            new Column("player_id", ColumnType.BYTES),
+            new Column("period_start", ColumnType.INT),
+            new Column("claimed", ColumnType.INT)),
+    MONTHLY_CLAIMS("monthly_claims",
+            new Column("player_id", ColumnType.BYTES),
+            new Column("month", ColumnType.INT),
+            new Column("claimed_mask", ColumnType.INT)),
+    FOOD_CLAIMS("food_claims",
+            new Column("player_id", ColumnType.BYTES),
+            new Column("pack_id", ColumnType.TEXT),
+            new Column("next_claim_at", ColumnType.LONG)),
+    CHEQUES("cheques",
+            new Column("cheque_id", ColumnType.BYTES),
+            new Column("player_id", ColumnType.BYTES),
+            new Column("period_start", ColumnType.INT),
+            new Column("amount", ColumnType.DOUBLE),
+            new Column("redeemed", ColumnType.INT),
+            new Column("redeemed_at", ColumnType.LONG)),
+    PENDING("pending",
+            new Column("id", ColumnType.INT),
+            new Column("player_id", ColumnType.BYTES),
+            new Column("type", ColumnType.TEXT),
+            new Column("payload", ColumnType.TEXT),
+            new Column("created_at", ColumnType.LONG));
+
+    public enum ColumnType {
+        BYTES, INT, LONG, DOUBLE, TEXT
+    }
+
+    public record Column(String name, ColumnType type) {
+    }
+
+    private final String tableName;
+    private final List<Column> columns;
+
+    DataTable(String tableName, Column... columns) {
+        this.tableName = tableName;
+        this.columns = List.of(columns);
+    }
+
+    public String tableName() {
+        return tableName;
+    }
+
+    public List<Column> columns() {
+        return columns;
+    }
+
+    public String columnList() {
+        return columns.stream().map(Column::name).collect(Collectors.joining(", "));
+    }
+
+    public static DataTable byName(String tableName) {
+        for (DataTable table : values()) {
+            if (table.tableName.equals(tableName)) {
+                return table;
+            }
+        }
+        return null;
+    }
+
+    String selectSql() {
+        return "SELECT " + columnList() + " FROM " + tableName;
+    }
+
+    String insertSql(SqlDialect dialect) {
+        return insertSql(dialect, 1);
+    }
+
+    /**
+     * One insert with a values group per row, so the statement's update count is exactly
+     * the rows inserted, with rows skipped as duplicates not counted.
+     */
+    String insertSql(SqlDialect dialect, int rows) {
+        String group = "(" + columns.stream().map(column -> "?").collect(Collectors.joining(", ")) + ")";
+        return dialect.insertIgnore() + " INTO " + tableName + " (" + columnList() + ") VALUES "
+                + String.join(", ", Collections.nCopies(rows, group));
+    }
+
+    Object[] read(ResultSet rs) throws SQLException {
+        Object[] row = new Object[columns.size()];
+        for (int i = 0; i < row.length; i++) {
+            int index = i + 1;
+            row[i] = switch (columns.get(i).type()) {
+                case BYTES -> rs.getBytes(index);
+                case INT -> rs.getInt(index);
+                case LONG -> rs.getLong(index);
+                case DOUBLE -> rs.getDouble(index);
+                case TEXT -> rs.getString(index);
+            };
+            if (rs.wasNull()) {
+                row[i] = null;
+            }
+        }
+        return row;
+    }
+
+    void bind(PreparedStatement ps, Object[] row) throws SQLException {
+        bind(ps, row, 0);
+    }
+
+    /**
+     * Bind the row to the parameters after the first offset ones.
+     */
+    void bind(PreparedStatement ps, Object[] row, int offset) throws SQLException {
+        for (int i = 0; i < row.length; i++) {
+            int index = offset + i + 1;
+            Object value = row[i];
+            ColumnType type = columns.get(i).type();
+            if (value == null) {
+                ps.setNull(index, switch (type) {
+                    case BYTES -> Types.BINARY;
+                    case INT -> Types.INTEGER;
+                    case LONG -> Types.BIGINT;
+                    case DOUBLE -> Types.DOUBLE;
+                    case TEXT -> Types.VARCHAR;
+                });
+                continue;
+            }
+            switch (type) {
+                case BYTES -> ps.setBytes(index, (byte[]) value);
+                case INT -> ps.setInt(index, ((Number) value).intValue());
+                case LONG -> ps.setLong(index, ((Number) value).longValue());
+                case DOUBLE -> ps.setDouble(index, ((Number) value).doubleValue());
+                case TEXT -> ps.setString(index, (String) value);
+            }
+        }
+    }
+}
@@ -3,8 +3,14 @@ package dev.joshlucem.nullithstudios.bestsupplies.storage;
 import dev.joshlucem.nullithstudios.bestsupplies.model.ChequeData;
 import dev.joshlucem.nullithstudios.bestsupplies.model.PendingEntry;
 import dev.joshlucem.nullithstudios.bestsupplies.model.PlayerState;
+import dev.joshlucem.nullithstudios.bestsupplies.model.PlayerSupplyProfile;
+import dev.joshlucem.nullithstudios.bestsupplies.model.ProfileChange;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public interface Database {
     
@@ -15,6 +21,15 @@ public interface Database {
     // Player State
     PlayerState getPlayerState(String playerUuid);
     void savePlayerState(PlayerState state);
+
+    /**
+     * Apply buffered claim, cooldown and state writes in a single transaction.
+     * Returns false, leaving storage untouched, if the transaction failed.
+     */
+    boolean applyWrites(List<BufferedWrite> writes);
+
+    // Supply profile: player state, claims since fromDate, food cooldowns and pending count in one read
+    PlayerSupplyProfile loadSupplyProfile(String playerUuid, String fromDate);
     
     // Daily Claims
     boolean hasDailyClaim(String playerUuid, String date);
@@ -24,6 +39,34 @@ public interface Database {
     boolean hasWeeklyClaim(String playerUuid, String weekKey);
     void setWeeklyClaim(String playerUuid, String weekKey, boolean claimed);
     void resetWeeklyClaim(String playerUuid, String weekKey);
+
+    // Monthly Claims: one row per player and month, bit (day - 1) set when that day was claimed
+    int getMonthlyClaimMask(String playerUuid, String month);
+    void updateMonthlyClaimMask(String playerUuid, String month, int setBits, int clearBits);
+
+    /**
+     * Run the unit's claim guard and, only if it passes, the state and cheque writes that
+     * go with it, all in one transaction. A failed transaction is reported as
+     * {@link ClaimUnit.Outcome#FAILED}, never as taken, so callers can tell a storage error
+     * from a claim that already exists. The guard is one conditional statement, so two
+     * servers sharing the database cannot both pass for the same day or period.
+     */
+    ClaimUnit.Outcome commitClaim(ClaimUnit unit);
+
+    /**
+     * Take the player's claim lease for one claim attempt. The holder is a token unique to
+     * the attempt, so two claims of the same player on one server exclude each other too.
+     * Returns false while any other holder has an unexpired lease; expiry compares against
+     * each server's own wall clock. Release only drops the lease if the holder still owns it.
+     */
+    boolean acquireClaimLease(String playerUuid, String holder, long leaseMillis);
+    void releaseClaimLease(String playerUuid, String holder);
+
+    // Profile change feed shared by the servers of a network, read in id order
+    void appendProfileChanges(List<ProfileChange> changes);
+    List<ProfileChange> readProfileChanges(long afterId, int limit);
+    long getLastProfileChangeId();
+    int purgeProfileChanges(long createdBefore, int limit);
     
     // Food Claims
     long getFoodClaimNextAt(String playerUuid, String packId);
@@ -34,11 +77,72 @@ public interface Database {
     // Cheques
     void saveCheque(ChequeData cheque);
     ChequeData getCheque(String chequeId);
-    void redeemCheque(String chequeId, long redeemedAt);
+
+    /**
+     * Mark the cheque redeemed only if it is not already. Returns true for the single call
+     * that flipped it, false if it was already redeemed, does not exist or the update failed.
+     */
+    boolean redeemCheque(String chequeId, long redeemedAt);
     
     // Pending
-    void addPending(String playerUuid, PendingEntry.PendingType type, String payload);
+
+    /**
+     * Returns the id of the new entry, or -1 if it could not be saved.
+     */
+    int addPending(String playerUuid, PendingEntry.PendingType type, String payload);
     List<PendingEntry> getPendingEntries(String playerUuid);
     void removePending(int id);
     int getPendingCount(String playerUuid);
+
+    /**
+     * Rewrite the payload of existing entries in place and delete the removed ones, all in
+     * one transaction. Rewritten entries keep their id and creation time. Returns false if
+     * nothing was applied.
+     */
+    boolean applyPendingChanges(Map<Integer, String> payloads, Set<Integer> removedIds);
+
+    // Retention: each call deletes at most limit expired rows and returns how many went away
+    int purgeDailyClaims(String beforeDate, int limit);
+    int purgeWeeklyClaims(String beforeDate, int limit);
+    int purgeMonthlyClaims(String beforeMonth, int limit);
+    int purgeRedeemedCheques(long redeemedBefore, int limit);
+    int purgePending(long createdBefore, int limit);
+
+    /**
+     * Apply one chunk of a bulk reset, changing at most limit rows. Returns the rows changed,
+     * or -1 if the chunk failed; fewer than limit means the reset is done.
+     */
+    int bulkReset(BulkReset reset, int limit);
+
+    /**
+     * Give free pages back to the file system where the backend supports it.
+     * Returns the bytes released, or 0 when there is nothing to do.
+     */
+    long reclaimSpace(int maxPages);
+
+    /**
+     * Rebuild the whole file once so later {@link #reclaimSpace(int)} calls can work in small
+     * batches. Blocks other storage calls while it runs, so only an admin runs it on purpose.
+     * Returns the bytes released, or -1 if it failed or the backend has nothing to rebuild.
+     */
+    long compactFully();
+
+    /**
+     * Write a consistent copy of the whole database to a new file while it stays in use.
+     * Returns the size of the copy in bytes, or -1 if it failed or the backend keeps no
+     * local file to copy.
+     */
+    long backupTo(Path target);
+
+    /**
+     * Stream every row of the table into the export file without buffering it.
+     * Returns the rows written, or -1 if reading the table failed.
+     */
+    long exportTable(DataTable table, DataFile.Writer out) throws IOException;
+
+    /**
+     * Insert one batch of exported rows in a single transaction, skipping keys that already exist.
+     * Returns the rows inserted, or -1 if the batch failed and was rolled back.
+     */
+    int importRows(DataTable table, List<Object[]> rows);
 }
@@ -0,0 +1,174 @@
+package dev.joshlucem.nullithstudios.bestsupplies.storage;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.logging.Logger;
+
+/**
+ * v1: the original text-keyed layout. Every statement is idempotent, so databases created
+ * before schema versioning existed simply get this version recorded.
+ */
+class InitialSchemaMigration implements SchemaMigration {
+
+    @Override
+    public int version() {
+        return 1;
+    }
+
+    @Override
+    public String description() {
+        return "Esquema inicial";
+    }
+
+    @Override
+    public void migrate(Connection conn, SqlDialect dialect, Logger logger) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            if (dialect == SqlDialect.MYSQL) {
+                createMysqlTables(stmt);
+            } else {
+                createSqliteTables(stmt);
+            }
+        }
+
+        String monthlyUpsert = dialect == SqlDialect.MYSQL
+                ? "INSERT INTO monthly_claims (player_uuid, month, claimed_mask) VALUES (?, ?, ?) "
+                        + "ON DUPLICATE KEY UPDATE claimed_mask = (claimed_mask & ~?) | ?"
+                : "INSERT INTO monthly_claims (player_uuid, month, claimed_mask) VALUES (?, ?, ?) "
+                        + "ON CONFLICT(player_uuid, month) DO UPDATE SET claimed_mask = (claimed_mask & ~?) | ?";
+        int migrated = LegacyMonthlyClaims.migrate(conn, monthlyUpsert);
+        if (migrated > 0) {
+            logger.info("Migrados " + migrated + " reclamos mensuales a la tabla monthly_claims.");
+        }
+    }
+
+    private void createSqliteTables(Statement stmt) throws SQLException {
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS player_state (
+                player_uuid TEXT PRIMARY KEY,
+                streak INTEGER DEFAULT 0,
+                last_daily_date TEXT,
+                last_seen_date TEXT,
+                last_rank TEXT
+            )
+        """);
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS daily_claims (
+                player_uuid TEXT,
+                date TEXT,
+                claimed INTEGER DEFAULT 0,
+                PRIMARY KEY (player_uuid, date)
+            )
+        """);
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS weekly_claims (
+                player_uuid TEXT,
+                week_key TEXT,
+                claimed INTEGER DEFAULT 0,
+                PRIMARY KEY (player_uuid, week_key)
+            )
+        """);
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS monthly_claims (
+                player_uuid TEXT,
+                month TEXT,
+                claimed_mask INTEGER NOT NULL DEFAULT 0,
+                PRIMARY KEY (player_uuid, month)
+            )
+        """);
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS food_claims (
+                player_uuid TEXT,
+                pack_id TEXT,
+                next_claim_at INTEGER DEFAULT 0,
+                PRIMARY KEY (player_uuid, pack_id)
+            )
+        """);
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS cheques (
+                cheque_id TEXT PRIMARY KEY,
+                player_uuid TEXT,
+                week_key TEXT,
+                amount REAL,
+                redeemed INTEGER DEFAULT 0,
+                redeemed_at INTEGER DEFAULT 0
+            )
+        """);
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS pending (
+                id INTEGER PRIMARY KEY AUTOINCREMENT,
+                player_uuid TEXT,
+                type TEXT,
+                payload TEXT,
+                created_at INTEGER
+            )
+        """);
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_pending_player ON pending(player_uuid)");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_cheques_player ON cheques(player_uuid)");
+    }
+
+    private void createMysqlTables(Statement stmt) throws SQLException {
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS player_state (
+                player_uuid VARCHAR(36) PRIMARY KEY,
+                streak INT DEFAULT 0,
+                last_daily_date VARCHAR(10),
+                last_seen_date VARCHAR(10),
+                last_rank VARCHAR(50)
+            ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
+        """);
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS daily_claims (
+                player_uuid VARCHAR(36),
+                date VARCHAR(10),
+                claimed TINYINT DEFAULT 0,
+                PRIMARY KEY (player_uuid, date)
+            ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
+        """);
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS weekly_claims (
+                player_uuid VARCHAR(36),
+                week_key VARCHAR(20),
+                claimed TINYINT DEFAULT 0,
+                PRIMARY KEY (player_uuid, week_key)
+            ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
+        """);
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS monthly_claims (
+                player_uuid VARCHAR(36),
+                month CHAR(7),
+                claimed_mask INT NOT NULL DEFAULT 0,
+                PRIMARY KEY (player_uuid, month)
+            ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
+        """);
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS food_claims (
+                player_uuid VARCHAR(36),
+                pack_id VARCHAR(50),
+                next_claim_at BIGINT DEFAULT 0,
+                PRIMARY KEY (player_uuid, pack_id)
+            ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
+        """);
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS cheques (
+                cheque_id VARCHAR(36) PRIMARY KEY,
+                player_uuid VARCHAR(36),
+                week_key VARCHAR(20),
+                amount DOUBLE,
+                redeemed TINYINT DEFAULT 0,
+                redeemed_at BIGINT DEFAULT 0,
+                INDEX idx_player (player_uuid)
+            ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
+        """);
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS pending (
+                id INT AUTO_INCREMENT PRIMARY KEY,
+                player_uuid VARCHAR(36),
+                type VARCHAR(20),
+                payload TEXT,
+                created_at BIGINT,
+                INDEX idx_player (player_uuid)
+            ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
+        """);
+    }
+}
@@ -0,0 +1,519 @@
+package dev.joshlucem.nullithstudios.bestsupplies.storage;
+
+import dev.joshlucem.nullithstudios.bestsupplies.BestSupplies;
+import dev.joshlucem.nullithstudios.bestsupplies.model.ChequeData;
+import dev.joshlucem.nullithstudios.bestsupplies.model.PendingEntry;
+import dev.joshlucem.nullithstudios.bestsupplies.model.PlayerState;
+import dev.joshlucem.nullithstudios.bestsupplies.model.PlayerSupplyProfile;
+import dev.joshlucem.nullithstudios.bestsupplies.model.ProfileChange;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+/**
+ * Measures every call into the wrapped backend: latency histogram, calls, errors and rows
+ * touched per method. Backends log their SQL errors and carry on, so an error is counted
+ * when the call throws or logs at SEVERE on the calling thread while it runs. Calls slower
+ * than the configured threshold are logged with the plugin class that made them.
+ */
+public class InstrumentedDatabase implements Database {
+
+    // Bucket i holds calls of up to 2^i microseconds; the last one also takes everything slower
+    private static final int BUCKETS = 24;
+    private static final String PLUGIN_PACKAGE = "dev.joshlucem.nullithstudios.bestsupplies.";
+    private static final String STORAGE_PACKAGE = PLUGIN_PACKAGE + "storage.";
+
+    private final BestSupplies plugin;
+    private final Database delegate;
+    private final long slowQueryNanos;
+
+    private final Map<String, MethodStats> stats = new ConcurrentHashMap<>();
+    private final ThreadLocal<Sample> current = new ThreadLocal<>();
+    private final LongAdder slowQueries = new LongAdder();
+    private volatile long since = System.currentTimeMillis();
+
+    private final Handler errorCounter = new Handler() {
+        @Override
+        public void publish(LogRecord record) {
+            Sample sample = current.get();
+            if (sample != null && record.getLevel().intValue() >= Level.SEVERE.intValue()) {
+                sample.errorLogged = true;
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    public InstrumentedDatabase(BestSupplies plugin, Database delegate, long slowQueryMillis) {
+        this.plugin = plugin;
+        this.delegate = delegate;
+        this.slowQueryNanos = slowQueryMillis > 0 ? TimeUnit.MILLISECONDS.toNanos(slowQueryMillis) : Long.MAX_VALUE;
+    }
+
+    public Database getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Stats of every method called so far, slowest in total first.
+     */
+    public List<MethodStats> getMethodStats() {
+        List<MethodStats> list = new ArrayList<>(stats.values());
+        list.sort(Comparator.comparingLong(MethodStats::getTotalNanos).reversed());
+        return list;
+    }
+
+    public long getSlowQueries() {
+        return slowQueries.sum();
+    }
+
+    public long getSince() {
+        return since;
+    }
+
+    public long getSlowQueryMillis() {
+        return slowQueryNanos == Long.MAX_VALUE ? 0 : TimeUnit.NANOSECONDS.toMillis(slowQueryNanos);
+    }
+
+    public void reset() {
+        stats.clear();
+        slowQueries.reset();
+        since = System.currentTimeMillis();
+    }
+
+    // Measuring
+
+    private Sample begin(String method) {
+        Sample sample = new Sample(stats.computeIfAbsent(method, MethodStats::new), current.get());
+        current.set(sample);
+        return sample;
+    }
+
+    private void end(Sample sample, long rows, boolean failed) {
+        long elapsed = System.nanoTime() - sample.start;
+        if (sample.outer != null) {
+            current.set(sample.outer);
+        } else {
+            current.remove();
+        }
+        sample.stats.record(elapsed, rows, failed || sample.errorLogged);
+        if (elapsed >= slowQueryNanos) {
+            slowQueries.increment();
+            plugin.getLogger().warning(String.format(Locale.ROOT, "Consulta lenta: %s tardo %.1f ms (desde %s, hilo %s)",
+                    sample.stats.getMethod(), elapsed / 1_000_000.0, caller(), Thread.currentThread().getName()));
+        }
+    }
+
+    private <T> T call(String method, Supplier<T> call, ToLongFunction<T> rows) {
+        Sample sample = begin(method);
+        T result = null;
+        boolean failed = true;
+        try {
+            result = call.get();
+            failed = false;
+            return result;
+        } finally {
+            end(sample, failed ? 0 : Math.max(0L, rows.applyAsLong(result)), failed);
+        }
+    }
+
+    private void run(String method, Runnable call, long rows) {
+        call(method, () -> {
+            call.run();
+            return null;
+        }, ignored -> rows);
+    }
+
+    /**
+     * The first plugin frame outside storage, which is the service that asked for the data,
+     * or failing that the storage class that did (write-behind flushes, retention batches).
+     */
+    private static String caller() {
+        return StackWalker.getInstance().walk(frames -> {
+            StackWalker.StackFrame fallback = null;
+            for (StackWalker.StackFrame frame : (Iterable<StackWalker.StackFrame>) frames::iterator) {
+                String className = frame.getClassName();
+                if (!className.startsWith(PLUGIN_PACKAGE) || className.equals(InstrumentedDatabase.class.getName())) {
+                    continue;
+                }
+                if (!className.startsWith(STORAGE_PACKAGE)) {
+                    return describe(frame);
+                }
+                if (fallback == null && !className.startsWith(AsyncDatabase.class.getName())) {
+                    fallback = frame;
+                }
+            }
+            return fallback != null ? describe(fallback) : "desconocido";
+        });
+    }
+
+    private static String describe(StackWalker.StackFrame frame) {
+        String className = frame.getClassName();
+        String simpleName = className.substring(className.lastIndexOf('.') + 1);
+        int nested = simpleName.indexOf('$');
+        if (nested > 0) {
+            simpleName = simpleName.substring(0, nested);
+        }
+        // Lambdas compile to lambda$enclosingMethod$N
+        String method = frame.getMethodName();
+        if (method.startsWith("lambda$")) {
+            int end = method.indexOf('$', 7);
+            method = end > 7 ? method.substring(7, end) : method;
+        }
+        return simpleName + "." + method;
+    }
+
+    @Override
+    public void initialize() {
+        plugin.getLogger().addHandler(errorCounter);
+        run("initialize", delegate::initialize, 0);
+    }
+
+    @Override
+    public void close() {
+        run("close", delegate::close, 0);
+        plugin.getLogger().removeHandler(errorCounter);
+    }
+
+    // Player State
+    @Override
+    public PlayerState getPlayerState(String playerUuid) {
+        return call("getPlayerState", () -> delegate.getPlayerState(playerUuid), state -> 1);
+    }
+
+    @Override
+    public void savePlayerState(PlayerState state) {
+        run("savePlayerState", () -> delegate.savePlayerState(state), 1);
+    }
+
+    @Override
+    public boolean applyWrites(List<BufferedWrite> writes) {
+        return call("applyWrites", () -> delegate.applyWrites(writes), applied -> applied ? writes.size() : 0);
+    }
+
+    @Override
+    public PlayerSupplyProfile loadSupplyProfile(String playerUuid, String fromDate) {
+        return call("loadSupplyProfile", () -> delegate.loadSupplyProfile(playerUuid, fromDate), profile -> 1);
+    }
+
+    // Daily Claims
+    @Override
+    public boolean hasDailyClaim(String playerUuid, String date) {
+        return call("hasDailyClaim", () -> delegate.hasDailyClaim(playerUuid, date), claimed -> 1);
+    }
+
+    @Override
+    public void setDailyClaim(String playerUuid, String date, boolean claimed) {
+        run("setDailyClaim", () -> delegate.setDailyClaim(playerUuid, date, claimed), 1);
+    }
+
+    // Weekly Claims
+    @Override
+    public boolean hasWeeklyClaim(String playerUuid, String weekKey) {
+        return call("hasWeeklyClaim", () -> delegate.hasWeeklyClaim(playerUuid, weekKey), claimed -> 1);
+    }
+
+    @Override
+    public void setWeeklyClaim(String playerUuid, String weekKey, boolean claimed) {
+        run("setWeeklyClaim", () -> delegate.setWeeklyClaim(playerUuid, weekKey, claimed), 1);
+    }
+
+    @Override
+    public void resetWeeklyClaim(String playerUuid, String weekKey) {
+        run("resetWeeklyClaim", () -> delegate.resetWeeklyClaim(playerUuid, weekKey), 1);
+    }
+
+    // Monthly Claims
+    @Override
+    public int getMonthlyClaimMask(String playerUuid, String month) {
+        return call("getMonthlyClaimMask", () -> delegate.getMonthlyClaimMask(playerUuid, month), mask -> 1);
+    }
+
+    @Override
+    public void updateMonthlyClaimMask(String playerUuid, String month, int setBits, int clearBits) {
+        run("updateMonthlyClaimMask", () -> delegate.updateMonthlyClaimMask(playerUuid, month, setBits, clearBits), 1);
+    }
+
+    @Override
+    public ClaimUnit.Outcome commitClaim(ClaimUnit unit) {
+        return call("commitClaim", () -> delegate.commitClaim(unit), outcome -> outcome == ClaimUnit.Outcome.CLAIMED ? 1 : 0);
+    }
+
+    @Override
+    public boolean acquireClaimLease(String playerUuid, String holder, long leaseMillis) {
+        return call("acquireClaimLease", () -> delegate.acquireClaimLease(playerUuid, holder, leaseMillis),
+                acquired -> acquired ? 1 : 0);
+    }
+
+    @Override
+    public void releaseClaimLease(String playerUuid, String holder) {
+        run("releaseClaimLease", () -> delegate.releaseClaimLease(playerUuid, holder), 1);
+    }
+
+    // Profile change feed
+    @Override
+    public void appendProfileChanges(List<ProfileChange> changes) {
+        run("appendProfileChanges", () -> delegate.appendProfileChanges(changes), changes.size());
+    }
+
+    @Override
+    public List<ProfileChange> readProfileChanges(long afterId, int limit) {
+        return call("readProfileChanges", () -> delegate.readProfileChanges(afterId, limit), List::size);
+    }
+
+    @Override
+    public long getLastProfileChangeId() {
+        return call("getLastProfileChangeId", delegate::getLastProfileChangeId, id -> 1);
+    }
+
+    @Override
+    public int purgeProfileChanges(long createdBefore, int limit) {
+        return call("purgeProfileChanges", () -> delegate.purgeProfileChanges(createdBefore, limit), Integer::longValue);
+    }
+
+    // Food Claims
+    @Override
+    public long getFoodClaimNextAt(String playerUuid, String packId) {
+        return call("getFoodClaimNextAt", () -> delegate.getFoodClaimNextAt(playerUuid, packId), next -> 1);
+    }
+
+    @Override
+    public void setFoodClaimNextAt(String playerUuid, String packId, long nextClaimAt) {
+        run("setFoodClaimNextAt", () -> delegate.setFoodClaimNextAt(playerUuid, packId, nextClaimAt), 1);
+    }
+
+    @Override
+    public void resetFoodClaim(String playerUuid, String packId) {
+        run("resetFoodClaim", () -> delegate.resetFoodClaim(playerUuid, packId), 1);
+    }
+
+    @Override
+    public void resetAllFoodClaims(String playerUuid) {
+        run("resetAllFoodClaims", () -> delegate.resetAllFoodClaims(playerUuid), 1);
+    }
+
+    // Cheques
+    @Override
+    public void saveCheque(ChequeData cheque) {
+        run("saveCheque", () -> delegate.saveCheque(cheque), 1);
+    }
+
+    @Override
+    public ChequeData getCheque(String chequeId) {
+        return call("getCheque", () -> delegate.getCheque(chequeId), cheque -> cheque != null ? 1 : 0);
+    }
+
+    @Override
+    public boolean redeemCheque(String chequeId, long redeemedAt) {
+        return call("redeemCheque", () -> delegate.redeemCheque(chequeId, redeemedAt), redeemed -> redeemed ? 1 : 0);
+    }
+
+    // Pending
+    @Override
+    public int addPending(String playerUuid, PendingEntry.PendingType type, String payload) {
+        return call("addPending", () -> delegate.addPending(playerUuid, type, payload), id -> id >= 0 ? 1 : 0);
+    }
+
+    @Override
+    public List<PendingEntry> getPendingEntries(String playerUuid) {
+        return call("getPendingEntries", () -> delegate.getPendingEntries(playerUuid), List::size);
+    }
+
+    @Override
+    public void removePending(int id) {
+        run("removePending", () -> delegate.removePending(id), 1);
+    }
+
+    @Override
+    public int getPendingCount(String playerUuid) {
+        return call("getPendingCount", () -> delegate.getPendingCount(playerUuid), count -> 1);
+    }
+
+    @Override
+    public boolean applyPendingChanges(Map<Integer, String> payloads, Set<Integer> removedIds) {
+        return call("applyPendingChanges", () -> delegate.applyPendingChanges(payloads, removedIds),
+                applied -> applied ? payloads.size() + removedIds.size() : 0);
+    }
+
+    // Retention
+    @Override
+    public int purgeDailyClaims(String beforeDate, int limit) {
+        return call("purgeDailyClaims", () -> delegate.purgeDailyClaims(beforeDate, limit), Integer::longValue);
+    }
+
+    @Override
+    public int purgeWeeklyClaims(String beforeDate, int limit) {
+        return call("purgeWeeklyClaims", () -> delegate.purgeWeeklyClaims(beforeDate, limit), Integer::longValue);
+    }
+
+    @Override
+    public int purgeMonthlyClaims(String beforeMonth, int limit) {
+        return call("purgeMonthlyClaims", () -> delegate.purgeMonthlyClaims(beforeMonth, limit), Integer::longValue);
+    }
+
+    @Override
+    public int purgeRedeemedCheques(long redeemedBefore, int limit) {
+        return call("purgeRedeemedCheques", () -> delegate.purgeRedeemedCheques(redeemedBefore, limit), Integer::longValue);
+    }
+
+    @Override
+    public int purgePending(long createdBefore, int limit) {
+        return call("purgePending", () -> delegate.purgePending(createdBefore, limit), Integer::longValue);
+    }
+
+    @Override
+    public int bulkReset(BulkReset reset, int limit) {
+        return call("bulkReset", () -> delegate.bulkReset(reset, limit), Integer::longValue);
+    }
+
+    @Override
+    public long reclaimSpace(int maxPages) {
+        return call("reclaimSpace", () -> delegate.reclaimSpace(maxPages), bytes -> 0);
+    }
+
+    @Override
+    public long compactFully() {
+        return call("compactFully", delegate::compactFully, bytes -> 0);
+    }
+
+    @Override
+    public long backupTo(Path target) {
+        return call("backupTo", () -> delegate.backupTo(target), bytes -> 0);
+    }
+
+    @Override
+    public long exportTable(DataTable table, DataFile.Writer out) throws IOException {
+        Sample sample = begin("exportTable");
+        long rows = 0;
+        boolean failed = true;
+        try {
+            rows = delegate.exportTable(table, out);
+            failed = rows < 0;
+            return rows;
+        } finally {
+            end(sample, Math.max(0L, rows), failed);
+        }
+    }
+
+    @Override
+    public int importRows(DataTable table, List<Object[]> rows) {
+        return call("importRows", () -> delegate.importRows(table, rows), Integer::longValue);
+    }
+
+    /**
+     * One call in progress on the current thread.
+     */
+    private static final class Sample {
+        private final MethodStats stats;
+        private final Sample outer;
+        private final long start = System.nanoTime();
+        private boolean errorLogged;
+
+        private Sample(MethodStats stats, Sample outer) {
+            this.stats = stats;
+            this.outer = outer;
+        }
+    }
+
+    public static final class MethodStats {
+        private final String method;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+        private MethodStats(String method) {
+            this.method = method;
+        }
+
+        private void record(long nanos, long touched, boolean failed) {
+            calls.increment();
+            rows.add(touched);
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            if (failed) {
+                errors.increment();
+            }
+            long micros = nanos / 1000L;
+            int bucket = micros <= 1 ? 0 : 64 - Long.numberOfLeadingZeros(micros - 1);
+            buckets.incrementAndGet(Math.min(BUCKETS - 1, bucket));
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public long getCalls() {
+            return calls.sum();
+        }
+
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        public long getRows() {
+            return rows.sum();
+        }
+
+        public long getTotalNanos() {
+            return totalNanos.sum();
+        }
+
+        public double getAverageMillis() {
+            long count = calls.sum();
+            return count == 0 ? 0 : totalNanos.sum() / (double) count / 1_000_000.0;
+        }
+
+        public double getMaxMillis() {
+            return maxNanos.get() / 1_000_000.0;
+        }
+
+        /**
+         * Upper bound of the histogram bucket holding the p-th percentile, p from 0 to 100.
+         */
+        public double getPercentileMillis(double p) {
+            long[] counts = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = buckets.get(i);
+                total += counts[i];
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(p / 100.0 * total);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS - 1; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return (1L << i) / 1000.0;
+                }
+            }
+            return getMaxMillis();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package dev.joshlucem.nullithstudios.bestsupplies.storage;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Moves monthly bank claims stored the old way (one weekly_claims row per day keyed
+ * "month:yyyy-MM-dd") into the monthly_claims bitmask table.
+ */
+final class LegacyMonthlyClaims {
+
+    static final String LEGACY_PREFIX = "month:";
+
+    private LegacyMonthlyClaims() {
+    }
+
+    /**
+     * Runs the migration inside one transaction and returns the number of legacy rows converted.
+     *
+     * @param upsertSql statement taking (player_uuid, month, setBits, clearBits, setBits)
+     */
+    static int migrate(Connection conn, String upsertSql) throws SQLException {
+        Map<String, Integer> masks = new LinkedHashMap<>();
+        int rows = 0;
+
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT player_uuid, week_key FROM weekly_claims WHERE week_key LIKE 'month:%' AND claimed = 1")) {
+            ResultSet rs = ps.executeQuery();
+            while (rs.next()) {
+                String weekKey = rs.getString("week_key");
+                // month:yyyy-MM-dd
+                if (weekKey == null || weekKey.length() != LEGACY_PREFIX.length() + 10) {
+                    continue;
+                }
+                String month = weekKey.substring(LEGACY_PREFIX.length(), LEGACY_PREFIX.length() + 7);
+                int day;
+                try {
+                    day = Integer.parseInt(weekKey.substring(LEGACY_PREFIX.length() + 8));
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                if (day < 1 || day > 31) {
+                    continue;
+                }
+                masks.merge(rs.getString("player_uuid") + "|" + month, 1 << (day - 1), (a, b) -> a | b);
+                rows++;
+            }
+        }
+
+        boolean hasLegacyRows;
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM weekly_claims WHERE week_key LIKE 'month:%'")) {
+            hasLegacyRows = rs.next() && rs.getInt(1) > 0;
+        }
+        if (!hasLegacyRows) {
+            return 0;
+        }
+
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            try (PreparedStatement ps = conn.prepareStatement(upsertSql)) {
+                for (Map.Entry<String, Integer> entry : masks.entrySet()) {
+                    int split = entry.getKey().lastIndexOf('|');
+                    ps.setString(1, entry.getKey().substring(0, split));
+                    ps.setString(2, entry.getKey().substring(split + 1));
+                    ps.setInt(3, entry.getValue());
+                    ps.setInt(4, 0);
+                    ps.setInt(5, entry.getValue());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("DELETE FROM weekly_claims WHERE week_key LIKE 'month:%'");
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,1213 @@
+package dev.joshlucem.nullithstudios.bestsupplies.storage;
+
+import dev.joshlucem.nullithstudios.bestsupplies.BestSupplies;
+import dev.joshlucem.nullithstudios.bestsupplies.config.ConfigManager;
+import dev.joshlucem.nullithstudios.bestsupplies.model.ChequeData;
+import dev.joshlucem.nullithstudios.bestsupplies.model.PendingEntry;
+import dev.joshlucem.nullithstudios.bestsupplies.model.PlayerState;
+import dev.joshlucem.nullithstudios.bestsupplies.model.PlayerSupplyProfile;
+import dev.joshlucem.nullithstudios.bestsupplies.model.ProfileChange;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Single-server backend that keeps every row in memory, indexed by player, and persists
+ * each change as a record appended to a memory-mapped log. Reads never touch the disk.
+ * When the log grows past the threshold, the in-memory state is written as a snapshot and
+ * a new log is started; startup loads the snapshot and replays the logs written after it.
+ *
+ * Records of a log generation are only meaningful on top of the snapshot of the same or
+ * an older generation, so a snapshot of generation G replaces every log below G.
+ */
+public class LogDatabase implements Database {
+
+    private static final byte STATE = 1;
+    private static final byte DAILY = 2;
+    private static final byte WEEKLY = 3;
+    private static final byte WEEKLY_RESET = 4;
+    private static final byte MONTHLY = 5;
+    private static final byte FOOD = 6;
+    private static final byte FOOD_RESET = 7;
+    private static final byte FOOD_RESET_ALL = 8;
+    private static final byte CHEQUE = 9;
+    private static final byte CHEQUE_REDEEM = 10;
+    private static final byte PENDING_ADD = 11;
+    private static final byte PENDING_REMOVE = 12;
+    private static final byte BATCH = 13;
+    private static final byte PENDING_SEQUENCE = 14;
+    private static final byte PURGE = 15;
+    private static final byte PENDING_UPDATE = 16;
+
+    private static final byte PURGE_DAILY = 0;
+    private static final byte PURGE_WEEKLY = 1;
+    private static final byte PURGE_MONTHLY = 2;
+    private static final byte PURGE_CHEQUES = 3;
+    private static final byte PURGE_PENDING = 4;
+
+    private static final int NONE = Integer.MIN_VALUE;
+    private static final int EXPORT_CHUNK = 256;
+    private static final String SNAPSHOT = "snapshot.bin";
+    private static final String SNAPSHOT_TEMP = "snapshot.tmp";
+    private static final String LOG_PREFIX = "wal-";
+    private static final String LOG_SUFFIX = ".log";
+
+    private final BestSupplies plugin;
+    private final ConfigManager configManager;
+    private final Object compactLock = new Object();
+
+    private final Map<UUID, PlayerData> players = new HashMap<>();
+    private final Map<UUID, ChequeRow> cheques = new HashMap<>();
+    private final Map<Integer, UUID> pendingOwners = new HashMap<>();
+    private final Map<UUID, Lease> leases = new HashMap<>();
+    private int nextPendingId = 1;
+
+    private Path directory;
+    private long growBytes;
+    private LogFile log;
+    private ScheduledExecutorService syncer;
+
+    public LogDatabase(BestSupplies plugin, ConfigManager configManager) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+    }
+
+    @Override
+    public synchronized void initialize() {
+        try {
+            directory = plugin.getDataFolder().toPath().resolve("log");
+            Files.createDirectories(directory);
+            growBytes = Math.max(1L, configManager.getLogSegmentSizeMb()) * 1024L * 1024L;
+            Files.deleteIfExists(directory.resolve(SNAPSHOT_TEMP));
+
+            long start = System.currentTimeMillis();
+            long records = 0;
+            long snapshotGeneration = 0;
+            Path snapshot = directory.resolve(SNAPSHOT);
+            if (Files.isRegularFile(snapshot)) {
+                snapshotGeneration = LogFile.readGeneration(snapshot);
+                if (snapshotGeneration < 0) {
+                    throw new IOException("Instantanea invalida: " + snapshot);
+                }
+                records += LogFile.replay(snapshot, this::apply);
+            }
+
+            Path last = null;
+            for (Map.Entry<Long, Path> entry : listLogs().entrySet()) {
+                if (entry.getKey() < snapshotGeneration) {
+                    // Already folded into the snapshot by a compaction that did not get to delete it
+                    Files.deleteIfExists(entry.getValue());
+                    continue;
+                }
+                records += LogFile.replay(entry.getValue(), this::apply);
+                last = entry.getValue();
+            }
+
+            log = last != null
+                    ? LogFile.openForAppend(last, growBytes)
+                    : LogFile.create(logPath(snapshotGeneration), snapshotGeneration, growBytes);
+            startSyncer();
+            plugin.getLogger().info("Almacenamiento en registro inicializado: " + records + " registros de "
+                    + players.size() + " jugadores recuperados en " + (System.currentTimeMillis() - start) + " ms.");
+        } catch (IOException | RuntimeException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error inicializando el almacenamiento en registro", e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    private TreeMap<Long, Path> listLogs() throws IOException {
+        TreeMap<Long, Path> logs = new TreeMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, LOG_PREFIX + "*" + LOG_SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                try {
+                    logs.put(Long.parseLong(name.substring(LOG_PREFIX.length(), name.length() - LOG_SUFFIX.length())), path);
+                } catch (NumberFormatException e) {
+                    plugin.getLogger().warning("Ignorando archivo de registro desconocido: " + name);
+                }
+            }
+        }
+        return logs;
+    }
+
+    private Path logPath(long generation) {
+        return directory.resolve(String.format("%s%016d%s", LOG_PREFIX, generation, LOG_SUFFIX));
+    }
+
+    private void startSyncer() {
+        if (syncer != null) {
+            return;
+        }
+        long interval = configManager.getLogSyncInterval();
+        syncer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "BestSupplies-Log-Sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // The compaction check runs even when periodic syncing is off
+        long period = interval > 0 ? interval : 1000L;
+        syncer.scheduleWithFixedDelay(() -> {
+            if (interval > 0) {
+                sync();
+            }
+            long threshold = Math.max(1L, configManager.getLogCompactThresholdMb()) * 1024L * 1024L;
+            if (logSize() > threshold) {
+                compact();
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void sync() {
+        if (log != null) {
+            log.force();
+        }
+    }
+
+    private synchronized long logSize() {
+        return log != null ? log.size() : 0L;
+    }
+
+    @Override
+    public void close() {
+        if (syncer != null) {
+            syncer.shutdown();
+            try {
+                syncer.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            syncer = null;
+        }
+        synchronized (compactLock) {
+            synchronized (this) {
+                if (log == null) {
+                    return;
+                }
+                try {
+                    log.close();
+                    plugin.getLogger().info("Almacenamiento en registro cerrado.");
+                } catch (IOException e) {
+                    plugin.getLogger().log(Level.WARNING, "Error cerrando el archivo de registro", e);
+                }
+                log = null;
+            }
+        }
+    }
+
+    /**
+     * Write the in-memory state as a new snapshot and start a new log generation. Only the
+     * switch to the new log holds the database lock; the snapshot is written outside it.
+     * Returns the bytes released on disk, or -1 if the compaction failed.
+     */
+    private long compact() {
+        synchronized (compactLock) {
+            LogFile previous;
+            List<byte[]> records;
+            long generation;
+            synchronized (this) {
+                if (log == null) {
+                    return -1L;
+                }
+                previous = log;
+                generation = previous.generation() + 1;
+                records = snapshotRecords();
+                try {
+                    log = LogFile.create(logPath(generation), generation, growBytes);
+                } catch (IOException e) {
+                    plugin.getLogger().log(Level.SEVERE, "Error iniciando un nuevo archivo de registro", e);
+                    return -1L;
+                }
+            }
+
+            long start = System.currentTimeMillis();
+            try {
+                previous.close();
+                Path snapshot = directory.resolve(SNAPSHOT);
+                long before = Files.size(previous.path()) + (Files.isRegularFile(snapshot) ? Files.size(snapshot) : 0L);
+                Path temp = directory.resolve(SNAPSHOT_TEMP);
+                LogFile.write(temp, generation, records);
+                Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+                for (Map.Entry<Long, Path> entry : listLogs().headMap(generation).entrySet()) {
+                    try {
+                        Files.deleteIfExists(entry.getValue());
+                    } catch (IOException e) {
+                        // Still mapped on some platforms; the next compaction or startup retries
+                        plugin.debug("No se pudo borrar " + entry.getValue().getFileName() + ": " + e.getMessage());
+                    }
+                }
+                long after = Files.size(snapshot);
+                plugin.debug("Registro compactado: " + records.size() + " registros en la instantanea "
+                        + generation + " (" + (System.currentTimeMillis() - start) + " ms)");
+                return Math.max(0L, before - after);
+            } catch (IOException e) {
+                // The older snapshot and logs are intact, so startup still recovers everything
+                plugin.getLogger().log(Level.SEVERE, "Error escribiendo la instantanea del registro", e);
+                return -1L;
+            }
+        }
+    }
+
+    /**
+     * Append the records as one log entry, then apply them to memory. Nothing is applied
+     * if the append failed.
+     */
+    private boolean commit(List<byte[]> records) {
+        if (records.isEmpty()) {
+            return true;
+        }
+        byte[] entry = records.size() == 1 ? records.get(0) : batch(records);
+        try {
+            if (log == null) {
+                throw new IOException("El almacenamiento en registro esta cerrado");
+            }
+            log.append(entry);
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error escribiendo en el archivo de registro", e);
+            return false;
+        }
+        apply(ByteBuffer.wrap(entry));
+        return true;
+    }
+
+    private boolean commit(byte[] record) {
+        return commit(Collections.singletonList(record));
+    }
+
+    private static byte[] batch(List<byte[]> records) {
+        Record batch = new Record(BATCH).putInt(records.size());
+        for (byte[] record : records) {
+            batch.putBytes(record);
+        }
+        return batch.toBytes();
+    }
+
+    // Shared by live writes and replay, so both always end up with the same state
+    private void apply(ByteBuffer in) {
+        byte type = in.get();
+        switch (type) {
+            case STATE -> {
+                PlayerData data = player(readUuid(in));
+                data.hasState = true;
+                data.streak = in.getInt();
+                data.lastDailyDay = in.getInt();
+                data.lastSeenDay = in.getInt();
+                data.lastRank = readString(in);
+            }
+            case DAILY -> player(readUuid(in)).daily.put(in.getInt(), in.get() == 1);
+            case WEEKLY -> player(readUuid(in)).weekly.put(in.getInt(), in.get() == 1);
+            case WEEKLY_RESET -> player(readUuid(in)).weekly.remove(in.getInt());
+            case MONTHLY -> {
+                PlayerData data = player(readUuid(in));
+                int month = in.getInt();
+                int setBits = in.getInt();
+                int clearBits = in.getInt();
+                data.monthly.put(month, (data.monthly.getOrDefault(month, 0) & ~clearBits) | setBits);
+            }
+            case FOOD -> player(readUuid(in)).food.put(readString(in), in.getLong());
+            case FOOD_RESET -> player(readUuid(in)).food.remove(readString(in));
+            case FOOD_RESET_ALL -> player(readUuid(in)).food.clear();
+            case CHEQUE -> {
+                UUID chequeId = readUuid(in);
+                cheques.put(chequeId, new ChequeRow(readUuid(in), in.getInt(), in.getDouble(), in.get() == 1, in.getLong()));
+            }
+            case CHEQUE_REDEEM -> {
+                ChequeRow cheque = cheques.get(readUuid(in));
+                long redeemedAt = in.getLong();
+                if (cheque != null) {
+                    cheque.redeemed = true;
+                    cheque.redeemedAt = redeemedAt;
+                }
+            }
+            case PENDING_ADD -> {
+                int id = in.getInt();
+                UUID owner = readUuid(in);
+                player(owner).pending.put(id, new PendingRow(id, readString(in), readString(in), in.getLong()));
+                pendingOwners.put(id, owner);
+                nextPendingId = Math.max(nextPendingId, id + 1);
+            }
+            case PENDING_REMOVE -> {
+                int id = in.getInt();
+                UUID owner = pendingOwners.remove(id);
+                if (owner != null) {
+                    players.get(owner).pending.remove(id);
+                }
+            }
+            case PENDING_UPDATE -> {
+                int id = in.getInt();
+                String payload = readString(in);
+                UUID owner = pendingOwners.get(id);
+                if (owner != null) {
+                    players.get(owner).pending.computeIfPresent(id,
+                            (key, row) -> new PendingRow(id, row.type(), payload, row.createdAt()));
+                }
+            }
+            case PENDING_SEQUENCE -> nextPendingId = Math.max(nextPendingId, in.getInt());
+            case BATCH -> {
+                int count = in.getInt();
+                for (int i = 0; i < count; i++) {
+                    int length = in.getInt();
+                    apply(in.slice(in.position(), length));
+                    in.position(in.position() + length);
+                }
+            }
+            case PURGE -> purgeInMemory(in.get(), in.getLong());
+            default -> throw new IllegalStateException("Tipo de registro desconocido: " + type);
+        }
+    }
+
+    private PlayerData player(UUID uuid) {
+        return players.computeIfAbsent(uuid, key -> new PlayerData());
+    }
+
+    private PlayerData existing(String playerUuid) {
+        return players.get(UUID.fromString(playerUuid));
+    }
+
+    /**
+     * Every row as the records that recreate it, players first and cheques last.
+     */
+    private List<byte[]> snapshotRecords() {
+        List<byte[]> records = new ArrayList<>();
+        records.add(new Record(PENDING_SEQUENCE).putInt(nextPendingId).toBytes());
+        for (Map.Entry<UUID, PlayerData> entry : players.entrySet()) {
+            UUID uuid = entry.getKey();
+            PlayerData data = entry.getValue();
+            if (data.hasState) {
+                records.add(stateRecord(uuid, data.streak, data.lastDailyDay, data.lastSeenDay, data.lastRank));
+            }
+            data.daily.forEach((day, claimed) -> records.add(claimRecord(DAILY, uuid, day, claimed)));
+            data.weekly.forEach((period, claimed) -> records.add(claimRecord(WEEKLY, uuid, period, claimed)));
+            data.monthly.forEach((month, mask) -> records.add(monthlyRecord(uuid, month, mask, -1)));
+            data.food.forEach((pack, next) -> records.add(foodRecord(uuid, pack, next)));
+            for (PendingRow row : data.pending.values()) {
+                records.add(pendingRecord(row.id, uuid, row.type, row.payload, row.createdAt));
+            }
+        }
+        cheques.forEach((id, cheque) -> records.add(chequeRecord(id, cheque)));
+        return records;
+    }
+
+    private static byte[] stateRecord(UUID uuid, int streak, int lastDailyDay, int lastSeenDay, String lastRank) {
+        return new Record(STATE).putUuid(uuid).putInt(streak).putInt(lastDailyDay).putInt(lastSeenDay)
+                .putString(lastRank).toBytes();
+    }
+
+    private static byte[] stateRecord(PlayerState state) {
+        return stateRecord(UUID.fromString(state.getPlayerUuid()), state.getStreak(), day(state.getLastDailyDate()),
+                day(state.getLastSeenDate()), state.getLastRank());
+    }
+
+    private static byte[] claimRecord(byte type, UUID uuid, int key, boolean claimed) {
+        return new Record(type).putUuid(uuid).putInt(key).putByte(claimed ? 1 : 0).toBytes();
+    }
+
+    private static byte[] monthlyRecord(UUID uuid, int month, int setBits, int clearBits) {
+        return new Record(MONTHLY).putUuid(uuid).putInt(month).putInt(setBits).putInt(clearBits).toBytes();
+    }
+
+    private static byte[] foodRecord(UUID uuid, String packId, long nextClaimAt) {
+        return new Record(FOOD).putUuid(uuid).putString(packId).putLong(nextClaimAt).toBytes();
+    }
+
+    private static byte[] pendingRecord(int id, UUID uuid, String type, String payload, long createdAt) {
+        return new Record(PENDING_ADD).putInt(id).putUuid(uuid).putString(type).putString(payload)
+                .putLong(createdAt).toBytes();
+    }
+
+    private static byte[] chequeRecord(UUID chequeId, ChequeRow cheque) {
+        return new Record(CHEQUE).putUuid(chequeId).putUuid(cheque.playerId).putInt(cheque.periodStart)
+                .putDouble(cheque.amount).putByte(cheque.redeemed ? 1 : 0).putLong(cheque.redeemedAt).toBytes();
+    }
+
+    private static int day(String dateKey) {
+        return dateKey == null || dateKey.isEmpty() ? NONE : StorageKeys.epochDay(dateKey);
+    }
+
+    private static String dateKey(int epochDay) {
+        return epochDay == NONE ? null : StorageKeys.dateKey(epochDay);
+    }
+
+    private static PlayerState toState(String playerUuid, PlayerData data) {
+        if (data == null || !data.hasState) {
+            return new PlayerState(playerUuid);
+        }
+        return new PlayerState(playerUuid, data.streak, dateKey(data.lastDailyDay), dateKey(data.lastSeenDay), data.lastRank);
+    }
+
+    @Override
+    public synchronized PlayerState getPlayerState(String playerUuid) {
+        return toState(playerUuid, existing(playerUuid));
+    }
+
+    @Override
+    public synchronized void savePlayerState(PlayerState state) {
+        commit(stateRecord(state));
+    }
+
+    @Override
+    public synchronized boolean applyWrites(List<BufferedWrite> writes) {
+        List<byte[]> records = new ArrayList<>(writes.size());
+        for (BufferedWrite write : writes) {
+            UUID uuid = UUID.fromString(write.getPlayerUuid());
+            records.add(switch (write.getType()) {
+                case PLAYER_STATE -> stateRecord(write.getState());
+                case DAILY_CLAIM -> claimRecord(DAILY, uuid, StorageKeys.epochDay(write.getKey()), write.isClaimed());
+                case WEEKLY_CLAIM -> claimRecord(WEEKLY, uuid, StorageKeys.epochMinute(write.getKey()), write.isClaimed());
+                case WEEKLY_RESET -> new Record(WEEKLY_RESET).putUuid(uuid).putInt(StorageKeys.epochMinute(write.getKey())).toBytes();
+                case MONTHLY_MASK -> monthlyRecord(uuid, StorageKeys.epochMonth(write.getKey()), write.getSetBits(), write.getClearBits());
+                case FOOD_CLAIM -> foodRecord(uuid, write.getKey(), write.getValue());
+                case FOOD_RESET -> new Record(FOOD_RESET).putUuid(uuid).putString(write.getKey()).toBytes();
+                case FOOD_RESET_ALL -> new Record(FOOD_RESET_ALL).putUuid(uuid).toBytes();
+            });
+        }
+        // One log entry for the whole list, so a crash keeps all of it or none
+        return commit(records);
+    }
+
+    @Override
+    public synchronized PlayerSupplyProfile loadSupplyProfile(String playerUuid, String fromDate) {
+        PlayerData data = existing(playerUuid);
+        PlayerSupplyProfile profile = new PlayerSupplyProfile(playerUuid, fromDate, toState(playerUuid, data));
+        if (data == null) {
+            return profile;
+        }
+
+        int fromDay = StorageKeys.epochDay(fromDate);
+        data.daily.forEach((day, claimed) -> {
+            if (claimed && day >= fromDay) {
+                profile.setDailyClaim(StorageKeys.dateKey(day), true);
+            }
+        });
+        int fromMinute = StorageKeys.epochMinuteOfDay(fromDate);
+        data.weekly.forEach((period, claimed) -> {
+            if (claimed && period >= fromMinute) {
+                profile.setWeeklyClaim(StorageKeys.periodKey(period), true);
+            }
+        });
+        int fromMonth = StorageKeys.epochMonth(fromDate.substring(0, 7));
+        data.monthly.forEach((month, mask) -> {
+            if (month >= fromMonth) {
+                profile.setMonthlyClaimMask(StorageKeys.monthKey(month), mask);
+            }
+        });
+        data.food.forEach(profile::setFoodClaimNextAt);
+        profile.setPendingCount(data.pending.size());
+        return profile;
+    }
+
+    @Override
+    public synchronized boolean hasDailyClaim(String playerUuid, String date) {
+        PlayerData data = existing(playerUuid);
+        return data != null && data.daily.getOrDefault(StorageKeys.epochDay(date), false);
+    }
+
+    @Override
+    public synchronized void setDailyClaim(String playerUuid, String date, boolean claimed) {
+        commit(claimRecord(DAILY, UUID.fromString(playerUuid), StorageKeys.epochDay(date), claimed));
+    }
+
+    @Override
+    public synchronized boolean hasWeeklyClaim(String playerUuid, String weekKey) {
+        PlayerData data = existing(playerUuid);
+        return data != null && data.weekly.getOrDefault(StorageKeys.epochMinute(weekKey), false);
+    }
+
+    @Override
+    public synchronized void setWeeklyClaim(String playerUuid, String weekKey, boolean claimed) {
+        commit(claimRecord(WEEKLY, UUID.fromString(playerUuid), StorageKeys.epochMinute(weekKey), claimed));
+    }
+
+    @Override
+    public synchronized void resetWeeklyClaim(String playerUuid, String weekKey) {
+        commit(new Record(WEEKLY_RESET).putUuid(UUID.fromString(playerUuid)).putInt(StorageKeys.epochMinute(weekKey)).toBytes());
+    }
+
+    @Override
+    public synchronized int getMonthlyClaimMask(String playerUuid, String month) {
+        PlayerData data = existing(playerUuid);
+        return data == null ? 0 : data.monthly.getOrDefault(StorageKeys.epochMonth(month), 0);
+    }
+
+    @Override
+    public synchronized void updateMonthlyClaimMask(String playerUuid, String month, int setBits, int clearBits) {
+        commit(monthlyRecord(UUID.fromString(playerUuid), StorageKeys.epochMonth(month), setBits, clearBits));
+    }
+
+    // Claim guard: the lock makes check-and-write atomic, and there is only one server
+    @Override
+    public synchronized ClaimUnit.Outcome commitClaim(ClaimUnit unit) {
+        String playerUuid = unit.getPlayerUuid();
+        UUID uuid = UUID.fromString(playerUuid);
+        List<byte[]> records = new ArrayList<>(3);
+        switch (unit.getGuard()) {
+            case DAILY -> {
+                if (hasDailyClaim(playerUuid, unit.getKey())) {
+                    return ClaimUnit.Outcome.TAKEN;
+                }
+                records.add(claimRecord(DAILY, uuid, StorageKeys.epochDay(unit.getKey()), true));
+            }
+            case WEEKLY -> {
+                if (hasWeeklyClaim(playerUuid, unit.getKey())) {
+                    return ClaimUnit.Outcome.TAKEN;
+                }
+                records.add(claimRecord(WEEKLY, uuid, StorageKeys.epochMinute(unit.getKey()), true));
+            }
+            case MONTHLY_DAY -> {
+                if ((getMonthlyClaimMask(playerUuid, unit.getKey()) & unit.getDayBit()) != 0) {
+                    return ClaimUnit.Outcome.TAKEN;
+                }
+                records.add(monthlyRecord(uuid, StorageKeys.epochMonth(unit.getKey()), unit.getDayBit(), 0));
+            }
+            case FOOD -> {
+                if (getFoodClaimNextAt(playerUuid, unit.getKey()) > unit.getNow()) {
+                    return ClaimUnit.Outcome.TAKEN;
+                }
+                records.add(foodRecord(uuid, unit.getKey(), unit.getNextClaimAt()));
+            }
+        }
+        if (unit.getState() != null) {
+            records.add(stateRecord(unit.getState()));
+        }
+        ChequeData cheque = unit.getCheque();
+        if (cheque != null) {
+            records.add(chequeRecord(UUID.fromString(cheque.getChequeId()), new ChequeRow(uuid,
+                    StorageKeys.epochMinute(cheque.getWeekKey()), cheque.getAmount(), cheque.isRedeemed(), cheque.getRedeemedAt())));
+        }
+        // One log entry, so the claim and its state reach the disk together or not at all
+        return commit(records) ? ClaimUnit.Outcome.CLAIMED : ClaimUnit.Outcome.FAILED;
+    }
+
+    // Leases only guard against overlapping claims inside this process, so they are not logged
+    @Override
+    public synchronized boolean acquireClaimLease(String playerUuid, String holder, long leaseMillis) {
+        UUID uuid = UUID.fromString(playerUuid);
+        long now = System.currentTimeMillis();
+        Lease lease = leases.get(uuid);
+        if (lease != null && lease.expiresAt >= now) {
+            return false;
+        }
+        leases.put(uuid, new Lease(holder, now + leaseMillis));
+        return true;
+    }
+
+    @Override
+    public synchronized void releaseClaimLease(String playerUuid, String holder) {
+        UUID uuid = UUID.fromString(playerUuid);
+        Lease lease = leases.get(uuid);
+        if (lease != null && lease.holder.equals(holder)) {
+            leases.remove(uuid);
+        }
+    }
+
+    // No other server reads this storage, so there is no change feed to keep
+    @Override
+    public void appendProfileChanges(List<ProfileChange> changes) {
+    }
+
+    @Override
+    public List<ProfileChange> readProfileChanges(long afterId, int limit) {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public long getLastProfileChangeId() {
+        return 0L;
+    }
+
+    @Override
+    public int purgeProfileChanges(long createdBefore, int limit) {
+        return 0;
+    }
+
+    @Override
+    public synchronized long getFoodClaimNextAt(String playerUuid, String packId) {
+        PlayerData data = existing(playerUuid);
+        return data == null ? 0L : data.food.getOrDefault(packId, 0L);
+    }
+
+    @Override
+    public synchronized void setFoodClaimNextAt(String playerUuid, String packId, long nextClaimAt) {
+        commit(foodRecord(UUID.fromString(playerUuid), packId, nextClaimAt));
+    }
+
+    @Override
+    public synchronized void resetFoodClaim(String playerUuid, String packId) {
+        commit(new Record(FOOD_RESET).putUuid(UUID.fromString(playerUuid)).putString(packId).toBytes());
+    }
+
+    @Override
+    public synchronized void resetAllFoodClaims(String playerUuid) {
+        commit(new Record(FOOD_RESET_ALL).putUuid(UUID.fromString(playerUuid)).toBytes());
+    }
+
+    @Override
+    public synchronized void saveCheque(ChequeData cheque) {
+        String weekKey = cheque.getWeekKey();
+        int periodStart = weekKey == null || weekKey.isEmpty() ? NONE : StorageKeys.epochMinute(weekKey);
+        commit(chequeRecord(UUID.fromString(cheque.getChequeId()), new ChequeRow(UUID.fromString(cheque.getPlayerUuid()),
+                periodStart, cheque.getAmount(), cheque.isRedeemed(), cheque.getRedeemedAt())));
+    }
+
+    @Override
+    public synchronized ChequeData getCheque(String chequeId) {
+        if (!StorageKeys.isUuid(chequeId)) {
+            return null;
+        }
+        ChequeRow cheque = cheques.get(UUID.fromString(chequeId));
+        if (cheque == null) {
+            return null;
+        }
+        return new ChequeData(chequeId, cheque.playerId.toString(),
+                cheque.periodStart == NONE ? null : StorageKeys.periodKey(cheque.periodStart),
+                cheque.amount, cheque.redeemed, cheque.redeemedAt);
+    }
+
+    @Override
+    public synchronized boolean redeemCheque(String chequeId, long redeemedAt) {
+        if (!StorageKeys.isUuid(chequeId)) {
+            return false;
+        }
+        UUID id = UUID.fromString(chequeId);
+        ChequeRow cheque = cheques.get(id);
+        return cheque != null && !cheque.redeemed
+                && commit(new Record(CHEQUE_REDEEM).putUuid(id).putLong(redeemedAt).toBytes());
+    }
+
+    @Override
+    public synchronized int addPending(String playerUuid, PendingEntry.PendingType type, String payload) {
+        int id = nextPendingId;
+        return commit(pendingRecord(id, UUID.fromString(playerUuid), type.name(), payload, System.currentTimeMillis()))
+                ? id : -1;
+    }
+
+    @Override
+    public synchronized List<PendingEntry> getPendingEntries(String playerUuid) {
+        List<PendingEntry> entries = new ArrayList<>();
+        PlayerData data = existing(playerUuid);
+        if (data == null) {
+            return entries;
+        }
+        for (PendingRow row : data.pending.values()) {
+            PendingEntry.PendingType type;
+            try {
+                type = PendingEntry.PendingType.valueOf(row.type);
+            } catch (Exception e) {
+                type = PendingEntry.PendingType.ITEM;
+            }
+            entries.add(new PendingEntry(row.id, playerUuid, type, row.payload, row.createdAt));
+        }
+        entries.sort(Comparator.comparingLong(PendingEntry::getCreatedAt));
+        return entries;
+    }
+
+    @Override
+    public synchronized void removePending(int id) {
+        if (pendingOwners.containsKey(id)) {
+            commit(new Record(PENDING_REMOVE).putInt(id).toBytes());
+        }
+    }
+
+    @Override
+    public synchronized int getPendingCount(String playerUuid) {
+        PlayerData data = existing(playerUuid);
+        return data == null ? 0 : data.pending.size();
+    }
+
+    @Override
+    public synchronized boolean applyPendingChanges(Map<Integer, String> payloads, Set<Integer> removedIds) {
+        List<byte[]> records = new ArrayList<>(payloads.size() + removedIds.size());
+        payloads.forEach((id, payload) -> {
+            if (pendingOwners.containsKey(id)) {
+                records.add(new Record(PENDING_UPDATE).putInt(id).putString(payload).toBytes());
+            }
+        });
+        for (int id : removedIds) {
+            if (pendingOwners.containsKey(id)) {
+                records.add(new Record(PENDING_REMOVE).putInt(id).toBytes());
+            }
+        }
+        return commit(records);
+    }
+
+    /*
+     * Retention. Deleting from memory is cheap, so each call removes every expired row at
+     * once and the limit does not apply. The purge itself is logged, so replay removes the
+     * same rows in the same place of the history.
+     */
+
+    @Override
+    public int purgeDailyClaims(String beforeDate, int limit) {
+        return purge(PURGE_DAILY, StorageKeys.epochDay(beforeDate));
+    }
+
+    @Override
+    public int purgeWeeklyClaims(String beforeDate, int limit) {
+        return purge(PURGE_WEEKLY, StorageKeys.epochMinuteOfDay(beforeDate));
+    }
+
+    @Override
+    public int purgeMonthlyClaims(String beforeMonth, int limit) {
+        return purge(PURGE_MONTHLY, StorageKeys.epochMonth(beforeMonth));
+    }
+
+    @Override
+    public int purgeRedeemedCheques(long redeemedBefore, int limit) {
+        return purge(PURGE_CHEQUES, redeemedBefore);
+    }
+
+    @Override
+    public int purgePending(long createdBefore, int limit) {
+        return purge(PURGE_PENDING, createdBefore);
+    }
+
+    @Override
+    public synchronized int bulkReset(BulkReset reset, int limit) {
+        Iterable<UUID> candidates = players.keySet();
+        if (reset.getPlayers() != null) {
+            List<UUID> listed = new ArrayList<>(reset.getPlayers().size());
+            for (String playerUuid : reset.getPlayers()) {
+                listed.add(UUID.fromString(playerUuid));
+            }
+            candidates = listed;
+        }
+
+        List<byte[]> records = new ArrayList<>();
+        for (UUID uuid : candidates) {
+            if (records.size() >= limit) {
+                break;
+            }
+            PlayerData data = players.get(uuid);
+            if (data == null || (reset.getRankId() != null && !reset.getRankId().equals(data.lastRank))) {
+                continue;
+            }
+            switch (reset.getType()) {
+                case DAILY -> {
+                    int day = StorageKeys.epochDay(reset.getKey());
+                    if (Boolean.TRUE.equals(data.daily.get(day))) {
+                        records.add(claimRecord(DAILY, uuid, day, false));
+                    }
+                }
+                case MONTHLY_DAY -> {
+                    int month = StorageKeys.epochMonth(reset.getKey());
+                    if ((data.monthly.getOrDefault(month, 0) & reset.getDayBit()) != 0) {
+                        records.add(monthlyRecord(uuid, month, 0, reset.getDayBit()));
+                    }
+                }
+                case FOOD -> {
+                    if (data.food.containsKey(reset.getKey())) {
+                        records.add(new Record(FOOD_RESET).putUuid(uuid).putString(reset.getKey()).toBytes());
+                    }
+                }
+                case FOOD_ALL -> {
+                    if (!data.food.isEmpty()) {
+                        records.add(new Record(FOOD_RESET_ALL).putUuid(uuid).toBytes());
+                    }
+                }
+            }
+        }
+        return commit(records) ? records.size() : -1;
+    }
+
+    private synchronized int purge(byte kind, long cutoff) {
+        int expired = countExpired(kind, cutoff);
+        if (expired == 0) {
+            return 0;
+        }
+        return commit(new Record(PURGE).putByte(kind).putLong(cutoff).toBytes()) ? expired : 0;
+    }
+
+    private int countExpired(byte kind, long cutoff) {
+        int count = 0;
+        if (kind == PURGE_CHEQUES) {
+            for (ChequeRow cheque : cheques.values()) {
+                if (cheque.redeemed && cheque.redeemedAt < cutoff) {
+                    count++;
+                }
+            }
+            return count;
+        }
+        for (PlayerData data : players.values()) {
+            count += switch (kind) {
+                case PURGE_DAILY -> countBelow(data.daily.keySet(), cutoff);
+                case PURGE_WEEKLY -> countBelow(data.weekly.keySet(), cutoff);
+                case PURGE_MONTHLY -> countBelow(data.monthly.keySet(), cutoff);
+                default -> (int) data.pending.values().stream().filter(row -> row.createdAt < cutoff).count();
+            };
+        }
+        return count;
+    }
+
+    private static int countBelow(Set<Integer> keys, long cutoff) {
+        int count = 0;
+        for (int key : keys) {
+            if (key < cutoff) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private int purgeInMemory(byte kind, long cutoff) {
+        int removed = 0;
+        if (kind == PURGE_CHEQUES) {
+            Iterator<ChequeRow> it = cheques.values().iterator();
+            while (it.hasNext()) {
+                ChequeRow cheque = it.next();
+                if (cheque.redeemed && cheque.redeemedAt < cutoff) {
+                    it.remove();
+                    removed++;
+                }
+            }
+            return removed;
+        }
+        for (PlayerData data : players.values()) {
+            switch (kind) {
+                case PURGE_DAILY -> removed += removeBelow(data.daily.keySet(), cutoff);
+                case PURGE_WEEKLY -> removed += removeBelow(data.weekly.keySet(), cutoff);
+                case PURGE_MONTHLY -> removed += removeBelow(data.monthly.keySet(), cutoff);
+                case PURGE_PENDING -> {
+                    Iterator<PendingRow> it = data.pending.values().iterator();
+                    while (it.hasNext()) {
+                        PendingRow row = it.next();
+                        if (row.createdAt < cutoff) {
+                            it.remove();
+                            pendingOwners.remove(row.id);
+                            removed++;
+                        }
+                    }
+                }
+                default -> throw new IllegalStateException("Tipo de limpieza desconocido: " + kind);
+            }
+        }
+        return removed;
+    }
+
+    private static int removeBelow(Set<Integer> keys, long cutoff) {
+        int before = keys.size();
+        keys.removeIf(key -> key < cutoff);
+        return before - keys.size();
+    }
+
+    /**
+     * Compacts the log, which is how this backend gives space back.
+     */
+    @Override
+    public long reclaimSpace(int maxPages) {
+        return Math.max(0L, compact());
+    }
+
+    @Override
+    public long compactFully() {
+        return compact();
+    }
+
+    /**
+     * A fresh snapshot holds everything written so far in one file, so the backup is a
+     * compaction followed by a plain copy. Holding the compaction lock keeps the snapshot
+     * from being replaced halfway through the copy.
+     */
+    @Override
+    public long backupTo(Path target) {
+        synchronized (compactLock) {
+            if (compact() < 0) {
+                return -1L;
+            }
+            try {
+                Files.copy(directory.resolve(SNAPSHOT), target, StandardCopyOption.REPLACE_EXISTING);
+                return Files.size(target);
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.SEVERE, "Error copiando la instantanea del registro", e);
+                return -1L;
+            }
+        }
+    }
+
+    /**
+     * Rows are copied out in chunks of players under the lock and written outside it, so
+     * claims keep going while a large export runs.
+     */
+    @Override
+    public long exportTable(DataTable table, DataFile.Writer out) throws IOException {
+        out.beginTable(table);
+        List<UUID> keys;
+        synchronized (this) {
+            keys = new ArrayList<>(table == DataTable.CHEQUES ? cheques.keySet() : players.keySet());
+        }
+
+        long rows = 0;
+        List<Object[]> chunk = new ArrayList<>();
+        for (int from = 0; from < keys.size(); from += EXPORT_CHUNK) {
+            List<UUID> slice = keys.subList(from, Math.min(keys.size(), from + EXPORT_CHUNK));
+            synchronized (this) {
+                for (UUID key : slice) {
+                    collectRows(table, key, chunk);
+                }
+            }
+            for (Object[] row : chunk) {
+                out.writeRow(row);
+            }
+            rows += chunk.size();
+            chunk.clear();
+        }
+        return rows;
+    }
+
+    private void collectRows(DataTable table, UUID key, List<Object[]> rows) {
+        byte[] id = StorageKeys.uuid(key.toString());
+        if (table == DataTable.CHEQUES) {
+            ChequeRow cheque = cheques.get(key);
+            if (cheque != null) {
+                rows.add(new Object[]{id, StorageKeys.uuid(cheque.playerId.toString()),
+                        cheque.periodStart == NONE ? null : cheque.periodStart, cheque.amount,
+                        cheque.redeemed ? 1 : 0, cheque.redeemedAt});
+            }
+            return;
+        }
+        PlayerData data = players.get(key);
+        if (data == null) {
+            return;
+        }
+        switch (table) {
+            case PLAYER_STATE -> {
+                if (data.hasState) {
+                    rows.add(new Object[]{id, data.streak, data.lastDailyDay == NONE ? null : data.lastDailyDay,
+                            data.lastSeenDay == NONE ? null : data.lastSeenDay, data.lastRank});
+                }
+            }
+            case DAILY_CLAIMS -> data.daily.forEach((day, claimed) -> rows.add(new Object[]{id, day, claimed ? 1 : 0}));
+            case WEEKLY_CLAIMS -> data.weekly.forEach((period, claimed) -> rows.add(new Object[]{id, period, claimed ? 1 : 0}));
+            case MONTHLY_CLAIMS -> data.monthly.forEach((month, mask) -> rows.add(new Object[]{id, month, mask}));
+            case FOOD_CLAIMS -> data.food.forEach((pack, next) -> rows.add(new Object[]{id, pack, next}));
+            case PENDING -> {
+                for (PendingRow row : data.pending.values()) {
+                    rows.add(new Object[]{row.id, id, row.type, row.payload, row.createdAt});
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Same insert-or-ignore semantics as the SQL backends: a row whose key exists, either
+     * already stored or earlier in the same batch, is skipped. The batch is one log entry.
+     */
+    @Override
+    public synchronized int importRows(DataTable table, List<Object[]> rows) {
+        List<byte[]> records = new ArrayList<>(rows.size());
+        Set<String> seen = new HashSet<>();
+        try {
+            for (Object[] row : rows) {
+                byte[] record = importRecord(table, row, seen);
+                if (record != null) {
+                    records.add(record);
+                }
+            }
+        } catch (RuntimeException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error importando un lote de la tabla " + table.tableName(), e);
+            return -1;
+        }
+        return commit(records) ? records.size() : -1;
+    }
+
+    private byte[] importRecord(DataTable table, Object[] row, Set<String> seen) {
+        if (table == DataTable.PENDING) {
+            int id = (Integer) row[0];
+            if (pendingOwners.containsKey(id) || !seen.add(String.valueOf(id))) {
+                return null;
+            }
+            return pendingRecord(id, toUuid(row[1]), (String) row[2], (String) row[3], (Long) row[4]);
+        }
+
+        UUID key = toUuid(row[0]);
+        if (table == DataTable.CHEQUES) {
+            if (cheques.containsKey(key) || !seen.add(key.toString())) {
+                return null;
+            }
+            return chequeRecord(key, new ChequeRow(toUuid(row[1]), row[2] == null ? NONE : (Integer) row[2],
+                    (Double) row[3], (Integer) row[4] == 1, row[5] == null ? 0L : (Long) row[5]));
+        }
+
+        PlayerData data = players.get(key);
+        String seenKey = key + "/" + (row.length > 1 ? row[1] : "");
+        switch (table) {
+            case PLAYER_STATE -> {
+                if ((data != null && data.hasState) || !seen.add(key.toString())) {
+                    return null;
+                }
+                return stateRecord(key, (Integer) row[1], row[2] == null ? NONE : (Integer) row[2],
+                        row[3] == null ? NONE : (Integer) row[3], (String) row[4]);
+            }
+            case DAILY_CLAIMS -> {
+                if ((data != null && data.daily.containsKey((Integer) row[1])) || !seen.add(seenKey)) {
+                    return null;
+                }
+                return claimRecord(DAILY, key, (Integer) row[1], (Integer) row[2] == 1);
+            }
+            case WEEKLY_CLAIMS -> {
+                if ((data != null && data.weekly.containsKey((Integer) row[1])) || !seen.add(seenKey)) {
+                    return null;
+                }
+                return claimRecord(WEEKLY, key, (Integer) row[1], (Integer) row[2] == 1);
+            }
+            case MONTHLY_CLAIMS -> {
+                if ((data != null && data.monthly.containsKey((Integer) row[1])) || !seen.add(seenKey)) {
+                    return null;
+                }
+                return monthlyRecord(key, (Integer) row[1], (Integer) row[2], -1);
+            }
+            case FOOD_CLAIMS -> {
+                if ((data != null && data.food.containsKey((String) row[1])) || !seen.add(seenKey)) {
+                    return null;
+                }
+                return foodRecord(key, (String) row[1], (Long) row[2]);
+            }
+            default -> throw new IllegalArgumentException("Tabla no soportada: " + table.tableName());
+        }
+    }
+
+    private static UUID toUuid(Object bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap((byte[]) bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    private static UUID readUuid(ByteBuffer in) {
+        return new UUID(in.getLong(), in.getLong());
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Builder for one encoded record: a type byte followed by fixed-width fields. Strings
+     * are length-prefixed UTF-8, with -1 for null.
+     */
+    private static final class Record {
+        private ByteBuffer buffer = ByteBuffer.allocate(64);
+
+        Record(byte type) {
+            buffer.put(type);
+        }
+
+        private void ensure(int bytes) {
+            if (buffer.remaining() < bytes) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+                buffer.flip();
+                grown.put(buffer);
+                buffer = grown;
+            }
+        }
+
+        Record putByte(int value) {
+            ensure(1);
+            buffer.put((byte) value);
+            return this;
+        }
+
+        Record putInt(int value) {
+            ensure(4);
+            buffer.putInt(value);
+            return this;
+        }
+
+        Record putLong(long value) {
+            ensure(8);
+            buffer.putLong(value);
+            return this;
+        }
+
+        Record putDouble(double value) {
+            ensure(8);
+            buffer.putDouble(value);
+            return this;
+        }
+
+        Record putUuid(UUID value) {
+            return putLong(value.getMostSignificantBits()).putLong(value.getLeastSignificantBits());
+        }
+
+        Record putString(String value) {
+            if (value == null) {
+                return putInt(-1);
+            }
+            return putBytes(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        Record putBytes(byte[] value) {
+            ensure(4 + value.length);
+            buffer.putInt(value.length);
+            buffer.put(value);
+            return this;
+        }
+
+        byte[] toBytes() {
+            byte[] bytes = new byte[buffer.position()];
+            buffer.get(0, bytes);
+            return bytes;
+        }
+    }
+
+    private static final class PlayerData {
+        private boolean hasState;
+        private int streak;
+        private int lastDailyDay = NONE;
+        private int lastSeenDay = NONE;
+        private String lastRank;
+        private final Map<Integer, Boolean> daily = new HashMap<>();
+        private final Map<Integer, Boolean> weekly = new HashMap<>();
+        private final Map<Integer, Integer> monthly = new HashMap<>();
+        private final Map<String, Long> food = new HashMap<>();
+        private final Map<Integer, PendingRow> pending = new LinkedHashMap<>();
+    }
+
+    private static final class ChequeRow {
+        private final UUID playerId;
+        private final int periodStart;
+        private final double amount;
+        private boolean redeemed;
+        private long redeemedAt;
+
+        private ChequeRow(UUID playerId, int periodStart, double amount, boolean redeemed, long redeemedAt) {
+            this.playerId = playerId;
+            this.periodStart = periodStart;
+            this.amount = amount;
+            this.redeemed = redeemed;
+            this.redeemedAt = redeemedAt;
+        }
+    }
+
+    private record PendingRow(int id, String type, String payload, long createdAt) {
+    }
+
+    private record Lease(String holder, long expiresAt) {
+    }
+}
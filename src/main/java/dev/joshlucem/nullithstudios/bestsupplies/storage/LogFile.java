@@ -0,0 +1,209 @@
+package dev.joshlucem.nullithstudios.bestsupplies.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Memory-mapped, append-only record file used by {@link LogDatabase} for both the write
+ * log and snapshots. Each record is framed as [length][bytes][crc32]; the file is
+ * preallocated with zeros, so a zero length marks the end. Reading stops at the first
+ * record whose checksum does not match, which is where a crash cut the last write short.
+ */
+final class LogFile implements Closeable {
+
+    private static final int MAGIC = 0x42534C47;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int FRAME_BYTES = 8;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final long generation;
+    private final long growBytes;
+    private MappedByteBuffer buffer;
+    private long mappedBytes;
+    private long position;
+
+    private LogFile(Path path, FileChannel channel, long generation, long growBytes, long position) throws IOException {
+        this.path = path;
+        this.channel = channel;
+        this.generation = generation;
+        this.growBytes = growBytes;
+        this.position = position;
+        map(Math.max(channel.size(), position + growBytes));
+    }
+
+    /**
+     * New, empty file for the given generation. Replaces any file already at the path.
+     */
+    static LogFile create(Path path, long generation, long growBytes) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        LogFile file = new LogFile(path, channel, generation, growBytes, HEADER_BYTES);
+        file.buffer.putInt(0, MAGIC);
+        file.buffer.putInt(4, VERSION);
+        file.buffer.putLong(8, generation);
+        return file;
+    }
+
+    /**
+     * Generation stored in the header, or -1 if the file is not a readable log.
+     */
+    static long readGeneration(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                return -1;
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            channel.read(header, 0);
+            header.flip();
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                return -1;
+            }
+            return header.getLong();
+        }
+    }
+
+    /**
+     * Sequential scan of every intact record, passing each one (positioned at its first
+     * byte) to the handler. Returns the number of records read.
+     */
+    static long replay(Path path, Consumer<ByteBuffer> handler) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                return 0;
+            }
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (map.getInt(0) != MAGIC || map.getInt(4) != VERSION) {
+                throw new IOException("Archivo de registro invalido: " + path.getFileName());
+            }
+
+            CRC32 crc = new CRC32();
+            long records = 0;
+            int offset = HEADER_BYTES;
+            while (offset + FRAME_BYTES <= size) {
+                int length = map.getInt(offset);
+                if (length <= 0 || offset + FRAME_BYTES + (long) length > size) {
+                    break;
+                }
+                ByteBuffer record = map.slice(offset + 4, length);
+                crc.reset();
+                crc.update(record.duplicate());
+                if ((int) crc.getValue() != map.getInt(offset + 4 + length)) {
+                    break;
+                }
+                handler.accept(record);
+                records++;
+                offset += FRAME_BYTES + length;
+            }
+            return records;
+        }
+    }
+
+    /**
+     * Reopen an existing file to append after its last intact record.
+     */
+    static LogFile openForAppend(Path path, long growBytes) throws IOException {
+        long generation = readGeneration(path);
+        if (generation < 0) {
+            throw new IOException("Archivo de registro invalido: " + path.getFileName());
+        }
+        long[] end = {HEADER_BYTES};
+        replay(path, record -> end[0] += FRAME_BYTES + record.remaining());
+        // A torn record past the end is simply overwritten by the next append
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new LogFile(path, channel, generation, growBytes, end[0]);
+    }
+
+    Path path() {
+        return path;
+    }
+
+    long generation() {
+        return generation;
+    }
+
+    /**
+     * Bytes in use, header included.
+     */
+    long size() {
+        return position;
+    }
+
+    void append(byte[] record) throws IOException {
+        long needed = position + FRAME_BYTES + record.length;
+        if (needed > mappedBytes) {
+            map(Math.max(needed, mappedBytes + growBytes));
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(record);
+        int offset = (int) position;
+        // Length last, so a record is never visible before its bytes and checksum are in place
+        buffer.put(offset + 4, record);
+        buffer.putInt(offset + 4 + record.length, (int) crc.getValue());
+        buffer.putInt(offset, record.length);
+        position = needed;
+    }
+
+    /**
+     * Push written pages to disk. Without this they survive a crash of the server process
+     * but not of the machine.
+     */
+    void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    private void map(long bytes) throws IOException {
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IOException("Archivo de registro demasiado grande: " + path.getFileName());
+        }
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+        mappedBytes = bytes;
+    }
+
+    static void write(Path path, long generation, Iterable<byte[]> records) throws IOException {
+        // Snapshots are written once front to back, so plain buffered writes beat a mapping
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            ByteBuffer out = ByteBuffer.allocate(256 * 1024);
+            out.putInt(MAGIC).putInt(VERSION).putLong(generation);
+            CRC32 crc = new CRC32();
+            for (byte[] record : records) {
+                if (out.remaining() < FRAME_BYTES + record.length) {
+                    drain(channel, out);
+                    if (out.capacity() < FRAME_BYTES + record.length) {
+                        out = ByteBuffer.allocate(FRAME_BYTES + record.length);
+                    }
+                }
+                crc.reset();
+                crc.update(record);
+                out.putInt(record.length).put(record).putInt((int) crc.getValue());
+            }
+            drain(channel, out);
+            channel.force(true);
+        }
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer out) throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+}
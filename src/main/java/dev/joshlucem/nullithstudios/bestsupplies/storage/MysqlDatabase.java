@@ -1,152 +1,233 @@
 package dev.joshlucem.nullithstudios.bestsupplies.storage;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
 import dev.joshlucem.nullithstudios.bestsupplies.BestSupplies;
 import dev.joshlucem.nullithstudios.bestsupplies.config.ConfigManager;
 import dev.joshlucem.nullithstudios.bestsupplies.model.ChequeData;
 import dev.joshlucem.nullithstudios.bestsupplies.model.PendingEntry;
 import dev.joshlucem.nullithstudios.bestsupplies.model.PlayerState;
+import dev.joshlucem.nullithstudios.bestsupplies.model.PlayerSupplyProfile;
+import dev.joshlucem.nullithstudios.bestsupplies.model.ProfileChange;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 
 public class MysqlDatabase implements Database {
 
+    private static final String MONTHLY_MASK_SQL = """
+        INSERT INTO monthly_claims (player_id, month, claimed_mask) VALUES (?, ?, ?)
+        ON DUPLICATE KEY UPDATE claimed_mask = (claimed_mask & ~?) | ?
+    """;
+
+    private static final int RECENT_WRITES_PRUNE_SIZE = 4096;
+    // Placeholder limit of one MySQL prepared statement
+    private static final int MAX_IMPORT_PARAMETERS = 65535;
+
     private final BestSupplies plugin;
     private final ConfigManager configManager;
-    private Connection connection;
+    private final PoolMetrics poolMetrics;
+    private HikariDataSource dataSource;
+
+    private final List<HikariDataSource> replicas = new CopyOnWriteArrayList<>();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    // Player uuid -> until when that player's reads stay on the primary
+    private final Map<String, Long> recentWrites = new ConcurrentHashMap<>();
+    private volatile long allReadsOnPrimaryUntil;
+    private long readYourWritesMillis;
 
     public MysqlDatabase(BestSupplies plugin, ConfigManager configManager) {
         this.plugin = plugin;
         this.configManager = configManager;
+        this.poolMetrics = new PoolMetrics(plugin);
     }
 
     @Override
     public void initialize() {
         try {
-            String url = String.format("jdbc:mysql://%s:%d/%s?useSSL=false&autoReconnect=true",
-                    configManager.getMysqlHost(),
-                    configManager.getMysqlPort(),
-                    configManager.getMysqlDatabase());
-            
-            connection = DriverManager.getConnection(url, 
-                    configManager.getMysqlUsername(), 
-                    configManager.getMysqlPassword());
-            
-            createTables();
-            plugin.getLogger().info("Base de datos MySQL inicializada.");
+            HikariConfig hikari = poolConfig("BestSupplies-MySQL", configManager.getMysqlHost(),
+                    configManager.getMysqlPort(), configManager.getMysqlPoolSize());
+            hikari.setMetricsTrackerFactory(poolMetrics);
+            dataSource = new HikariDataSource(hikari);
+
+            try (Connection conn = getConnection()) {
+                new SchemaMigrator(plugin, SqlDialect.MYSQL).migrate(conn);
+            }
+            plugin.getLogger().info("Base de datos MySQL inicializada (pool de " + configManager.getMysqlPoolSize() + " conexiones).");
         } catch (SQLException e) {
             plugin.getLogger().log(Level.SEVERE, "Error inicializando MySQL", e);
+            close();
             throw new RuntimeException(e);
         }
+
+        readYourWritesMillis = Math.max(0L, configManager.getMysqlReadYourWritesMillis());
+        for (String address : configManager.getMysqlReplicaHosts()) {
+            startReplica(address);
+        }
+    }
+
+    private HikariConfig poolConfig(String poolName, String host, int port, int poolSize) {
+        String url = String.format("jdbc:mysql://%s:%d/%s?useSSL=false", host, port, configManager.getMysqlDatabase());
+
+        HikariConfig hikari = new HikariConfig();
+        hikari.setPoolName(poolName);
+        hikari.setJdbcUrl(url);
+        hikari.setUsername(configManager.getMysqlUsername());
+        hikari.setPassword(configManager.getMysqlPassword());
+        hikari.setMaximumPoolSize(Math.max(1, poolSize));
+        hikari.setMinimumIdle(Math.max(1, Math.min(configManager.getMysqlMinimumIdle(), poolSize)));
+        hikari.setConnectionTimeout(configManager.getMysqlConnectionTimeout());
+        hikari.setValidationTimeout(configManager.getMysqlValidationTimeout());
+        hikari.setMaxLifetime(configManager.getMysqlMaxLifetime());
+        hikari.setIdleTimeout(configManager.getMysqlIdleTimeout());
+        hikari.setKeepaliveTime(configManager.getMysqlKeepaliveTime());
+        hikari.setLeakDetectionThreshold(configManager.getMysqlLeakDetectionThreshold());
+
+        // Driver-side statement cache so repeated claim queries skip re-parsing
+        hikari.addDataSourceProperty("cachePrepStmts", "true");
+        hikari.addDataSourceProperty("prepStmtCacheSize", "250");
+        hikari.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+        hikari.addDataSourceProperty("useServerPrepStmts", "true");
+        hikari.addDataSourceProperty("rewriteBatchedStatements", "true");
+        hikari.addDataSourceProperty("characterEncoding", "utf8");
+        return hikari;
     }
 
-    private void createTables() throws SQLException {
-        try (Statement stmt = connection.createStatement()) {
-            // Player state
-            stmt.execute("""
-                CREATE TABLE IF NOT EXISTS player_state (
-                    player_uuid VARCHAR(36) PRIMARY KEY,
-                    streak INT DEFAULT 0,
-                    last_daily_date VARCHAR(10),
-                    last_seen_date VARCHAR(10),
-                    last_rank VARCHAR(50)
-                ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
-            """);
-            
-            // Daily claims
-            stmt.execute("""
-                CREATE TABLE IF NOT EXISTS daily_claims (
-                    player_uuid VARCHAR(36),
-                    date VARCHAR(10),
-                    claimed TINYINT DEFAULT 0,
-                    PRIMARY KEY (player_uuid, date)
-                ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
-            """);
-            
-            // Weekly claims
-            stmt.execute("""
-                CREATE TABLE IF NOT EXISTS weekly_claims (
-                    player_uuid VARCHAR(36),
-                    week_key VARCHAR(20),
-                    claimed TINYINT DEFAULT 0,
-                    PRIMARY KEY (player_uuid, week_key)
-                ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
-            """);
-            
-            // Food claims
-            stmt.execute("""
-                CREATE TABLE IF NOT EXISTS food_claims (
-                    player_uuid VARCHAR(36),
-                    pack_id VARCHAR(50),
-                    next_claim_at BIGINT DEFAULT 0,
-                    PRIMARY KEY (player_uuid, pack_id)
-                ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
-            """);
-            
-            // Cheques
-            stmt.execute("""
-                CREATE TABLE IF NOT EXISTS cheques (
-                    cheque_id VARCHAR(36) PRIMARY KEY,
-                    player_uuid VARCHAR(36),
-                    week_key VARCHAR(20),
-                    amount DOUBLE,
-                    redeemed TINYINT DEFAULT 0,
-                    redeemed_at BIGINT DEFAULT 0,
-                    INDEX idx_player (player_uuid)
-                ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
-            """);
-            
-            // Pending deliveries
-            stmt.execute("""
-                CREATE TABLE IF NOT EXISTS pending (
-                    id INT AUTO_INCREMENT PRIMARY KEY,
-                    player_uuid VARCHAR(36),
-                    type VARCHAR(20),
-                    payload TEXT,
-                    created_at BIGINT,
-                    INDEX idx_player (player_uuid)
-                ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
-            """);
+    /**
+     * A replica that cannot be reached at startup is left out; reads simply stay on the primary.
+     */
+    private void startReplica(String address) {
+        String host = address.trim();
+        int port = configManager.getMysqlPort();
+        int colon = host.lastIndexOf(':');
+        try {
+            if (colon > 0) {
+                port = Integer.parseInt(host.substring(colon + 1));
+                host = host.substring(0, colon);
+            }
+            HikariConfig hikari = poolConfig("BestSupplies-MySQL-Replica-" + (replicas.size() + 1), host, port,
+                    configManager.getMysqlReplicaPoolSize());
+            hikari.setReadOnly(true);
+            replicas.add(new HikariDataSource(hikari));
+            plugin.getLogger().info("Replica MySQL de lectura conectada: " + host + ":" + port);
+        } catch (RuntimeException e) {
+            plugin.getLogger().log(Level.WARNING, "No se pudo conectar a la replica MySQL " + address
+                    + "; sus lecturas iran al servidor principal", e);
         }
     }
 
     @Override
     public void close() {
-        if (connection != null) {
-            try {
-                connection.close();
-                plugin.getLogger().info("Conexión MySQL cerrada.");
-            } catch (SQLException e) {
-                plugin.getLogger().log(Level.WARNING, "Error cerrando conexión MySQL", e);
-            }
+        for (HikariDataSource replica : replicas) {
+            replica.close();
+        }
+        replicas.clear();
+        if (dataSource != null && !dataSource.isClosed()) {
+            plugin.getLogger().info("Estadisticas del pool MySQL: " + poolMetrics.summary());
+            dataSource.close();
+            plugin.getLogger().info("Pool de conexiones MySQL cerrado.");
         }
     }
 
-    private Connection getConnection() {
+    /**
+     * Borrow a connection from the pool. Callers must close it to hand it back.
+     */
+    private Connection getConnection() throws SQLException {
+        if (dataSource == null || dataSource.isClosed()) {
+            throw new SQLException("El pool de conexiones MySQL no esta disponible");
+        }
+        return dataSource.getConnection();
+    }
+
+    /**
+     * Borrow a connection for reading one player's rows. Replicas take turns, except while
+     * the player is inside the read-your-writes window after a write of theirs, which a
+     * lagging replica might not have applied yet. That window only knows about writes made
+     * through this server, so it is for display reads alone. Profiles, claim state and
+     * mailboxes are read from the primary: a player who just switched servers would
+     * otherwise get a snapshot from before their last claim on the old one.
+     */
+    private Connection getReadConnection(String playerUuid) throws SQLException {
+        if (replicas.isEmpty() || readsFromPrimary(playerUuid)) {
+            return getConnection();
+        }
+        HikariDataSource replica = replicas.get(Math.floorMod(nextReplica.getAndIncrement(), replicas.size()));
         try {
-            if (connection == null || connection.isClosed()) {
-                initialize();
-            }
+            return replica.getConnection();
         } catch (SQLException e) {
-            plugin.getLogger().log(Level.SEVERE, "Error verificando conexión", e);
+            plugin.getLogger().warning("Replica " + replica.getPoolName() + " no disponible, leyendo del principal: "
+                    + e.getMessage());
+            return getConnection();
+        }
+    }
+
+    private boolean readsFromPrimary(String playerUuid) {
+        long now = System.currentTimeMillis();
+        if (now < allReadsOnPrimaryUntil) {
+            return true;
+        }
+        Long until = recentWrites.get(playerUuid);
+        if (until == null) {
+            return false;
+        }
+        if (now < until) {
+            return true;
+        }
+        recentWrites.remove(playerUuid, until);
+        return false;
+    }
+
+    private void wrote(String playerUuid) {
+        if (replicas.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        recentWrites.put(playerUuid, now + readYourWritesMillis);
+        if (recentWrites.size() > RECENT_WRITES_PRUNE_SIZE) {
+            recentWrites.values().removeIf(until -> until <= now);
+        }
+    }
+
+    /**
+     * For writes addressed by row id rather than player, every read goes to the primary for a window.
+     */
+    private void wroteAll() {
+        if (!replicas.isEmpty()) {
+            allReadsOnPrimaryUntil = System.currentTimeMillis() + readYourWritesMillis;
         }
-        return connection;
+    }
+
+    public int getReplicaCount() {
+        return replicas.size();
+    }
+
+    public PoolMetrics getPoolMetrics() {
+        return poolMetrics;
     }
 
     @Override
     public PlayerState getPlayerState(String playerUuid) {
-        String sql = "SELECT streak, last_daily_date, last_seen_date, last_rank FROM player_state WHERE player_uuid = ?";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
-            ps.setString(1, playerUuid);
+        String sql = "SELECT streak, last_daily_day, last_seen_day, last_rank FROM player_state WHERE player_id = ?";
+        // Always the primary: callers change this state and write it back, and after a server
+        // switch a lagging replica could hand them a streak another node already advanced
+        try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setBytes(1, StorageKeys.uuid(playerUuid));
             ResultSet rs = ps.executeQuery();
             if (rs.next()) {
                 return new PlayerState(
                     playerUuid,
                     rs.getInt("streak"),
-                    rs.getString("last_daily_date"),
-                    rs.getString("last_seen_date"),
+                    StorageKeys.getDateKey(rs, "last_daily_day"),
+                    StorageKeys.getDateKey(rs, "last_seen_day"),
                     rs.getString("last_rank")
                 );
             }
@@ -158,20 +239,21 @@ public class MysqlDatabase implements Database {
 
     @Override
     public void savePlayerState(PlayerState state) {
+        wrote(state.getPlayerUuid());
         String sql = """
-            INSERT INTO player_state (player_uuid, streak, last_daily_date, last_seen_date, last_rank)
+            INSERT INTO player_state (player_id, streak, last_daily_day, last_seen_day, last_rank)
             VALUES (?, ?, ?, ?, ?)
-            ON DUPLICATE KEY UPDATE streak = ?, last_daily_date = ?, last_seen_date = ?, last_rank = ?
+            ON DUPLICATE KEY UPDATE streak = ?, last_daily_day = ?, last_seen_day = ?, last_rank = ?
         """;
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
-            ps.setString(1, state.getPlayerUuid());
+        try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setBytes(1, StorageKeys.uuid(state.getPlayerUuid()));
             ps.setInt(2, state.getStreak());
-            ps.setString(3, state.getLastDailyDate());
-            ps.setString(4, state.getLastSeenDate());
+            StorageKeys.setEpochDay(ps, 3, state.getLastDailyDate());
+            StorageKeys.setEpochDay(ps, 4, state.getLastSeenDate());
             ps.setString(5, state.getLastRank());
             ps.setInt(6, state.getStreak());
-            ps.setString(7, state.getLastDailyDate());
-            ps.setString(8, state.getLastSeenDate());
+            StorageKeys.setEpochDay(ps, 7, state.getLastDailyDate());
+            StorageKeys.setEpochDay(ps, 8, state.getLastSeenDate());
             ps.setString(9, state.getLastRank());
             ps.executeUpdate();
         } catch (SQLException e) {
@@ -179,12 +261,199 @@ public class MysqlDatabase implements Database {
         }
     }
 
+    @Override
+    public boolean applyWrites(List<BufferedWrite> writes) {
+        if (writes.isEmpty()) {
+            return true;
+        }
+
+        for (BufferedWrite write : writes) {
+            wrote(write.getPlayerUuid());
+        }
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                executeWrites(conn, writes);
+                conn.commit();
+                return true;
+            } catch (Throwable e) {
+                // Any failure, not only SQL errors: the finally below would commit a partial batch
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error guardando lote de " + writes.size() + " escrituras", e);
+        }
+        return false;
+    }
+
+    /**
+     * Runs the writes in order, grouping consecutive writes of the same kind into one JDBC batch.
+     */
+    private void executeWrites(Connection conn, List<BufferedWrite> writes) throws SQLException {
+        BufferedWrite.Type currentType = null;
+        PreparedStatement ps = null;
+        try {
+            for (BufferedWrite write : writes) {
+                if (write.getType() != currentType) {
+                    if (ps != null) {
+                        ps.executeBatch();
+                        ps.close();
+                    }
+                    currentType = write.getType();
+                    ps = conn.prepareStatement(getWriteSql(currentType));
+                }
+                bindWrite(ps, write);
+                ps.addBatch();
+            }
+            if (ps != null) {
+                ps.executeBatch();
+            }
+        } finally {
+            if (ps != null) {
+                ps.close();
+            }
+        }
+    }
+
+    private String getWriteSql(BufferedWrite.Type type) {
+        return switch (type) {
+            case PLAYER_STATE -> """
+                INSERT INTO player_state (player_id, streak, last_daily_day, last_seen_day, last_rank)
+                VALUES (?, ?, ?, ?, ?)
+                ON DUPLICATE KEY UPDATE streak = ?, last_daily_day = ?, last_seen_day = ?, last_rank = ?
+            """;
+            case DAILY_CLAIM -> "INSERT INTO daily_claims (player_id, day, claimed) VALUES (?, ?, ?) ON DUPLICATE KEY UPDATE claimed = ?";
+            case WEEKLY_CLAIM -> "INSERT INTO weekly_claims (player_id, period_start, claimed) VALUES (?, ?, ?) ON DUPLICATE KEY UPDATE claimed = ?";
+            case WEEKLY_RESET -> "DELETE FROM weekly_claims WHERE player_id = ? AND period_start = ?";
+            case MONTHLY_MASK -> MONTHLY_MASK_SQL;
+            case FOOD_CLAIM -> "INSERT INTO food_claims (player_id, pack_id, next_claim_at) VALUES (?, ?, ?) ON DUPLICATE KEY UPDATE next_claim_at = ?";
+            case FOOD_RESET -> "DELETE FROM food_claims WHERE player_id = ? AND pack_id = ?";
+            case FOOD_RESET_ALL -> "DELETE FROM food_claims WHERE player_id = ?";
+        };
+    }
+
+    private void bindWrite(PreparedStatement ps, BufferedWrite write) throws SQLException {
+        ps.setBytes(1, StorageKeys.uuid(write.getPlayerUuid()));
+        switch (write.getType()) {
+            case PLAYER_STATE -> {
+                PlayerState state = write.getState();
+                ps.setInt(2, state.getStreak());
+                StorageKeys.setEpochDay(ps, 3, state.getLastDailyDate());
+                StorageKeys.setEpochDay(ps, 4, state.getLastSeenDate());
+                ps.setString(5, state.getLastRank());
+                ps.setInt(6, state.getStreak());
+                StorageKeys.setEpochDay(ps, 7, state.getLastDailyDate());
+                StorageKeys.setEpochDay(ps, 8, state.getLastSeenDate());
+                ps.setString(9, state.getLastRank());
+            }
+            case DAILY_CLAIM -> {
+                ps.setInt(2, StorageKeys.epochDay(write.getKey()));
+                ps.setInt(3, write.isClaimed() ? 1 : 0);
+                ps.setInt(4, write.isClaimed() ? 1 : 0);
+            }
+            case WEEKLY_CLAIM -> {
+                ps.setInt(2, StorageKeys.epochMinute(write.getKey()));
+                ps.setInt(3, write.isClaimed() ? 1 : 0);
+                ps.setInt(4, write.isClaimed() ? 1 : 0);
+            }
+            case FOOD_CLAIM -> {
+                ps.setString(2, write.getKey());
+                ps.setLong(3, write.getValue());
+                ps.setLong(4, write.getValue());
+            }
+            case MONTHLY_MASK -> {
+                ps.setInt(2, StorageKeys.epochMonth(write.getKey()));
+                ps.setInt(3, write.getSetBits());
+                ps.setInt(4, write.getClearBits());
+                ps.setInt(5, write.getSetBits());
+            }
+            case WEEKLY_RESET -> ps.setInt(2, StorageKeys.epochMinute(write.getKey()));
+            case FOOD_RESET -> ps.setString(2, write.getKey());
+            case FOOD_RESET_ALL -> {
+            }
+        }
+    }
+
+    @Override
+    public PlayerSupplyProfile loadSupplyProfile(String playerUuid, String fromDate) {
+        // The primary: this snapshot is cached for the whole session and answers claims from memory
+        try (Connection conn = getConnection()) {
+            PlayerSupplyProfile profile;
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "SELECT streak, last_daily_day, last_seen_day, last_rank FROM player_state WHERE player_id = ?")) {
+                ps.setBytes(1, StorageKeys.uuid(playerUuid));
+                ResultSet rs = ps.executeQuery();
+                PlayerState state = rs.next()
+                        ? new PlayerState(playerUuid, rs.getInt("streak"), StorageKeys.getDateKey(rs, "last_daily_day"),
+                                StorageKeys.getDateKey(rs, "last_seen_day"), rs.getString("last_rank"))
+                        : new PlayerState(playerUuid);
+                profile = new PlayerSupplyProfile(playerUuid, fromDate, state);
+            }
+
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "SELECT day FROM daily_claims WHERE player_id = ? AND day >= ? AND claimed = 1")) {
+                ps.setBytes(1, StorageKeys.uuid(playerUuid));
+                ps.setInt(2, StorageKeys.epochDay(fromDate));
+                ResultSet rs = ps.executeQuery();
+                while (rs.next()) {
+                    profile.setDailyClaim(StorageKeys.dateKey(rs.getInt("day")), true);
+                }
+            }
+
+            // Weekly period keys start with the date the period began
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "SELECT period_start FROM weekly_claims WHERE player_id = ? AND period_start >= ? AND claimed = 1")) {
+                ps.setBytes(1, StorageKeys.uuid(playerUuid));
+                ps.setInt(2, StorageKeys.epochMinuteOfDay(fromDate));
+                ResultSet rs = ps.executeQuery();
+                while (rs.next()) {
+                    profile.setWeeklyClaim(StorageKeys.periodKey(rs.getInt("period_start")), true);
+                }
+            }
+
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "SELECT month, claimed_mask FROM monthly_claims WHERE player_id = ? AND month >= ?")) {
+                ps.setBytes(1, StorageKeys.uuid(playerUuid));
+                ps.setInt(2, StorageKeys.epochMonth(fromDate.substring(0, 7)));
+                ResultSet rs = ps.executeQuery();
+                while (rs.next()) {
+                    profile.setMonthlyClaimMask(StorageKeys.monthKey(rs.getInt("month")), rs.getInt("claimed_mask"));
+                }
+            }
+
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "SELECT pack_id, next_claim_at FROM food_claims WHERE player_id = ?")) {
+                ps.setBytes(1, StorageKeys.uuid(playerUuid));
+                ResultSet rs = ps.executeQuery();
+                while (rs.next()) {
+                    profile.setFoodClaimNextAt(rs.getString("pack_id"), rs.getLong("next_claim_at"));
+                }
+            }
+
+            try (PreparedStatement ps = conn.prepareStatement("SELECT COUNT(*) FROM pending WHERE player_id = ?")) {
+                ps.setBytes(1, StorageKeys.uuid(playerUuid));
+                ResultSet rs = ps.executeQuery();
+                if (rs.next()) {
+                    profile.setPendingCount(rs.getInt(1));
+                }
+            }
+
+            return profile;
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error cargando perfil del jugador", e);
+        }
+        return null;
+    }
+
     @Override
     public boolean hasDailyClaim(String playerUuid, String date) {
-        String sql = "SELECT claimed FROM daily_claims WHERE player_uuid = ? AND date = ?";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
-            ps.setString(1, playerUuid);
-            ps.setString(2, date);
+        String sql = "SELECT claimed FROM daily_claims WHERE player_id = ? AND day = ?";
+        try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setBytes(1, StorageKeys.uuid(playerUuid));
+            ps.setInt(2, StorageKeys.epochDay(date));
             ResultSet rs = ps.executeQuery();
             if (rs.next()) {
                 return rs.getInt("claimed") == 1;
@@ -197,13 +466,14 @@ public class MysqlDatabase implements Database {
 
     @Override
     public void setDailyClaim(String playerUuid, String date, boolean claimed) {
+        wrote(playerUuid);
         String sql = """
-            INSERT INTO daily_claims (player_uuid, date, claimed) VALUES (?, ?, ?)
+            INSERT INTO daily_claims (player_id, day, claimed) VALUES (?, ?, ?)
             ON DUPLICATE KEY UPDATE claimed = ?
         """;
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
-            ps.setString(1, playerUuid);
-            ps.setString(2, date);
+        try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setBytes(1, StorageKeys.uuid(playerUuid));
+            ps.setInt(2, StorageKeys.epochDay(date));
             ps.setInt(3, claimed ? 1 : 0);
             ps.setInt(4, claimed ? 1 : 0);
             ps.executeUpdate();
@@ -214,10 +484,10 @@ public class MysqlDatabase implements Database {
 
     @Override
     public boolean hasWeeklyClaim(String playerUuid, String weekKey) {
-        String sql = "SELECT claimed FROM weekly_claims WHERE player_uuid = ? AND week_key = ?";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
-            ps.setString(1, playerUuid);
-            ps.setString(2, weekKey);
+        String sql = "SELECT claimed FROM weekly_claims WHERE player_id = ? AND period_start = ?";
+        try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setBytes(1, StorageKeys.uuid(playerUuid));
+            ps.setInt(2, StorageKeys.epochMinute(weekKey));
             ResultSet rs = ps.executeQuery();
             if (rs.next()) {
                 return rs.getInt("claimed") == 1;
@@ -230,13 +500,14 @@ public class MysqlDatabase implements Database {
 
     @Override
     public void setWeeklyClaim(String playerUuid, String weekKey, boolean claimed) {
+        wrote(playerUuid);
         String sql = """
-            INSERT INTO weekly_claims (player_uuid, week_key, claimed) VALUES (?, ?, ?)
+            INSERT INTO weekly_claims (player_id, period_start, claimed) VALUES (?, ?, ?)
             ON DUPLICATE KEY UPDATE claimed = ?
         """;
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
-            ps.setString(1, playerUuid);
-            ps.setString(2, weekKey);
+        try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setBytes(1, StorageKeys.uuid(playerUuid));
+            ps.setInt(2, StorageKeys.epochMinute(weekKey));
             ps.setInt(3, claimed ? 1 : 0);
             ps.setInt(4, claimed ? 1 : 0);
             ps.executeUpdate();
@@ -247,21 +518,53 @@ public class MysqlDatabase implements Database {
 
     @Override
     public void resetWeeklyClaim(String playerUuid, String weekKey) {
-        String sql = "DELETE FROM weekly_claims WHERE player_uuid = ? AND week_key = ?";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
-            ps.setString(1, playerUuid);
-            ps.setString(2, weekKey);
+        wrote(playerUuid);
+        String sql = "DELETE FROM weekly_claims WHERE player_id = ? AND period_start = ?";
+        try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setBytes(1, StorageKeys.uuid(playerUuid));
+            ps.setInt(2, StorageKeys.epochMinute(weekKey));
             ps.executeUpdate();
         } catch (SQLException e) {
             plugin.getLogger().log(Level.SEVERE, "Error reseteando claim semanal", e);
         }
     }
 
+    @Override
+    public int getMonthlyClaimMask(String playerUuid, String month) {
+        String sql = "SELECT claimed_mask FROM monthly_claims WHERE player_id = ? AND month = ?";
+        try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setBytes(1, StorageKeys.uuid(playerUuid));
+            ps.setInt(2, StorageKeys.epochMonth(month));
+            ResultSet rs = ps.executeQuery();
+            if (rs.next()) {
+                return rs.getInt("claimed_mask");
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error obteniendo reclamos mensuales", e);
+        }
+        return 0;
+    }
+
+    @Override
+    public void updateMonthlyClaimMask(String playerUuid, String month, int setBits, int clearBits) {
+        wrote(playerUuid);
+        try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(MONTHLY_MASK_SQL)) {
+            ps.setBytes(1, StorageKeys.uuid(playerUuid));
+            ps.setInt(2, StorageKeys.epochMonth(month));
+            ps.setInt(3, setBits);
+            ps.setInt(4, clearBits);
+            ps.setInt(5, setBits);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error guardando reclamo mensual", e);
+        }
+    }
+
     @Override
     public long getFoodClaimNextAt(String playerUuid, String packId) {
-        String sql = "SELECT next_claim_at FROM food_claims WHERE player_uuid = ? AND pack_id = ?";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
-            ps.setString(1, playerUuid);
+        String sql = "SELECT next_claim_at FROM food_claims WHERE player_id = ? AND pack_id = ?";
+        try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setBytes(1, StorageKeys.uuid(playerUuid));
             ps.setString(2, packId);
             ResultSet rs = ps.executeQuery();
             if (rs.next()) {
@@ -275,12 +578,13 @@ public class MysqlDatabase implements Database {
 
     @Override
     public void setFoodClaimNextAt(String playerUuid, String packId, long nextClaimAt) {
+        wrote(playerUuid);
         String sql = """
-            INSERT INTO food_claims (player_uuid, pack_id, next_claim_at) VALUES (?, ?, ?)
+            INSERT INTO food_claims (player_id, pack_id, next_claim_at) VALUES (?, ?, ?)
             ON DUPLICATE KEY UPDATE next_claim_at = ?
         """;
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
-            ps.setString(1, playerUuid);
+        try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setBytes(1, StorageKeys.uuid(playerUuid));
             ps.setString(2, packId);
             ps.setLong(3, nextClaimAt);
             ps.setLong(4, nextClaimAt);
@@ -292,9 +596,10 @@ public class MysqlDatabase implements Database {
 
     @Override
     public void resetFoodClaim(String playerUuid, String packId) {
-        String sql = "DELETE FROM food_claims WHERE player_uuid = ? AND pack_id = ?";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
-            ps.setString(1, playerUuid);
+        wrote(playerUuid);
+        String sql = "DELETE FROM food_claims WHERE player_id = ? AND pack_id = ?";
+        try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setBytes(1, StorageKeys.uuid(playerUuid));
             ps.setString(2, packId);
             ps.executeUpdate();
         } catch (SQLException e) {
@@ -304,9 +609,10 @@ public class MysqlDatabase implements Database {
 
     @Override
     public void resetAllFoodClaims(String playerUuid) {
-        String sql = "DELETE FROM food_claims WHERE player_uuid = ?";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
-            ps.setString(1, playerUuid);
+        wrote(playerUuid);
+        String sql = "DELETE FROM food_claims WHERE player_id = ?";
+        try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setBytes(1, StorageKeys.uuid(playerUuid));
             ps.executeUpdate();
         } catch (SQLException e) {
             plugin.getLogger().log(Level.SEVERE, "Error reseteando cooldowns de comida", e);
@@ -315,37 +621,46 @@ public class MysqlDatabase implements Database {
 
     @Override
     public void saveCheque(ChequeData cheque) {
+        try (Connection conn = getConnection()) {
+            writeCheque(conn, cheque);
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error guardando cheque", e);
+        }
+    }
+
+    private static void writeCheque(Connection conn, ChequeData cheque) throws SQLException {
         String sql = """
-            INSERT INTO cheques (cheque_id, player_uuid, week_key, amount, redeemed, redeemed_at)
+            INSERT INTO cheques (cheque_id, player_id, period_start, amount, redeemed, redeemed_at)
             VALUES (?, ?, ?, ?, ?, ?)
             ON DUPLICATE KEY UPDATE redeemed = ?, redeemed_at = ?
         """;
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
-            ps.setString(1, cheque.getChequeId());
-            ps.setString(2, cheque.getPlayerUuid());
-            ps.setString(3, cheque.getWeekKey());
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setBytes(1, StorageKeys.uuid(cheque.getChequeId()));
+            ps.setBytes(2, StorageKeys.uuid(cheque.getPlayerUuid()));
+            StorageKeys.setEpochMinute(ps, 3, cheque.getWeekKey());
             ps.setDouble(4, cheque.getAmount());
             ps.setInt(5, cheque.isRedeemed() ? 1 : 0);
             ps.setLong(6, cheque.getRedeemedAt());
             ps.setInt(7, cheque.isRedeemed() ? 1 : 0);
             ps.setLong(8, cheque.getRedeemedAt());
             ps.executeUpdate();
-        } catch (SQLException e) {
-            plugin.getLogger().log(Level.SEVERE, "Error guardando cheque", e);
         }
     }
 
     @Override
     public ChequeData getCheque(String chequeId) {
-        String sql = "SELECT player_uuid, week_key, amount, redeemed, redeemed_at FROM cheques WHERE cheque_id = ?";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
-            ps.setString(1, chequeId);
+        if (!StorageKeys.isUuid(chequeId)) {
+            return null;
+        }
+        String sql = "SELECT player_id, period_start, amount, redeemed, redeemed_at FROM cheques WHERE cheque_id = ?";
+        try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setBytes(1, StorageKeys.uuid(chequeId));
             ResultSet rs = ps.executeQuery();
             if (rs.next()) {
                 return new ChequeData(
                     chequeId,
-                    rs.getString("player_uuid"),
-                    rs.getString("week_key"),
+                    StorageKeys.uuid(rs.getBytes("player_id")),
+                    StorageKeys.getPeriodKey(rs, "period_start"),
                     rs.getDouble("amount"),
                     rs.getInt("redeemed") == 1,
                     rs.getLong("redeemed_at")
@@ -358,37 +673,50 @@ public class MysqlDatabase implements Database {
     }
 
     @Override
-    public void redeemCheque(String chequeId, long redeemedAt) {
-        String sql = "UPDATE cheques SET redeemed = 1, redeemed_at = ? WHERE cheque_id = ?";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
+    public boolean redeemCheque(String chequeId, long redeemedAt) {
+        if (!StorageKeys.isUuid(chequeId)) {
+            return false;
+        }
+        String sql = "UPDATE cheques SET redeemed = 1, redeemed_at = ? WHERE cheque_id = ? AND redeemed = 0";
+        try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setLong(1, redeemedAt);
-            ps.setString(2, chequeId);
-            ps.executeUpdate();
+            ps.setBytes(2, StorageKeys.uuid(chequeId));
+            // Only the call that actually flips redeemed from 0 to 1 sees an affected row
+            return ps.executeUpdate() == 1;
         } catch (SQLException e) {
             plugin.getLogger().log(Level.SEVERE, "Error canjeando cheque", e);
         }
+        return false;
     }
 
     @Override
-    public void addPending(String playerUuid, PendingEntry.PendingType type, String payload) {
-        String sql = "INSERT INTO pending (player_uuid, type, payload, created_at) VALUES (?, ?, ?, ?)";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
-            ps.setString(1, playerUuid);
+    public int addPending(String playerUuid, PendingEntry.PendingType type, String payload) {
+        wrote(playerUuid);
+        String sql = "INSERT INTO pending (player_id, type, payload, created_at) VALUES (?, ?, ?, ?)";
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            ps.setBytes(1, StorageKeys.uuid(playerUuid));
             ps.setString(2, type.name());
             ps.setString(3, payload);
             ps.setLong(4, System.currentTimeMillis());
             ps.executeUpdate();
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                if (keys.next()) {
+                    return keys.getInt(1);
+                }
+            }
         } catch (SQLException e) {
             plugin.getLogger().log(Level.SEVERE, "Error guardando entrega pendiente", e);
         }
+        return -1;
     }
 
     @Override
     public List<PendingEntry> getPendingEntries(String playerUuid) {
         List<PendingEntry> entries = new ArrayList<>();
-        String sql = "SELECT id, type, payload, created_at FROM pending WHERE player_uuid = ? ORDER BY created_at ASC";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
-            ps.setString(1, playerUuid);
+        String sql = "SELECT id, type, payload, created_at FROM pending WHERE player_id = ? ORDER BY created_at ASC";
+        try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setBytes(1, StorageKeys.uuid(playerUuid));
             ResultSet rs = ps.executeQuery();
             while (rs.next()) {
                 PendingEntry.PendingType type;
@@ -413,8 +741,9 @@ public class MysqlDatabase implements Database {
 
     @Override
     public void removePending(int id) {
+        wroteAll();
         String sql = "DELETE FROM pending WHERE id = ?";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
+        try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, id);
             ps.executeUpdate();
         } catch (SQLException e) {
@@ -422,11 +751,47 @@ public class MysqlDatabase implements Database {
         }
     }
 
+    @Override
+    public boolean applyPendingChanges(Map<Integer, String> payloads, Set<Integer> removedIds) {
+        wroteAll();
+        if (payloads.isEmpty() && removedIds.isEmpty()) {
+            return true;
+        }
+
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement update = conn.prepareStatement("UPDATE pending SET payload = ? WHERE id = ?");
+                 PreparedStatement delete = conn.prepareStatement("DELETE FROM pending WHERE id = ?")) {
+                for (Map.Entry<Integer, String> entry : payloads.entrySet()) {
+                    update.setString(1, entry.getValue());
+                    update.setInt(2, entry.getKey());
+                    update.addBatch();
+                }
+                for (int id : removedIds) {
+                    delete.setInt(1, id);
+                    delete.addBatch();
+                }
+                update.executeBatch();
+                delete.executeBatch();
+                conn.commit();
+                return true;
+            } catch (Throwable e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error guardando cambios de entregas pendientes", e);
+        }
+        return false;
+    }
+
     @Override
     public int getPendingCount(String playerUuid) {
-        String sql = "SELECT COUNT(*) FROM pending WHERE player_uuid = ?";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
-            ps.setString(1, playerUuid);
+        String sql = "SELECT COUNT(*) FROM pending WHERE player_id = ?";
+        try (Connection conn = getReadConnection(playerUuid); PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setBytes(1, StorageKeys.uuid(playerUuid));
             ResultSet rs = ps.executeQuery();
             if (rs.next()) {
                 return rs.getInt(1);
@@ -436,4 +801,347 @@ public class MysqlDatabase implements Database {
         }
         return 0;
     }
+
+    // Retention
+
+    @Override
+    public int purgeDailyClaims(String beforeDate, int limit) {
+        return purge("daily_claims", "day < ?", StorageKeys.epochDay(beforeDate), limit);
+    }
+
+    @Override
+    public int purgeWeeklyClaims(String beforeDate, int limit) {
+        return purge("weekly_claims", "period_start < ?", StorageKeys.epochMinuteOfDay(beforeDate), limit);
+    }
+
+    @Override
+    public int purgeMonthlyClaims(String beforeMonth, int limit) {
+        return purge("monthly_claims", "month < ?", StorageKeys.epochMonth(beforeMonth), limit);
+    }
+
+    @Override
+    public int purgeRedeemedCheques(long redeemedBefore, int limit) {
+        return purge("cheques", "redeemed = 1 AND redeemed_at < ?", redeemedBefore, limit);
+    }
+
+    @Override
+    public int purgePending(long createdBefore, int limit) {
+        wroteAll();
+        return purge("pending", "created_at < ?", createdBefore, limit);
+    }
+
+    private int purge(String table, String condition, long cutoff, int limit) {
+        String sql = "DELETE FROM " + table + " WHERE " + condition + " LIMIT ?";
+        try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setLong(1, cutoff);
+            ps.setInt(2, limit);
+            return ps.executeUpdate();
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error limpiando la tabla " + table, e);
+        }
+        return 0;
+    }
+
+    // InnoDB reuses freed pages on its own; OPTIMIZE TABLE is left to the server admin
+    @Override
+    public int bulkReset(BulkReset reset, int limit) {
+        wroteAll();
+        String table = reset.table();
+        String sql = reset.isUpdate()
+                ? "UPDATE " + table + " SET claimed_mask = claimed_mask & ~? WHERE " + reset.condition() + " LIMIT ?"
+                : "DELETE FROM " + table + " WHERE " + reset.condition() + " LIMIT ?";
+        try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+            int index = 1;
+            if (reset.isUpdate()) {
+                ps.setInt(index++, reset.getDayBit());
+            }
+            index = reset.bindCondition(ps, index);
+            ps.setInt(index, limit);
+            return ps.executeUpdate();
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error en el reseteo masivo de " + table, e);
+        }
+        return -1;
+    }
+
+    @Override
+    public long reclaimSpace(int maxPages) {
+        return 0L;
+    }
+
+    @Override
+    public long compactFully() {
+        return -1L;
+    }
+
+    // Backups of a MySQL server belong to its own tools (mysqldump, replicas)
+    @Override
+    public long backupTo(Path target) {
+        return -1L;
+    }
+
+    @Override
+    public long exportTable(DataTable table, DataFile.Writer out) throws IOException {
+        long rows = 0;
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(table.selectSql(),
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            // Connector/J streams row by row instead of loading the whole result set
+            ps.setFetchSize(Integer.MIN_VALUE);
+            try (ResultSet rs = ps.executeQuery()) {
+                out.beginTable(table);
+                while (rs.next()) {
+                    out.writeRow(table.read(rs));
+                    rows++;
+                }
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error exportando la tabla " + table.tableName(), e);
+            return -1;
+        }
+        return rows;
+    }
+
+    @Override
+    public int importRows(DataTable table, List<Object[]> rows) {
+        wroteAll();
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        // A rewritten JDBC batch reports SUCCESS_NO_INFO for inserted and skipped rows alike,
+        // so each chunk is one multi-row INSERT IGNORE whose update count is the rows inserted
+        int columns = table.columns().size();
+        int rowsPerStatement = Math.max(1, MAX_IMPORT_PARAMETERS / columns);
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                int inserted = 0;
+                for (int from = 0; from < rows.size(); from += rowsPerStatement) {
+                    List<Object[]> chunk = rows.subList(from, Math.min(rows.size(), from + rowsPerStatement));
+                    try (PreparedStatement ps = conn.prepareStatement(table.insertSql(SqlDialect.MYSQL, chunk.size()))) {
+                        int offset = 0;
+                        for (Object[] row : chunk) {
+                            table.bind(ps, row, offset);
+                            offset += columns;
+                        }
+                        inserted += ps.executeUpdate();
+                    }
+                }
+                conn.commit();
+                return inserted;
+            } catch (Throwable e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error importando " + rows.size() + " filas en " + table.tableName(), e);
+        }
+        return -1;
+    }
+
+    // Claim guards: the insert only succeeds for a new row, and the update only matches while
+    // the claim is still unset, so exactly one caller sees an affected row
+
+    @Override
+    public ClaimUnit.Outcome commitClaim(ClaimUnit unit) {
+        wrote(unit.getPlayerUuid());
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                boolean claimed = switch (unit.getGuard()) {
+                    case DAILY -> claimDailyRow(conn, unit.getPlayerUuid(), unit.getKey());
+                    case WEEKLY -> claimWeeklyRow(conn, unit.getPlayerUuid(), unit.getKey());
+                    case MONTHLY_DAY -> claimMonthlyRow(conn, unit.getPlayerUuid(), unit.getKey(), unit.getDayBit());
+                    case FOOD -> claimFoodRow(conn, unit.getPlayerUuid(), unit.getKey(), unit.getNow(), unit.getNextClaimAt());
+                };
+                if (claimed && unit.getState() != null) {
+                    executeWrites(conn, List.of(BufferedWrite.playerState(unit.getState())));
+                }
+                if (claimed && unit.getCheque() != null) {
+                    writeCheque(conn, unit.getCheque());
+                }
+                conn.commit();
+                return claimed ? ClaimUnit.Outcome.CLAIMED : ClaimUnit.Outcome.TAKEN;
+            } catch (Throwable e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error registrando reclamo", e);
+        }
+        return ClaimUnit.Outcome.FAILED;
+    }
+
+    private static boolean claimDailyRow(Connection conn, String playerUuid, String date) throws SQLException {
+        try (PreparedStatement insert = conn.prepareStatement("INSERT IGNORE INTO daily_claims (player_id, day, claimed) VALUES (?, ?, 1)")) {
+            insert.setBytes(1, StorageKeys.uuid(playerUuid));
+            insert.setInt(2, StorageKeys.epochDay(date));
+            if (insert.executeUpdate() == 1) {
+                return true;
+            }
+        }
+        try (PreparedStatement update = conn.prepareStatement("UPDATE daily_claims SET claimed = 1 WHERE player_id = ? AND day = ? AND claimed = 0")) {
+            update.setBytes(1, StorageKeys.uuid(playerUuid));
+            update.setInt(2, StorageKeys.epochDay(date));
+            return update.executeUpdate() == 1;
+        }
+    }
+
+    private static boolean claimWeeklyRow(Connection conn, String playerUuid, String weekKey) throws SQLException {
+        try (PreparedStatement insert = conn.prepareStatement("INSERT IGNORE INTO weekly_claims (player_id, period_start, claimed) VALUES (?, ?, 1)")) {
+            insert.setBytes(1, StorageKeys.uuid(playerUuid));
+            insert.setInt(2, StorageKeys.epochMinute(weekKey));
+            if (insert.executeUpdate() == 1) {
+                return true;
+            }
+        }
+        try (PreparedStatement update = conn.prepareStatement("UPDATE weekly_claims SET claimed = 1 WHERE player_id = ? AND period_start = ? AND claimed = 0")) {
+            update.setBytes(1, StorageKeys.uuid(playerUuid));
+            update.setInt(2, StorageKeys.epochMinute(weekKey));
+            return update.executeUpdate() == 1;
+        }
+    }
+
+    private static boolean claimMonthlyRow(Connection conn, String playerUuid, String month, int dayBit) throws SQLException {
+        try (PreparedStatement insert = conn.prepareStatement("INSERT IGNORE INTO monthly_claims (player_id, month, claimed_mask) VALUES (?, ?, ?)")) {
+            insert.setBytes(1, StorageKeys.uuid(playerUuid));
+            insert.setInt(2, StorageKeys.epochMonth(month));
+            insert.setInt(3, dayBit);
+            if (insert.executeUpdate() == 1) {
+                return true;
+            }
+        }
+        try (PreparedStatement update = conn.prepareStatement("UPDATE monthly_claims SET claimed_mask = claimed_mask | ? WHERE player_id = ? AND month = ? AND (claimed_mask & ?) = 0")) {
+            update.setInt(1, dayBit);
+            update.setBytes(2, StorageKeys.uuid(playerUuid));
+            update.setInt(3, StorageKeys.epochMonth(month));
+            update.setInt(4, dayBit);
+            return update.executeUpdate() == 1;
+        }
+    }
+
+    private static boolean claimFoodRow(Connection conn, String playerUuid, String packId, long now, long nextClaimAt) throws SQLException {
+        try (PreparedStatement insert = conn.prepareStatement("INSERT IGNORE INTO food_claims (player_id, pack_id, next_claim_at) VALUES (?, ?, ?)")) {
+            insert.setBytes(1, StorageKeys.uuid(playerUuid));
+            insert.setString(2, packId);
+            insert.setLong(3, nextClaimAt);
+            if (insert.executeUpdate() == 1) {
+                return true;
+            }
+        }
+        try (PreparedStatement update = conn.prepareStatement("UPDATE food_claims SET next_claim_at = ? WHERE player_id = ? AND pack_id = ? AND next_claim_at <= ?")) {
+            update.setLong(1, nextClaimAt);
+            update.setBytes(2, StorageKeys.uuid(playerUuid));
+            update.setString(3, packId);
+            update.setLong(4, now);
+            return update.executeUpdate() == 1;
+        }
+    }
+
+    @Override
+    public boolean acquireClaimLease(String playerUuid, String holder, long leaseMillis) {
+        long now = System.currentTimeMillis();
+        String insertSql = "INSERT IGNORE INTO claim_leases (player_id, server_id, expires_at) VALUES (?, ?, ?)";
+        String updateSql = "UPDATE claim_leases SET server_id = ?, expires_at = ? WHERE player_id = ? AND expires_at < ?";
+        try (Connection conn = getConnection()) {
+            try (PreparedStatement insert = conn.prepareStatement(insertSql)) {
+                insert.setBytes(1, StorageKeys.uuid(playerUuid));
+                insert.setString(2, holder);
+                insert.setLong(3, now + leaseMillis);
+                if (insert.executeUpdate() == 1) {
+                    return true;
+                }
+            }
+            try (PreparedStatement update = conn.prepareStatement(updateSql)) {
+                update.setString(1, holder);
+                update.setLong(2, now + leaseMillis);
+                update.setBytes(3, StorageKeys.uuid(playerUuid));
+                update.setLong(4, now);
+                return update.executeUpdate() == 1;
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error tomando bloqueo de reclamo", e);
+        }
+        return false;
+    }
+
+    @Override
+    public void releaseClaimLease(String playerUuid, String holder) {
+        String sql = "DELETE FROM claim_leases WHERE player_id = ? AND server_id = ?";
+        try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setBytes(1, StorageKeys.uuid(playerUuid));
+            ps.setString(2, holder);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error liberando bloqueo de reclamo", e);
+        }
+    }
+
+    // Profile change feed
+
+    @Override
+    public void appendProfileChanges(List<ProfileChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        String sql = "INSERT INTO profile_changes (server_id, player_id, kind, change_key, change_value, created_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?)";
+        try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+            long now = System.currentTimeMillis();
+            for (ProfileChange change : changes) {
+                ProfileChangeRows.bind(ps, change, now);
+                ps.addBatch();
+            }
+            // One multi-row insert with rewriteBatchedStatements, so ids stay close together
+            ps.executeBatch();
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error publicando cambios de perfil", e);
+        }
+    }
+
+    @Override
+    public List<ProfileChange> readProfileChanges(long afterId, int limit) {
+        List<ProfileChange> changes = new ArrayList<>();
+        String sql = "SELECT id, server_id, player_id, kind, change_key, change_value FROM profile_changes "
+                + "WHERE id > ? ORDER BY id LIMIT ?";
+        try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setLong(1, afterId);
+            ps.setInt(2, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ProfileChange change = ProfileChangeRows.read(rs);
+                    if (change != null) {
+                        changes.add(change);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error leyendo cambios de perfil", e);
+        }
+        return changes;
+    }
+
+    @Override
+    public long getLastProfileChangeId() {
+        String sql = "SELECT COALESCE(MAX(id), 0) FROM profile_changes";
+        try (Connection conn = getConnection(); PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            if (rs.next()) {
+                return rs.getLong(1);
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error leyendo cambios de perfil", e);
+        }
+        return 0L;
+    }
+
+    @Override
+    public int purgeProfileChanges(long createdBefore, int limit) {
+        return purge("profile_changes", "created_at < ?", createdBefore, limit);
+    }
 }
@@ -0,0 +1,119 @@
+package dev.joshlucem.nullithstudios.bestsupplies.storage;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import dev.joshlucem.nullithstudios.bestsupplies.BestSupplies;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Collects borrow statistics from the MySQL connection pool: how long callers wait
+ * for a connection, how long they hold it and how often the wait times out.
+ */
+public class PoolMetrics implements MetricsTrackerFactory {
+
+    private final BestSupplies plugin;
+
+    private final AtomicLong acquired = new AtomicLong();
+    private final AtomicLong acquireNanos = new AtomicLong();
+    private final LongAccumulator maxAcquireNanos = new LongAccumulator(Math::max, 0);
+    private final AtomicLong usageMillis = new AtomicLong();
+    private final LongAccumulator maxUsageMillis = new LongAccumulator(Math::max, 0);
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+
+    private volatile PoolStats poolStats;
+
+    public PoolMetrics(BestSupplies plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.poolStats = poolStats;
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+                created.incrementAndGet();
+            }
+
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                acquired.incrementAndGet();
+                acquireNanos.addAndGet(elapsedAcquiredNanos);
+                maxAcquireNanos.accumulate(elapsedAcquiredNanos);
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                usageMillis.addAndGet(elapsedBorrowedMillis);
+                maxUsageMillis.accumulate(elapsedBorrowedMillis);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                long total = timeouts.incrementAndGet();
+                plugin.getLogger().warning("Tiempo de espera agotado pidiendo una conexion MySQL (" + total + " en total). "
+                        + "Considera subir database.mysql.pool-size.");
+            }
+        };
+    }
+
+    public long getAcquired() {
+        return acquired.get();
+    }
+
+    public long getTimeouts() {
+        return timeouts.get();
+    }
+
+    public long getCreated() {
+        return created.get();
+    }
+
+    public double getAverageAcquireMillis() {
+        long count = acquired.get();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(acquireNanos.get() / count) / 1000.0;
+    }
+
+    public double getMaxAcquireMillis() {
+        return TimeUnit.NANOSECONDS.toMicros(maxAcquireNanos.get()) / 1000.0;
+    }
+
+    public double getAverageUsageMillis() {
+        long count = acquired.get();
+        return count == 0 ? 0 : (double) usageMillis.get() / count;
+    }
+
+    public long getMaxUsageMillis() {
+        return maxUsageMillis.get();
+    }
+
+    public int getActiveConnections() {
+        PoolStats stats = poolStats;
+        return stats != null ? stats.getActiveConnections() : 0;
+    }
+
+    public int getIdleConnections() {
+        PoolStats stats = poolStats;
+        return stats != null ? stats.getIdleConnections() : 0;
+    }
+
+    public int getPendingThreads() {
+        PoolStats stats = poolStats;
+        return stats != null ? stats.getPendingThreads() : 0;
+    }
+
+    public String summary() {
+        return String.format(Locale.ROOT,
+                "prestamos=%d, espera media=%.2fms, espera max=%.2fms, uso medio=%.1fms, uso max=%dms, timeouts=%d, "
+                        + "activas=%d, libres=%d, en espera=%d, creadas=%d",
+                getAcquired(), getAverageAcquireMillis(), getMaxAcquireMillis(), getAverageUsageMillis(),
+                getMaxUsageMillis(), getTimeouts(), getActiveConnections(), getIdleConnections(),
+                getPendingThreads(), getCreated());
+    }
+}
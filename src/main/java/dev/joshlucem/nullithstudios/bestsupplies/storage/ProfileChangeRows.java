@@ -0,0 +1,45 @@
+package dev.joshlucem.nullithstudios.bestsupplies.storage;
+
+import dev.joshlucem.nullithstudios.bestsupplies.model.ProfileChange;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Row mapping for the profile_changes table, shared by both SQL backends.
+ */
+final class ProfileChangeRows {
+
+    private ProfileChangeRows() {
+    }
+
+    static void bind(PreparedStatement ps, ProfileChange change, long now) throws SQLException {
+        ps.setString(1, change.getServerId());
+        ps.setBytes(2, StorageKeys.uuid(change.getPlayerUuid()));
+        ps.setString(3, change.getKind().name());
+        ps.setString(4, change.getKey());
+        ps.setLong(5, change.getValue());
+        ps.setLong(6, now);
+    }
+
+    /**
+     * Null for kinds this version does not know, written by a newer server of the network.
+     */
+    static ProfileChange read(ResultSet rs) throws SQLException {
+        ProfileChange.Kind kind;
+        try {
+            kind = ProfileChange.Kind.valueOf(rs.getString("kind"));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        return new ProfileChange(
+            rs.getLong("id"),
+            rs.getString("server_id"),
+            StorageKeys.uuid(rs.getBytes("player_id")),
+            kind,
+            rs.getString("change_key"),
+            rs.getLong("change_value")
+        );
+    }
+}
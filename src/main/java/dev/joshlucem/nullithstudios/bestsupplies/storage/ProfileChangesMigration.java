@@ -0,0 +1,41 @@
+package dev.joshlucem.nullithstudios.bestsupplies.storage;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.logging.Logger;
+
+/**
+ * v5: change feed that servers sharing the database poll by id to keep their profile caches current.
+ */
+class ProfileChangesMigration implements SchemaMigration {
+
+    @Override
+    public int version() {
+        return 5;
+    }
+
+    @Override
+    public String description() {
+        return "Avisos de cambios de perfil entre servidores";
+    }
+
+    @Override
+    public void migrate(Connection conn, SqlDialect dialect, Logger logger) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS profile_changes (
+                    id %s,
+                    server_id VARCHAR(64) NOT NULL,
+                    player_id %s NOT NULL,
+                    kind VARCHAR(16) NOT NULL,
+                    change_key VARCHAR(64),
+                    change_value BIGINT NOT NULL DEFAULT 0,
+                    created_at BIGINT NOT NULL
+                )""".formatted(dialect.autoIncrementKey(), dialect.uuidType()) + dialect.tableOptions());
+            if (!dialect.indexExists(conn, "profile_changes", "idx_profile_changes_created")) {
+                stmt.execute("CREATE INDEX idx_profile_changes_created ON profile_changes (created_at)");
+            }
+        }
+    }
+}
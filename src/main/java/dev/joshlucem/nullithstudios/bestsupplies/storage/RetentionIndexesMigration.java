@@ -0,0 +1,43 @@
+package dev.joshlucem.nullithstudios.bestsupplies.storage;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.logging.Logger;
+
+/**
+ * v3: indexes on the age columns so the retention job can find expired rows without
+ * scanning whole tables on every batch.
+ */
+class RetentionIndexesMigration implements SchemaMigration {
+
+    private static final String[][] INDEXES = {
+            {"daily_claims", "idx_daily_claims_day", "day"},
+            {"weekly_claims", "idx_weekly_claims_period", "period_start"},
+            {"monthly_claims", "idx_monthly_claims_month", "month"},
+            {"cheques", "idx_cheques_redeemed", "redeemed, redeemed_at"},
+            {"pending", "idx_pending_created", "created_at"}
+    };
+
+    @Override
+    public int version() {
+        return 3;
+    }
+
+    @Override
+    public String description() {
+        return "Indices para la limpieza de datos antiguos";
+    }
+
+    @Override
+    public void migrate(Connection conn, SqlDialect dialect, Logger logger) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            for (String[] index : INDEXES) {
+                // MySQL has no CREATE INDEX IF NOT EXISTS
+                if (!dialect.indexExists(conn, index[0], index[1])) {
+                    stmt.execute("CREATE INDEX " + index[1] + " ON " + index[0] + " (" + index[2] + ")");
+                }
+            }
+        }
+    }
+}
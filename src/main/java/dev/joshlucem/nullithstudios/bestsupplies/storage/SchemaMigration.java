@@ -0,0 +1,18 @@
+package dev.joshlucem.nullithstudios.bestsupplies.storage;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.logging.Logger;
+
+/**
+ * One step of the storage schema. Steps run once, in version order, and must be safe to
+ * re-run if the server stopped before the step was recorded as applied.
+ */
+public interface SchemaMigration {
+
+    int version();
+
+    String description();
+
+    void migrate(Connection conn, SqlDialect dialect, Logger logger) throws SQLException;
+}
@@ -0,0 +1,83 @@
+package dev.joshlucem.nullithstudios.bestsupplies.storage;
+
+import dev.joshlucem.nullithstudios.bestsupplies.BestSupplies;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Brings the storage schema up to the latest version. Applied versions are recorded in
+ * schema_version, so each migration runs once per database.
+ */
+public class SchemaMigrator {
+
+    public static final List<SchemaMigration> MIGRATIONS = List.of(
+            new InitialSchemaMigration(),
+            new BinaryKeysMigration(),
+            new RetentionIndexesMigration(),
+            new ClaimLeasesMigration(),
+            new ProfileChangesMigration()
+    );
+
+    private final BestSupplies plugin;
+    private final SqlDialect dialect;
+    private final List<SchemaMigration> migrations;
+
+    public SchemaMigrator(BestSupplies plugin, SqlDialect dialect) {
+        this(plugin, dialect, MIGRATIONS);
+    }
+
+    public SchemaMigrator(BestSupplies plugin, SqlDialect dialect, List<SchemaMigration> migrations) {
+        this.plugin = plugin;
+        this.dialect = dialect;
+        this.migrations = new ArrayList<>(migrations);
+        this.migrations.sort(Comparator.comparingInt(SchemaMigration::version));
+    }
+
+    /**
+     * Run every migration newer than the recorded version. Returns the resulting version.
+     */
+    public int migrate(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS schema_version ("
+                    + "version INT PRIMARY KEY, "
+                    + "description VARCHAR(255), "
+                    + "applied_at BIGINT)" + dialect.tableOptions());
+        }
+
+        int current = getCurrentVersion(conn);
+        for (SchemaMigration migration : migrations) {
+            if (migration.version() <= current) {
+                continue;
+            }
+
+            plugin.getLogger().info("Aplicando migracion de esquema v" + migration.version() + ": " + migration.description());
+            long start = System.currentTimeMillis();
+            migration.migrate(conn, dialect, plugin.getLogger());
+
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "INSERT INTO schema_version (version, description, applied_at) VALUES (?, ?, ?)")) {
+                ps.setInt(1, migration.version());
+                ps.setString(2, migration.description());
+                ps.setLong(3, System.currentTimeMillis());
+                ps.executeUpdate();
+            }
+            current = migration.version();
+            plugin.getLogger().info("Esquema actualizado a v" + current + " en " + (System.currentTimeMillis() - start) + " ms.");
+        }
+        return current;
+    }
+
+    private int getCurrentVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT MAX(version) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+}
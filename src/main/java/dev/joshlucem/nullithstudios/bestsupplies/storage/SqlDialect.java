@@ -0,0 +1,78 @@
+package dev.joshlucem.nullithstudios.bestsupplies.storage;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * The few SQL differences between SQLite and MySQL that schema migrations need.
+ */
+public enum SqlDialect {
+
+    SQLITE("BLOB", "INTEGER PRIMARY KEY AUTOINCREMENT", "", "INSERT OR IGNORE"),
+    MYSQL("BINARY(16)", "INT AUTO_INCREMENT PRIMARY KEY", " ENGINE=InnoDB DEFAULT CHARSET=utf8mb4", "INSERT IGNORE");
+
+    private final String uuidType;
+    private final String autoIncrementKey;
+    private final String tableOptions;
+    private final String insertIgnore;
+
+    SqlDialect(String uuidType, String autoIncrementKey, String tableOptions, String insertIgnore) {
+        this.uuidType = uuidType;
+        this.autoIncrementKey = autoIncrementKey;
+        this.tableOptions = tableOptions;
+        this.insertIgnore = insertIgnore;
+    }
+
+    public String uuidType() {
+        return uuidType;
+    }
+
+    public String autoIncrementKey() {
+        return autoIncrementKey;
+    }
+
+    public String tableOptions() {
+        return tableOptions;
+    }
+
+    public String insertIgnore() {
+        return insertIgnore;
+    }
+
+    public boolean tableExists(Connection conn, String table) throws SQLException {
+        DatabaseMetaData meta = conn.getMetaData();
+        try (ResultSet rs = meta.getTables(conn.getCatalog(), null, escape(meta, table), new String[]{"TABLE"})) {
+            return rs.next();
+        }
+    }
+
+    public boolean columnExists(Connection conn, String table, String column) throws SQLException {
+        DatabaseMetaData meta = conn.getMetaData();
+        try (ResultSet rs = meta.getColumns(conn.getCatalog(), null, escape(meta, table), escape(meta, column))) {
+            return rs.next();
+        }
+    }
+
+    public boolean indexExists(Connection conn, String table, String index) throws SQLException {
+        DatabaseMetaData meta = conn.getMetaData();
+        try (ResultSet rs = meta.getIndexInfo(conn.getCatalog(), null, table, false, true)) {
+            while (rs.next()) {
+                if (index.equalsIgnoreCase(rs.getString("INDEX_NAME"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Metadata lookups take LIKE patterns, and table names are full of underscores
+    private static String escape(DatabaseMetaData meta, String name) throws SQLException {
+        String escape = meta.getSearchStringEscape();
+        if (escape == null || escape.isEmpty()) {
+            return name;
+        }
+        return name.replace(escape, escape + escape).replace("_", escape + "_").replace("%", escape + "%");
+    }
+}
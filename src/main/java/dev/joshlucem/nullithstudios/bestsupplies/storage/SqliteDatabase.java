@@ -1,23 +1,61 @@
 package dev.joshlucem.nullithstudios.bestsupplies.storage;
 
 import dev.joshlucem.nullithstudios.bestsupplies.BestSupplies;
+import dev.joshlucem.nullithstudios.bestsupplies.config.ConfigManager;
 import dev.joshlucem.nullithstudios.bestsupplies.model.ChequeData;
 import dev.joshlucem.nullithstudios.bestsupplies.model.PendingEntry;
 import dev.joshlucem.nullithstudios.bestsupplies.model.PlayerState;
+import dev.joshlucem.nullithstudios.bestsupplies.model.PlayerSupplyProfile;
+import dev.joshlucem.nullithstudios.bestsupplies.model.ProfileChange;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
 public class SqliteDatabase implements Database {
 
+    private static final String MONTHLY_MASK_SQL = """
+        INSERT INTO monthly_claims (player_id, month, claimed_mask) VALUES (?, ?, ?)
+        ON CONFLICT(player_id, month) DO UPDATE SET claimed_mask = (claimed_mask & ~?) | ?
+    """;
+
+    private static final Set<String> SYNCHRONOUS_MODES = Set.of("OFF", "NORMAL", "FULL", "EXTRA");
+
     private final BestSupplies plugin;
+    private final ConfigManager configManager;
+    private final Map<String, PreparedStatement> statements;
     private Connection connection;
+    private String url;
+    private ScheduledExecutorService checkpointer;
 
-    public SqliteDatabase(BestSupplies plugin) {
+    public SqliteDatabase(BestSupplies plugin, ConfigManager configManager) {
         this.plugin = plugin;
+        this.configManager = configManager;
+
+        // Access-ordered so the least recently used statement is closed once the cache is full
+        int cacheSize = Math.max(1, configManager.getSqliteStatementCacheSize());
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() <= cacheSize) {
+                    return false;
+                }
+                closeQuietly(eldest.getValue());
+                return true;
+            }
+        };
     }
 
     @Override
@@ -29,10 +67,13 @@ public class SqliteDatabase implements Database {
             }
             
             File dbFile = new File(dataFolder, "data.db");
-            String url = "jdbc:sqlite:" + dbFile.getAbsolutePath();
+            url = "jdbc:sqlite:" + dbFile.getAbsolutePath();
+            closeStatements();
             connection = DriverManager.getConnection(url);
+            applyPragmas();
             
-            createTables();
+            new SchemaMigrator(plugin, SqlDialect.SQLITE).migrate(connection);
+            startCheckpointer();
             plugin.getLogger().info("Base de datos SQLite inicializada.");
         } catch (SQLException e) {
             plugin.getLogger().log(Level.SEVERE, "Error inicializando SQLite", e);
@@ -40,81 +81,86 @@ public class SqliteDatabase implements Database {
         }
     }
 
-    private void createTables() throws SQLException {
+    private void applyPragmas() throws SQLException {
         try (Statement stmt = connection.createStatement()) {
-            // Player state
-            stmt.execute("""
-                CREATE TABLE IF NOT EXISTS player_state (
-                    player_uuid TEXT PRIMARY KEY,
-                    streak INTEGER DEFAULT 0,
-                    last_daily_date TEXT,
-                    last_seen_date TEXT,
-                    last_rank TEXT
-                )
-            """);
-            
-            // Daily claims
-            stmt.execute("""
-                CREATE TABLE IF NOT EXISTS daily_claims (
-                    player_uuid TEXT,
-                    date TEXT,
-                    claimed INTEGER DEFAULT 0,
-                    PRIMARY KEY (player_uuid, date)
-                )
-            """);
-            
-            // Weekly claims
-            stmt.execute("""
-                CREATE TABLE IF NOT EXISTS weekly_claims (
-                    player_uuid TEXT,
-                    week_key TEXT,
-                    claimed INTEGER DEFAULT 0,
-                    PRIMARY KEY (player_uuid, week_key)
-                )
-            """);
-            
-            // Food claims
-            stmt.execute("""
-                CREATE TABLE IF NOT EXISTS food_claims (
-                    player_uuid TEXT,
-                    pack_id TEXT,
-                    next_claim_at INTEGER DEFAULT 0,
-                    PRIMARY KEY (player_uuid, pack_id)
-                )
-            """);
-            
-            // Cheques
-            stmt.execute("""
-                CREATE TABLE IF NOT EXISTS cheques (
-                    cheque_id TEXT PRIMARY KEY,
-                    player_uuid TEXT,
-                    week_key TEXT,
-                    amount REAL,
-                    redeemed INTEGER DEFAULT 0,
-                    redeemed_at INTEGER DEFAULT 0
-                )
-            """);
-            
-            // Pending deliveries
-            stmt.execute("""
-                CREATE TABLE IF NOT EXISTS pending (
-                    id INTEGER PRIMARY KEY AUTOINCREMENT,
-                    player_uuid TEXT,
-                    type TEXT,
-                    payload TEXT,
-                    created_at INTEGER
-                )
-            """);
-            
-            // Create indexes
-            stmt.execute("CREATE INDEX IF NOT EXISTS idx_pending_player ON pending(player_uuid)");
-            stmt.execute("CREATE INDEX IF NOT EXISTS idx_cheques_player ON cheques(player_uuid)");
+            stmt.execute("PRAGMA busy_timeout = " + Math.max(0, configManager.getSqliteBusyTimeout()));
+            // Only takes effect before the first table exists, so new files get it for free;
+            // older files switch over with one explicit compactFully()
+            stmt.execute("PRAGMA auto_vacuum = INCREMENTAL");
+
+            if (!configManager.isSqlitePerformanceMode()) {
+                return;
+            }
+
+            String synchronous = configManager.getSqliteSynchronous().toUpperCase(Locale.ROOT);
+            if (!SYNCHRONOUS_MODES.contains(synchronous)) {
+                plugin.getLogger().warning("Modo synchronous de SQLite invalido: " + synchronous + ". Usando NORMAL.");
+                synchronous = "NORMAL";
+            }
+
+            stmt.execute("PRAGMA journal_mode = WAL");
+            stmt.execute("PRAGMA synchronous = " + synchronous);
+            // Negative cache_size is in KiB rather than pages
+            stmt.execute("PRAGMA cache_size = -" + Math.max(0, configManager.getSqliteCacheSizeKb()));
+            stmt.execute("PRAGMA mmap_size = " + Math.max(0L, configManager.getSqliteMmapSizeMb()) * 1024L * 1024L);
+            stmt.execute("PRAGMA temp_store = MEMORY");
+            stmt.execute("PRAGMA wal_autocheckpoint = " + Math.max(0, configManager.getSqliteWalAutocheckpoint()));
+            plugin.debug("SQLite en modo rendimiento (WAL, synchronous=" + synchronous + ")");
+        }
+    }
+
+    private void startCheckpointer() {
+        int interval = configManager.getSqliteCheckpointInterval();
+        if (checkpointer != null || interval <= 0 || !configManager.isSqlitePerformanceMode()) {
+            return;
+        }
+
+        checkpointer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "BestSupplies-SQLite-Checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        checkpointer.scheduleWithFixedDelay(() -> checkpoint("PASSIVE"), interval, interval, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Copy WAL pages back into the main database file. PASSIVE never waits on readers or
+     * writers; TRUNCATE is used on shutdown to leave an empty WAL behind.
+     */
+    public synchronized void checkpoint(String mode) {
+        if (connection == null) {
+            return;
+        }
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA wal_checkpoint(" + mode + ")")) {
+            if (rs.next()) {
+                plugin.debug("Checkpoint SQLite " + mode + ": bloqueado=" + rs.getInt(1)
+                        + ", paginas WAL=" + rs.getInt(2) + ", copiadas=" + rs.getInt(3));
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Error en checkpoint de SQLite", e);
         }
     }
 
     @Override
     public void close() {
+        if (checkpointer != null) {
+            checkpointer.shutdown();
+            try {
+                checkpointer.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        closeConnection();
+    }
+
+    private synchronized void closeConnection() {
         if (connection != null) {
+            if (configManager.isSqlitePerformanceMode()) {
+                checkpoint("TRUNCATE");
+            }
+            closeStatements();
             try {
                 connection.close();
                 plugin.getLogger().info("Conexión SQLite cerrada.");
@@ -124,6 +170,33 @@ public class SqliteDatabase implements Database {
         }
     }
 
+    /**
+     * Prepared statement for the SQL, reused across calls. Callers must not close it.
+     */
+    private PreparedStatement prepare(String sql) throws SQLException {
+        Connection conn = getConnection();
+        PreparedStatement ps = statements.get(sql);
+        if (ps == null || ps.isClosed()) {
+            ps = conn.prepareStatement(sql);
+            statements.put(sql, ps);
+        }
+        return ps;
+    }
+
+    private void closeStatements() {
+        for (PreparedStatement ps : statements.values()) {
+            closeQuietly(ps);
+        }
+        statements.clear();
+    }
+
+    private static void closeQuietly(PreparedStatement ps) {
+        try {
+            ps.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
     private Connection getConnection() {
         try {
             if (connection == null || connection.isClosed()) {
@@ -136,19 +209,21 @@ public class SqliteDatabase implements Database {
     }
 
     @Override
-    public PlayerState getPlayerState(String playerUuid) {
-        String sql = "SELECT streak, last_daily_date, last_seen_date, last_rank FROM player_state WHERE player_uuid = ?";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
-            ps.setString(1, playerUuid);
-            ResultSet rs = ps.executeQuery();
-            if (rs.next()) {
-                return new PlayerState(
-                    playerUuid,
-                    rs.getInt("streak"),
-                    rs.getString("last_daily_date"),
-                    rs.getString("last_seen_date"),
-                    rs.getString("last_rank")
-                );
+    public synchronized PlayerState getPlayerState(String playerUuid) {
+        String sql = "SELECT streak, last_daily_day, last_seen_day, last_rank FROM player_state WHERE player_id = ?";
+        try {
+            PreparedStatement ps = prepare(sql);
+            ps.setBytes(1, StorageKeys.uuid(playerUuid));
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return new PlayerState(
+                        playerUuid,
+                        rs.getInt("streak"),
+                        StorageKeys.getDateKey(rs, "last_daily_day"),
+                        StorageKeys.getDateKey(rs, "last_seen_day"),
+                        rs.getString("last_rank")
+                    );
+                }
             }
         } catch (SQLException e) {
             plugin.getLogger().log(Level.SEVERE, "Error obteniendo estado del jugador", e);
@@ -157,16 +232,17 @@ public class SqliteDatabase implements Database {
     }
 
     @Override
-    public void savePlayerState(PlayerState state) {
+    public synchronized void savePlayerState(PlayerState state) {
         String sql = """
-            INSERT OR REPLACE INTO player_state (player_uuid, streak, last_daily_date, last_seen_date, last_rank)
+            INSERT OR REPLACE INTO player_state (player_id, streak, last_daily_day, last_seen_day, last_rank)
             VALUES (?, ?, ?, ?, ?)
         """;
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
-            ps.setString(1, state.getPlayerUuid());
+        try {
+            PreparedStatement ps = prepare(sql);
+            ps.setBytes(1, StorageKeys.uuid(state.getPlayerUuid()));
             ps.setInt(2, state.getStreak());
-            ps.setString(3, state.getLastDailyDate());
-            ps.setString(4, state.getLastSeenDate());
+            StorageKeys.setEpochDay(ps, 3, state.getLastDailyDate());
+            StorageKeys.setEpochDay(ps, 4, state.getLastSeenDate());
             ps.setString(5, state.getLastRank());
             ps.executeUpdate();
         } catch (SQLException e) {
@@ -175,14 +251,188 @@ public class SqliteDatabase implements Database {
     }
 
     @Override
-    public boolean hasDailyClaim(String playerUuid, String date) {
-        String sql = "SELECT claimed FROM daily_claims WHERE player_uuid = ? AND date = ?";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
-            ps.setString(1, playerUuid);
-            ps.setString(2, date);
-            ResultSet rs = ps.executeQuery();
-            if (rs.next()) {
-                return rs.getInt("claimed") == 1;
+    public synchronized boolean applyWrites(List<BufferedWrite> writes) {
+        if (writes.isEmpty()) {
+            return true;
+        }
+
+        Connection conn = getConnection();
+        try {
+            conn.setAutoCommit(false);
+            try {
+                executeWrites(writes);
+                conn.commit();
+                return true;
+            } catch (Throwable e) {
+                // Any failure, not only SQL errors: the finally below would commit a partial batch
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error guardando lote de " + writes.size() + " escrituras", e);
+        }
+        return false;
+    }
+
+    /**
+     * Runs the writes in order, grouping consecutive writes of the same kind into one JDBC batch.
+     */
+    private void executeWrites(List<BufferedWrite> writes) throws SQLException {
+        BufferedWrite.Type currentType = null;
+        PreparedStatement ps = null;
+        try {
+            for (BufferedWrite write : writes) {
+                if (write.getType() != currentType) {
+                    if (ps != null) {
+                        ps.executeBatch();
+                    }
+                    currentType = write.getType();
+                    ps = prepare(getWriteSql(currentType));
+                }
+                bindWrite(ps, write);
+                ps.addBatch();
+            }
+            if (ps != null) {
+                ps.executeBatch();
+            }
+        } finally {
+            // Cached statements are reused, so drop any batch left behind by a failure
+            if (ps != null) {
+                ps.clearBatch();
+            }
+        }
+    }
+
+    private String getWriteSql(BufferedWrite.Type type) {
+        return switch (type) {
+            case PLAYER_STATE -> "INSERT OR REPLACE INTO player_state (player_id, streak, last_daily_day, last_seen_day, last_rank) VALUES (?, ?, ?, ?, ?)";
+            case DAILY_CLAIM -> "INSERT OR REPLACE INTO daily_claims (player_id, day, claimed) VALUES (?, ?, ?)";
+            case WEEKLY_CLAIM -> "INSERT OR REPLACE INTO weekly_claims (player_id, period_start, claimed) VALUES (?, ?, ?)";
+            case WEEKLY_RESET -> "DELETE FROM weekly_claims WHERE player_id = ? AND period_start = ?";
+            case MONTHLY_MASK -> MONTHLY_MASK_SQL;
+            case FOOD_CLAIM -> "INSERT OR REPLACE INTO food_claims (player_id, pack_id, next_claim_at) VALUES (?, ?, ?)";
+            case FOOD_RESET -> "DELETE FROM food_claims WHERE player_id = ? AND pack_id = ?";
+            case FOOD_RESET_ALL -> "DELETE FROM food_claims WHERE player_id = ?";
+        };
+    }
+
+    private void bindWrite(PreparedStatement ps, BufferedWrite write) throws SQLException {
+        ps.setBytes(1, StorageKeys.uuid(write.getPlayerUuid()));
+        switch (write.getType()) {
+            case PLAYER_STATE -> {
+                PlayerState state = write.getState();
+                ps.setInt(2, state.getStreak());
+                StorageKeys.setEpochDay(ps, 3, state.getLastDailyDate());
+                StorageKeys.setEpochDay(ps, 4, state.getLastSeenDate());
+                ps.setString(5, state.getLastRank());
+            }
+            case DAILY_CLAIM -> {
+                ps.setInt(2, StorageKeys.epochDay(write.getKey()));
+                ps.setInt(3, write.isClaimed() ? 1 : 0);
+            }
+            case WEEKLY_CLAIM -> {
+                ps.setInt(2, StorageKeys.epochMinute(write.getKey()));
+                ps.setInt(3, write.isClaimed() ? 1 : 0);
+            }
+            case FOOD_CLAIM -> {
+                ps.setString(2, write.getKey());
+                ps.setLong(3, write.getValue());
+            }
+            case MONTHLY_MASK -> {
+                ps.setInt(2, StorageKeys.epochMonth(write.getKey()));
+                ps.setInt(3, write.getSetBits());
+                ps.setInt(4, write.getClearBits());
+                ps.setInt(5, write.getSetBits());
+            }
+            case WEEKLY_RESET -> ps.setInt(2, StorageKeys.epochMinute(write.getKey()));
+            case FOOD_RESET -> ps.setString(2, write.getKey());
+            case FOOD_RESET_ALL -> {
+            }
+        }
+    }
+
+    @Override
+    public synchronized PlayerSupplyProfile loadSupplyProfile(String playerUuid, String fromDate) {
+        try {
+            PlayerSupplyProfile profile;
+            PreparedStatement stateStatement = prepare(
+                    "SELECT streak, last_daily_day, last_seen_day, last_rank FROM player_state WHERE player_id = ?");
+            stateStatement.setBytes(1, StorageKeys.uuid(playerUuid));
+            try (ResultSet rs = stateStatement.executeQuery()) {
+                PlayerState state = rs.next()
+                        ? new PlayerState(playerUuid, rs.getInt("streak"), StorageKeys.getDateKey(rs, "last_daily_day"),
+                                StorageKeys.getDateKey(rs, "last_seen_day"), rs.getString("last_rank"))
+                        : new PlayerState(playerUuid);
+                profile = new PlayerSupplyProfile(playerUuid, fromDate, state);
+            }
+
+            PreparedStatement dailyStatement = prepare(
+                    "SELECT day FROM daily_claims WHERE player_id = ? AND day >= ? AND claimed = 1");
+            dailyStatement.setBytes(1, StorageKeys.uuid(playerUuid));
+            dailyStatement.setInt(2, StorageKeys.epochDay(fromDate));
+            try (ResultSet rs = dailyStatement.executeQuery()) {
+                while (rs.next()) {
+                    profile.setDailyClaim(StorageKeys.dateKey(rs.getInt("day")), true);
+                }
+            }
+
+            // Weekly period keys start with the date the period began
+            PreparedStatement weeklyStatement = prepare(
+                    "SELECT period_start FROM weekly_claims WHERE player_id = ? AND period_start >= ? AND claimed = 1");
+            weeklyStatement.setBytes(1, StorageKeys.uuid(playerUuid));
+            weeklyStatement.setInt(2, StorageKeys.epochMinuteOfDay(fromDate));
+            try (ResultSet rs = weeklyStatement.executeQuery()) {
+                while (rs.next()) {
+                    profile.setWeeklyClaim(StorageKeys.periodKey(rs.getInt("period_start")), true);
+                }
+            }
+
+            PreparedStatement monthlyStatement = prepare(
+                    "SELECT month, claimed_mask FROM monthly_claims WHERE player_id = ? AND month >= ?");
+            monthlyStatement.setBytes(1, StorageKeys.uuid(playerUuid));
+            monthlyStatement.setInt(2, StorageKeys.epochMonth(fromDate.substring(0, 7)));
+            try (ResultSet rs = monthlyStatement.executeQuery()) {
+                while (rs.next()) {
+                    profile.setMonthlyClaimMask(StorageKeys.monthKey(rs.getInt("month")), rs.getInt("claimed_mask"));
+                }
+            }
+
+            PreparedStatement foodStatement = prepare("SELECT pack_id, next_claim_at FROM food_claims WHERE player_id = ?");
+            foodStatement.setBytes(1, StorageKeys.uuid(playerUuid));
+            try (ResultSet rs = foodStatement.executeQuery()) {
+                while (rs.next()) {
+                    profile.setFoodClaimNextAt(rs.getString("pack_id"), rs.getLong("next_claim_at"));
+                }
+            }
+
+            PreparedStatement pendingStatement = prepare("SELECT COUNT(*) FROM pending WHERE player_id = ?");
+            pendingStatement.setBytes(1, StorageKeys.uuid(playerUuid));
+            try (ResultSet rs = pendingStatement.executeQuery()) {
+                if (rs.next()) {
+                    profile.setPendingCount(rs.getInt(1));
+                }
+            }
+
+            return profile;
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error cargando perfil del jugador", e);
+        }
+        return null;
+    }
+
+    @Override
+    public synchronized boolean hasDailyClaim(String playerUuid, String date) {
+        String sql = "SELECT claimed FROM daily_claims WHERE player_id = ? AND day = ?";
+        try {
+            PreparedStatement ps = prepare(sql);
+            ps.setBytes(1, StorageKeys.uuid(playerUuid));
+            ps.setInt(2, StorageKeys.epochDay(date));
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getInt("claimed") == 1;
+                }
             }
         } catch (SQLException e) {
             plugin.getLogger().log(Level.SEVERE, "Error verificando claim diario", e);
@@ -191,11 +441,12 @@ public class SqliteDatabase implements Database {
     }
 
     @Override
-    public void setDailyClaim(String playerUuid, String date, boolean claimed) {
-        String sql = "INSERT OR REPLACE INTO daily_claims (player_uuid, date, claimed) VALUES (?, ?, ?)";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
-            ps.setString(1, playerUuid);
-            ps.setString(2, date);
+    public synchronized void setDailyClaim(String playerUuid, String date, boolean claimed) {
+        String sql = "INSERT OR REPLACE INTO daily_claims (player_id, day, claimed) VALUES (?, ?, ?)";
+        try {
+            PreparedStatement ps = prepare(sql);
+            ps.setBytes(1, StorageKeys.uuid(playerUuid));
+            ps.setInt(2, StorageKeys.epochDay(date));
             ps.setInt(3, claimed ? 1 : 0);
             ps.executeUpdate();
         } catch (SQLException e) {
@@ -204,14 +455,16 @@ public class SqliteDatabase implements Database {
     }
 
     @Override
-    public boolean hasWeeklyClaim(String playerUuid, String weekKey) {
-        String sql = "SELECT claimed FROM weekly_claims WHERE player_uuid = ? AND week_key = ?";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
-            ps.setString(1, playerUuid);
-            ps.setString(2, weekKey);
-            ResultSet rs = ps.executeQuery();
-            if (rs.next()) {
-                return rs.getInt("claimed") == 1;
+    public synchronized boolean hasWeeklyClaim(String playerUuid, String weekKey) {
+        String sql = "SELECT claimed FROM weekly_claims WHERE player_id = ? AND period_start = ?";
+        try {
+            PreparedStatement ps = prepare(sql);
+            ps.setBytes(1, StorageKeys.uuid(playerUuid));
+            ps.setInt(2, StorageKeys.epochMinute(weekKey));
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getInt("claimed") == 1;
+                }
             }
         } catch (SQLException e) {
             plugin.getLogger().log(Level.SEVERE, "Error verificando claim semanal", e);
@@ -220,11 +473,12 @@ public class SqliteDatabase implements Database {
     }
 
     @Override
-    public void setWeeklyClaim(String playerUuid, String weekKey, boolean claimed) {
-        String sql = "INSERT OR REPLACE INTO weekly_claims (player_uuid, week_key, claimed) VALUES (?, ?, ?)";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
-            ps.setString(1, playerUuid);
-            ps.setString(2, weekKey);
+    public synchronized void setWeeklyClaim(String playerUuid, String weekKey, boolean claimed) {
+        String sql = "INSERT OR REPLACE INTO weekly_claims (player_id, period_start, claimed) VALUES (?, ?, ?)";
+        try {
+            PreparedStatement ps = prepare(sql);
+            ps.setBytes(1, StorageKeys.uuid(playerUuid));
+            ps.setInt(2, StorageKeys.epochMinute(weekKey));
             ps.setInt(3, claimed ? 1 : 0);
             ps.executeUpdate();
         } catch (SQLException e) {
@@ -233,11 +487,12 @@ public class SqliteDatabase implements Database {
     }
 
     @Override
-    public void resetWeeklyClaim(String playerUuid, String weekKey) {
-        String sql = "DELETE FROM weekly_claims WHERE player_uuid = ? AND week_key = ?";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
-            ps.setString(1, playerUuid);
-            ps.setString(2, weekKey);
+    public synchronized void resetWeeklyClaim(String playerUuid, String weekKey) {
+        String sql = "DELETE FROM weekly_claims WHERE player_id = ? AND period_start = ?";
+        try {
+            PreparedStatement ps = prepare(sql);
+            ps.setBytes(1, StorageKeys.uuid(playerUuid));
+            ps.setInt(2, StorageKeys.epochMinute(weekKey));
             ps.executeUpdate();
         } catch (SQLException e) {
             plugin.getLogger().log(Level.SEVERE, "Error reseteando claim semanal", e);
@@ -245,14 +500,49 @@ public class SqliteDatabase implements Database {
     }
 
     @Override
-    public long getFoodClaimNextAt(String playerUuid, String packId) {
-        String sql = "SELECT next_claim_at FROM food_claims WHERE player_uuid = ? AND pack_id = ?";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
-            ps.setString(1, playerUuid);
+    public synchronized int getMonthlyClaimMask(String playerUuid, String month) {
+        String sql = "SELECT claimed_mask FROM monthly_claims WHERE player_id = ? AND month = ?";
+        try {
+            PreparedStatement ps = prepare(sql);
+            ps.setBytes(1, StorageKeys.uuid(playerUuid));
+            ps.setInt(2, StorageKeys.epochMonth(month));
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getInt("claimed_mask");
+                }
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error obteniendo reclamos mensuales", e);
+        }
+        return 0;
+    }
+
+    @Override
+    public synchronized void updateMonthlyClaimMask(String playerUuid, String month, int setBits, int clearBits) {
+        try {
+            PreparedStatement ps = prepare(MONTHLY_MASK_SQL);
+            ps.setBytes(1, StorageKeys.uuid(playerUuid));
+            ps.setInt(2, StorageKeys.epochMonth(month));
+            ps.setInt(3, setBits);
+            ps.setInt(4, clearBits);
+            ps.setInt(5, setBits);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error guardando reclamo mensual", e);
+        }
+    }
+
+    @Override
+    public synchronized long getFoodClaimNextAt(String playerUuid, String packId) {
+        String sql = "SELECT next_claim_at FROM food_claims WHERE player_id = ? AND pack_id = ?";
+        try {
+            PreparedStatement ps = prepare(sql);
+            ps.setBytes(1, StorageKeys.uuid(playerUuid));
             ps.setString(2, packId);
-            ResultSet rs = ps.executeQuery();
-            if (rs.next()) {
-                return rs.getLong("next_claim_at");
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getLong("next_claim_at");
+                }
             }
         } catch (SQLException e) {
             plugin.getLogger().log(Level.SEVERE, "Error obteniendo cooldown de comida", e);
@@ -261,10 +551,11 @@ public class SqliteDatabase implements Database {
     }
 
     @Override
-    public void setFoodClaimNextAt(String playerUuid, String packId, long nextClaimAt) {
-        String sql = "INSERT OR REPLACE INTO food_claims (player_uuid, pack_id, next_claim_at) VALUES (?, ?, ?)";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
-            ps.setString(1, playerUuid);
+    public synchronized void setFoodClaimNextAt(String playerUuid, String packId, long nextClaimAt) {
+        String sql = "INSERT OR REPLACE INTO food_claims (player_id, pack_id, next_claim_at) VALUES (?, ?, ?)";
+        try {
+            PreparedStatement ps = prepare(sql);
+            ps.setBytes(1, StorageKeys.uuid(playerUuid));
             ps.setString(2, packId);
             ps.setLong(3, nextClaimAt);
             ps.executeUpdate();
@@ -274,10 +565,11 @@ public class SqliteDatabase implements Database {
     }
 
     @Override
-    public void resetFoodClaim(String playerUuid, String packId) {
-        String sql = "DELETE FROM food_claims WHERE player_uuid = ? AND pack_id = ?";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
-            ps.setString(1, playerUuid);
+    public synchronized void resetFoodClaim(String playerUuid, String packId) {
+        String sql = "DELETE FROM food_claims WHERE player_id = ? AND pack_id = ?";
+        try {
+            PreparedStatement ps = prepare(sql);
+            ps.setBytes(1, StorageKeys.uuid(playerUuid));
             ps.setString(2, packId);
             ps.executeUpdate();
         } catch (SQLException e) {
@@ -286,10 +578,11 @@ public class SqliteDatabase implements Database {
     }
 
     @Override
-    public void resetAllFoodClaims(String playerUuid) {
-        String sql = "DELETE FROM food_claims WHERE player_uuid = ?";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
-            ps.setString(1, playerUuid);
+    public synchronized void resetAllFoodClaims(String playerUuid) {
+        String sql = "DELETE FROM food_claims WHERE player_id = ?";
+        try {
+            PreparedStatement ps = prepare(sql);
+            ps.setBytes(1, StorageKeys.uuid(playerUuid));
             ps.executeUpdate();
         } catch (SQLException e) {
             plugin.getLogger().log(Level.SEVERE, "Error reseteando cooldowns de comida", e);
@@ -297,39 +590,49 @@ public class SqliteDatabase implements Database {
     }
 
     @Override
-    public void saveCheque(ChequeData cheque) {
-        String sql = """
-            INSERT OR REPLACE INTO cheques (cheque_id, player_uuid, week_key, amount, redeemed, redeemed_at)
-            VALUES (?, ?, ?, ?, ?, ?)
-        """;
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
-            ps.setString(1, cheque.getChequeId());
-            ps.setString(2, cheque.getPlayerUuid());
-            ps.setString(3, cheque.getWeekKey());
-            ps.setDouble(4, cheque.getAmount());
-            ps.setInt(5, cheque.isRedeemed() ? 1 : 0);
-            ps.setLong(6, cheque.getRedeemedAt());
-            ps.executeUpdate();
+    public synchronized void saveCheque(ChequeData cheque) {
+        try {
+            writeCheque(cheque);
         } catch (SQLException e) {
             plugin.getLogger().log(Level.SEVERE, "Error guardando cheque", e);
         }
     }
 
+    private void writeCheque(ChequeData cheque) throws SQLException {
+        String sql = """
+            INSERT OR REPLACE INTO cheques (cheque_id, player_id, period_start, amount, redeemed, redeemed_at)
+            VALUES (?, ?, ?, ?, ?, ?)
+        """;
+        PreparedStatement ps = prepare(sql);
+        ps.setBytes(1, StorageKeys.uuid(cheque.getChequeId()));
+        ps.setBytes(2, StorageKeys.uuid(cheque.getPlayerUuid()));
+        StorageKeys.setEpochMinute(ps, 3, cheque.getWeekKey());
+        ps.setDouble(4, cheque.getAmount());
+        ps.setInt(5, cheque.isRedeemed() ? 1 : 0);
+        ps.setLong(6, cheque.getRedeemedAt());
+        ps.executeUpdate();
+    }
+
     @Override
-    public ChequeData getCheque(String chequeId) {
-        String sql = "SELECT player_uuid, week_key, amount, redeemed, redeemed_at FROM cheques WHERE cheque_id = ?";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
-            ps.setString(1, chequeId);
-            ResultSet rs = ps.executeQuery();
-            if (rs.next()) {
-                return new ChequeData(
-                    chequeId,
-                    rs.getString("player_uuid"),
-                    rs.getString("week_key"),
-                    rs.getDouble("amount"),
-                    rs.getInt("redeemed") == 1,
-                    rs.getLong("redeemed_at")
-                );
+    public synchronized ChequeData getCheque(String chequeId) {
+        if (!StorageKeys.isUuid(chequeId)) {
+            return null;
+        }
+        String sql = "SELECT player_id, period_start, amount, redeemed, redeemed_at FROM cheques WHERE cheque_id = ?";
+        try {
+            PreparedStatement ps = prepare(sql);
+            ps.setBytes(1, StorageKeys.uuid(chequeId));
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return new ChequeData(
+                        chequeId,
+                        StorageKeys.uuid(rs.getBytes("player_id")),
+                        StorageKeys.getPeriodKey(rs, "period_start"),
+                        rs.getDouble("amount"),
+                        rs.getInt("redeemed") == 1,
+                        rs.getLong("redeemed_at")
+                    );
+                }
             }
         } catch (SQLException e) {
             plugin.getLogger().log(Level.SEVERE, "Error obteniendo cheque", e);
@@ -338,52 +641,68 @@ public class SqliteDatabase implements Database {
     }
 
     @Override
-    public void redeemCheque(String chequeId, long redeemedAt) {
-        String sql = "UPDATE cheques SET redeemed = 1, redeemed_at = ? WHERE cheque_id = ?";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
+    public synchronized boolean redeemCheque(String chequeId, long redeemedAt) {
+        if (!StorageKeys.isUuid(chequeId)) {
+            return false;
+        }
+        String sql = "UPDATE cheques SET redeemed = 1, redeemed_at = ? WHERE cheque_id = ? AND redeemed = 0";
+        try {
+            PreparedStatement ps = prepare(sql);
             ps.setLong(1, redeemedAt);
-            ps.setString(2, chequeId);
-            ps.executeUpdate();
+            ps.setBytes(2, StorageKeys.uuid(chequeId));
+            // Only the call that actually flips redeemed from 0 to 1 sees an affected row
+            return ps.executeUpdate() == 1;
         } catch (SQLException e) {
             plugin.getLogger().log(Level.SEVERE, "Error canjeando cheque", e);
         }
+        return false;
     }
 
     @Override
-    public void addPending(String playerUuid, PendingEntry.PendingType type, String payload) {
-        String sql = "INSERT INTO pending (player_uuid, type, payload, created_at) VALUES (?, ?, ?, ?)";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
-            ps.setString(1, playerUuid);
+    public synchronized int addPending(String playerUuid, PendingEntry.PendingType type, String payload) {
+        String sql = "INSERT INTO pending (player_id, type, payload, created_at) VALUES (?, ?, ?, ?)";
+        try {
+            PreparedStatement ps = prepare(sql);
+            ps.setBytes(1, StorageKeys.uuid(playerUuid));
             ps.setString(2, type.name());
             ps.setString(3, payload);
             ps.setLong(4, System.currentTimeMillis());
             ps.executeUpdate();
+            // Same connection and still under the lock, so this is our row
+            try (ResultSet rs = prepare("SELECT last_insert_rowid()").executeQuery()) {
+                if (rs.next()) {
+                    return rs.getInt(1);
+                }
+            }
         } catch (SQLException e) {
             plugin.getLogger().log(Level.SEVERE, "Error guardando entrega pendiente", e);
         }
+        return -1;
     }
 
     @Override
-    public List<PendingEntry> getPendingEntries(String playerUuid) {
+    public synchronized List<PendingEntry> getPendingEntries(String playerUuid) {
         List<PendingEntry> entries = new ArrayList<>();
-        String sql = "SELECT id, type, payload, created_at FROM pending WHERE player_uuid = ? ORDER BY created_at ASC";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
-            ps.setString(1, playerUuid);
-            ResultSet rs = ps.executeQuery();
-            while (rs.next()) {
-                PendingEntry.PendingType type;
-                try {
-                    type = PendingEntry.PendingType.valueOf(rs.getString("type"));
-                } catch (Exception e) {
-                    type = PendingEntry.PendingType.ITEM;
+        String sql = "SELECT id, type, payload, created_at FROM pending WHERE player_id = ? ORDER BY created_at ASC";
+        try {
+            PreparedStatement ps = prepare(sql);
+            ps.setBytes(1, StorageKeys.uuid(playerUuid));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    PendingEntry.PendingType type;
+                    try {
+                        type = PendingEntry.PendingType.valueOf(rs.getString("type"));
+                    } catch (Exception e) {
+                        type = PendingEntry.PendingType.ITEM;
+                    }
+                    entries.add(new PendingEntry(
+                        rs.getInt("id"),
+                        playerUuid,
+                        type,
+                        rs.getString("payload"),
+                        rs.getLong("created_at")
+                    ));
                 }
-                entries.add(new PendingEntry(
-                    rs.getInt("id"),
-                    playerUuid,
-                    type,
-                    rs.getString("payload"),
-                    rs.getLong("created_at")
-                ));
             }
         } catch (SQLException e) {
             plugin.getLogger().log(Level.SEVERE, "Error obteniendo entregas pendientes", e);
@@ -392,9 +711,10 @@ public class SqliteDatabase implements Database {
     }
 
     @Override
-    public void removePending(int id) {
+    public synchronized void removePending(int id) {
         String sql = "DELETE FROM pending WHERE id = ?";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
+        try {
+            PreparedStatement ps = prepare(sql);
             ps.setInt(1, id);
             ps.executeUpdate();
         } catch (SQLException e) {
@@ -403,17 +723,471 @@ public class SqliteDatabase implements Database {
     }
 
     @Override
-    public int getPendingCount(String playerUuid) {
-        String sql = "SELECT COUNT(*) FROM pending WHERE player_uuid = ?";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
-            ps.setString(1, playerUuid);
-            ResultSet rs = ps.executeQuery();
-            if (rs.next()) {
-                return rs.getInt(1);
+    public synchronized boolean applyPendingChanges(Map<Integer, String> payloads, Set<Integer> removedIds) {
+        if (payloads.isEmpty() && removedIds.isEmpty()) {
+            return true;
+        }
+
+        Connection conn = getConnection();
+        try {
+            conn.setAutoCommit(false);
+            PreparedStatement update = prepare("UPDATE pending SET payload = ? WHERE id = ?");
+            PreparedStatement delete = prepare("DELETE FROM pending WHERE id = ?");
+            try {
+                for (Map.Entry<Integer, String> entry : payloads.entrySet()) {
+                    update.setString(1, entry.getValue());
+                    update.setInt(2, entry.getKey());
+                    update.addBatch();
+                }
+                for (int id : removedIds) {
+                    delete.setInt(1, id);
+                    delete.addBatch();
+                }
+                update.executeBatch();
+                delete.executeBatch();
+                conn.commit();
+                return true;
+            } catch (Throwable e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                update.clearBatch();
+                delete.clearBatch();
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error guardando cambios de entregas pendientes", e);
+        }
+        return false;
+    }
+
+    @Override
+    public synchronized int getPendingCount(String playerUuid) {
+        String sql = "SELECT COUNT(*) FROM pending WHERE player_id = ?";
+        try {
+            PreparedStatement ps = prepare(sql);
+            ps.setBytes(1, StorageKeys.uuid(playerUuid));
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getInt(1);
+                }
             }
         } catch (SQLException e) {
             plugin.getLogger().log(Level.SEVERE, "Error contando entregas pendientes", e);
         }
         return 0;
     }
+
+    // Retention. SQLite is usually built without DELETE ... LIMIT, so batches go through rowid
+
+    @Override
+    public int purgeDailyClaims(String beforeDate, int limit) {
+        return purge("daily_claims", "day < ?", StorageKeys.epochDay(beforeDate), limit);
+    }
+
+    @Override
+    public int purgeWeeklyClaims(String beforeDate, int limit) {
+        return purge("weekly_claims", "period_start < ?", StorageKeys.epochMinuteOfDay(beforeDate), limit);
+    }
+
+    @Override
+    public int purgeMonthlyClaims(String beforeMonth, int limit) {
+        return purge("monthly_claims", "month < ?", StorageKeys.epochMonth(beforeMonth), limit);
+    }
+
+    @Override
+    public int purgeRedeemedCheques(long redeemedBefore, int limit) {
+        return purge("cheques", "redeemed = 1 AND redeemed_at < ?", redeemedBefore, limit);
+    }
+
+    @Override
+    public int purgePending(long createdBefore, int limit) {
+        return purge("pending", "created_at < ?", createdBefore, limit);
+    }
+
+    private synchronized int purge(String table, String condition, long cutoff, int limit) {
+        String sql = "DELETE FROM " + table + " WHERE rowid IN (SELECT rowid FROM " + table
+                + " WHERE " + condition + " LIMIT ?)";
+        try {
+            PreparedStatement ps = prepare(sql);
+            ps.setLong(1, cutoff);
+            ps.setInt(2, limit);
+            return ps.executeUpdate();
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error limpiando la tabla " + table, e);
+        }
+        return 0;
+    }
+
+    @Override
+    public synchronized int bulkReset(BulkReset reset, int limit) {
+        String table = reset.table();
+        String chunk = "rowid IN (SELECT rowid FROM " + table + " WHERE " + reset.condition() + " LIMIT ?)";
+        String sql = reset.isUpdate()
+                ? "UPDATE " + table + " SET claimed_mask = claimed_mask & ~? WHERE " + chunk
+                : "DELETE FROM " + table + " WHERE " + chunk;
+        // Uuid lists change the statement shape on every chunk, so keep them out of the statement cache
+        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
+            int index = 1;
+            if (reset.isUpdate()) {
+                ps.setInt(index++, reset.getDayBit());
+            }
+            index = reset.bindCondition(ps, index);
+            ps.setInt(index, limit);
+            return ps.executeUpdate();
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error en el reseteo masivo de " + table, e);
+        }
+        return -1;
+    }
+
+    /**
+     * Incremental vacuum of up to maxPages free pages. Files created before auto_vacuum was
+     * set are skipped: switching them needs a full VACUUM, which holds the connection for
+     * the whole rewrite, so that only happens through {@link #compactFully()}.
+     */
+    @Override
+    public synchronized long reclaimSpace(int maxPages) {
+        try (Statement stmt = getConnection().createStatement()) {
+            if (queryLong(stmt, "PRAGMA auto_vacuum") != 2) {
+                plugin.getLogger().info("data.db no tiene auto_vacuum incremental; compactacion omitida. "
+                        + "Usa /supplies admin retention vacuum una vez para activarlo.");
+                return 0L;
+            }
+
+            long pageSize = queryLong(stmt, "PRAGMA page_size");
+            long pagesBefore = queryLong(stmt, "PRAGMA page_count");
+            stmt.execute("PRAGMA incremental_vacuum(" + Math.max(1, maxPages) + ")");
+            return Math.max(0L, pagesBefore - queryLong(stmt, "PRAGMA page_count")) * pageSize;
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error compactando SQLite", e);
+        }
+        return 0L;
+    }
+
+    @Override
+    public synchronized long compactFully() {
+        try (Statement stmt = getConnection().createStatement()) {
+            long pageSize = queryLong(stmt, "PRAGMA page_size");
+            long pagesBefore = queryLong(stmt, "PRAGMA page_count");
+
+            plugin.getLogger().info("VACUUM completo de SQLite en curso; el almacenamiento queda bloqueado hasta que termine...");
+            stmt.execute("PRAGMA auto_vacuum = INCREMENTAL");
+            stmt.execute("VACUUM");
+
+            return Math.max(0L, pagesBefore - queryLong(stmt, "PRAGMA page_count")) * pageSize;
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error en el VACUUM completo de SQLite", e);
+        }
+        return -1L;
+    }
+
+    private static long queryLong(Statement stmt, String sql) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getLong(1) : 0L;
+        }
+    }
+
+    /**
+     * Whether the file is in WAL mode, where a long read on a second connection does not hold
+     * back writers. WAL is stored in the file itself, so this asks SQLite instead of the config.
+     */
+    private static boolean isWal(Statement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("PRAGMA journal_mode")) {
+            return rs.next() && "wal".equalsIgnoreCase(rs.getString(1));
+        }
+    }
+
+    /**
+     * VACUUM INTO from a second connection: the copy is one read transaction and the result
+     * comes out already compacted. In WAL mode that never blocks the main connection; with a
+     * rollback journal writes wait for the copy, which is logged so the stall is explained.
+     */
+    @Override
+    public long backupTo(Path target) {
+        try (Connection reader = DriverManager.getConnection(url);
+             Statement stmt = reader.createStatement()) {
+            stmt.execute("PRAGMA busy_timeout = " + Math.max(0, configManager.getSqliteBusyTimeout()));
+            if (!isWal(stmt)) {
+                plugin.getLogger().warning("SQLite no esta en modo WAL (performance-mode: false): "
+                        + "los reclamos esperaran hasta que termine la copia de seguridad.");
+            }
+            Files.deleteIfExists(target);
+            stmt.execute("VACUUM INTO '" + target.toAbsolutePath().toString().replace("'", "''") + "'");
+            return Files.size(target);
+        } catch (SQLException | IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error creando copia de seguridad de SQLite", e);
+            return -1L;
+        }
+    }
+
+    /**
+     * Reads through a second connection so the export does not hold the main connection's
+     * lock. With WAL the table is read from one snapshot while writes carry on; with a
+     * rollback journal claims wait until the table has been read, which is logged.
+     */
+    @Override
+    public long exportTable(DataTable table, DataFile.Writer out) throws IOException {
+        long rows = 0;
+        try (Connection reader = DriverManager.getConnection(url);
+             Statement stmt = reader.createStatement()) {
+            stmt.execute("PRAGMA busy_timeout = " + Math.max(0, configManager.getSqliteBusyTimeout()));
+            if (!isWal(stmt)) {
+                plugin.getLogger().warning("SQLite no esta en modo WAL: los reclamos esperaran mientras se exporta "
+                        + table.tableName() + ".");
+            }
+            try (ResultSet rs = stmt.executeQuery(table.selectSql())) {
+                out.beginTable(table);
+                while (rs.next()) {
+                    out.writeRow(table.read(rs));
+                    rows++;
+                }
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error exportando la tabla " + table.tableName(), e);
+            return -1;
+        }
+        return rows;
+    }
+
+    @Override
+    public synchronized int importRows(DataTable table, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        Connection conn = getConnection();
+        try {
+            conn.setAutoCommit(false);
+            try {
+                PreparedStatement ps = prepare(table.insertSql(SqlDialect.SQLITE));
+                int inserted = 0;
+                try {
+                    for (Object[] row : rows) {
+                        table.bind(ps, row);
+                        ps.addBatch();
+                    }
+                    for (int count : ps.executeBatch()) {
+                        if (count > 0) {
+                            inserted += count;
+                        }
+                    }
+                } finally {
+                    ps.clearBatch();
+                }
+                conn.commit();
+                return inserted;
+            } catch (Throwable e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error importando " + rows.size() + " filas en " + table.tableName(), e);
+        }
+        return -1;
+    }
+
+    // Claim guards: the insert only succeeds for a new row, and the update only matches while
+    // the claim is still unset, so exactly one caller sees an affected row
+
+    @Override
+    public synchronized ClaimUnit.Outcome commitClaim(ClaimUnit unit) {
+        Connection conn = getConnection();
+        try {
+            conn.setAutoCommit(false);
+            try {
+                boolean claimed = switch (unit.getGuard()) {
+                    case DAILY -> claimDailyRow(unit.getPlayerUuid(), unit.getKey());
+                    case WEEKLY -> claimWeeklyRow(unit.getPlayerUuid(), unit.getKey());
+                    case MONTHLY_DAY -> claimMonthlyRow(unit.getPlayerUuid(), unit.getKey(), unit.getDayBit());
+                    case FOOD -> claimFoodRow(unit.getPlayerUuid(), unit.getKey(), unit.getNow(), unit.getNextClaimAt());
+                };
+                if (claimed && unit.getState() != null) {
+                    executeWrites(List.of(BufferedWrite.playerState(unit.getState())));
+                }
+                if (claimed && unit.getCheque() != null) {
+                    writeCheque(unit.getCheque());
+                }
+                conn.commit();
+                return claimed ? ClaimUnit.Outcome.CLAIMED : ClaimUnit.Outcome.TAKEN;
+            } catch (Throwable e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error registrando reclamo", e);
+        }
+        return ClaimUnit.Outcome.FAILED;
+    }
+
+    private boolean claimDailyRow(String playerUuid, String date) throws SQLException {
+        PreparedStatement insert = prepare("INSERT OR IGNORE INTO daily_claims (player_id, day, claimed) VALUES (?, ?, 1)");
+        insert.setBytes(1, StorageKeys.uuid(playerUuid));
+        insert.setInt(2, StorageKeys.epochDay(date));
+        if (insert.executeUpdate() == 1) {
+            return true;
+        }
+        PreparedStatement update = prepare("UPDATE daily_claims SET claimed = 1 WHERE player_id = ? AND day = ? AND claimed = 0");
+        update.setBytes(1, StorageKeys.uuid(playerUuid));
+        update.setInt(2, StorageKeys.epochDay(date));
+        return update.executeUpdate() == 1;
+    }
+
+    private boolean claimWeeklyRow(String playerUuid, String weekKey) throws SQLException {
+        PreparedStatement insert = prepare("INSERT OR IGNORE INTO weekly_claims (player_id, period_start, claimed) VALUES (?, ?, 1)");
+        insert.setBytes(1, StorageKeys.uuid(playerUuid));
+        insert.setInt(2, StorageKeys.epochMinute(weekKey));
+        if (insert.executeUpdate() == 1) {
+            return true;
+        }
+        PreparedStatement update = prepare("UPDATE weekly_claims SET claimed = 1 WHERE player_id = ? AND period_start = ? AND claimed = 0");
+        update.setBytes(1, StorageKeys.uuid(playerUuid));
+        update.setInt(2, StorageKeys.epochMinute(weekKey));
+        return update.executeUpdate() == 1;
+    }
+
+    private boolean claimMonthlyRow(String playerUuid, String month, int dayBit) throws SQLException {
+        PreparedStatement insert = prepare("INSERT OR IGNORE INTO monthly_claims (player_id, month, claimed_mask) VALUES (?, ?, ?)");
+        insert.setBytes(1, StorageKeys.uuid(playerUuid));
+        insert.setInt(2, StorageKeys.epochMonth(month));
+        insert.setInt(3, dayBit);
+        if (insert.executeUpdate() == 1) {
+            return true;
+        }
+        PreparedStatement update = prepare("UPDATE monthly_claims SET claimed_mask = claimed_mask | ? WHERE player_id = ? AND month = ? AND (claimed_mask & ?) = 0");
+        update.setInt(1, dayBit);
+        update.setBytes(2, StorageKeys.uuid(playerUuid));
+        update.setInt(3, StorageKeys.epochMonth(month));
+        update.setInt(4, dayBit);
+        return update.executeUpdate() == 1;
+    }
+
+    private boolean claimFoodRow(String playerUuid, String packId, long now, long nextClaimAt) throws SQLException {
+        PreparedStatement insert = prepare("INSERT OR IGNORE INTO food_claims (player_id, pack_id, next_claim_at) VALUES (?, ?, ?)");
+        insert.setBytes(1, StorageKeys.uuid(playerUuid));
+        insert.setString(2, packId);
+        insert.setLong(3, nextClaimAt);
+        if (insert.executeUpdate() == 1) {
+            return true;
+        }
+        PreparedStatement update = prepare("UPDATE food_claims SET next_claim_at = ? WHERE player_id = ? AND pack_id = ? AND next_claim_at <= ?");
+        update.setLong(1, nextClaimAt);
+        update.setBytes(2, StorageKeys.uuid(playerUuid));
+        update.setString(3, packId);
+        update.setLong(4, now);
+        return update.executeUpdate() == 1;
+    }
+
+    @Override
+    public synchronized boolean acquireClaimLease(String playerUuid, String holder, long leaseMillis) {
+        long now = System.currentTimeMillis();
+        String insertSql = "INSERT OR IGNORE INTO claim_leases (player_id, server_id, expires_at) VALUES (?, ?, ?)";
+        String updateSql = "UPDATE claim_leases SET server_id = ?, expires_at = ? WHERE player_id = ? AND expires_at < ?";
+        try {
+            PreparedStatement insert = prepare(insertSql);
+            insert.setBytes(1, StorageKeys.uuid(playerUuid));
+            insert.setString(2, holder);
+            insert.setLong(3, now + leaseMillis);
+            if (insert.executeUpdate() == 1) {
+                return true;
+            }
+            PreparedStatement update = prepare(updateSql);
+            update.setString(1, holder);
+            update.setLong(2, now + leaseMillis);
+            update.setBytes(3, StorageKeys.uuid(playerUuid));
+            update.setLong(4, now);
+            return update.executeUpdate() == 1;
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error tomando bloqueo de reclamo", e);
+        }
+        return false;
+    }
+
+    @Override
+    public synchronized void releaseClaimLease(String playerUuid, String holder) {
+        String sql = "DELETE FROM claim_leases WHERE player_id = ? AND server_id = ?";
+        try {
+            PreparedStatement ps = prepare(sql);
+            ps.setBytes(1, StorageKeys.uuid(playerUuid));
+            ps.setString(2, holder);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error liberando bloqueo de reclamo", e);
+        }
+    }
+
+    // Profile change feed
+
+    @Override
+    public synchronized void appendProfileChanges(List<ProfileChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        String sql = "INSERT INTO profile_changes (server_id, player_id, kind, change_key, change_value, created_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?)";
+        Connection conn = getConnection();
+        try {
+            conn.setAutoCommit(false);
+            PreparedStatement ps = prepare(sql);
+            try {
+                long now = System.currentTimeMillis();
+                for (ProfileChange change : changes) {
+                    ProfileChangeRows.bind(ps, change, now);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                conn.commit();
+            } catch (Throwable e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                ps.clearBatch();
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error publicando cambios de perfil", e);
+        }
+    }
+
+    @Override
+    public synchronized List<ProfileChange> readProfileChanges(long afterId, int limit) {
+        List<ProfileChange> changes = new ArrayList<>();
+        String sql = "SELECT id, server_id, player_id, kind, change_key, change_value FROM profile_changes "
+                + "WHERE id > ? ORDER BY id LIMIT ?";
+        try {
+            PreparedStatement ps = prepare(sql);
+            ps.setLong(1, afterId);
+            ps.setInt(2, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ProfileChange change = ProfileChangeRows.read(rs);
+                    if (change != null) {
+                        changes.add(change);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error leyendo cambios de perfil", e);
+        }
+        return changes;
+    }
+
+    @Override
+    public synchronized long getLastProfileChangeId() {
+        try (Statement stmt = getConnection().createStatement()) {
+            return queryLong(stmt, "SELECT COALESCE(MAX(id), 0) FROM profile_changes");
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error leyendo cambios de perfil", e);
+        }
+        return 0L;
+    }
+
+    @Override
+    public int purgeProfileChanges(long createdBefore, int limit) {
+        return purge("profile_changes", "created_at < ?", createdBefore, limit);
+    }
 }
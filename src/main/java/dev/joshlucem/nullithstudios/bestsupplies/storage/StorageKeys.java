@@ -0,0 +1,120 @@
+package dev.joshlucem.nullithstudios.bestsupplies.storage;
+
+import java.nio.ByteBuffer;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+
+/**
+ * Converts the string keys used by the services into the compact columns of the v2 schema:
+ * 16-byte UUIDs, epoch days for dates, epoch minutes for weekly periods and epoch months.
+ * Weekly periods are server-local times, so they are encoded as if they were UTC to stay reversible.
+ */
+public final class StorageKeys {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter PERIOD_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm");
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private StorageKeys() {
+    }
+
+    public static byte[] uuid(String uuid) {
+        UUID parsed = UUID.fromString(uuid);
+        return ByteBuffer.allocate(16)
+                .putLong(parsed.getMostSignificantBits())
+                .putLong(parsed.getLeastSignificantBits())
+                .array();
+    }
+
+    public static boolean isUuid(String value) {
+        try {
+            UUID.fromString(value);
+            return true;
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return false;
+        }
+    }
+
+    public static String uuid(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong()).toString();
+    }
+
+    /**
+     * yyyy-MM-dd to days since 1970-01-01.
+     */
+    public static int epochDay(String dateKey) {
+        return (int) LocalDate.parse(dateKey, DATE_FORMAT).toEpochDay();
+    }
+
+    public static String dateKey(int epochDay) {
+        return LocalDate.ofEpochDay(epochDay).format(DATE_FORMAT);
+    }
+
+    /**
+     * yyyy-MM-dd_HH-mm to minutes since 1970-01-01 00:00.
+     */
+    public static int epochMinute(String periodKey) {
+        LocalDateTime time = LocalDateTime.parse(periodKey, PERIOD_FORMAT);
+        return (int) (time.toEpochSecond(ZoneOffset.UTC) / 60);
+    }
+
+    public static String periodKey(int epochMinute) {
+        return LocalDateTime.ofEpochSecond(epochMinute * 60L, 0, ZoneOffset.UTC).format(PERIOD_FORMAT);
+    }
+
+    /**
+     * First minute of the given day, for range queries over weekly periods.
+     */
+    public static int epochMinuteOfDay(String dateKey) {
+        return epochDay(dateKey) * MINUTES_PER_DAY;
+    }
+
+    /**
+     * yyyy-MM to months since 1970-01.
+     */
+    public static int epochMonth(String monthKey) {
+        YearMonth month = YearMonth.parse(monthKey);
+        return (month.getYear() - 1970) * 12 + month.getMonthValue() - 1;
+    }
+
+    public static String monthKey(int epochMonth) {
+        return YearMonth.of(1970 + Math.floorDiv(epochMonth, 12), Math.floorMod(epochMonth, 12) + 1).toString();
+    }
+
+    // Nullable date and period columns
+
+    public static void setEpochDay(PreparedStatement ps, int index, String dateKey) throws SQLException {
+        if (dateKey == null || dateKey.isEmpty()) {
+            ps.setNull(index, Types.INTEGER);
+        } else {
+            ps.setInt(index, epochDay(dateKey));
+        }
+    }
+
+    public static void setEpochMinute(PreparedStatement ps, int index, String periodKey) throws SQLException {
+        if (periodKey == null || periodKey.isEmpty()) {
+            ps.setNull(index, Types.INTEGER);
+        } else {
+            ps.setInt(index, epochMinute(periodKey));
+        }
+    }
+
+    public static String getDateKey(ResultSet rs, String column) throws SQLException {
+        int epochDay = rs.getInt(column);
+        return rs.wasNull() ? null : dateKey(epochDay);
+    }
+
+    public static String getPeriodKey(ResultSet rs, String column) throws SQLException {
+        int epochMinute = rs.getInt(column);
+        return rs.wasNull() ? null : periodKey(epochMinute);
+    }
+}
@@ -0,0 +1,530 @@
+package dev.joshlucem.nullithstudios.bestsupplies.storage;
+
+import dev.joshlucem.nullithstudios.bestsupplies.BestSupplies;
+import dev.joshlucem.nullithstudios.bestsupplies.model.ChequeData;
+import dev.joshlucem.nullithstudios.bestsupplies.model.PendingEntry;
+import dev.joshlucem.nullithstudios.bestsupplies.model.PlayerState;
+import dev.joshlucem.nullithstudios.bestsupplies.model.PlayerSupplyProfile;
+import dev.joshlucem.nullithstudios.bestsupplies.model.ProfileChange;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+
+/**
+ * Buffers claim, cooldown and player state writes in memory and flushes them to the
+ * wrapped database in one transaction, either on a fixed interval or when the buffer
+ * fills up. Repeated writes to the same row are coalesced so only the last one is sent.
+ * Reads of buffered rows are answered from the buffer so callers always see their own writes.
+ */
+public class WriteBehindDatabase implements Database {
+
+    // A write that keeps failing while other writes go through is dropped after this many flushes
+    private static final int MAX_WRITE_ATTEMPTS = 5;
+    // A retry pass whose first writes all fail means storage is down, not that one write is bad
+    private static final int OUTAGE_PROBE_WRITES = 3;
+
+    private final BestSupplies plugin;
+    private final Database delegate;
+    private final long flushIntervalMs;
+    private final int maxBuffered;
+
+    private final Object lock = new Object();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private LinkedHashMap<String, BufferedWrite> buffer = new LinkedHashMap<>();
+    private Map<String, BufferedWrite> inFlight = Map.of();
+    // Failed flushes per buffered row, counted only while storage itself is reachable
+    private final Map<String, Integer> failedAttempts = new HashMap<>();
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+
+    private ScheduledExecutorService flusher;
+
+    public WriteBehindDatabase(BestSupplies plugin, Database delegate, long flushIntervalMs, int maxBuffered) {
+        this.plugin = plugin;
+        this.delegate = delegate;
+        this.flushIntervalMs = Math.max(50L, flushIntervalMs);
+        this.maxBuffered = Math.max(1, maxBuffered);
+    }
+
+    @Override
+    public void initialize() {
+        delegate.initialize();
+
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "BestSupplies-WriteBehind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        if (flusher != null) {
+            flusher.shutdown();
+            try {
+                flusher.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // Drain whatever is left before the connection goes away
+        flush();
+        int left = getBufferedCount();
+        if (left > 0) {
+            plugin.getLogger().severe("No se pudieron guardar " + left + " escrituras pendientes al cerrar.");
+        }
+        delegate.close();
+    }
+
+    public Database getDelegate() {
+        return delegate;
+    }
+
+    public int getBufferedCount() {
+        synchronized (lock) {
+            return buffer.size();
+        }
+    }
+
+    /**
+     * Write every buffered change to the wrapped database in one transaction. If that fails,
+     * the batch is written one entry at a time so a single bad write cannot hold back the
+     * rest. Unsaved writes go back in front of newer ones for the next flush; one that keeps
+     * failing while others are saved is logged and dropped after {@value #MAX_WRITE_ATTEMPTS} tries.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            List<BufferedWrite> batch;
+            synchronized (lock) {
+                if (buffer.isEmpty()) {
+                    return;
+                }
+                inFlight = buffer;
+                buffer = new LinkedHashMap<>();
+                batch = new ArrayList<>(inFlight.values());
+            }
+
+            FlushResult result = new FlushResult(batch, true);
+            try {
+                result = apply(batch);
+            } finally {
+                synchronized (lock) {
+                    requeue(result);
+                    inFlight = Map.of();
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private FlushResult apply(List<BufferedWrite> batch) {
+        if (tryApply(batch)) {
+            plugin.debug("Write-behind: " + batch.size() + " escrituras guardadas en una transaccion");
+            return new FlushResult(List.of(), false);
+        }
+        plugin.getLogger().severe("No se pudo guardar el lote de " + batch.size() + " escrituras pendientes; reintentando una por una");
+
+        List<BufferedWrite> unsaved = new ArrayList<>();
+        int saved = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            BufferedWrite write = batch.get(i);
+            if (tryApply(List.of(write))) {
+                saved++;
+                continue;
+            }
+            unsaved.add(write);
+            if (saved == 0 && unsaved.size() >= OUTAGE_PROBE_WRITES) {
+                unsaved.addAll(batch.subList(i + 1, batch.size()));
+                break;
+            }
+        }
+        return new FlushResult(unsaved, saved == 0);
+    }
+
+    private boolean tryApply(List<BufferedWrite> writes) {
+        try {
+            return delegate.applyWrites(writes);
+        } catch (RuntimeException e) {
+            // Same as a failed transaction: nothing from these writes was kept
+            plugin.getLogger().log(Level.SEVERE, "Error guardando " + writes.size() + " escrituras pendientes", e);
+            return false;
+        }
+    }
+
+    // Call with the lock held
+    private void requeue(FlushResult result) {
+        Set<String> unsavedKeys = new HashSet<>();
+        for (BufferedWrite write : result.unsaved()) {
+            unsavedKeys.add(write.getCoalesceKey());
+        }
+        for (String key : inFlight.keySet()) {
+            if (!unsavedKeys.contains(key)) {
+                failedAttempts.remove(key);
+            }
+        }
+
+        LinkedHashMap<String, BufferedWrite> merged = new LinkedHashMap<>();
+        for (BufferedWrite write : result.unsaved()) {
+            String key = write.getCoalesceKey();
+            // While storage is down nothing is counted; a newer write to the row starts over
+            if (!result.storageDown() && !buffer.containsKey(key)
+                    && failedAttempts.merge(key, 1, Integer::sum) >= MAX_WRITE_ATTEMPTS) {
+                failedAttempts.remove(key);
+                plugin.getLogger().severe("Descartando escritura pendiente tras " + MAX_WRITE_ATTEMPTS
+                        + " intentos fallidos: " + write.getType() + " " + key);
+                continue;
+            }
+            merged.put(key, write);
+        }
+        for (Map.Entry<String, BufferedWrite> entry : buffer.entrySet()) {
+            BufferedWrite older = merged.remove(entry.getKey());
+            BufferedWrite newer = entry.getValue();
+            if (older != null && newer.getType() == BufferedWrite.Type.MONTHLY_MASK) {
+                newer = older.mergeMonthly(newer);
+            }
+            merged.put(entry.getKey(), newer);
+        }
+        buffer = merged;
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            plugin.getLogger().log(Level.SEVERE, "Error vaciando escrituras pendientes", e);
+        }
+    }
+
+    private void enqueue(BufferedWrite write) {
+        int size;
+        synchronized (lock) {
+            String key = write.getCoalesceKey();
+            if (write.getType() == BufferedWrite.Type.FOOD_RESET_ALL) {
+                // Cooldowns queued earlier for this player are wiped by the reset anyway
+                String prefix = BufferedWrite.foodKey(write.getPlayerUuid(), "");
+                buffer.keySet().removeIf(existing -> existing.startsWith(prefix));
+            }
+            // Remove first so the entry moves to the end and keeps its place after older writes
+            BufferedWrite previous = buffer.remove(key);
+            if (previous != null && write.getType() == BufferedWrite.Type.MONTHLY_MASK) {
+                // Mask changes are deltas, so fold them together instead of replacing
+                write = previous.mergeMonthly(write);
+            }
+            buffer.put(key, write);
+            failedAttempts.remove(key);
+            size = buffer.size();
+        }
+
+        // One queued flush at a time, however many writes arrive while the buffer is full
+        if (size >= maxBuffered && flusher != null && !flusher.isShutdown() && flushQueued.compareAndSet(false, true)) {
+            flusher.execute(() -> {
+                flushQueued.set(false);
+                flushQuietly();
+            });
+        }
+    }
+
+    private BufferedWrite lookup(String key) {
+        synchronized (lock) {
+            BufferedWrite write = buffer.get(key);
+            return write != null ? write : inFlight.get(key);
+        }
+    }
+
+    // Player State
+    @Override
+    public PlayerState getPlayerState(String playerUuid) {
+        BufferedWrite write = lookup(BufferedWrite.stateKey(playerUuid));
+        if (write != null) {
+            return write.getState().copy();
+        }
+        return delegate.getPlayerState(playerUuid);
+    }
+
+    @Override
+    public void savePlayerState(PlayerState state) {
+        enqueue(BufferedWrite.playerState(state));
+    }
+
+    @Override
+    public PlayerSupplyProfile loadSupplyProfile(String playerUuid, String fromDate) {
+        flush();
+        return delegate.loadSupplyProfile(playerUuid, fromDate);
+    }
+
+    // Daily Claims
+    @Override
+    public boolean hasDailyClaim(String playerUuid, String date) {
+        BufferedWrite write = lookup(BufferedWrite.dailyKey(playerUuid, date));
+        if (write != null) {
+            return write.isClaimed();
+        }
+        return delegate.hasDailyClaim(playerUuid, date);
+    }
+
+    @Override
+    public void setDailyClaim(String playerUuid, String date, boolean claimed) {
+        enqueue(BufferedWrite.dailyClaim(playerUuid, date, claimed));
+    }
+
+    // Weekly Claims
+    @Override
+    public boolean hasWeeklyClaim(String playerUuid, String weekKey) {
+        BufferedWrite write = lookup(BufferedWrite.weeklyKey(playerUuid, weekKey));
+        if (write != null) {
+            return write.getType() == BufferedWrite.Type.WEEKLY_CLAIM && write.isClaimed();
+        }
+        return delegate.hasWeeklyClaim(playerUuid, weekKey);
+    }
+
+    @Override
+    public void setWeeklyClaim(String playerUuid, String weekKey, boolean claimed) {
+        enqueue(BufferedWrite.weeklyClaim(playerUuid, weekKey, claimed));
+    }
+
+    @Override
+    public void resetWeeklyClaim(String playerUuid, String weekKey) {
+        enqueue(BufferedWrite.weeklyReset(playerUuid, weekKey));
+    }
+
+    // Monthly Claims
+    @Override
+    public int getMonthlyClaimMask(String playerUuid, String month) {
+        String key = BufferedWrite.monthlyKey(playerUuid, month);
+        BufferedWrite flushing;
+        BufferedWrite queued;
+        // Snapshot before reading storage: a flush that finishes in between is then either in
+        // the snapshot or already in the stored mask, never in neither
+        synchronized (lock) {
+            flushing = inFlight.get(key);
+            queued = buffer.get(key);
+        }
+        int mask = delegate.getMonthlyClaimMask(playerUuid, month);
+        // Older in-flight change first, then the newer buffered one; both are idempotent
+        if (flushing != null) {
+            mask = flushing.applyMask(mask);
+        }
+        if (queued != null) {
+            mask = queued.applyMask(mask);
+        }
+        return mask;
+    }
+
+    @Override
+    public void updateMonthlyClaimMask(String playerUuid, String month, int setBits, int clearBits) {
+        enqueue(BufferedWrite.monthlyMask(playerUuid, month, setBits, clearBits));
+    }
+
+    @Override
+    public ClaimUnit.Outcome commitClaim(ClaimUnit unit) {
+        // Older buffered writes to the same rows must not land on top of the claim later
+        flushIfBuffered(unit.getCoalesceKey());
+        if (unit.getGuard() == ClaimUnit.Guard.FOOD) {
+            flushIfBuffered(BufferedWrite.foodAllKey(unit.getPlayerUuid()));
+        }
+        if (unit.getState() != null) {
+            flushIfBuffered(BufferedWrite.stateKey(unit.getPlayerUuid()));
+        }
+        return delegate.commitClaim(unit);
+    }
+
+    @Override
+    public boolean acquireClaimLease(String playerUuid, String holder, long leaseMillis) {
+        return delegate.acquireClaimLease(playerUuid, holder, leaseMillis);
+    }
+
+    @Override
+    public void releaseClaimLease(String playerUuid, String holder) {
+        delegate.releaseClaimLease(playerUuid, holder);
+    }
+
+    @Override
+    public void appendProfileChanges(List<ProfileChange> changes) {
+        delegate.appendProfileChanges(changes);
+    }
+
+    @Override
+    public List<ProfileChange> readProfileChanges(long afterId, int limit) {
+        return delegate.readProfileChanges(afterId, limit);
+    }
+
+    @Override
+    public long getLastProfileChangeId() {
+        return delegate.getLastProfileChangeId();
+    }
+
+    @Override
+    public int purgeProfileChanges(long createdBefore, int limit) {
+        return delegate.purgeProfileChanges(createdBefore, limit);
+    }
+
+    private void flushIfBuffered(String key) {
+        if (lookup(key) != null) {
+            flush();
+        }
+    }
+
+    // Food Claims
+    @Override
+    public long getFoodClaimNextAt(String playerUuid, String packId) {
+        String foodKey = BufferedWrite.foodKey(playerUuid, packId);
+        String resetKey = BufferedWrite.foodAllKey(playerUuid);
+        synchronized (lock) {
+            for (Map<String, BufferedWrite> writes : List.of(buffer, inFlight)) {
+                BufferedWrite write = writes.get(foodKey);
+                if (write != null) {
+                    return write.getType() == BufferedWrite.Type.FOOD_CLAIM ? write.getValue() : 0;
+                }
+                if (writes.containsKey(resetKey)) {
+                    return 0;
+                }
+            }
+        }
+        return delegate.getFoodClaimNextAt(playerUuid, packId);
+    }
+
+    @Override
+    public void setFoodClaimNextAt(String playerUuid, String packId, long nextClaimAt) {
+        enqueue(BufferedWrite.foodClaim(playerUuid, packId, nextClaimAt));
+    }
+
+    @Override
+    public void resetFoodClaim(String playerUuid, String packId) {
+        enqueue(BufferedWrite.foodReset(playerUuid, packId));
+    }
+
+    @Override
+    public void resetAllFoodClaims(String playerUuid) {
+        enqueue(BufferedWrite.foodResetAll(playerUuid));
+    }
+
+    @Override
+    public boolean applyWrites(List<BufferedWrite> writes) {
+        for (BufferedWrite write : writes) {
+            enqueue(write);
+        }
+        return true;
+    }
+
+    // Cheques and pending deliveries are written straight through
+    @Override
+    public void saveCheque(ChequeData cheque) {
+        delegate.saveCheque(cheque);
+    }
+
+    @Override
+    public ChequeData getCheque(String chequeId) {
+        return delegate.getCheque(chequeId);
+    }
+
+    @Override
+    public boolean redeemCheque(String chequeId, long redeemedAt) {
+        return delegate.redeemCheque(chequeId, redeemedAt);
+    }
+
+    @Override
+    public int addPending(String playerUuid, PendingEntry.PendingType type, String payload) {
+        return delegate.addPending(playerUuid, type, payload);
+    }
+
+    @Override
+    public List<PendingEntry> getPendingEntries(String playerUuid) {
+        return delegate.getPendingEntries(playerUuid);
+    }
+
+    @Override
+    public void removePending(int id) {
+        delegate.removePending(id);
+    }
+
+    @Override
+    public int getPendingCount(String playerUuid) {
+        return delegate.getPendingCount(playerUuid);
+    }
+
+    @Override
+    public boolean applyPendingChanges(Map<Integer, String> payloads, Set<Integer> removedIds) {
+        return delegate.applyPendingChanges(payloads, removedIds);
+    }
+
+    // Retention only touches rows far older than anything still buffered
+
+    @Override
+    public int purgeDailyClaims(String beforeDate, int limit) {
+        return delegate.purgeDailyClaims(beforeDate, limit);
+    }
+
+    @Override
+    public int purgeWeeklyClaims(String beforeDate, int limit) {
+        return delegate.purgeWeeklyClaims(beforeDate, limit);
+    }
+
+    @Override
+    public int purgeMonthlyClaims(String beforeMonth, int limit) {
+        return delegate.purgeMonthlyClaims(beforeMonth, limit);
+    }
+
+    @Override
+    public int purgeRedeemedCheques(long redeemedBefore, int limit) {
+        return delegate.purgeRedeemedCheques(redeemedBefore, limit);
+    }
+
+    @Override
+    public int purgePending(long createdBefore, int limit) {
+        return delegate.purgePending(createdBefore, limit);
+    }
+
+    @Override
+    public long reclaimSpace(int maxPages) {
+        return delegate.reclaimSpace(maxPages);
+    }
+
+    @Override
+    public long compactFully() {
+        return delegate.compactFully();
+    }
+
+    @Override
+    public int bulkReset(BulkReset reset, int limit) {
+        // Claims buffered before the reset must not land after it and undo it
+        flush();
+        return delegate.bulkReset(reset, limit);
+    }
+
+    @Override
+    public long backupTo(Path target) {
+        flush();
+        return delegate.backupTo(target);
+    }
+
+    @Override
+    public long exportTable(DataTable table, DataFile.Writer out) throws IOException {
+        // The export should include everything acknowledged so far
+        flush();
+        return delegate.exportTable(table, out);
+    }
+
+    @Override
+    public int importRows(DataTable table, List<Object[]> rows) {
+        return delegate.importRows(table, rows);
+    }
+
+    private record FlushResult(List<BufferedWrite> unsaved, boolean storageDown) {
+    }
+}
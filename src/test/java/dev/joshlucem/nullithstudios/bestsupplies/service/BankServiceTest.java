@@ -0,0 +1,148 @@
+package dev.joshlucem.nullithstudios.bestsupplies.service;
+
+import dev.joshlucem.nullithstudios.bestsupplies.service.BankService.ClaimResult;
+import dev.joshlucem.nullithstudios.bestsupplies.service.BankService.MonthlyClaimResult;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+
+import static dev.joshlucem.nullithstudios.bestsupplies.service.ServiceHarness.RANK;
+import static dev.joshlucem.nullithstudios.bestsupplies.service.ServiceHarness.START_DATE;
+import static dev.joshlucem.nullithstudios.bestsupplies.service.ServiceHarness.await;
+import static dev.joshlucem.nullithstudios.bestsupplies.service.ServiceHarness.player;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BankServiceTest {
+
+    private ServiceHarness harness;
+    private Player player;
+
+    @BeforeEach
+    void setUp() {
+        harness = ServiceHarness.create();
+        player = player("Alex");
+    }
+
+    @AfterEach
+    void tearDown() {
+        harness.close();
+    }
+
+    @Test
+    void weeklyClaimPaysOncePerPeriod() {
+        await(harness.profileService.load(player));
+        assertEquals(ClaimResult.SUCCESS, await(harness.bankService.claimWeekly(player)));
+        assertEquals(ClaimResult.ALREADY_CLAIMED, await(harness.bankService.claimWeekly(player)));
+        assertTrue(harness.bankService.hasClaimedWeekly(player));
+
+        harness.clock.advance(Duration.ofDays(7));
+        assertFalse(harness.bankService.hasClaimedWeekly(player));
+        assertEquals(ClaimResult.SUCCESS, await(harness.bankService.claimWeekly(player)));
+
+        verify(harness.economyService, times(2)).depositSilver(player, RANK.getWeeklyMoney(), "weekly-bank");
+    }
+
+    @Test
+    void failedWeeklyDepositReleasesTheClaim() {
+        await(harness.profileService.load(player));
+        when(harness.economyService.depositSilver(any(), anyDouble(), anyString())).thenReturn(false);
+        assertEquals(ClaimResult.ERROR, await(harness.bankService.claimWeekly(player)));
+        harness.drain();
+        assertFalse(harness.bankService.hasClaimedWeekly(player));
+
+        when(harness.economyService.depositSilver(any(), anyDouble(), anyString())).thenReturn(true);
+        assertEquals(ClaimResult.SUCCESS, await(harness.bankService.claimWeekly(player)));
+    }
+
+    @Test
+    void monthlyDaysPayOnceAndOnlyUpToToday() {
+        await(harness.profileService.load(player));
+        LocalDate earlier = START_DATE.withDayOfMonth(1);
+
+        assertEquals(MonthlyClaimResult.SUCCESS, await(harness.bankService.claimMonthlyDay(player, START_DATE)));
+        assertEquals(MonthlyClaimResult.ALREADY_CLAIMED, await(harness.bankService.claimMonthlyDay(player, START_DATE)));
+        assertEquals(MonthlyClaimResult.SUCCESS, await(harness.bankService.claimMonthlyDay(player, earlier)));
+        assertEquals(MonthlyClaimResult.LOCKED, await(harness.bankService.claimMonthlyDay(player, START_DATE.plusDays(1))));
+        assertEquals(MonthlyClaimResult.LOCKED, await(harness.bankService.claimMonthlyDay(player, START_DATE.minusMonths(1))));
+
+        assertTrue(harness.bankService.hasClaimedMonthlyDay(player, START_DATE));
+        assertTrue(harness.bankService.hasClaimedMonthlyDay(player, earlier));
+        assertFalse(harness.bankService.hasClaimedMonthlyDay(player, START_DATE.minusDays(1)));
+        verify(harness.economyService).depositSilver(player, RANK.getMonthlyAmount(START_DATE.getDayOfMonth()), "monthly-bank");
+        verify(harness.economyService).depositSilver(player, RANK.getMonthlyAmount(1), "monthly-bank");
+    }
+
+    @Test
+    void failedMonthlyDepositClearsTheDay() {
+        await(harness.profileService.load(player));
+        when(harness.economyService.depositSilver(any(), anyDouble(), anyString())).thenReturn(false);
+        assertEquals(MonthlyClaimResult.ERROR, await(harness.bankService.claimMonthlyDay(player, START_DATE)));
+        harness.drain();
+        assertFalse(harness.bankService.hasClaimedMonthlyDay(player, START_DATE));
+
+        when(harness.economyService.depositSilver(any(), anyDouble(), anyString())).thenReturn(true);
+        assertEquals(MonthlyClaimResult.SUCCESS, await(harness.bankService.claimMonthlyDay(player, START_DATE)));
+    }
+
+    @Test
+    void failedWeeklyCommitIsAnErrorAndPaysNothing() {
+        await(harness.profileService.load(player));
+        harness.database.setFailureRate(1.0);
+
+        assertEquals(ClaimResult.ERROR, await(harness.bankService.claimWeekly(player)));
+        assertFalse(harness.bankService.hasClaimedWeekly(player));
+        verify(harness.economyService, never()).depositSilver(any(), anyDouble(), anyString());
+
+        harness.database.setFailureRate(0.0);
+        assertEquals(ClaimResult.SUCCESS, await(harness.bankService.claimWeekly(player)));
+    }
+
+    @Test
+    void failedMonthlyCommitIsAnErrorAndPaysNothing() {
+        await(harness.profileService.load(player));
+        harness.database.setFailureRate(1.0);
+
+        assertEquals(MonthlyClaimResult.ERROR, await(harness.bankService.claimMonthlyDay(player, START_DATE)));
+        assertFalse(harness.bankService.hasClaimedMonthlyDay(player, START_DATE));
+        verify(harness.economyService, never()).depositSilver(any(), anyDouble(), anyString());
+
+        harness.database.setFailureRate(0.0);
+        assertEquals(MonthlyClaimResult.SUCCESS, await(harness.bankService.claimMonthlyDay(player, START_DATE)));
+    }
+
+    @Test
+    void displayReadsWithoutAProfileStartALoadInsteadOfReadingStorage() {
+        assertEquals(ClaimResult.SUCCESS, await(harness.bankService.claimWeekly(player)));
+        harness.drain();
+
+        // Not cached yet: a neutral answer on the server thread while the profile loads
+        assertFalse(harness.bankService.hasClaimedWeekly(player));
+        assertEquals(0, harness.bankService.getMonthlyClaimMask(player, START_DATE));
+        harness.drain();
+        await(CompletableFuture.runAsync(() -> { }, harness.mainThread));
+
+        assertTrue(harness.bankService.hasClaimedWeekly(player));
+    }
+
+    @Test
+    void playerWithoutRankCannotClaim() {
+        when(harness.rankService.detectRank(any())).thenReturn(null);
+
+        assertEquals(ClaimResult.NO_RANK, await(harness.bankService.claimWeekly(player)));
+        assertEquals(MonthlyClaimResult.NO_RANK, await(harness.bankService.claimMonthlyDay(player, START_DATE)));
+    }
+}
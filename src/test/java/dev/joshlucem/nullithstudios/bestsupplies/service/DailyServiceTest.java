@@ -0,0 +1,206 @@
+package dev.joshlucem.nullithstudios.bestsupplies.service;
+
+import dev.joshlucem.nullithstudios.bestsupplies.service.DailyService.ClaimResult;
+import dev.joshlucem.nullithstudios.bestsupplies.storage.MemoryDatabase;
+import dev.joshlucem.nullithstudios.bestsupplies.util.ManualClock;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static dev.joshlucem.nullithstudios.bestsupplies.service.ServiceHarness.DAILY_REWARD;
+import static dev.joshlucem.nullithstudios.bestsupplies.service.ServiceHarness.await;
+import static dev.joshlucem.nullithstudios.bestsupplies.service.ServiceHarness.player;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DailyServiceTest {
+
+    private ServiceHarness harness;
+    private Player player;
+
+    @BeforeEach
+    void setUp() {
+        harness = ServiceHarness.create();
+        player = player("Alex");
+    }
+
+    @AfterEach
+    void tearDown() {
+        harness.close();
+    }
+
+    @Test
+    void secondClaimOnTheSameDayIsRejected() {
+        assertEquals(ClaimResult.SUCCESS, await(harness.dailyService.claimDaily(player)));
+        assertEquals(ClaimResult.ALREADY_CLAIMED, await(harness.dailyService.claimDaily(player)));
+
+        verify(harness.rewardService, times(1)).giveDailyReward(player, DAILY_REWARD, 1);
+    }
+
+    @Test
+    void streakGrowsOnConsecutiveDaysAndRestartsAfterAGap() {
+        assertEquals(ClaimResult.SUCCESS, await(harness.dailyService.claimDaily(player)));
+        harness.clock.advance(Duration.ofDays(1));
+        assertEquals(ClaimResult.SUCCESS, await(harness.dailyService.claimDaily(player)));
+        assertEquals(2, storedStreak());
+
+        harness.clock.advance(Duration.ofDays(2));
+        assertEquals(ClaimResult.SUCCESS, await(harness.dailyService.claimDaily(player)));
+        assertEquals(1, storedStreak());
+
+        verify(harness.rewardService).giveDailyReward(player, DAILY_REWARD, 2);
+        verify(harness.rewardService, times(2)).giveDailyReward(player, DAILY_REWARD, 1);
+    }
+
+    @Test
+    void missedDayResetsTheStreakOnJoin() {
+        assertEquals(ClaimResult.SUCCESS, await(harness.dailyService.claimDaily(player)));
+        harness.clock.advance(Duration.ofDays(2));
+
+        await(harness.dailyService.checkAndUpdateStreak(player));
+
+        assertEquals(0, storedStreak());
+    }
+
+    @Test
+    void loadedProfileAnswersFromCache() {
+        await(harness.profileService.load(player));
+        assertFalse(harness.dailyService.hasClaimedToday(player));
+
+        assertEquals(ClaimResult.SUCCESS, await(harness.dailyService.claimDaily(player)));
+
+        assertTrue(harness.dailyService.hasClaimedToday(player));
+        assertEquals(1, harness.dailyService.getStreak(player));
+        // Rejected from the cached profile before any storage task is queued
+        assertEquals(ClaimResult.ALREADY_CLAIMED, harness.dailyService.claimDaily(player).getNow(null));
+    }
+
+    @Test
+    void failedCommitIsAnErrorAndLeavesTheClaimOpen() {
+        await(harness.profileService.load(player));
+        harness.database.setFailureRate(1.0);
+
+        assertEquals(ClaimResult.ERROR, await(harness.dailyService.claimDaily(player)));
+        assertFalse(harness.dailyService.hasClaimedToday(player));
+        verify(harness.rewardService, never()).giveDailyReward(any(), any(), anyInt());
+
+        harness.database.setFailureRate(0.0);
+        assertEquals(ClaimResult.SUCCESS, await(harness.dailyService.claimDaily(player)));
+        verify(harness.rewardService).giveDailyReward(player, DAILY_REWARD, 1);
+    }
+
+    @Test
+    void fullStorageQueueRejectsTheClaimInsteadOfRunningItOnTheCaller() {
+        CountDownLatch release = new CountDownLatch(1);
+        List<CompletableFuture<Void>> queued = new ArrayList<>();
+        // One task holds the only storage thread and the rest fill the queue
+        for (int i = 0; i < 1 + 256; i++) {
+            queued.add(harness.asyncDatabase.run(db -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        }
+
+        assertEquals(ClaimResult.ERROR, await(harness.dailyService.claimDaily(player)));
+        verify(harness.rewardService, never()).giveDailyReward(any(), any(), anyInt());
+
+        release.countDown();
+        queued.forEach(ServiceHarness::await);
+        assertEquals(ClaimResult.SUCCESS, await(harness.dailyService.claimDaily(player)));
+    }
+
+    @Test
+    void failedLeaseIsReportedAsInProgressAndWritesNothing() {
+        AtomicBoolean leaseStorageDown = new AtomicBoolean(true);
+        MemoryDatabase database = new MemoryDatabase(1L) {
+            @Override
+            public boolean acquireClaimLease(String playerUuid, String holder, long leaseMillis) {
+                return !leaseStorageDown.get() && super.acquireClaimLease(playerUuid, holder, leaseMillis);
+            }
+        };
+        ServiceHarness server = new ServiceHarness(database, ServiceHarness.newClock(), "server-1", true, 1);
+        try {
+            assertEquals(ClaimResult.IN_PROGRESS, await(server.dailyService.claimDaily(player)));
+            assertEquals(0, database.getPlayerState(player.getUniqueId().toString()).getStreak());
+            verify(server.rewardService, never()).giveDailyReward(any(), any(), anyInt());
+
+            leaseStorageDown.set(false);
+            assertEquals(ClaimResult.SUCCESS, await(server.dailyService.claimDaily(player)));
+        } finally {
+            server.close();
+        }
+    }
+
+    @Test
+    void concurrentClaimsAcrossServersPayOnce() {
+        MemoryDatabase database = new MemoryDatabase(7L);
+        database.setLatency(1, 3);
+        ManualClock clock = ServiceHarness.newClock();
+        List<ServiceHarness> servers = List.of(
+                new ServiceHarness(database, clock, "server-1", true, 4),
+                new ServiceHarness(database, clock, "server-2", true, 4));
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<CompletableFuture<ClaimResult>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                ServiceHarness server = servers.get(i % servers.size());
+                Player online = player("Alex");
+                results.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return server.dailyService.claimDaily(online);
+                }, callers).thenCompose(future -> future));
+            }
+            start.countDown();
+
+            long successes = results.stream().map(ServiceHarness::await).filter(ClaimResult.SUCCESS::equals).count();
+            assertEquals(1, successes);
+            long rewards = 0;
+            for (ServiceHarness server : servers) {
+                rewards += mockingDetails(server.rewardService).getInvocations().size();
+            }
+            assertEquals(1, rewards);
+            assertEquals(1, database.getPlayerState(player.getUniqueId().toString()).getStreak());
+        } finally {
+            callers.shutdownNow();
+            servers.forEach(ServiceHarness::close);
+        }
+    }
+
+    @Test
+    void noRewardConfiguredForTheDay() {
+        when(harness.configManager.getDailyReward(any())).thenReturn(null);
+
+        assertEquals(ClaimResult.NO_REWARD, await(harness.dailyService.claimDaily(player)));
+        verify(harness.rewardService, never()).giveDailyReward(any(), any(), anyInt());
+    }
+
+    private int storedStreak() {
+        return harness.database.getPlayerState(player.getUniqueId().toString()).getStreak();
+    }
+}
@@ -0,0 +1,92 @@
+package dev.joshlucem.nullithstudios.bestsupplies.service;
+
+import dev.joshlucem.nullithstudios.bestsupplies.service.FoodService.ClaimResult;
+import dev.joshlucem.nullithstudios.bestsupplies.service.FoodService.RationStatus;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static dev.joshlucem.nullithstudios.bestsupplies.service.ServiceHarness.BASIC_RATION;
+import static dev.joshlucem.nullithstudios.bestsupplies.service.ServiceHarness.OFFICER_RATION;
+import static dev.joshlucem.nullithstudios.bestsupplies.service.ServiceHarness.WELCOME_RATION;
+import static dev.joshlucem.nullithstudios.bestsupplies.service.ServiceHarness.await;
+import static dev.joshlucem.nullithstudios.bestsupplies.service.ServiceHarness.player;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FoodServiceTest {
+
+    private ServiceHarness harness;
+    private Player player;
+
+    @BeforeEach
+    void setUp() {
+        harness = ServiceHarness.create();
+        player = player("Alex");
+    }
+
+    @AfterEach
+    void tearDown() {
+        harness.close();
+    }
+
+    @Test
+    void cooldownBlocksUntilItEnds() {
+        await(harness.profileService.load(player));
+        assertEquals(ClaimResult.SUCCESS, await(harness.foodService.claimRation(player, BASIC_RATION.getId())));
+        assertEquals(ClaimResult.COOLDOWN, await(harness.foodService.claimRation(player, BASIC_RATION.getId())));
+        assertEquals(RationStatus.COOLDOWN, harness.foodService.getRationStatus(player, BASIC_RATION));
+
+        harness.clock.advance(Duration.ofMinutes(59));
+        assertEquals(ClaimResult.COOLDOWN, await(harness.foodService.claimRation(player, BASIC_RATION.getId())));
+        assertEquals(Duration.ofMinutes(1).toMillis(), harness.foodService.getTimeUntilAvailable(player, BASIC_RATION.getId()));
+
+        harness.clock.advance(Duration.ofMinutes(1));
+        assertEquals(RationStatus.READY, harness.foodService.getRationStatus(player, BASIC_RATION));
+        assertEquals(ClaimResult.SUCCESS, await(harness.foodService.claimRation(player, BASIC_RATION.getId())));
+
+        verify(harness.rewardService, times(2)).giveItemsOrPending(player, List.of());
+    }
+
+    @Test
+    void oneTimeRationNeverComesBack() {
+        await(harness.profileService.load(player));
+        assertEquals(ClaimResult.SUCCESS, await(harness.foodService.claimRation(player, WELCOME_RATION.getId())));
+
+        harness.clock.advance(Duration.ofDays(30));
+        assertEquals(ClaimResult.ALREADY_CLAIMED, await(harness.foodService.claimRation(player, WELCOME_RATION.getId())));
+        assertEquals(RationStatus.CLAIMED, harness.foodService.getRationStatus(player, WELCOME_RATION));
+    }
+
+    @Test
+    void failedCommitIsAnErrorAndLeavesTheRationReady() {
+        await(harness.profileService.load(player));
+        harness.database.setFailureRate(1.0);
+
+        assertEquals(ClaimResult.ERROR, await(harness.foodService.claimRation(player, BASIC_RATION.getId())));
+        assertEquals(RationStatus.READY, harness.foodService.getRationStatus(player, BASIC_RATION));
+        verify(harness.rewardService, never()).giveItemsOrPending(any(), any());
+
+        harness.database.setFailureRate(0.0);
+        assertEquals(ClaimResult.SUCCESS, await(harness.foodService.claimRation(player, BASIC_RATION.getId())));
+    }
+
+    @Test
+    void rationAboveThePlayerRankIsLocked() {
+        when(harness.rankService.isAtLeastRank(any(Player.class), anyInt())).thenReturn(false);
+
+        assertEquals(ClaimResult.LOCKED, await(harness.foodService.claimRation(player, OFFICER_RATION.getId())));
+        assertEquals(RationStatus.LOCKED, harness.foodService.getRationStatus(player, OFFICER_RATION));
+        assertEquals(ClaimResult.NOT_FOUND, await(harness.foodService.claimRation(player, "desconocida")));
+        verify(harness.rewardService, never()).giveItemsOrPending(any(), any());
+    }
+}
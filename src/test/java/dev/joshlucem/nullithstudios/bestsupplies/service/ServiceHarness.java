@@ -0,0 +1,167 @@
+package dev.joshlucem.nullithstudios.bestsupplies.service;
+
+import dev.joshlucem.nullithstudios.bestsupplies.BestSupplies;
+import dev.joshlucem.nullithstudios.bestsupplies.config.ConfigManager;
+import dev.joshlucem.nullithstudios.bestsupplies.model.DailyRewardDefinition;
+import dev.joshlucem.nullithstudios.bestsupplies.model.RankDefinition;
+import dev.joshlucem.nullithstudios.bestsupplies.model.RationDefinition;
+import dev.joshlucem.nullithstudios.bestsupplies.storage.AsyncDatabase;
+import dev.joshlucem.nullithstudios.bestsupplies.storage.MemoryDatabase;
+import dev.joshlucem.nullithstudios.bestsupplies.util.ManualClock;
+import org.bukkit.entity.Player;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The real daily, bank and food services of one server over a {@link MemoryDatabase} and a
+ * {@link ManualClock}. What needs a running server is mocked: the plugin, players, economy
+ * deposits, reward delivery and rank permissions. Results continue on a single thread that
+ * stands in for the server thread.
+ */
+final class ServiceHarness implements AutoCloseable {
+
+    static final ZoneId ZONE = ZoneId.of("America/Lima");
+    // A Wednesday at noon, away from the Monday 00:00 weekly reset
+    static final LocalDate START_DATE = LocalDate.of(2026, 3, 11);
+
+    static final DailyRewardDefinition DAILY_REWARD =
+            new DailyRewardDefinition(null, 100, 0, List.of(), List.of(), "Diaria", List.of());
+    static final RankDefinition RANK = new RankDefinition("soldado", List.of("bestsupplies.rank.soldado"), "Soldado",
+            500, 0, Map.of(), "user", 10, 5, Map.of());
+    static final RationDefinition BASIC_RATION = new RationDefinition("basica", 1, "BREAD", "Basica", List.of(),
+            false, 3_600_000L, null, List.of(), Map.of(), List.of(), Map.of(), 0);
+    static final RationDefinition WELCOME_RATION = new RationDefinition("bienvenida", 2, "CAKE", "Bienvenida", List.of(),
+            true, 0L, null, List.of(), Map.of(), List.of(), Map.of(), 0);
+    static final RationDefinition OFFICER_RATION = new RationDefinition("oficial", 3, "GOLDEN_APPLE", "Oficial", List.of(),
+            false, 3_600_000L, "capitan", List.of(), Map.of(), List.of(), Map.of(), 0);
+
+    final MemoryDatabase database;
+    final ManualClock clock;
+    final BestSupplies plugin = mock(BestSupplies.class);
+    final ConfigManager configManager = mock(ConfigManager.class);
+    final RankService rankService = mock(RankService.class);
+    final EconomyService economyService = mock(EconomyService.class);
+    final RewardService rewardService = mock(RewardService.class);
+    final PendingService pendingService = mock(PendingService.class);
+
+    final ExecutorService mainThread = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "Server thread"));
+    final AsyncDatabase asyncDatabase;
+    final TimeService timeService;
+    final ProfileService profileService;
+    final DailyService dailyService;
+    final BankService bankService;
+    final FoodService foodService;
+
+    /**
+     * One server with clustering disabled and a single storage thread, so writes run in order.
+     */
+    static ServiceHarness create() {
+        return new ServiceHarness(new MemoryDatabase(1L), newClock(), "server-1", false, 1);
+    }
+
+    static ManualClock newClock() {
+        Instant start = START_DATE.atTime(LocalTime.NOON).atZone(ZONE).toInstant();
+        return new ManualClock(start, ZONE);
+    }
+
+    /**
+     * A server sharing the given database and clock, as on a network.
+     */
+    ServiceHarness(MemoryDatabase database, ManualClock clock, String serverId, boolean cluster, int storageThreads) {
+        this.database = database;
+        this.clock = clock;
+
+        when(plugin.getName()).thenReturn("BestSupplies");
+        when(plugin.getLogger()).thenReturn(Logger.getLogger("BestSupplies"));
+        when(plugin.getRankService()).thenReturn(rankService);
+        when(plugin.getEconomyService()).thenReturn(economyService);
+
+        when(configManager.getTimezone()).thenReturn(ZONE);
+        when(configManager.getWeeklyResetDay()).thenReturn(DayOfWeek.MONDAY);
+        when(configManager.getWeeklyResetHour()).thenReturn(0);
+        when(configManager.getWeeklyResetMinute()).thenReturn(0);
+        when(configManager.getDailyReward(any())).thenReturn(DAILY_REWARD);
+        when(configManager.useChequeItem()).thenReturn(false);
+        when(configManager.getRations()).thenReturn(List.of(BASIC_RATION, WELCOME_RATION, OFFICER_RATION));
+        when(configManager.getRation(BASIC_RATION.getId())).thenReturn(BASIC_RATION);
+        when(configManager.getRation(WELCOME_RATION.getId())).thenReturn(WELCOME_RATION);
+        when(configManager.getRation(OFFICER_RATION.getId())).thenReturn(OFFICER_RATION);
+        when(configManager.getPrefix()).thenReturn("");
+        when(configManager.getMessage(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(configManager.getMessage(anyString(), anyMap())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(configManager.isClusterEnabled()).thenReturn(cluster);
+        when(configManager.getClusterServerId()).thenReturn(serverId);
+        when(configManager.getClusterLeaseMillis()).thenReturn(10_000L);
+
+        when(rankService.detectRank(any())).thenReturn(RANK);
+        when(rankService.detectRankId(any())).thenReturn(RANK.getId());
+        when(rankService.detectRankOrdinal(any())).thenReturn(0);
+        when(rankService.isAtLeastRank(any(Player.class), anyInt())).thenReturn(true);
+        when(rankService.getWeeklyMoney(any())).thenReturn(RANK.getWeeklyMoney());
+        when(economyService.depositSilver(any(), anyDouble(), anyString())).thenReturn(true);
+
+        this.asyncDatabase = new AsyncDatabase(plugin, database, storageThreads, 256, mainThread);
+        this.timeService = new TimeService(configManager, clock);
+        this.profileService = new ProfileService(plugin, asyncDatabase, timeService, new LoopbackChangeBus(serverId));
+        LeaseService leaseService = new LeaseService(configManager);
+        this.dailyService = new DailyService(plugin, asyncDatabase, configManager, timeService, rewardService,
+                profileService, leaseService);
+        this.bankService = new BankService(plugin, asyncDatabase, configManager, timeService, rankService,
+                rewardService, pendingService, profileService, leaseService);
+        this.foodService = new FoodService(plugin, asyncDatabase, configManager, timeService, rankService,
+                rewardService, profileService);
+    }
+
+    /**
+     * An online player; the same name always maps to the same UUID.
+     */
+    static Player player(String name) {
+        Player player = mock(Player.class);
+        when(player.getUniqueId()).thenReturn(UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8)));
+        when(player.getName()).thenReturn(name);
+        when(player.isOnline()).thenReturn(true);
+        return player;
+    }
+
+    static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get(10, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new AssertionError("La tarea no termino", e);
+        }
+    }
+
+    /**
+     * Wait until every storage task queued so far, including fire-and-forget writes, has run.
+     */
+    void drain() {
+        await(asyncDatabase.run(db -> { }));
+    }
+
+    @Override
+    public void close() {
+        asyncDatabase.shutdown();
+        mainThread.shutdownNow();
+    }
+}
@@ -0,0 +1,711 @@
+package dev.joshlucem.nullithstudios.bestsupplies.storage;
+
+import dev.joshlucem.nullithstudios.bestsupplies.model.ChequeData;
+import dev.joshlucem.nullithstudios.bestsupplies.model.PendingEntry;
+import dev.joshlucem.nullithstudios.bestsupplies.model.PlayerState;
+import dev.joshlucem.nullithstudios.bestsupplies.model.PlayerSupplyProfile;
+import dev.joshlucem.nullithstudios.bestsupplies.model.ProfileChange;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Predicate;
+
+/**
+ * Concurrent, non-persistent backend for service tests. Every call can be slowed down by a
+ * random latency and can fail at a configurable rate; a failed call behaves like an SQL
+ * error in the real backends: writes are dropped, reads return their empty value and
+ * guards return false.
+ *
+ * Claim guards, leases and cheque redemption are single atomic map operations, so they
+ * hold under the same concurrent callers as the conditional statements of the SQL backends.
+ * A batch from {@link #applyWrites(List)} is all-or-nothing with respect to injected
+ * failures, but not isolated from concurrent readers.
+ */
+public class MemoryDatabase implements Database {
+
+    private final Map<String, Rows> players = new ConcurrentHashMap<>();
+    private final Map<String, ChequeData> cheques = new ConcurrentHashMap<>();
+    private final Map<Integer, String> pendingOwners = new ConcurrentHashMap<>();
+    private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Long, StoredChange> changes = new ConcurrentSkipListMap<>();
+    private final AtomicInteger pendingIds = new AtomicInteger();
+    private final AtomicLong changeIds = new AtomicLong();
+
+    private final Random random;
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong injectedFailures = new AtomicLong();
+    private volatile long minLatencyNanos;
+    private volatile long maxLatencyNanos;
+    private volatile double failureRate;
+
+    public MemoryDatabase(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Every call waits a random time between the two bounds before it runs.
+     */
+    public void setLatency(long minMillis, long maxMillis) {
+        this.minLatencyNanos = Math.max(0L, minMillis) * 1_000_000L;
+        this.maxLatencyNanos = Math.max(minMillis, maxMillis) * 1_000_000L;
+    }
+
+    /**
+     * Fraction of calls, from 0 to 1, that fail as if the storage had thrown.
+     */
+    public void setFailureRate(double failureRate) {
+        this.failureRate = Math.max(0.0, Math.min(1.0, failureRate));
+    }
+
+    public long getCalls() {
+        return calls.get();
+    }
+
+    public long getInjectedFailures() {
+        return injectedFailures.get();
+    }
+
+    private boolean fails() {
+        calls.incrementAndGet();
+        long min = minLatencyNanos;
+        long max = maxLatencyNanos;
+        if (max > 0) {
+            LockSupport.parkNanos(max > min ? min + random.nextLong(max - min) : min);
+        }
+        if (failureRate > 0 && random.nextDouble() < failureRate) {
+            injectedFailures.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    private Rows rows(String playerUuid) {
+        return players.computeIfAbsent(playerUuid, key -> new Rows());
+    }
+
+    @Override
+    public void initialize() {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public PlayerState getPlayerState(String playerUuid) {
+        Rows rows = fails() ? null : players.get(playerUuid);
+        PlayerState state = rows != null ? rows.state : null;
+        return state != null ? state.copy() : new PlayerState(playerUuid);
+    }
+
+    @Override
+    public void savePlayerState(PlayerState state) {
+        if (!fails()) {
+            rows(state.getPlayerUuid()).state = state.copy();
+        }
+    }
+
+    @Override
+    public boolean applyWrites(List<BufferedWrite> writes) {
+        if (fails()) {
+            return false;
+        }
+        for (BufferedWrite write : writes) {
+            Rows rows = rows(write.getPlayerUuid());
+            switch (write.getType()) {
+                case PLAYER_STATE -> rows.state = write.getState().copy();
+                case DAILY_CLAIM -> rows.daily.put(write.getKey(), write.isClaimed());
+                case WEEKLY_CLAIM -> rows.weekly.put(write.getKey(), write.isClaimed());
+                case WEEKLY_RESET -> rows.weekly.remove(write.getKey());
+                case MONTHLY_MASK -> rows.monthly.merge(write.getKey(), write.getSetBits(),
+                        (mask, bits) -> write.applyMask(mask));
+                case FOOD_CLAIM -> rows.food.put(write.getKey(), write.getValue());
+                case FOOD_RESET -> rows.food.remove(write.getKey());
+                case FOOD_RESET_ALL -> rows.food.clear();
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public PlayerSupplyProfile loadSupplyProfile(String playerUuid, String fromDate) {
+        if (fails()) {
+            return null;
+        }
+        Rows rows = players.get(playerUuid);
+        PlayerState state = rows != null && rows.state != null ? rows.state.copy() : new PlayerState(playerUuid);
+        PlayerSupplyProfile profile = new PlayerSupplyProfile(playerUuid, fromDate, state);
+        if (rows == null) {
+            return profile;
+        }
+
+        // Keys sort chronologically as text; a weekly period key of a day sorts after the plain date
+        rows.daily.forEach((date, claimed) -> {
+            if (claimed && date.compareTo(fromDate) >= 0) {
+                profile.setDailyClaim(date, true);
+            }
+        });
+        rows.weekly.forEach((period, claimed) -> {
+            if (claimed && period.compareTo(fromDate) >= 0) {
+                profile.setWeeklyClaim(period, true);
+            }
+        });
+        String fromMonth = fromDate.substring(0, 7);
+        rows.monthly.forEach((month, mask) -> {
+            if (month.compareTo(fromMonth) >= 0) {
+                profile.setMonthlyClaimMask(month, mask);
+            }
+        });
+        rows.food.forEach(profile::setFoodClaimNextAt);
+        profile.setPendingCount(rows.pending.size());
+        return profile;
+    }
+
+    @Override
+    public boolean hasDailyClaim(String playerUuid, String date) {
+        Rows rows = fails() ? null : players.get(playerUuid);
+        return rows != null && rows.daily.getOrDefault(date, false);
+    }
+
+    @Override
+    public void setDailyClaim(String playerUuid, String date, boolean claimed) {
+        if (!fails()) {
+            rows(playerUuid).daily.put(date, claimed);
+        }
+    }
+
+    @Override
+    public boolean hasWeeklyClaim(String playerUuid, String weekKey) {
+        Rows rows = fails() ? null : players.get(playerUuid);
+        return rows != null && rows.weekly.getOrDefault(weekKey, false);
+    }
+
+    @Override
+    public void setWeeklyClaim(String playerUuid, String weekKey, boolean claimed) {
+        if (!fails()) {
+            rows(playerUuid).weekly.put(weekKey, claimed);
+        }
+    }
+
+    @Override
+    public void resetWeeklyClaim(String playerUuid, String weekKey) {
+        if (!fails()) {
+            rows(playerUuid).weekly.remove(weekKey);
+        }
+    }
+
+    @Override
+    public int getMonthlyClaimMask(String playerUuid, String month) {
+        Rows rows = fails() ? null : players.get(playerUuid);
+        return rows == null ? 0 : rows.monthly.getOrDefault(month, 0);
+    }
+
+    @Override
+    public void updateMonthlyClaimMask(String playerUuid, String month, int setBits, int clearBits) {
+        if (!fails()) {
+            rows(playerUuid).monthly.merge(month, setBits, (mask, bits) -> (mask & ~clearBits) | setBits);
+        }
+    }
+
+    @Override
+    public ClaimUnit.Outcome commitClaim(ClaimUnit unit) {
+        if (fails()) {
+            return ClaimUnit.Outcome.FAILED;
+        }
+        Rows rows = rows(unit.getPlayerUuid());
+        boolean claimed = switch (unit.getGuard()) {
+            case DAILY -> !Boolean.TRUE.equals(rows.daily.put(unit.getKey(), Boolean.TRUE));
+            case WEEKLY -> !Boolean.TRUE.equals(rows.weekly.put(unit.getKey(), Boolean.TRUE));
+            case MONTHLY_DAY -> {
+                int[] before = new int[1];
+                rows.monthly.merge(unit.getKey(), unit.getDayBit(), (mask, bit) -> {
+                    before[0] = mask;
+                    return mask | bit;
+                });
+                yield (before[0] & unit.getDayBit()) == 0;
+            }
+            case FOOD -> {
+                boolean[] started = new boolean[1];
+                rows.food.compute(unit.getKey(), (packId, nextAt) -> {
+                    if (nextAt != null && nextAt > unit.getNow()) {
+                        return nextAt;
+                    }
+                    started[0] = true;
+                    return unit.getNextClaimAt();
+                });
+                yield started[0];
+            }
+        };
+        if (claimed && unit.getState() != null) {
+            rows.state = unit.getState().copy();
+        }
+        ChequeData cheque = unit.getCheque();
+        if (claimed && cheque != null) {
+            cheques.put(cheque.getChequeId(), copy(cheque, cheque.isRedeemed(), cheque.getRedeemedAt()));
+        }
+        return claimed ? ClaimUnit.Outcome.CLAIMED : ClaimUnit.Outcome.TAKEN;
+    }
+
+    @Override
+    public boolean acquireClaimLease(String playerUuid, String holder, long leaseMillis) {
+        if (fails()) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        boolean[] acquired = new boolean[1];
+        leases.compute(playerUuid, (key, lease) -> {
+            if (lease != null && lease.expiresAt() >= now) {
+                return lease;
+            }
+            acquired[0] = true;
+            return new Lease(holder, now + leaseMillis);
+        });
+        return acquired[0];
+    }
+
+    @Override
+    public void releaseClaimLease(String playerUuid, String holder) {
+        if (!fails()) {
+            leases.computeIfPresent(playerUuid, (key, lease) -> lease.holder().equals(holder) ? null : lease);
+        }
+    }
+
+    @Override
+    public void appendProfileChanges(List<ProfileChange> batch) {
+        if (batch.isEmpty() || fails()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        // Ids must become visible in order, as they do for readers of the SQL table after commit
+        synchronized (changes) {
+            for (ProfileChange change : batch) {
+                long id = changeIds.incrementAndGet();
+                changes.put(id, new StoredChange(new ProfileChange(id, change.getServerId(), change.getPlayerUuid(),
+                        change.getKind(), change.getKey(), change.getValue()), now));
+            }
+        }
+    }
+
+    @Override
+    public List<ProfileChange> readProfileChanges(long afterId, int limit) {
+        List<ProfileChange> result = new ArrayList<>();
+        if (fails()) {
+            return result;
+        }
+        for (StoredChange stored : changes.tailMap(afterId, false).values()) {
+            if (result.size() >= limit) {
+                break;
+            }
+            result.add(stored.change());
+        }
+        return result;
+    }
+
+    @Override
+    public long getLastProfileChangeId() {
+        return fails() || changes.isEmpty() ? 0L : changes.lastKey();
+    }
+
+    @Override
+    public int purgeProfileChanges(long createdBefore, int limit) {
+        return fails() ? 0 : removeUpTo(changes, stored -> stored.createdAt() < createdBefore, limit);
+    }
+
+    @Override
+    public long getFoodClaimNextAt(String playerUuid, String packId) {
+        Rows rows = fails() ? null : players.get(playerUuid);
+        return rows == null ? 0L : rows.food.getOrDefault(packId, 0L);
+    }
+
+    @Override
+    public void setFoodClaimNextAt(String playerUuid, String packId, long nextClaimAt) {
+        if (!fails()) {
+            rows(playerUuid).food.put(packId, nextClaimAt);
+        }
+    }
+
+    @Override
+    public void resetFoodClaim(String playerUuid, String packId) {
+        if (!fails()) {
+            rows(playerUuid).food.remove(packId);
+        }
+    }
+
+    @Override
+    public void resetAllFoodClaims(String playerUuid) {
+        if (!fails()) {
+            rows(playerUuid).food.clear();
+        }
+    }
+
+    @Override
+    public void saveCheque(ChequeData cheque) {
+        if (!fails()) {
+            cheques.put(cheque.getChequeId(), copy(cheque, cheque.isRedeemed(), cheque.getRedeemedAt()));
+        }
+    }
+
+    @Override
+    public ChequeData getCheque(String chequeId) {
+        ChequeData cheque = fails() || chequeId == null ? null : cheques.get(chequeId);
+        return cheque != null ? copy(cheque, cheque.isRedeemed(), cheque.getRedeemedAt()) : null;
+    }
+
+    @Override
+    public boolean redeemCheque(String chequeId, long redeemedAt) {
+        if (fails() || chequeId == null) {
+            return false;
+        }
+        boolean[] flipped = new boolean[1];
+        cheques.computeIfPresent(chequeId, (key, cheque) -> {
+            if (cheque.isRedeemed()) {
+                return cheque;
+            }
+            flipped[0] = true;
+            return copy(cheque, true, redeemedAt);
+        });
+        return flipped[0];
+    }
+
+    private static ChequeData copy(ChequeData cheque, boolean redeemed, long redeemedAt) {
+        return new ChequeData(cheque.getChequeId(), cheque.getPlayerUuid(), cheque.getWeekKey(), cheque.getAmount(),
+                redeemed, redeemedAt);
+    }
+
+    @Override
+    public int addPending(String playerUuid, PendingEntry.PendingType type, String payload) {
+        if (fails()) {
+            return -1;
+        }
+        int id = pendingIds.incrementAndGet();
+        pendingOwners.put(id, playerUuid);
+        rows(playerUuid).pending.put(id, new PendingEntry(id, playerUuid, type, payload, System.currentTimeMillis()));
+        return id;
+    }
+
+    @Override
+    public List<PendingEntry> getPendingEntries(String playerUuid) {
+        Rows rows = fails() ? null : players.get(playerUuid);
+        List<PendingEntry> entries = rows == null ? new ArrayList<>() : new ArrayList<>(rows.pending.values());
+        entries.sort(Comparator.comparingLong(PendingEntry::getCreatedAt).thenComparingInt(PendingEntry::getId));
+        return entries;
+    }
+
+    @Override
+    public void removePending(int id) {
+        if (fails()) {
+            return;
+        }
+        String owner = pendingOwners.remove(id);
+        if (owner != null) {
+            rows(owner).pending.remove(id);
+        }
+    }
+
+    @Override
+    public int getPendingCount(String playerUuid) {
+        Rows rows = fails() ? null : players.get(playerUuid);
+        return rows == null ? 0 : rows.pending.size();
+    }
+
+    @Override
+    public boolean applyPendingChanges(Map<Integer, String> payloads, Set<Integer> removedIds) {
+        if (fails()) {
+            return false;
+        }
+        payloads.forEach((id, payload) -> {
+            String owner = pendingOwners.get(id);
+            if (owner != null) {
+                rows(owner).pending.computeIfPresent(id, (key, entry) -> new PendingEntry(id, owner, entry.getType(),
+                        payload, entry.getCreatedAt()));
+            }
+        });
+        for (int id : removedIds) {
+            String owner = pendingOwners.remove(id);
+            if (owner != null) {
+                rows(owner).pending.remove(id);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int purgeDailyClaims(String beforeDate, int limit) {
+        return purgePlayers((rows, remaining) -> removeKeysUpTo(rows.daily, date -> date.compareTo(beforeDate) < 0, remaining), limit);
+    }
+
+    @Override
+    public int purgeWeeklyClaims(String beforeDate, int limit) {
+        return purgePlayers((rows, remaining) -> removeKeysUpTo(rows.weekly, period -> period.compareTo(beforeDate) < 0, remaining), limit);
+    }
+
+    @Override
+    public int purgeMonthlyClaims(String beforeMonth, int limit) {
+        return purgePlayers((rows, remaining) -> removeKeysUpTo(rows.monthly, month -> month.compareTo(beforeMonth) < 0, remaining), limit);
+    }
+
+    @Override
+    public int purgeRedeemedCheques(long redeemedBefore, int limit) {
+        return fails() ? 0 : removeUpTo(cheques,
+                cheque -> cheque.isRedeemed() && cheque.getRedeemedAt() < redeemedBefore, limit);
+    }
+
+    @Override
+    public int purgePending(long createdBefore, int limit) {
+        if (fails()) {
+            return 0;
+        }
+        int removed = 0;
+        for (Rows rows : players.values()) {
+            Iterator<PendingEntry> it = rows.pending.values().iterator();
+            while (it.hasNext() && removed < limit) {
+                PendingEntry entry = it.next();
+                if (entry.getCreatedAt() < createdBefore) {
+                    it.remove();
+                    pendingOwners.remove(entry.getId());
+                    removed++;
+                }
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public int bulkReset(BulkReset reset, int limit) {
+        if (fails()) {
+            return -1;
+        }
+        Iterable<String> candidates = reset.getPlayers() != null ? reset.getPlayers() : players.keySet();
+        int changed = 0;
+        for (String playerUuid : candidates) {
+            if (changed >= limit) {
+                break;
+            }
+            Rows rows = players.get(playerUuid);
+            PlayerState state = rows != null ? rows.state : null;
+            if (rows == null || (reset.getRankId() != null
+                    && (state == null || !reset.getRankId().equals(state.getLastRank())))) {
+                continue;
+            }
+            boolean hit = switch (reset.getType()) {
+                case DAILY -> rows.daily.replace(reset.getKey(), true, false);
+                case MONTHLY_DAY -> {
+                    Integer mask = rows.monthly.get(reset.getKey());
+                    yield mask != null && (mask & reset.getDayBit()) != 0
+                            && rows.monthly.replace(reset.getKey(), mask, mask & ~reset.getDayBit());
+                }
+                case FOOD -> rows.food.remove(reset.getKey()) != null;
+                case FOOD_ALL -> {
+                    boolean any = !rows.food.isEmpty();
+                    rows.food.clear();
+                    yield any;
+                }
+            };
+            if (hit) {
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    private int purgePlayers(RowsPurge purge, int limit) {
+        if (fails()) {
+            return 0;
+        }
+        int removed = 0;
+        for (Rows rows : players.values()) {
+            if (removed >= limit) {
+                break;
+            }
+            removed += purge.apply(rows, limit - removed);
+        }
+        return removed;
+    }
+
+    private static <K> int removeKeysUpTo(Map<K, ?> map, Predicate<K> expired, int limit) {
+        int removed = 0;
+        Iterator<K> it = map.keySet().iterator();
+        while (it.hasNext() && removed < limit) {
+            if (expired.test(it.next())) {
+                it.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    private static <V> int removeUpTo(Map<?, V> map, Predicate<V> expired, int limit) {
+        int removed = 0;
+        Iterator<V> it = map.values().iterator();
+        while (it.hasNext() && removed < limit) {
+            if (expired.test(it.next())) {
+                it.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public long reclaimSpace(int maxPages) {
+        return 0L;
+    }
+
+    @Override
+    public long compactFully() {
+        return -1L;
+    }
+
+    @Override
+    public long backupTo(Path target) {
+        return -1L;
+    }
+
+    @Override
+    public long exportTable(DataTable table, DataFile.Writer out) throws IOException {
+        if (fails()) {
+            return -1;
+        }
+        out.beginTable(table);
+        long rows = 0;
+        if (table == DataTable.CHEQUES) {
+            for (ChequeData cheque : cheques.values()) {
+                String weekKey = cheque.getWeekKey();
+                out.writeRow(new Object[]{StorageKeys.uuid(cheque.getChequeId()), StorageKeys.uuid(cheque.getPlayerUuid()),
+                        weekKey == null || weekKey.isEmpty() ? null : StorageKeys.epochMinute(weekKey),
+                        cheque.getAmount(), cheque.isRedeemed() ? 1 : 0, cheque.getRedeemedAt()});
+                rows++;
+            }
+            return rows;
+        }
+
+        for (Map.Entry<String, Rows> entry : players.entrySet()) {
+            byte[] id = StorageKeys.uuid(entry.getKey());
+            List<Object[]> playerRows = new ArrayList<>();
+            Rows data = entry.getValue();
+            switch (table) {
+                case PLAYER_STATE -> {
+                    PlayerState state = data.state;
+                    if (state != null) {
+                        playerRows.add(new Object[]{id, state.getStreak(), epochDay(state.getLastDailyDate()),
+                                epochDay(state.getLastSeenDate()), state.getLastRank()});
+                    }
+                }
+                case DAILY_CLAIMS -> data.daily.forEach((date, claimed) ->
+                        playerRows.add(new Object[]{id, StorageKeys.epochDay(date), claimed ? 1 : 0}));
+                case WEEKLY_CLAIMS -> data.weekly.forEach((period, claimed) ->
+                        playerRows.add(new Object[]{id, StorageKeys.epochMinute(period), claimed ? 1 : 0}));
+                case MONTHLY_CLAIMS -> data.monthly.forEach((month, mask) ->
+                        playerRows.add(new Object[]{id, StorageKeys.epochMonth(month), mask}));
+                case FOOD_CLAIMS -> data.food.forEach((pack, next) -> playerRows.add(new Object[]{id, pack, next}));
+                case PENDING -> {
+                    for (PendingEntry pending : data.pending.values()) {
+                        playerRows.add(new Object[]{pending.getId(), id, pending.getType().name(), pending.getPayload(),
+                                pending.getCreatedAt()});
+                    }
+                }
+                default -> {
+                }
+            }
+            for (Object[] row : playerRows) {
+                out.writeRow(row);
+            }
+            rows += playerRows.size();
+        }
+        return rows;
+    }
+
+    private static Integer epochDay(String dateKey) {
+        return dateKey == null || dateKey.isEmpty() ? null : StorageKeys.epochDay(dateKey);
+    }
+
+    @Override
+    public int importRows(DataTable table, List<Object[]> batch) {
+        if (fails()) {
+            return -1;
+        }
+        int inserted = 0;
+        for (Object[] row : batch) {
+            if (importRow(table, row)) {
+                inserted++;
+            }
+        }
+        return inserted;
+    }
+
+    private boolean importRow(DataTable table, Object[] row) {
+        if (table == DataTable.CHEQUES) {
+            String chequeId = StorageKeys.uuid((byte[]) row[0]);
+            String weekKey = row[2] == null ? null : StorageKeys.periodKey((Integer) row[2]);
+            return cheques.putIfAbsent(chequeId, new ChequeData(chequeId, StorageKeys.uuid((byte[]) row[1]), weekKey,
+                    (Double) row[3], (Integer) row[4] == 1, row[5] == null ? 0L : (Long) row[5])) == null;
+        }
+        if (table == DataTable.PENDING) {
+            int id = (Integer) row[0];
+            String owner = StorageKeys.uuid((byte[]) row[1]);
+            if (pendingOwners.putIfAbsent(id, owner) != null) {
+                return false;
+            }
+            PendingEntry.PendingType type;
+            try {
+                type = PendingEntry.PendingType.valueOf((String) row[2]);
+            } catch (Exception e) {
+                type = PendingEntry.PendingType.ITEM;
+            }
+            rows(owner).pending.put(id, new PendingEntry(id, owner, type, (String) row[3], (Long) row[4]));
+            pendingIds.accumulateAndGet(id, Math::max);
+            return true;
+        }
+
+        String playerUuid = StorageKeys.uuid((byte[]) row[0]);
+        Rows rows = rows(playerUuid);
+        return switch (table) {
+            case PLAYER_STATE -> {
+                if (rows.state != null) {
+                    yield false;
+                }
+                rows.state = new PlayerState(playerUuid, (Integer) row[1],
+                        row[2] == null ? null : StorageKeys.dateKey((Integer) row[2]),
+                        row[3] == null ? null : StorageKeys.dateKey((Integer) row[3]), (String) row[4]);
+                yield true;
+            }
+            case DAILY_CLAIMS -> rows.daily.putIfAbsent(StorageKeys.dateKey((Integer) row[1]), (Integer) row[2] == 1) == null;
+            case WEEKLY_CLAIMS -> rows.weekly.putIfAbsent(StorageKeys.periodKey((Integer) row[1]), (Integer) row[2] == 1) == null;
+            case MONTHLY_CLAIMS -> rows.monthly.putIfAbsent(StorageKeys.monthKey((Integer) row[1]), (Integer) row[2]) == null;
+            case FOOD_CLAIMS -> rows.food.putIfAbsent((String) row[1], (Long) row[2]) == null;
+            default -> false;
+        };
+    }
+
+    @FunctionalInterface
+    private interface RowsPurge {
+        int apply(Rows rows, int limit);
+    }
+
+    private static final class Rows {
+        private volatile PlayerState state;
+        private final Map<String, Boolean> daily = new ConcurrentHashMap<>();
+        private final Map<String, Boolean> weekly = new ConcurrentHashMap<>();
+        private final Map<String, Integer> monthly = new ConcurrentHashMap<>();
+        private final Map<String, Long> food = new ConcurrentHashMap<>();
+        private final Map<Integer, PendingEntry> pending = new ConcurrentHashMap<>();
+    }
+
+    private record Lease(String holder, long expiresAt) {
+    }
+
+    private record StoredChange(ProfileChange change, long createdAt) {
+    }
+}
@@ -0,0 +1,138 @@
+package dev.joshlucem.nullithstudios.bestsupplies.storage;
+
+import dev.joshlucem.nullithstudios.bestsupplies.BestSupplies;
+import dev.joshlucem.nullithstudios.bestsupplies.model.PlayerState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class WriteBehindDatabaseTest {
+
+    private static final String BAD_PLAYER = new UUID(0L, 13L).toString();
+
+    // Rejects every batch that contains a write for BAD_PLAYER, like a row the backend cannot store
+    private final MemoryDatabase delegate = new MemoryDatabase(1L) {
+        @Override
+        public boolean applyWrites(List<BufferedWrite> writes) {
+            for (BufferedWrite write : writes) {
+                if (write.getPlayerUuid().equals(BAD_PLAYER)) {
+                    return false;
+                }
+            }
+            return super.applyWrites(writes);
+        }
+    };
+    private BestSupplies plugin;
+    private WriteBehindDatabase database;
+
+    @BeforeEach
+    void setUp() {
+        plugin = mock(BestSupplies.class);
+        when(plugin.getLogger()).thenReturn(Logger.getLogger("BestSupplies"));
+        // Not initialized, so nothing flushes unless the test asks
+        database = new WriteBehindDatabase(plugin, delegate, 500L, 1000);
+    }
+
+    @Test
+    void badWriteDoesNotHoldBackTheRest() {
+        database.savePlayerState(state(BAD_PLAYER, 1));
+        database.savePlayerState(state(player(1), 4));
+
+        database.flush();
+
+        assertEquals(4, delegate.getPlayerState(player(1)).getStreak());
+        assertEquals(1, database.getBufferedCount());
+    }
+
+    @Test
+    void badWriteIsDroppedAfterRepeatedFailures() {
+        database.savePlayerState(state(BAD_PLAYER, 1));
+        for (int flush = 1; flush <= 5; flush++) {
+            database.savePlayerState(state(player(flush), flush));
+            database.flush();
+        }
+
+        assertEquals(0, database.getBufferedCount());
+        assertEquals(5, delegate.getPlayerState(player(5)).getStreak());
+    }
+
+    @Test
+    void writesSurviveAStorageOutage() {
+        for (int i = 0; i < 10; i++) {
+            database.savePlayerState(state(player(i), i + 1));
+        }
+        delegate.setFailureRate(1.0);
+        for (int flush = 0; flush < 20; flush++) {
+            database.flush();
+        }
+        assertEquals(10, database.getBufferedCount());
+
+        delegate.setFailureRate(0.0);
+        database.flush();
+
+        assertEquals(0, database.getBufferedCount());
+        assertEquals(10, delegate.getPlayerState(player(9)).getStreak());
+    }
+
+    @Test
+    void monthlyMaskKeepsAFlushThatFinishesDuringTheRead() throws Exception {
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<CompletableFuture<Void>> flush = new AtomicReference<>();
+        // The stored mask is read while the flush is still applying, and the flush finishes
+        // before the read returns: the write is in neither the stored value nor the buffer
+        MemoryDatabase slow = new MemoryDatabase(1L) {
+            @Override
+            public boolean applyWrites(List<BufferedWrite> writes) {
+                flushing.countDown();
+                await(release);
+                return super.applyWrites(writes);
+            }
+
+            @Override
+            public int getMonthlyClaimMask(String playerUuid, String month) {
+                int mask = super.getMonthlyClaimMask(playerUuid, month);
+                release.countDown();
+                flush.get().join();
+                return mask;
+            }
+        };
+        WriteBehindDatabase racing = new WriteBehindDatabase(plugin, slow, 500L, 1000);
+        racing.updateMonthlyClaimMask(player(1), "2026-03", 1 << 11, 0);
+
+        flush.set(CompletableFuture.runAsync(racing::flush));
+        await(flushing);
+
+        assertEquals(1 << 11, racing.getMonthlyClaimMask(player(1), "2026-03"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(10, TimeUnit.SECONDS)) {
+                throw new AssertionError("La escritura no avanzo");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError(e);
+        }
+    }
+
+    private static String player(int index) {
+        return new UUID(1L, index).toString();
+    }
+
+    private static PlayerState state(String playerUuid, int streak) {
+        return new PlayerState(playerUuid, streak, "2026-03-11", "2026-03-11", "soldado");
+    }
+}